@@ -115,7 +115,7 @@ public class MZTabCommandLine {
                 }
                 File inFile = new File(values[1].trim());
                 System.out.println("Begin check mztab file: " + inFile.getAbsolutePath());
-                new MZTabFileParser(inFile, out, level);
+                MZTabFileParser.validate(inFile, out, level);
             } else if (line.hasOption(convertOpt)) {
                 String[] values = line.getOptionValues(convertOpt);
                 File inFile = null;
@@ -0,0 +1,15 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+/**
+ * Decode the raw cell of a {@link MZTabRecord} which is loaded in lazy mode. The decoder SHOULD translate the
+ * cell and set the value into the record by {@link MZTabRecord#setValue(String, Object)} or the setter methods
+ * of the record.
+ *
+ * @see MZTabRecord#setLazyCells(java.util.Collection, MZTabCellDecoder)
+ */
+public interface MZTabCellDecoder {
+    /**
+     * Decode the cell at the logical position, and set the result into the record.
+     */
+    void decode(MZTabRecord record, String logicalPosition);
+}
@@ -0,0 +1,490 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.*;
+import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.*;
+
+/**
+ * Hand-written parsers for the small grammars which are embedded in the mzTab cells: parameters, modifications
+ * with their positions and neutral losses, spectra references and indexed elements. Every parser walks the cell
+ * with a single forward scan and no regular expression, and returns the same objects as the regular expression
+ * rules {@link MZTabUtils} applied before.
+ *
+ * @see MZTabUtils#parseParam(String)
+ * @see MZTabUtils#parseModificationList(Section, String)
+ * @see MZTabUtils#parseSpectraRefList(Metadata, String)
+ */
+public final class MZTabCellParser {
+    private static final String CHEMMOD = "CHEMMOD:";
+    private static final String MINUS_ENTITY = "&minus;";
+    private static final String MS_RUN = MetadataElement.MS_RUN + "[";
+
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    private static final String[] MODIFICATION_TYPES = {"MOD", "UNIMOD", "CHEMMOD", "SUBST"};
+
+    // cv param brackets of a modification: '-' is protected from the position split, '\t' is restored to ','
+    private static final String CV_MINUS_TAB = "-\t";
+    private static final String[] CV_MINUS_TAB_REPLACEMENT = {MINUS_ENTITY, ","};
+    private static final String COMMA_CHAR = ",";
+    private static final String[] COMMA_REPLACEMENT = {"\t"};
+    private static final String TAB_CHAR = "\t";
+    private static final String[] TAB_TO_COMMA = {","};
+    private static final String[] TAB_TO_MINUS = {"-"};
+
+    private MZTabCellParser() {
+    }
+
+    /**
+     * Parse [CV label, accession, name, value]. Commas between double quotes do not split the components.
+     *
+     * @see MZTabUtils#parseParam(String)
+     */
+    public static Param parseParam(String target) {
+        target = parseString(target);
+        if (target == null) {
+            return null;
+        }
+
+        int begin = target.indexOf('[') + 1;
+        int end = target.lastIndexOf(']');
+        if (end < begin) {
+            return null;
+        }
+
+        int quotes = 0;
+        for (int i = begin; i < end; i++) {
+            if (target.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+
+        // a comma splits the components when an even number of double quotes follows it.
+        int[] commas = new int[3];
+        int count = 0;
+        for (int i = begin; i < end; i++) {
+            char c = target.charAt(i);
+            if (c == '"') {
+                quotes--;
+            } else if (c == ',' && (quotes & 1) == 0) {
+                if (count == commas.length) {
+                    return null;
+                }
+                commas[count++] = i;
+            }
+        }
+        if (count != commas.length) {
+            return null;
+        }
+
+        String cvLabel = target.substring(begin, commas[0]).trim();
+        String accession = target.substring(commas[0] + 1, commas[1]).trim();
+
+        String name = target.substring(commas[1] + 1, commas[2]).trim();
+        if (name.contains("\"")) {  //We remove the escaping because it will be written back in the writer
+            name = removeDoubleQuotes(name);
+        }
+        if (isEmpty(name)) {
+            return null;
+        }
+
+        String value = target.substring(commas[2] + 1, end).trim();
+        if (value.contains("\"")) {  //We remove the escaping because it will be written back in the writer
+            value = removeDoubleQuotes(value);
+        }
+        if (isEmpty(value)) {
+            value = null;
+        }
+
+        if (isEmpty(cvLabel) && isEmpty(accession)) {
+            return new UserParam(name, value);
+        } else {
+            return new CVParam(cvLabel, accession, name, value);
+        }
+    }
+
+    /**
+     * Parse the comma separated modification list, commas inside the cv param brackets do not split the list.
+     *
+     * @see MZTabUtils#parseModificationList(Section, String)
+     */
+    public static SplitList<Modification> parseModificationList(Section section, String target) {
+        target = parseString(target);
+        SplitList<Modification> modList = new SplitList<Modification>(COMMA);
+
+        if (target == null) {
+            return modList;
+        }
+
+        if (target.equals("0")) {
+            modList.add(Modification.createNoModification(section));
+            return modList;
+        }
+
+        target = translateBrackets(target, COMMA_CHAR, COMMA_REPLACEMENT);
+        SplitList<String> list = parseStringList(COMMA, target);
+
+        Modification mod;
+        for (String item : list) {
+            mod = parseModification(section, item.trim());
+            if (mod == null) {
+                modList.clear();
+                break;
+            } else {
+                modList.add(mod);
+            }
+        }
+
+        return modList;
+    }
+
+    /**
+     * Parse {position}-{type}:{accession}|{neutral loss}, or {position}-{neutral loss cv param}.
+     *
+     * @see MZTabUtils#parseModification(Section, String)
+     */
+    public static Modification parseModification(Section section, String target) {
+        target = parseString(target);
+        if (target == null) {
+            return null;
+        }
+
+        // no modification
+        if (target.equals("0")) {
+            return Modification.createNoModification(section);
+        }
+
+        target = protectChemmodMinus(target);
+        target = translateBrackets(target, CV_MINUS_TAB, CV_MINUS_TAB_REPLACEMENT);
+        if (target.isEmpty()) {
+            return null;
+        }
+
+        // split into position and modification label, trailing empty parts are dropped.
+        String positionLabel = null;
+        String modLabel;
+        int minus = target.indexOf('-');
+        if (minus < 0) {
+            modLabel = target;
+        } else {
+            int next = target.indexOf('-', minus + 1);
+            int end = next < 0 ? target.length() : next;
+            if (next >= 0) {
+                for (int i = next + 1; i < target.length(); i++) {
+                    if (target.charAt(i) != '-') {
+                        return null;
+                    }
+                }
+            }
+
+            String head = target.substring(0, minus);
+            String tail = target.substring(minus + 1, end);
+            if (!tail.isEmpty()) {
+                positionLabel = head;
+                modLabel = tail;
+            } else if (!head.isEmpty()) {
+                modLabel = head;
+            } else {
+                return null;
+            }
+        }
+
+        modLabel = replace(restoreChemmodMinus(modLabel), MINUS_ENTITY, "-");
+        if (modLabel.indexOf('\t') >= 0) {
+            modLabel = translateBrackets(modLabel, TAB_CHAR, TAB_TO_MINUS);
+        }
+
+        Modification modification = null;
+        int length = modLabel.length();
+        for (int start = 0; start < length && modification == null; start++) {
+            for (String typeName : MODIFICATION_TYPES) {
+                int colon = start + typeName.length();
+                if (!modLabel.startsWith(typeName, start) || colon + 1 >= length
+                    || modLabel.charAt(colon) != ':' || modLabel.charAt(colon + 1) == '|') {
+                    continue;
+                }
+
+                int bar = modLabel.indexOf('|', colon + 1);
+                String accession = modLabel.substring(colon + 1, bar < 0 ? length : bar);
+                modification = new Modification(section, Modification.findType(typeName), accession);
+                if (positionLabel != null) {
+                    parseModificationPosition(replace(positionLabel, MINUS_ENTITY, "-"), modification);
+                }
+                modification.setNeutralLoss(bar < 0 ? null : parseBracketParam(modLabel, bar + 1));
+                break;
+            }
+        }
+
+        if (modification == null) {
+            // Check if is a Neutral Loss
+            Param param = parseParam(modLabel);
+            if (param != null) {
+                CVParam neutralLoss = (CVParam) param;
+                modification = new Modification(section, Modification.Type.NEUTRAL_LOSS, neutralLoss.getAccession());
+                modification.setNeutralLoss(neutralLoss);
+                if (positionLabel != null) {
+                    parseModificationPosition(positionLabel, modification);
+                }
+            }
+        }
+
+        return modification;
+    }
+
+    /**
+     * Parse the '|' separated positions, each is {position}[CV label, accession, name, value], the param is optional.
+     *
+     * @see MZTabUtils#parseModificationPosition(String, Modification)
+     */
+    public static void parseModificationPosition(String target, Modification modification) {
+        target = translateBrackets(target, TAB_CHAR, TAB_TO_COMMA);
+        SplitList<String> list = parseStringList(BAR, target);
+
+        for (String item : list) {
+            item = item.trim();
+            int start = 0;
+            while (start < item.length() && !isDigit(item.charAt(start))) {
+                start++;
+            }
+            if (start == item.length()) {
+                continue;
+            }
+
+            int end = skipDigits(item, start);
+            modification.addPosition(Integer.valueOf(item.substring(start, end)), parseBracketParam(item, end));
+        }
+    }
+
+    /**
+     * Parse the '|' separated ms_run[1-n]:{SPECTRA_REF} list. Items which do not reference a ms_run are ignored, and
+     * the list is empty when a referenced ms_run is not defined in the metadata.
+     *
+     * @see MZTabUtils#parseSpectraRefList(Metadata, String)
+     */
+    public static SplitList<SpectraRef> parseSpectraRefList(Metadata metadata, String target) {
+        SplitList<String> list = parseStringList(BAR, target);
+        SplitList<SpectraRef> refList = new SplitList<SpectraRef>(BAR);
+
+        for (String item : list) {
+            item = item.trim();
+            int start = findIndexedElement(item, MS_RUN, "]:");
+            if (start < 0) {
+                continue;
+            }
+
+            int end = skipDigits(item, start);
+            MsRun msRun = metadata.getMsRunMap().get(Integer.valueOf(item.substring(start, end)));
+            if (msRun == null) {
+                refList.clear();
+                break;
+            }
+
+            int referenceStart = end + 2;
+            int referenceEnd = referenceStart;
+            while (referenceEnd < item.length() && !isLineTerminator(item.charAt(referenceEnd))) {
+                referenceEnd++;
+            }
+            refList.add(new SpectraRef(msRun, item.substring(referenceStart, referenceEnd)));
+        }
+
+        return refList;
+    }
+
+    /**
+     * Find the first {element}[{id}] in the target.
+     *
+     * @see MZTabUtils#parseIndexedElement(String, MetadataElement)
+     */
+    public static IndexedElement parseIndexedElement(String target, MetadataElement element) {
+        target = parseString(target);
+        if (target == null) {
+            return null;
+        }
+
+        int start = findIndexedElement(target, element + "[", "]");
+        if (start < 0) {
+            return null;
+        }
+
+        Integer id = Integer.valueOf(target.substring(start, skipDigits(target, start)));
+        return new IndexedElement(element, id);
+    }
+
+    /**
+     * Parse [CV label, accession, name, value] which starts at index, where label and accession are null if empty,
+     * name is not empty, and the value ends at the last ']' before the next comma. Return null if not matched.
+     */
+    private static CVParam parseBracketParam(String target, int index) {
+        if (index >= target.length() || target.charAt(index) != '[') {
+            return null;
+        }
+
+        int labelEnd = target.indexOf(',', index + 1);
+        if (labelEnd < 0) {
+            return null;
+        }
+        int accessionEnd = target.indexOf(',', labelEnd + 1);
+        if (accessionEnd < 0) {
+            return null;
+        }
+        int nameEnd = target.indexOf(',', accessionEnd + 1);
+        if (nameEnd < 0 || nameEnd == accessionEnd + 1) {
+            return null;
+        }
+        int valueLimit = target.indexOf(',', nameEnd + 1);
+        int valueEnd = target.lastIndexOf(']', (valueLimit < 0 ? target.length() : valueLimit) - 1);
+        if (valueEnd <= nameEnd) {
+            return null;
+        }
+
+        return new CVParam(
+            labelEnd == index + 1 ? null : target.substring(index + 1, labelEnd),
+            accessionEnd == labelEnd + 1 ? null : target.substring(labelEnd + 1, accessionEnd),
+            target.substring(accessionEnd + 1, nameEnd),
+            target.substring(nameEnd + 1, valueEnd)
+        );
+    }
+
+    /**
+     * Find the first {prefix}{digits}{suffix} in the target, where prefix is like "ms_run[".
+     *
+     * @return the index of the first digit, or -1 if not found.
+     */
+    private static int findIndexedElement(String target, String prefix, String suffix) {
+        int start = target.indexOf(prefix);
+        while (start >= 0) {
+            int digits = start + prefix.length();
+            int end = skipDigits(target, digits);
+            if (end > digits && target.startsWith(suffix, end)) {
+                return digits;
+            }
+            start = target.indexOf(prefix, start + 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Replace the characters inside every [...] group which contains no nested bracket: a char found in
+     * {@code chars} is replaced by the replacement at the same index. Return the target itself if nothing replaced.
+     */
+    private static String translateBrackets(String target, String chars, String[] replacements) {
+        int length = target.length();
+        StringBuilder sb = null;
+        int copied = 0;
+
+        int open = target.indexOf('[');
+        while (open >= 0) {
+            int close = open + 1;
+            while (close < length && target.charAt(close) != '[' && target.charAt(close) != ']') {
+                close++;
+            }
+            if (close == length) {
+                break;
+            }
+            if (target.charAt(close) == '[' || close == open + 1) {
+                open = target.indexOf('[', close);
+                continue;
+            }
+
+            for (int i = open + 1; i < close; i++) {
+                int index = chars.indexOf(target.charAt(i));
+                if (index >= 0) {
+                    if (sb == null) {
+                        sb = new StringBuilder(length + 16);
+                    }
+                    sb.append(target, copied, i).append(replacements[index]);
+                    copied = i + 1;
+                }
+            }
+            open = target.indexOf('[', close + 1);
+        }
+
+        if (sb == null) {
+            return target;
+        }
+        return sb.append(target, copied, length).toString();
+    }
+
+    /**
+     * Translate the last '-' after CHEMMOD: to "&amp;minus;", so that the charge of a CHEMMOD is not taken as
+     * the position separator. For example: 13-CHEMMOD:-159. Only the CHEMMOD part of the target is kept.
+     *
+     * @see MZTabUtils#translateMinusToUnicode(String)
+     */
+    private static String protectChemmodMinus(String target) {
+        int start = target.indexOf(CHEMMOD);
+        while (start >= 0) {
+            int runEnd = start + CHEMMOD.length();
+            while (runEnd < target.length() && !isLineTerminator(target.charAt(runEnd))) {
+                runEnd++;
+            }
+
+            int minus = target.lastIndexOf('-', runEnd - 1);
+            if (minus >= start + CHEMMOD.length()) {
+                return target.substring(start, minus) + MINUS_ENTITY + target.substring(minus + 1, runEnd);
+            }
+            start = target.indexOf(CHEMMOD, start + 1);
+        }
+        return target;
+    }
+
+    /**
+     * If a line of the target holds CHEMMOD: followed by "&amp;minus;", only that line is kept.
+     *
+     * @see MZTabUtils#translateUnicodeToMinus(String)
+     */
+    private static String restoreChemmodMinus(String target) {
+        int length = target.length();
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && !isLineTerminator(target.charAt(lineEnd))) {
+                lineEnd++;
+            }
+
+            int chemmod = target.indexOf(CHEMMOD, lineStart);
+            if (chemmod >= 0 && chemmod + CHEMMOD.length() <= lineEnd) {
+                int minus = target.lastIndexOf(MINUS_ENTITY, lineEnd - MINUS_ENTITY.length());
+                if (minus >= chemmod + CHEMMOD.length()) {
+                    return lineStart == 0 && lineEnd == length ? target : target.substring(lineStart, lineEnd);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return target;
+    }
+
+    private static String replace(String target, String from, String to) {
+        int index = target.indexOf(from);
+        if (index < 0) {
+            return target;
+        }
+
+        StringBuilder sb = new StringBuilder(target.length());
+        int copied = 0;
+        while (index >= 0) {
+            sb.append(target, copied, index).append(to);
+            copied = index + from.length();
+            index = target.indexOf(from, copied);
+        }
+        return sb.append(target, copied, target.length()).toString();
+    }
+
+    private static int skipDigits(String target, int index) {
+        while (index < target.length() && isDigit(target.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * The characters which are not matched by "." in a regular expression.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR;
+    }
+}
@@ -88,20 +88,28 @@ public class MZTabColumn {
     }
 
     private String generateLogicalPosition() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", Integer.parseInt(order)));
-        if (id != null) {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", id));
-        } else {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", 0));
+        StringBuilder sb = new StringBuilder(MZTabConstants.ORDER_DIGITS * 3);
+        appendOrder(sb, Integer.parseInt(order));
+        appendOrder(sb, id == null ? 0 : id);
+        appendOrder(sb, element == null ? 0 : element.getId());
+        return sb.toString();
+    }
+
+    /**
+     * Append the value with leading zeros up to {@link MZTabConstants#ORDER_DIGITS} digits, without parsing a format
+     * string for every column.
+     */
+    static void appendOrder(StringBuilder sb, int value) {
+        if (value < 0) {
+            sb.append(String.format("%0" + MZTabConstants.ORDER_DIGITS + "d", value));
+            return;
         }
 
-        if (element != null) {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", element.getId()));
-        } else {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", 0));
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < MZTabConstants.ORDER_DIGITS; i++) {
+            sb.append('0');
         }
-        return sb.toString();
+        sb.append(digits);
     }
 
 
@@ -181,7 +189,6 @@ public class MZTabColumn {
      * @see #getOrder()
      */
     public String getLogicPosition() {
-        generateLogicalPosition();
         return logicPosition;
     }
 
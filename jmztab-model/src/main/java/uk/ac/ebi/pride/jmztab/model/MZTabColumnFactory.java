@@ -1,5 +1,10 @@
 package uk.ac.ebi.pride.jmztab.model;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -40,7 +45,10 @@ public class MZTabColumnFactory {
     private SortedMap<String, MZTabColumn> stableColumnMapping = new TreeMap<String, MZTabColumn>();
     private SortedMap<String, MZTabColumn> optionalColumnMapping = new TreeMap<String, MZTabColumn>();
     private SortedMap<String, MZTabColumn> abundanceColumnMapping = new TreeMap<String, MZTabColumn>();
-    private SortedMap<String, MZTabColumn> columnMapping = new TreeMap<String, MZTabColumn>();
+    private SortedMap<String, MZTabColumn> columnMapping = new ColumnMapping();
+
+    // index of the columns used by the records, see ColumnSlots.
+    private volatile ColumnSlots columnSlots = null;
 
     private Section section;
 
@@ -125,8 +133,11 @@ public class MZTabColumnFactory {
         return columnMapping;
     }
 
+    /**
+     * The columns are copied into a new mapping, which counts its modifications for {@link #getColumnSlots()}.
+     */
     public void setColumnMapping(SortedMap<String, MZTabColumn> columnMapping) {
-        this.columnMapping = columnMapping;
+        this.columnMapping = columnMapping instanceof ColumnMapping ? columnMapping : new ColumnMapping(columnMapping);
     }
 
     /**
@@ -704,16 +715,11 @@ public class MZTabColumnFactory {
      * "10"                          reliability                       11               10
      * "111"                         num_psms_ms_run[1]                12               11
      * "112"                         num_psms_ms_run[2]                13               11
+     *
+     * The map is created once and shared until columns are added into the factory, thus it is unmodifiable.
      */
     public SortedMap<Integer, MZTabColumn> getOffsetColumnsMap() {
-        SortedMap<Integer, MZTabColumn> map = new TreeMap<Integer, MZTabColumn>();
-
-        int offset = 1;
-        for (MZTabColumn column : columnMapping.values()) {
-            map.put(offset++, column);
-        }
-
-        return map;
+        return getColumnSlots().getOffsetColumns();
     }
 
     /**
@@ -770,13 +776,9 @@ public class MZTabColumnFactory {
     public MZTabColumn findColumnByHeader(String header) {
         header = header.trim();
 
-        for (MZTabColumn column : columnMapping.values()) {
-            if (header.equalsIgnoreCase(column.getHeader())) {
-                return column;
-            }
-        }
-
-        return null;
+        ColumnSlots slots = getColumnSlots();
+        int ordinal = slots.getOrdinalByHeader(header);
+        return ordinal < 0 ? null : slots.getColumn(ordinal);
     }
 
     /**
@@ -786,6 +788,178 @@ public class MZTabColumnFactory {
         return columnMapping.get(logicalPosition);
     }
 
+    /**
+     * Query the MZTabColumn in factory, which logical position is made of the order, id and element id, see
+     * {@link MZTabColumn#getLogicPosition()}. The position is not created as string, so it is cheaper than
+     * {@link #findColumnByPosition(String)} when the caller does not have the logical position.
+     *
+     * @param id the column id, 0 if the column has no id.
+     * @param elementId the id of the {@link IndexedElement}, 0 if the column has no element.
+     */
+    public MZTabColumn findColumnByPosition(int order, int id, int elementId) {
+        ColumnSlots slots = getColumnSlots();
+        int ordinal = slots.getOrdinal(order, id, elementId);
+        return ordinal < 0 ? null : slots.getColumn(ordinal);
+    }
+
+    /**
+     * Resolve the column which logical position is same as the given column, see {@link MZTabColumnHandle}.
+     *
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleFor(MZTabColumn column) {
+        return column == null ? null : handleForPosition(column.getLogicPosition());
+    }
+
+    /**
+     * Resolve the column at the logical position, see {@link MZTabColumnHandle}.
+     *
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForPosition(String logicalPosition) {
+        ColumnSlots slots = getColumnSlots();
+        return createHandle(slots, slots.getOrdinal(logicalPosition));
+    }
+
+    /**
+     * Resolve the column based on header with case-insensitive, see {@link #findColumnByHeader(String)} and
+     * {@link MZTabColumnHandle}.
+     *
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForHeader(String header) {
+        ColumnSlots slots = getColumnSlots();
+        return createHandle(slots, slots.getOrdinalByHeader(header.trim()));
+    }
+
+    /**
+     * Resolve the {section name}_abundance_assay[1-n] column.
+     *
+     * @param assay SHOULD NOT be null.
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForAbundance(Assay assay) {
+        return handleFor(findAbundanceColumn("_abundance_", assay));
+    }
+
+    /**
+     * Resolve the {section name}_abundance_study_variable[1-n] column.
+     *
+     * @param studyVariable SHOULD NOT be null.
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForAbundance(StudyVariable studyVariable) {
+        return handleFor(findAbundanceColumn("_abundance_", studyVariable));
+    }
+
+    /**
+     * Resolve the {section name}_abundance_stdev_study_variable[1-n] column.
+     *
+     * @param studyVariable SHOULD NOT be null.
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForAbundanceStdev(StudyVariable studyVariable) {
+        return handleFor(findAbundanceColumn("_abundance_stdev_", studyVariable));
+    }
+
+    /**
+     * Resolve the {section name}_abundance_std_error_study_variable[1-n] column.
+     *
+     * @param studyVariable SHOULD NOT be null.
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForAbundanceStdError(StudyVariable studyVariable) {
+        return handleFor(findAbundanceColumn("_abundance_std_error_", studyVariable));
+    }
+
+    /**
+     * Resolve the search_engine_score[id]_ms_run[1-n] column. In PSM section, the column has no ms run.
+     *
+     * @param msRun null for PSM section.
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForSearchEngineScore(Integer id, MsRun msRun) {
+        return handleFor(getSearchEngineScoreColumn(false), id, msRun);
+    }
+
+    /**
+     * Resolve the best_search_engine_score[id] column, which is not available for PSM section.
+     *
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForBestSearchEngineScore(Integer id) {
+        return handleFor(getSearchEngineScoreColumn(true), id, null);
+    }
+
+    /**
+     * Resolve the opt_{element}_name column, element is null for opt_global_name column.
+     *
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForOptionColumn(IndexedElement element, String name) {
+        return handleForHeader(OptionColumn.getHeader(element, name));
+    }
+
+    /**
+     * Resolve the opt_{element}_cv_{accession}_{parameter name} column, element is null for global column.
+     *
+     * @return null if the factory has no such column.
+     */
+    public MZTabColumnHandle handleForOptionColumn(IndexedElement element, CVParam param) {
+        return handleForHeader(CVParamOptionColumn.getHeader(element, param));
+    }
+
+    private MZTabColumnHandle handleFor(MZTabColumn column, Integer id, IndexedElement element) {
+        if (column == null) {
+            return null;
+        }
+
+        ColumnSlots slots = getColumnSlots();
+        int ordinal = slots.getOrdinal(Integer.parseInt(column.getOrder()), id == null ? 0 : id,
+            element == null ? 0 : element.getId());
+        return createHandle(slots, ordinal);
+    }
+
+    private MZTabColumnHandle createHandle(ColumnSlots slots, int ordinal) {
+        if (ordinal < 0 || slots.getColumn(ordinal) == null) {
+            return null;
+        }
+        return new MZTabColumnHandle(this, slots, ordinal);
+    }
+
+    private MZTabColumn getSearchEngineScoreColumn(boolean best) {
+        switch (section) {
+            case Protein_Header:
+                return best ? ProteinColumn.BEST_SEARCH_ENGINE_SCORE : ProteinColumn.SEARCH_ENGINE_SCORE;
+            case Peptide_Header:
+                return best ? PeptideColumn.BEST_SEARCH_ENGINE_SCORE : PeptideColumn.SEARCH_ENGINE_SCORE;
+            case PSM_Header:
+                return best ? null : PSMColumn.SEARCH_ENGINE_SCORE;
+            case Small_Molecule_Header:
+                return best ? SmallMoleculeColumn.BEST_SEARCH_ENGINE_SCORE : SmallMoleculeColumn.SEARCH_ENGINE_SCORE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get a abundance column based on header. For example: protein_abundance_assay[1-n].
+     *
+     * NOTICE: abundance columns in {@link Section#Small_Molecule} is very special, which miss '_' character.
+     * For example: smallmolecule_abundance_assay[1-n]. We use {@link AbundanceColumn#translate(String)}
+     * function to overcome this problem.
+     */
+    MZTabColumn findAbundanceColumn(String tag, IndexedElement element) {
+        if (element == null) {
+            throw new NullPointerException("Element should be provide!");
+        }
+
+        Section dataSection = Section.toDataSection(section);
+        String header = (dataSection == Section.Small_Molecule ? AbundanceColumn.translate(dataSection.getName()) : dataSection.getName()) + tag + element.getReference();
+
+        return findColumnByHeader(header);
+    }
+
     /**
      * Query all the MZTabColumn which have the same order in factory.
      */
@@ -800,4 +974,297 @@ public class MZTabColumnFactory {
 
         return mapping;
     }
+
+    /**
+     * Get the ordinals and number slots of the columns, which are used by {@link MZTabRecord} to store the cells.
+     * The slots are created again when columns have been added into {@link #getColumnMapping()}.
+     */
+    ColumnSlots getColumnSlots() {
+        ColumnSlots slots = columnSlots;
+        if (slots == null || ! slots.isValid(columnMapping)) {
+            slots = updateColumnSlots();
+        }
+        return slots;
+    }
+
+    private synchronized ColumnSlots updateColumnSlots() {
+        ColumnSlots slots = columnSlots;
+        if (slots == null || ! slots.isValid(columnMapping)) {
+            slots = new ColumnSlots(slots, columnMapping);
+            columnSlots = slots;
+        }
+        return slots;
+    }
+
+    /**
+     * Column mapping which counts the put, remove and clear calls, including the ones which replace the column of
+     * an existing logical position, so that {@link ColumnSlots} know when they have to be created again.
+     */
+    private static final class ColumnMapping extends TreeMap<String, MZTabColumn> {
+        private static final long serialVersionUID = 1L;
+
+        private volatile int modifications = 0;
+
+        private ColumnMapping() {
+        }
+
+        private ColumnMapping(SortedMap<String, MZTabColumn> columnMapping) {
+            super(columnMapping);
+        }
+
+        @Override
+        public MZTabColumn put(String key, MZTabColumn value) {
+            MZTabColumn previous = super.put(key, value);
+            modifications++;
+            return previous;
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends MZTabColumn> map) {
+            super.putAll(map);
+            modifications++;
+        }
+
+        @Override
+        public MZTabColumn remove(Object key) {
+            MZTabColumn previous = super.remove(key);
+            modifications++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            modifications++;
+        }
+    }
+
+    /**
+     * Immutable index of the columns, which let {@link MZTabRecord} store the cells in arrays instead of a map keyed
+     * by logical position. Each logical position get an ordinal when it first appears in the column mapping, and keep
+     * it after that, so the arrays of the records which have been created before a column is added are still valid,
+     * and only need to grow. {@link Integer} and {@link Double} columns also get a slot in the number array of the
+     * record, so that the numbers are stored without boxing.
+     *
+     * The index also resolves the columns by header and by (order, id, element id) in constant time, without
+     * allocation: the headers are kept in hash maps, and the logical positions which are made of three
+     * {@link MZTabConstants#ORDER_DIGITS} digits numbers are packed into long keys of an open addressing table.
+     */
+    static final class ColumnSlots {
+        private static final int MAX_PACKED_DIGITS = MZTabConstants.ORDER_DIGITS * 3;
+        private static final int ORDER_LIMIT = (int) Math.pow(10, MZTabConstants.ORDER_DIGITS);
+
+        private final SortedMap<String, MZTabColumn> mapping;
+        private final int mappingSize;
+        private final int modifications;
+
+        private final Map<String, Integer> ordinals;
+        // logical position, column and number slot of each ordinal, column is null if it has been removed.
+        private final String[] positions;
+        private final MZTabColumn[] columns;
+        private final int[] numberSlots;
+        private final int numberCount;
+        // ordinals of the columns in the mapping, in logical position order.
+        private final int[] order;
+
+        // header -> ordinal of the first column which has the header, ignoring case. The headers are kept as they
+        // are, and in lower case for the queries in other case.
+        private final Map<String, Integer> headerOrdinals = new HashMap<String, Integer>();
+        private final Map<String, Integer> lowerHeaderOrdinals = new HashMap<String, Integer>();
+
+        // packed logical position -> ordinal, empty keys are -1.
+        private final long[] packedKeys;
+        private final int[] packedOrdinals;
+
+        // offset in header line -> column, created when it is first queried.
+        private volatile SortedMap<Integer, MZTabColumn> offsetColumns;
+
+        private ColumnSlots(ColumnSlots previous, SortedMap<String, MZTabColumn> mapping) {
+            this.mapping = mapping;
+            this.mappingSize = mapping.size();
+            this.modifications = modifications(mapping);
+
+            int previousSize = previous == null ? 0 : previous.size();
+            ordinals = previous == null ? new HashMap<String, Integer>() : new HashMap<String, Integer>(previous.ordinals);
+            order = new int[mappingSize];
+            int i = 0;
+            for (String position : mapping.keySet()) {
+                Integer ordinal = ordinals.get(position);
+                if (ordinal == null) {
+                    ordinal = ordinals.size();
+                    ordinals.put(position, ordinal);
+                }
+                order[i++] = ordinal;
+            }
+
+            int size = ordinals.size();
+            positions = previous == null ? new String[size] : Arrays.copyOf(previous.positions, size);
+            columns = new MZTabColumn[size];
+            numberSlots = previous == null ? new int[size] : Arrays.copyOf(previous.numberSlots, size);
+            Arrays.fill(numberSlots, previousSize, size, -1);
+
+            int count = previous == null ? 0 : previous.numberCount;
+            for (Map.Entry<String, MZTabColumn> entry : mapping.entrySet()) {
+                MZTabColumn column = entry.getValue();
+                int ordinal = ordinals.get(entry.getKey());
+                columns[ordinal] = column;
+                if (ordinal >= previousSize) {
+                    positions[ordinal] = entry.getKey();
+                    Class<?> type = column.getDataType();
+                    if (type == Integer.class || type == Double.class) {
+                        numberSlots[ordinal] = count++;
+                    }
+                }
+            }
+            numberCount = count;
+
+            int capacity = Integer.highestOneBit(Math.max(mappingSize, 1) * 2 + 1) * 2;
+            packedKeys = new long[capacity];
+            packedOrdinals = new int[capacity];
+            Arrays.fill(packedKeys, -1);
+            for (int ordinal : order) {
+                String header = columns[ordinal].getHeader();
+                if (header != null) {
+                    String lowerHeader = header.toLowerCase(Locale.ENGLISH);
+                    if (! lowerHeaderOrdinals.containsKey(lowerHeader)) {
+                        lowerHeaderOrdinals.put(lowerHeader, ordinal);
+                        headerOrdinals.put(header, ordinal);
+                    }
+                }
+
+                long key = pack(positions[ordinal]);
+                if (key >= 0) {
+                    int slot = hash(key);
+                    while (packedKeys[slot] != -1) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    packedKeys[slot] = key;
+                    packedOrdinals[slot] = ordinal;
+                }
+            }
+        }
+
+        /**
+         * @return the logical position as a long, or -1 if it is not made of three order numbers.
+         */
+        private static long pack(String logicalPosition) {
+            if (logicalPosition == null || logicalPosition.length() != MAX_PACKED_DIGITS) {
+                return -1;
+            }
+
+            long key = 0;
+            for (int i = 0; i < logicalPosition.length(); i++) {
+                char c = logicalPosition.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                key = key * 10 + (c - '0');
+            }
+            return key;
+        }
+
+        private int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & (packedKeys.length - 1);
+        }
+
+        /**
+         * The mapping is changed when a column is put or removed, also if the number of columns is the same. The
+         * size is still compared for the columns removed through the iterators of the mapping views.
+         */
+        private boolean isValid(SortedMap<String, MZTabColumn> columnMapping) {
+            return mapping == columnMapping && modifications == modifications(columnMapping)
+                && mappingSize == columnMapping.size();
+        }
+
+        private static int modifications(SortedMap<String, MZTabColumn> mapping) {
+            return mapping instanceof ColumnMapping ? ((ColumnMapping) mapping).modifications : 0;
+        }
+
+        /**
+         * @return the number of ordinals, including the columns which have been removed.
+         */
+        int size() {
+            return positions.length;
+        }
+
+        /**
+         * @return the ordinal of the logical position, or -1 if it never is a column of the factory.
+         */
+        int getOrdinal(String logicalPosition) {
+            Integer ordinal = ordinals.get(logicalPosition);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        String getPosition(int ordinal) {
+            return positions[ordinal];
+        }
+
+        /**
+         * @return the column, or null if it has been removed from the factory.
+         */
+        MZTabColumn getColumn(int ordinal) {
+            return columns[ordinal];
+        }
+
+        /**
+         * @return the index in the number array, or -1 if the column is not an Integer or Double column.
+         */
+        int getNumberSlot(int ordinal) {
+            return numberSlots[ordinal];
+        }
+
+        int getNumberCount() {
+            return numberCount;
+        }
+
+        /**
+         * @return the ordinals of the factory columns, in logical position order. SHOULD NOT be modified.
+         */
+        int[] getOrder() {
+            return order;
+        }
+
+        SortedMap<Integer, MZTabColumn> getOffsetColumns() {
+            SortedMap<Integer, MZTabColumn> map = offsetColumns;
+            if (map == null) {
+                map = new TreeMap<Integer, MZTabColumn>();
+                int offset = 1;
+                for (int ordinal : order) {
+                    map.put(offset++, columns[ordinal]);
+                }
+                map = Collections.unmodifiableSortedMap(map);
+                offsetColumns = map;
+            }
+            return map;
+        }
+
+        /**
+         * @return the ordinal of the first column which header is equal to the header, ignoring case, or -1.
+         */
+        int getOrdinalByHeader(String header) {
+            Integer ordinal = headerOrdinals.get(header);
+            if (ordinal == null) {
+                ordinal = lowerHeaderOrdinals.get(header.toLowerCase(Locale.ENGLISH));
+            }
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        /**
+         * @return the ordinal of the column which logical position is made of the order, id and element id, or -1.
+         */
+        int getOrdinal(int order, int id, int elementId) {
+            if (order < 0 || order >= ORDER_LIMIT || id < 0 || id >= ORDER_LIMIT || elementId < 0 || elementId >= ORDER_LIMIT) {
+                return -1;
+            }
+
+            long key = ((long) order * ORDER_LIMIT + id) * ORDER_LIMIT + elementId;
+            for (int i = hash(key); packedKeys[i] != -1; i = (i + 1) & (packedKeys.length - 1)) {
+                if (packedKeys[i] == key) {
+                    return packedOrdinals[i];
+                }
+            }
+            return -1;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+/**
+ * A column of {@link MZTabColumnFactory} which has been resolved once, and is used to read or write the cell of
+ * many records without searching the column again. The handle is created by the handleFor methods of the factory,
+ * and is only valid for the records created by the same factory.
+ *
+ * <pre>
+ * MZTabColumnHandle abundance = factory.handleForAbundance(assay);
+ * for (Protein protein : proteins) {
+ *     double value = protein.getDoubleValue(abundance, Double.NaN);
+ *     ...
+ * }
+ * </pre>
+ *
+ * The handle keep valid after other columns have been added into the factory.
+ *
+ * @see MZTabRecord#getValue(MZTabColumnHandle)
+ * @see MZTabRecord#setValue(MZTabColumnHandle, Object)
+ */
+public final class MZTabColumnHandle {
+    private final MZTabColumnFactory factory;
+    private final MZTabColumn column;
+    private final String logicalPosition;
+    private final int ordinal;
+    private final int numberSlot;
+
+    MZTabColumnHandle(MZTabColumnFactory factory, MZTabColumnFactory.ColumnSlots slots, int ordinal) {
+        this.factory = factory;
+        this.column = slots.getColumn(ordinal);
+        this.logicalPosition = slots.getPosition(ordinal);
+        this.ordinal = ordinal;
+        this.numberSlot = slots.getNumberSlot(ordinal);
+    }
+
+    public MZTabColumnFactory getFactory() {
+        return factory;
+    }
+
+    public MZTabColumn getColumn() {
+        return column;
+    }
+
+    public String getLogicalPosition() {
+        return logicalPosition;
+    }
+
+    public Class<?> getDataType() {
+        return column.getDataType();
+    }
+
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return the index in the number array of the record, or -1 if the column is not an Integer or Double column.
+     */
+    int getNumberSlot() {
+        return numberSlot;
+    }
+
+    @Override
+    public String toString() {
+        return "MZTabColumnHandle{" + column.getHeader() + ", logicalPosition=" + logicalPosition + "}";
+    }
+}
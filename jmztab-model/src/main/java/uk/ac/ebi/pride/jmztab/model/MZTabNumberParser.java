@@ -0,0 +1,197 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.*;
+
+/**
+ * Decode numeric cells straight from a char range into primitive values, without creating the intermediate
+ * String and boxed objects, and without using exceptions for the special values defined in {@link MZTabConstants}:
+ * {@link MZTabConstants#INFINITY} and {@link MZTabConstants#CALCULATE_ERROR}.
+ *
+ * Plain decimal numbers are decoded directly, when the result is exactly rounded (at most 15 significant digits
+ * and a power of ten not bigger than 10^22). Other forms fall back to {@link Double#parseDouble(String)} and
+ * {@link Integer#parseInt(String)}, so that the decoded value is always the same as theirs.
+ */
+public final class MZTabNumberParser {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final int MAX_INT_DIGITS = 9;
+
+    private MZTabNumberParser() {
+    }
+
+    /**
+     * @return true if the range is empty, blank or "null" with case-insensitive.
+     */
+    public static boolean isNull(CharSequence target, int start, int end) {
+        start = trimStart(target, start, end);
+        end = trimEnd(target, start, end);
+        return start == end || regionMatches(target, start, end, NULL, true);
+    }
+
+    /**
+     * Decode the range into a double. {@link MZTabConstants#INFINITY} is decoded to {@link Double#POSITIVE_INFINITY},
+     * and {@link MZTabConstants#CALCULATE_ERROR} to {@link Double#NaN}. The heading and tailing white space is
+     * ignored.
+     *
+     * @throws NumberFormatException if the range is not a number.
+     */
+    public static double parseDouble(CharSequence target, int start, int end) {
+        start = trimStart(target, start, end);
+        end = trimEnd(target, start, end);
+
+        if (regionMatches(target, start, end, INFINITY, false)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (regionMatches(target, start, end, CALCULATE_ERROR, false)) {
+            return Double.NaN;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (target.charAt(i) == '-' || target.charAt(i) == '+')) {
+            negative = target.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0;
+        int exponent = 0;
+        char c;
+        for (; i < end && (c = target.charAt(i)) >= '0' && c <= '9'; i++, digits++) {
+            if (mantissa != 0 || c != '0') {
+                if (++significant > MAX_EXACT_DIGITS) {
+                    return fallbackDouble(target, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            }
+        }
+        if (i < end && target.charAt(i) == '.') {
+            for (i++; i < end && (c = target.charAt(i)) >= '0' && c <= '9'; i++, digits++) {
+                if (mantissa != 0 || c != '0') {
+                    if (++significant > MAX_EXACT_DIGITS) {
+                        return fallbackDouble(target, start, end);
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                exponent--;
+            }
+        }
+        if (digits == 0) {
+            return fallbackDouble(target, start, end);
+        }
+
+        if (i < end && (target.charAt(i) == 'e' || target.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (target.charAt(i) == '-' || target.charAt(i) == '+')) {
+                negativeExponent = target.charAt(i) == '-';
+                i++;
+            }
+            int exponentValue = 0;
+            int exponentDigits = 0;
+            for (; i < end && (c = target.charAt(i)) >= '0' && c <= '9'; i++, exponentDigits++) {
+                exponentValue = exponentValue * 10 + (c - '0');
+                if (exponentValue > POWERS_OF_TEN.length + MAX_EXACT_DIGITS) {
+                    return fallbackDouble(target, start, end);
+                }
+            }
+            if (exponentDigits == 0) {
+                return fallbackDouble(target, start, end);
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        if (i != end) {
+            // type suffix, hexadecimal, or not a number at all.
+            return fallbackDouble(target, start, end);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return fallbackDouble(target, start, end);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Decode the range into an int. The heading and tailing white space is ignored.
+     *
+     * @throws NumberFormatException if the range is not an integer.
+     */
+    public static int parseInt(CharSequence target, int start, int end) {
+        start = trimStart(target, start, end);
+        end = trimEnd(target, start, end);
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (target.charAt(i) == '-' || target.charAt(i) == '+')) {
+            negative = target.charAt(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > MAX_INT_DIGITS) {
+            return fallbackInt(target, start, end);
+        }
+
+        int value = 0;
+        for (; i < end; i++) {
+            char c = target.charAt(i);
+            if (c < '0' || c > '9') {
+                return fallbackInt(target, start, end);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static double fallbackDouble(CharSequence target, int start, int end) {
+        return Double.parseDouble(target.subSequence(start, end).toString());
+    }
+
+    private static int fallbackInt(CharSequence target, int start, int end) {
+        return Integer.parseInt(target.subSequence(start, end).toString());
+    }
+
+    /**
+     * Same as {@link String#trim()}, all chars not bigger than space are white space.
+     */
+    private static int trimStart(CharSequence target, int start, int end) {
+        while (start < end && target.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence target, int start, int end) {
+        while (end > start && target.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean regionMatches(CharSequence target, int start, int end, String s, boolean ignoreCase) {
+        if (end - start != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c1 = target.charAt(start + i);
+            char c2 = s.charAt(i);
+            if (c1 == c2) {
+                continue;
+            }
+            if (!ignoreCase || (Character.toUpperCase(c1) != Character.toUpperCase(c2)
+                && Character.toLowerCase(c1) != Character.toLowerCase(c2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,9 +1,7 @@
 package uk.ac.ebi.pride.jmztab.model;
 
 import java.net.URI;
-import java.util.Iterator;
-import java.util.List;
-import java.util.TreeMap;
+import java.util.*;
 import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.CALCULATE_ERROR;
 import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.INFINITY;
 import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.NULL;
@@ -25,7 +23,21 @@ import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.parseDouble;
 public abstract class MZTabRecord {
     protected MZTabColumnFactory factory;
 
-    private TreeMap<String, Object> record = new TreeMap<String, Object>();
+    // cells indexed by the column ordinal, see MZTabColumnFactory.ColumnSlots. The Integer and Double values are
+    // stored in the numbers array, and marked by INTEGER_CELL or DOUBLE_CELL here.
+    private Object[] cells;
+    private long[] numbers;
+
+    private static final Object INTEGER_CELL = new Object();
+    private static final Object DOUBLE_CELL = new Object();
+    // the column has been added into the factory after the record is created, and not set yet.
+    private static final Object ABSENT = new Object();
+    private static final long[] NO_NUMBERS = new long[0];
+
+    // the value of the cells which are not decoded yet in lazy mode.
+    private static final Object UNDECODED = new Object();
+    private MZTabCellDecoder decoder;
+    private int undecodedCount = 0;
 
     /**
      * Create a record based on {@link MZTabColumnFactory} structure. The default cell value is null.
@@ -38,9 +50,26 @@ public abstract class MZTabRecord {
         }
 
         this.factory = factory;
-        for (String position : factory.getColumnMapping().keySet()) {
-            setValue(position, null);
+        MZTabColumnFactory.ColumnSlots slots = factory.getColumnSlots();
+        cells = new Object[slots.size()];
+        numbers = slots.getNumberCount() == 0 ? NO_NUMBERS : new long[slots.getNumberCount()];
+    }
+
+    /**
+     * Get the column slots of the factory, and grow the arrays if columns have been added into the factory after
+     * the record is created.
+     */
+    private MZTabColumnFactory.ColumnSlots getSlots() {
+        MZTabColumnFactory.ColumnSlots slots = factory.getColumnSlots();
+        if (cells.length < slots.size()) {
+            int size = cells.length;
+            cells = Arrays.copyOf(cells, slots.size());
+            Arrays.fill(cells, size, cells.length, ABSENT);
         }
+        if (numbers.length < slots.getNumberCount()) {
+            numbers = Arrays.copyOf(numbers, slots.getNumberCount());
+        }
+        return slots;
     }
 
     /**
@@ -48,43 +77,299 @@ public abstract class MZTabRecord {
      *
      * @see uk.ac.ebi.pride.jmztab.model.MZTabColumn#getDataType()
      */
-    private boolean isMatch(String logicalPosition, Class valueType) {
-        MZTabColumn column = factory.getColumnMapping().get(logicalPosition);
+    private boolean isMatch(MZTabColumnFactory.ColumnSlots slots, int ordinal, Class<?> valueType) {
+        MZTabColumn column = slots.getColumn(ordinal);
         if (column == null) {
             return false;
         }
 
-        Class columnType = column.getDataType();
+        Class<?> columnType = column.getDataType();
         return valueType == columnType;
     }
 
     /**
      * Set a value to a special logical position cell. Before set value, system will do a match
-     * validate by calling {@link #isMatch(String, Class)}. If not match, system not do set operation
-     * and return false value.
+     * validate by calling {@link #isMatch(MZTabColumnFactory.ColumnSlots, int, Class)}. If not match, system not do
+     * set operation and return false value.
      *
      * @param logicalPosition locate the column data type definition in {@link MZTabColumnFactory}
      * @param value SHOULD NOT set null.
      */
     public boolean setValue(String logicalPosition, Object value) {
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        int ordinal = slots.getOrdinal(logicalPosition);
+        if (ordinal < 0) {
+            // not a column of the factory, there is no cell to keep the value.
+            return value == null;
+        }
+
+        return setCell(slots, ordinal, value);
+    }
+
+    private boolean setCell(MZTabColumnFactory.ColumnSlots slots, int ordinal, Object value) {
+        if (value != null && ! isMatch(slots, ordinal, value.getClass())) {
+            return false;
+        }
+
+        if (decoder != null && cells[ordinal] == UNDECODED) {
+            decoded();
+        }
+
         if (value == null) {
-            record.put(logicalPosition, null);
+            cells[ordinal] = null;
             return true;
         }
 
-        if (isMatch(logicalPosition, value.getClass())) {
-            record.put(logicalPosition, value);
-            return true;
+        int slot = slots.getNumberSlot(ordinal);
+        if (slot >= 0 && value instanceof Double) {
+            numbers[slot] = Double.doubleToRawLongBits((Double) value);
+            cells[ordinal] = DOUBLE_CELL;
+        } else if (slot >= 0 && value instanceof Integer) {
+            numbers[slot] = (Integer) value;
+            cells[ordinal] = INTEGER_CELL;
         } else {
-            return false;
+            cells[ordinal] = value;
         }
+        return true;
     }
 
     /**
      * Get the value of a special logical position cell.
      */
     public Object getValue(String logicalPosition) {
-        return record.get(logicalPosition);
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        int ordinal = slots.getOrdinal(logicalPosition);
+        return ordinal < 0 ? null : getCell(slots, ordinal);
+    }
+
+    /**
+     * Get the value of the cell if the column data type is the given type, otherwise return null.
+     */
+    private Object getValue(String logicalPosition, Class<?> type) {
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        int ordinal = slots.getOrdinal(logicalPosition);
+        if (ordinal < 0 || ! isMatch(slots, ordinal, type)) {
+            return null;
+        }
+
+        return getCell(slots, ordinal);
+    }
+
+    /**
+     * Get the slots of the factory, after checking the handle has been created by the factory of the record.
+     */
+    private MZTabColumnFactory.ColumnSlots getSlots(MZTabColumnHandle handle) {
+        if (handle.getFactory() != factory) {
+            throw new IllegalArgumentException("Column handle " + handle + " is not created by the factory of the record.");
+        }
+        return getSlots();
+    }
+
+    /**
+     * Get the value of the column resolved by the handle, see {@link MZTabColumnFactory#handleFor(MZTabColumn)}.
+     *
+     * @param handle SHOULD be created by the factory of the record.
+     */
+    public Object getValue(MZTabColumnHandle handle) {
+        return getCell(getSlots(handle), handle.getOrdinal());
+    }
+
+    /**
+     * Set a value to the column resolved by the handle. Same as {@link #setValue(String, Object)}, return false if the
+     * value type not match with the column data type.
+     *
+     * @param handle SHOULD be created by the factory of the record.
+     */
+    public boolean setValue(MZTabColumnHandle handle, Object value) {
+        return setCell(getSlots(handle), handle.getOrdinal(), value);
+    }
+
+    /**
+     * Get cell value of the column resolved by the handle as String. If the column is not a String column, return
+     * null.
+     */
+    public String getString(MZTabColumnHandle handle) {
+        if (handle.getDataType() != String.class) {
+            return null;
+        }
+
+        String val = (String) getValue(handle);
+        if (val != null && val.trim().equalsIgnoreCase("null")) {
+            val = null;
+        }
+        return val;
+    }
+
+    /**
+     * Get cell value of the column resolved by the handle as Integer. If the column is not an Integer column, return
+     * null.
+     */
+    public Integer getInteger(MZTabColumnHandle handle) {
+        return handle.getDataType() == Integer.class ? (Integer) getValue(handle) : null;
+    }
+
+    /**
+     * Get cell value of the column resolved by the handle as Double. If the column is not a Double column, return
+     * null.
+     */
+    public Double getDouble(MZTabColumnHandle handle) {
+        return handle.getDataType() == Double.class ? (Double) getValue(handle) : null;
+    }
+
+    /**
+     * Get cell value of the column resolved by the handle as a primitive int, no boxed object is created. If the
+     * cell is null or not an Integer column, return the nullValue.
+     */
+    public int getIntValue(MZTabColumnHandle handle, int nullValue) {
+        getSlots(handle);
+        if (handle.getDataType() != Integer.class) {
+            return nullValue;
+        }
+
+        int ordinal = handle.getOrdinal();
+        Object value = cells[ordinal] == UNDECODED ? decode(ordinal) : cells[ordinal];
+        if (value == INTEGER_CELL) {
+            return (int) numbers[handle.getNumberSlot()];
+        }
+        return value instanceof Integer ? (Integer) value : nullValue;
+    }
+
+    /**
+     * Get cell value of the column resolved by the handle as a primitive double, no boxed object is created. If the
+     * cell is null or not a Double column, return the nullValue.
+     */
+    public double getDoubleValue(MZTabColumnHandle handle, double nullValue) {
+        getSlots(handle);
+        if (handle.getDataType() != Double.class) {
+            return nullValue;
+        }
+
+        int ordinal = handle.getOrdinal();
+        Object value = cells[ordinal] == UNDECODED ? decode(ordinal) : cells[ordinal];
+        if (value == DOUBLE_CELL) {
+            return Double.longBitsToDouble(numbers[handle.getNumberSlot()]);
+        }
+        return value instanceof Double ? (Double) value : nullValue;
+    }
+
+    /**
+     * Set a primitive int to the Integer column resolved by the handle, no boxed object is created.
+     *
+     * @return false if the column is not an Integer column.
+     */
+    public boolean setIntValue(MZTabColumnHandle handle, int value) {
+        getSlots(handle);
+        if (handle.getDataType() != Integer.class || handle.getNumberSlot() < 0) {
+            return false;
+        }
+
+        int ordinal = handle.getOrdinal();
+        if (decoder != null && cells[ordinal] == UNDECODED) {
+            decoded();
+        }
+        numbers[handle.getNumberSlot()] = value;
+        cells[ordinal] = INTEGER_CELL;
+        return true;
+    }
+
+    /**
+     * Set a primitive double to the Double column resolved by the handle, no boxed object is created.
+     *
+     * @return false if the column is not a Double column.
+     */
+    public boolean setDoubleValue(MZTabColumnHandle handle, double value) {
+        getSlots(handle);
+        if (handle.getDataType() != Double.class || handle.getNumberSlot() < 0) {
+            return false;
+        }
+
+        int ordinal = handle.getOrdinal();
+        if (decoder != null && cells[ordinal] == UNDECODED) {
+            decoded();
+        }
+        numbers[handle.getNumberSlot()] = Double.doubleToRawLongBits(value);
+        cells[ordinal] = DOUBLE_CELL;
+        return true;
+    }
+
+    private Object getCell(MZTabColumnFactory.ColumnSlots slots, int ordinal) {
+        Object value = cells[ordinal];
+        if (value == UNDECODED) {
+            value = decode(ordinal);
+        }
+
+        if (value == DOUBLE_CELL) {
+            return Double.longBitsToDouble(numbers[slots.getNumberSlot(ordinal)]);
+        } else if (value == INTEGER_CELL) {
+            return (int) numbers[slots.getNumberSlot(ordinal)];
+        } else if (value == ABSENT) {
+            return null;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Keep the cells in lazy mode, which are decoded by the decoder when they are requested first time.
+     * After all cells have been decoded, the decoder is released.
+     *
+     * Same as the setter methods, the decoding writes the value into the record, so a record with lazy cells is
+     * not thread safe, and SHOULD be read by one thread at a time, or be guarded by the caller.
+     *
+     * @param logicalPositions the logical positions of the cells which are not decoded yet.
+     * @param decoder SHOULD NOT be null.
+     */
+    public void setLazyCells(Collection<String> logicalPositions, MZTabCellDecoder decoder) {
+        if (decoder == null) {
+            throw new NullPointerException("Cell decoder should not be null.");
+        }
+
+        this.decoder = decoder;
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        for (String logicalPosition : logicalPositions) {
+            int ordinal = slots.getOrdinal(logicalPosition);
+            if (ordinal >= 0 && cells[ordinal] != ABSENT && cells[ordinal] != UNDECODED) {
+                cells[ordinal] = UNDECODED;
+                undecodedCount++;
+            }
+        }
+        if (undecodedCount == 0) {
+            this.decoder = null;
+        }
+    }
+
+    private void decoded() {
+        if (--undecodedCount == 0) {
+            decoder = null;
+        }
+    }
+
+    private Object decode(int ordinal) {
+        // the cell keeps undecoded until the decoder sets the value, see setCell(), so it is never seen as null
+        // during decoding, and is decoded again if the decoder fails.
+        decoder.decode(this, factory.getColumnSlots().getPosition(ordinal));
+        if (cells[ordinal] == UNDECODED) {
+            // the decoder does not set a value, for example the cell is not valid.
+            cells[ordinal] = null;
+            decoded();
+        }
+
+        return cells[ordinal];
+    }
+
+    /**
+     * Decode all cells which are kept in lazy mode.
+     */
+    private void decodeAll() {
+        if (decoder == null) {
+            return;
+        }
+
+        for (int ordinal = 0; ordinal < cells.length; ordinal++) {
+            if (cells[ordinal] == UNDECODED) {
+                decode(ordinal);
+            }
+        }
     }
 
     /**
@@ -127,17 +412,20 @@ public abstract class MZTabRecord {
      */
     @Override
     public String toString() {
+        decodeAll();
         StringBuilder sb = new StringBuilder();
 
-        Iterator it = record.values().iterator();
-        Object value;
-        if (it.hasNext()) {
-            value = translateValue(it.next());
-            sb.append(value);
-
-            while (it.hasNext()) {
-                sb.append(TAB).append(translateValue(it.next()));
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        boolean first = true;
+        for (int ordinal : slots.getOrder()) {
+            if (cells[ordinal] == ABSENT) {
+                continue;
+            }
+            if (! first) {
+                sb.append(TAB);
             }
+            sb.append(translateValue(getCell(slots, ordinal)));
+            first = false;
         }
 
         return sb.toString();
@@ -147,12 +435,8 @@ public abstract class MZTabRecord {
      * Get cell value and convert it to String. If can not convert, return null.
      */
     protected String getString(String logicalPosition) {
-        if (! isMatch(logicalPosition, String.class)) {
-            return null;
-        }
-
          //We need to check that the retrieved string is not the "NULL" string
-        String val = (String) record.get(logicalPosition);
+        String val = (String) getValue(logicalPosition, String.class);
         if (val != null && !val.isEmpty()) {
             if (val.trim().equalsIgnoreCase("null")) {
                 val = null;
@@ -166,106 +450,109 @@ public abstract class MZTabRecord {
      * Get cell value and convert it to Integer. If can not convert, return null.
      */
     protected Integer getInteger(String logicalPosition) {
-        if (! isMatch(logicalPosition, Integer.class)) {
-            return null;
-        }
-
-        return (Integer) record.get(logicalPosition);
+        return (Integer) getValue(logicalPosition, Integer.class);
     }
 
     /**
      * Get cell value and convert it to Double. If can not convert, return null.
      */
     protected Double getDouble(String logicalPosition) {
-        if (! isMatch(logicalPosition, Double.class)) {
-            return null;
+        return (Double) getValue(logicalPosition, Double.class);
+    }
+
+    /**
+     * Get cell value as a primitive int, no boxed object is created. If the cell is null or not an Integer
+     * column, return the nullValue.
+     */
+    public int getIntValue(String logicalPosition, int nullValue) {
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        int ordinal = slots.getOrdinal(logicalPosition);
+        if (ordinal < 0 || ! isMatch(slots, ordinal, Integer.class)) {
+            return nullValue;
         }
 
-        return (Double) record.get(logicalPosition);
+        Object value = cells[ordinal] == UNDECODED ? decode(ordinal) : cells[ordinal];
+        if (value == INTEGER_CELL) {
+            return (int) numbers[slots.getNumberSlot(ordinal)];
+        }
+        return value instanceof Integer ? (Integer) value : nullValue;
     }
 
     /**
-     * Get cell value and convert it to {@link SplitList} object. If can not convert, return null.
+     * Get cell value as a primitive double, no boxed object is created. If the cell is null or not a Double
+     * column, return the nullValue. Notice: "NaN" and "INF" cells are returned as {@link Double#NaN} and
+     * {@link Double#POSITIVE_INFINITY}.
      */
-    protected SplitList getSplitList(String logicalPosition) {
-        if (! isMatch(logicalPosition, SplitList.class)) {
-            return null;
+    public double getDoubleValue(String logicalPosition, double nullValue) {
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        int ordinal = slots.getOrdinal(logicalPosition);
+        if (ordinal < 0 || ! isMatch(slots, ordinal, Double.class)) {
+            return nullValue;
         }
 
-        return (SplitList) record.get(logicalPosition);
+        Object value = cells[ordinal] == UNDECODED ? decode(ordinal) : cells[ordinal];
+        if (value == DOUBLE_CELL) {
+            return Double.longBitsToDouble(numbers[slots.getNumberSlot(ordinal)]);
+        }
+        return value instanceof Double ? (Double) value : nullValue;
+    }
+
+    /**
+     * Get cell value and convert it to {@link SplitList} object. If can not convert, return null.
+     */
+    protected SplitList getSplitList(String logicalPosition) {
+        return (SplitList) getValue(logicalPosition, SplitList.class);
     }
 
     /**
      * Get cell value and convert it to {@link URI}. If can not convert, return null.
      */
     protected URI getURI(String logicalPosition) {
-        if (! isMatch(logicalPosition, URI.class)) {
-            return null;
-        }
-
-        return (URI) record.get(logicalPosition);
+        return (URI) getValue(logicalPosition, URI.class);
     }
 
     /**
      * Get cell value and convert it to {@link Reliability}. If can not convert, return null.
      */
     protected Reliability getReliability(String logicalPosition) {
-        if (! isMatch(logicalPosition, Reliability.class)) {
-            return null;
-        }
-
-        return (Reliability) record.get(logicalPosition);
+        return (Reliability) getValue(logicalPosition, Reliability.class);
     }
 
     /**
      * Get cell value and convert it to {@link MZBoolean}. If can not convert, return null.
      */
     protected MZBoolean getMZBoolean(String logicalPosition) {
-        if (! isMatch(logicalPosition, MZBoolean.class)) {
-            return null;
-        }
-
-        return (MZBoolean) record.get(logicalPosition);
+        return (MZBoolean) getValue(logicalPosition, MZBoolean.class);
     }
 
     /**
      * Get logical position based on column's order and element id.
      *
      * order + id + element.id
+     *
+     * The logical position of the factory column is returned without creating a new string. If the factory has no
+     * such column, the position is created.
      */
     protected String getLogicalPosition(MZTabColumn column, Integer id, IndexedElement element) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", Integer.parseInt(column.getOrder())));
-        if (id != null) {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", id));
-        } else {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", 0));
-        }
+        int order = Integer.parseInt(column.getOrder());
+        int index = id == null ? 0 : id;
+        int elementId = element == null ? 0 : element.getId();
 
-        if (element != null) {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", element.getId()));
-        } else {
-            sb.append(String.format("%0"+MZTabConstants.ORDER_DIGITS+"d", 0));
+        MZTabColumnFactory.ColumnSlots slots = getSlots();
+        int ordinal = slots.getOrdinal(order, index, elementId);
+        if (ordinal >= 0) {
+            return slots.getPosition(ordinal);
         }
+
+        StringBuilder sb = new StringBuilder();
+        MZTabColumn.appendOrder(sb, order);
+        MZTabColumn.appendOrder(sb, index);
+        MZTabColumn.appendOrder(sb, elementId);
         return sb.toString();
     }
 
-    /**
-     * Get a abundance column based on header. For example: protein_abundance_assay[1-n].
-     *
-     * NOTICE: abundance columns in {@link Section#Small_Molecule} is very special, which miss '_' character.
-     * For example: smallmolecule_abundance_assay[1-n]. We use {@link AbundanceColumn#translate(String)}
-     * function to overcome this problem.
-     */
     private MZTabColumn getAbundanceColumn(String tag, IndexedElement element) {
-        if (element == null) {
-            throw new NullPointerException("Element should be provide!");
-        }
-
-        Section dataSection = Section.toDataSection(factory.getSection());
-        String header = (dataSection == Section.Small_Molecule ? AbundanceColumn.translate(dataSection.getName()) : dataSection.getName()) + tag + element.getReference();
-
-        return factory.findColumnByHeader(header);
+        return factory.findAbundanceColumn(tag, element);
     }
 
     /**
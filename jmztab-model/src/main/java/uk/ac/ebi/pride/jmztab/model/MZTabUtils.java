@@ -25,6 +25,15 @@ public class MZTabUtils {
 
     private static Logger logger = LoggerFactory.getLogger(MZTabUtils.class);
 
+    private static final Double NAN_VALUE = Double.NaN;
+    private static final Double INFINITY_VALUE = Double.POSITIVE_INFINITY;
+
+    private static final Pattern EMAIL_PATTERN =
+        Pattern.compile("[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-']+)*@[A-Za-z0-9]+(?:[-.][A-Za-z0-9]+)*(\\.[A-Za-z]{2,})");
+    private static final Pattern CV_PARAM_PATTERN = Pattern.compile("\\[([^\\[\\]]+)\\]");
+    private static final Pattern CHEMMOD_MINUS_PATTERN = Pattern.compile("(CHEMMOD:.*)(-)(.*)");
+    private static final Pattern CHEMMOD_UNICODE_PATTERN = Pattern.compile("(.*CHEMMOD:.*)(&minus;)(.*)");
+
     /**
      * Check the string is null or blank.
      */
@@ -89,10 +98,7 @@ public class MZTabUtils {
             return null;
         }
 
-//        String regexp = "^\\s*\\w+(?:\\.{0,1}[\\w-]+)*@[a-zA-Z0-9]+(?:[-.][a-zA-Z0-9]+)*\\.[a-zA-Z]+\\s*$";
-        String regexp = "[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-']+)*@[A-Za-z0-9]+(?:[-.][A-Za-z0-9]+)*(\\.[A-Za-z]{2,})";
-        Pattern pattern = Pattern.compile(regexp);
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = EMAIL_PATTERN.matcher(target);
 
         return matcher.find() ? target : null;
     }
@@ -106,49 +112,7 @@ public class MZTabUtils {
      * Notice: name cell never set null.
      */
     public static Param parseParam(String target) {
-        target = parseString(target);
-        if (target == null) {
-            return null;
-        }
-
-        try {
-            target = target.substring(target.indexOf("[") + 1, target.lastIndexOf("]"));
-            String[] tokens = target.split(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-
-            if (tokens.length == 4) {
-                String cvLabel = tokens[0].trim();
-
-                String accession = tokens[1].trim();
-
-                String name = tokens[2].trim();
-                if(name.contains("\"")) {  //We remove the escaping because it will be written back in the writer
-                    name = removeDoubleQuotes(name);
-                }
-
-                if (isEmpty(name)) {
-                    return null;
-                }
-
-                String value = tokens[3].trim();
-                if(value.contains("\"")) {  //We remove the escaping because it will be written back in the writer
-                    value = removeDoubleQuotes(value);
-                }
-                if (isEmpty(value)) {
-                    value = null;
-                }
-
-                if (isEmpty(cvLabel) && isEmpty(accession)) {
-                    return new UserParam(name, value);
-                } else {
-                    return new CVParam(cvLabel, accession, name, value);
-                }
-            }
-        } catch (IndexOutOfBoundsException e) {
-            return null;
-        }
-
-        return null;
-
+        return MZTabCellParser.parseParam(target);
     }
 
     /**
@@ -195,19 +159,7 @@ public class MZTabUtils {
      * parse the target into a {@link IndexedElement} object.
      */
     public static IndexedElement parseIndexedElement(String target, MetadataElement element) {
-        target = parseString(target);
-        if (target == null) {
-            return null;
-        }
-
-        Pattern pattern = Pattern.compile(element + "\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(target);
-        if (matcher.find()) {
-            Integer id = new Integer(matcher.group(1));
-            return new IndexedElement(element, id);
-        } else {
-            return null;
-        }
+        return MZTabCellParser.parseIndexedElement(target, element);
     }
 
     /**
@@ -276,15 +228,11 @@ public class MZTabUtils {
             return null;
         }
 
-        Integer integer;
-
         try {
-            integer = new Integer(target);
+            return MZTabNumberParser.parseInt(target, 0, target.length());
         } catch (NumberFormatException e) {
-            integer = null;
+            return null;
         }
-
-        return integer;
     }
 
     /**
@@ -297,23 +245,18 @@ public class MZTabUtils {
             return null;
         }
 
-        Double value;
+        double value;
         try {
-            value = new Double(target);
+            value = MZTabNumberParser.parseDouble(target, 0, target.length());
         } catch (NumberFormatException e) {
-            switch (target) {
-                case CALCULATE_ERROR:
-                    value = Double.NaN;
-                    break;
-                case INFINITY:
-                    value = Double.POSITIVE_INFINITY;
-                    break;
-                default:
-                    value = null;
-                    break;
-            }
+            return null;
         }
 
+        if (Double.isNaN(value)) {
+            return NAN_VALUE;
+        } else if (value == Double.POSITIVE_INFINITY) {
+            return INFINITY_VALUE;
+        }
         return value;
     }
 
@@ -418,55 +361,11 @@ public class MZTabUtils {
      * Parse a {@link SpectraRef} list.
      */
     public static SplitList<SpectraRef> parseSpectraRefList(Metadata metadata, String target) {
-        SplitList<String> list = parseStringList(BAR, target);
-        SplitList<SpectraRef> refList = new SplitList<SpectraRef>(BAR);
-
-        Pattern pattern = Pattern.compile("ms_run\\[(\\d+)\\]:(.*)");
-        Matcher matcher;
-        Integer ms_file_id;
-        String reference;
-        SpectraRef ref;
-        for (String item : list) {
-            matcher = pattern.matcher(item.trim());
-            if (matcher.find()) {
-                ms_file_id = new Integer(matcher.group(1));
-                reference = matcher.group(2);
-
-                MsRun msRun = metadata.getMsRunMap().get(ms_file_id);
-                if (msRun == null) {
-                    ref = null;
-                } else {
-                    ref = new SpectraRef(msRun, reference);
-                }
-
-                if (ref == null) {
-                    refList.clear();
-                    break;
-                } else {
-                    refList.add(ref);
-                }
-            }
-        }
-
-        return refList;
+        return MZTabCellParser.parseSpectraRefList(metadata, target);
     }
 
     public static void parseModificationPosition(String target, Modification modification) {
-        target = translateTabToComma(target);
-        SplitList<String> list = parseStringList(BAR, target);
-
-        Pattern pattern = Pattern.compile("(\\d+)(\\[([^,]+)?,([^,]+)?,([^,]+),([^,]*)\\])?");
-        Matcher matcher;
-        Integer id;
-        CVParam param;
-        for (String item : list) {
-            matcher = pattern.matcher(item.trim());
-            if (matcher.find()) {
-                id = new Integer(matcher.group(1));
-                param = matcher.group(5) == null ? null : new CVParam(matcher.group(3), matcher.group(4), matcher.group(5), matcher.group(6));
-                modification.addPosition(id, param);
-            }
-        }
+        MZTabCellParser.parseModificationPosition(target, modification);
     }
 
     /**
@@ -474,8 +373,7 @@ public class MZTabUtils {
      *  For example: 13-CHEMMOD:-159
      */
     public static String translateMinusToUnicode(String target) {
-        Pattern pattern = Pattern.compile("(CHEMMOD:.*)(-)(.*)");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CHEMMOD_MINUS_PATTERN.matcher(target);
         StringBuilder sb = new StringBuilder();
         if (matcher.find()) {
             sb.append(matcher.group(1));
@@ -489,8 +387,7 @@ public class MZTabUtils {
     }
 
     public static String translateMinusInCVtoUnicode(String target){
-        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CV_PARAM_PATTERN.matcher(target);
 
         StringBuilder sb = new StringBuilder();
 
@@ -517,8 +414,7 @@ public class MZTabUtils {
      *  For example: 13-CHEMMOD:-159
      */
     public static String translateUnicodeToMinus(String target) {
-        Pattern pattern = Pattern.compile("(.*CHEMMOD:.*)(&minus;)(.*)");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CHEMMOD_UNICODE_PATTERN.matcher(target);
         if (matcher.find()) {
             StringBuilder sb = new StringBuilder();
 
@@ -536,79 +432,14 @@ public class MZTabUtils {
      * Parse the target to {@link Modification}
      */
     public static Modification parseModification(Section section, String target) {
-        target = parseString(target);
-        if (target == null) {
-            return null;
-        }
-
-        // no modification
-        if (target.equals("0")) {
-            return Modification.createNoModification(section);
-        }
-
-        target = translateMinusToUnicode(target);
-        target = translateMinusInCVtoUnicode(target);
-        if (target.isEmpty()) {
-            return null;
-        }
-
-        target = translateTabToComma(target);
-        target = translateMinusToTab(target);
-        String[] items = target.split("\\-");
-        String modLabel;
-        String positionLabel;
-        if (items.length > 2) {
-            // error
-            return null;
-        } if (items.length == 2) {
-            positionLabel = items[0];
-            modLabel = items[1];
-        } else {
-            positionLabel = null;
-            modLabel = items[0];
-        }
-
-        Modification modification = null;
-        Modification.Type type;
-        String accession;
-        CVParam neutralLoss;
-
-        modLabel = translateUnicodeToMinus(modLabel);
-        modLabel = translateUnicodeCVTermMinus(modLabel);
-        modLabel = translateTabToMinus(modLabel);
-        Pattern pattern = Pattern.compile("(MOD|UNIMOD|CHEMMOD|SUBST):([^\\|]+)(\\|\\[([^,]+)?,([^,]+)?,([^,]+),([^,]*)\\])?");
-        Matcher matcher = pattern.matcher(modLabel);
-        if (matcher.find()) {
-            type = Modification.findType(matcher.group(1));
-            accession = matcher.group(2);
-            modification = new Modification(section, type, accession);
-            if (positionLabel != null) {
-                positionLabel =  translateUnicodeCVTermMinus(positionLabel);
-                parseModificationPosition(positionLabel, modification);
-            }
-
-            neutralLoss = matcher.group(6) == null ? null : new CVParam(matcher.group(4), matcher.group(5), matcher.group(6), matcher.group(7));
-            modification.setNeutralLoss(neutralLoss);
-        } else if(parseParam(modLabel) != null){
-           // Check if is a Neutral Loss
-            CVParam param = (CVParam) parseParam(modLabel);
-            modification = new Modification(section, Modification.Type.NEUTRAL_LOSS, param != null ? param.getAccession() : null);
-            modification.setNeutralLoss(param);
-            if (positionLabel != null) {
-                parseModificationPosition(positionLabel, modification);
-            }
-
-        }
-
-        return modification;
+        return MZTabCellParser.parseModification(section, target);
     }
 
     /**
      * locate param label [label, accession, name, value], translate ',' to '\t'
      */
     public static String translateCommaToTab(String target) {
-        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CV_PARAM_PATTERN.matcher(target);
 
         StringBuilder sb = new StringBuilder();
 
@@ -629,8 +460,7 @@ public class MZTabUtils {
      * solve the conflict about comma char which used in split modification and split cv param components.
      */
     public static String translateTabToComma(String target) {
-        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CV_PARAM_PATTERN.matcher(target);
 
         StringBuilder sb = new StringBuilder();
 
@@ -650,8 +480,7 @@ public class MZTabUtils {
     //Solve the problem for Neutral losses in CvTerm format
 
     public static String translateMinusToTab(String target){
-        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CV_PARAM_PATTERN.matcher(target);
 
         StringBuilder sb = new StringBuilder();
 
@@ -682,8 +511,7 @@ public class MZTabUtils {
 
 
     public static String translateLastToTab(String target){
-        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CV_PARAM_PATTERN.matcher(target);
 
         StringBuilder sb = new StringBuilder();
 
@@ -705,8 +533,7 @@ public class MZTabUtils {
      * solve the conflict about comma char which used in split modification and split cv param components.
      */
     public static String translateTabToMinus(String target) {
-        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
-        Matcher matcher = pattern.matcher(target);
+        Matcher matcher = CV_PARAM_PATTERN.matcher(target);
 
         StringBuilder sb = new StringBuilder();
 
@@ -727,33 +554,7 @@ public class MZTabUtils {
      * Parse the target string to a {@link Modification} list, which split by comma character.
      */
     public static SplitList<Modification> parseModificationList(Section section, String target) {
-        target = parseString(target);
-        SplitList<Modification> modList = new SplitList<Modification>(COMMA);
-
-        if (target == null) {
-            return modList;
-        }
-
-        if (target.equals("0")) {
-            modList.add(Modification.createNoModification(section));
-            return modList;
-        }
-
-        target = translateCommaToTab(target);
-        SplitList<String> list = parseStringList(COMMA, target);
-
-        Modification mod;
-        for (String item : list) {
-            mod = parseModification(section,  item.trim());
-            if (mod == null) {
-                modList.clear();
-                break;
-            } else {
-                modList.add(mod);
-            }
-        }
-
-        return modList;
+        return MZTabCellParser.parseModificationList(section, target);
     }
 
     /**
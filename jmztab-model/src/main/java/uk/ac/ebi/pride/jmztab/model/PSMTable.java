@@ -0,0 +1,755 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import java.net.URI;
+import java.util.*;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.BAR;
+import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.parseSpectraRefList;
+import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.parseURI;
+
+/**
+ * Column oriented store of the {@link PSM} section, which is used instead of a Collection&lt;PSM&gt; for analysis of
+ * big files. Each stable column of the psm section is kept in one array, indexed by the row:
+ * <ul>
+ *     <li>sequence, accession, database, database_version, search_engine, modifications, uri, pre and post are
+ *     dictionary encoded into int codes, -1 for null. Each distinct value is kept once, see
+ *     {@link #getSequenceDictionary()}. The search_engine and modifications lists are kept parsed, the rows share
+ *     their {@link Param} and {@link Modification} elements.</li>
+ *     <li>spectra_ref, which is nearly unique for each row, is kept as the ms_run id, the dictionary code of the
+ *     reference prefix and the number which ends the reference, for example "spectrum=" and 391, in three int arrays.
+ *     This covers the usual spectra_ref of one spectrum of a metadata ms_run. A reference which does not end with a
+ *     number is kept whole in the prefix dictionary, and the other spectra_ref, for example lists of several spectra
+ *     or an ms_run not defined in the metadata, are kept as text and parsed again by {@link Row#getSpectraRef()}.</li>
+ *     <li>PSM_ID, charge, start and end are kept in int arrays, exp_mass_to_charge, calc_mass_to_charge and the first
+ *     retention time in double arrays, and search_engine_score[1-n] in one double array for each score.</li>
+ *     <li>reliability and unique are kept in byte arrays.</li>
+ * </ul>
+ *
+ * Null cells are 0 in int arrays and NaN in double arrays, and they are recorded in a null mask, so the
+ * {@link Row} getters return null for them, while the full column scans do not need to check the null mask.
+ * The optional opt_ columns are not kept.
+ *
+ * For 200,000 psms of PRIDE_Example.mztab with unique PSM_ID and spectra_ref, see PSMTableRun, the table uses
+ * about 175 bytes per psm, and a List&lt;PSM&gt; about 1060 bytes per psm.
+ *
+ * <pre>
+ * PSMTable table = reader.readPSMTable();
+ * double[] mz = table.getExpMassToChargeColumn();
+ * for (int i = 0; i &lt; table.size(); i++) {
+ *     ... mz[i] ...
+ * }
+ * for (PSMTable.Row row : table) {
+ *     String sequence = row.getSequence();
+ * }
+ * </pre>
+ */
+public class PSMTable implements Iterable<PSMTable.Row> {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Metadata metadata;
+    private final MZTabColumnFactory factory;
+
+    private int size = 0;
+    private int capacity = 0;
+
+    private Dictionary<String> sequences = new Dictionary<String>();
+    private Dictionary<String> accessions = new Dictionary<String>();
+    private Dictionary<SplitList<Modification>> modifications = new ListDictionary<Modification>();
+    private Dictionary<SplitList<Param>> searchEngines = new ListDictionary<Param>();
+    // database, database_version, uri, pre and post, which have few distinct values.
+    private Dictionary<String> terms = new Dictionary<String>();
+
+    private int[] sequenceCodes = new int[0];
+    private int[] accessionCodes = new int[0];
+    private int[] databaseCodes = new int[0];
+    private int[] databaseVersionCodes = new int[0];
+    private int[] searchEngineCodes = new int[0];
+    private int[] modificationsCodes = new int[0];
+    private int[] uriCodes = new int[0];
+    private int[] preCodes = new int[0];
+    private int[] postCodes = new int[0];
+
+    // ms_run id, reference prefix code and reference number of the rows which spectra_ref is one spectrum of a
+    // metadata ms_run, the ms_run id is 0 otherwise. The number is -1 if the reference does not end with a number.
+    private int[] spectraRefMsRunIds = new int[0];
+    private int[] spectraRefPrefixCodes = new int[0];
+    private int[] spectraRefNumbers = new int[0];
+    private Dictionary<String> spectraRefPrefixes = new Dictionary<String>();
+    // rows which spectra_ref is not null and is not kept in the arrays above: empty list, or more than one spectrum.
+    private Map<Integer, String> spectraRefLists = new HashMap<Integer, String>();
+
+    private IntColumn psmIds = new IntColumn();
+    private IntColumn charges = new IntColumn();
+    private IntColumn starts = new IntColumn();
+    private IntColumn ends = new IntColumn();
+
+    private DoubleColumn expMassToCharges = new DoubleColumn();
+    private DoubleColumn calcMassToCharges = new DoubleColumn();
+    private DoubleColumn retentionTimes = new DoubleColumn();
+    // rows which retention time is not a single value: empty list, more than one time points, or null time points,
+    // which are kept as null elements.
+    private Map<Integer, Double[]> retentionTimeLists = new HashMap<Integer, Double[]>();
+
+    private Integer[] scoreIds;
+    private DoubleColumn[] scores;
+
+    // reliability level 1-3, 0 for null.
+    private byte[] reliabilities = new byte[0];
+    // 1 for true, 0 for false, -1 for null.
+    private byte[] uniques = new byte[0];
+
+    /**
+     * @param metadata SHOULD NOT set null. The search_engine_score[1-n] columns are defined by
+     *                 {@link Metadata#getPsmSearchEngineScoreMap()}, and the ms_run of spectra_ref are resolved
+     *                 by the metadata.
+     * @param factory the column factory of the psm section, which is used by {@link Row#toPSM()}. If null, the
+     *                default stable columns and the search engine score columns are used.
+     */
+    public PSMTable(Metadata metadata, MZTabColumnFactory factory) {
+        if (metadata == null) {
+            throw new NullPointerException("Metadata should be parsed first.");
+        }
+        this.metadata = metadata;
+
+        if (factory == null) {
+            factory = MZTabColumnFactory.getInstance(Section.PSM_Header);
+            factory.addDefaultStableColumns();
+            for (Integer id : metadata.getPsmSearchEngineScoreMap().keySet()) {
+                factory.addSearchEngineScoreOptionalColumn(PSMColumn.SEARCH_ENGINE_SCORE, id, null);
+            }
+        }
+        this.factory = factory;
+
+        Set<Integer> ids = metadata.getPsmSearchEngineScoreMap().keySet();
+        scoreIds = ids.toArray(new Integer[ids.size()]);
+        scores = new DoubleColumn[scoreIds.length];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = new DoubleColumn();
+        }
+    }
+
+    /**
+     * Dictionary, which map each distinct value to an int code, the values are identified by their text. The reverse
+     * map is only needed while rows are added, it is dropped by {@link #trimToSize()} and created again if more rows
+     * are added.
+     */
+    private static class Dictionary<T> {
+        private Map<String, Integer> codes = new HashMap<String, Integer>();
+        private ArrayList<T> values = new ArrayList<T>();
+
+        private int encode(T value) {
+            if (value == null) {
+                return -1;
+            }
+
+            if (codes == null) {
+                codes = new HashMap<String, Integer>(values.size() * 2);
+                for (int i = 0; i < values.size(); i++) {
+                    codes.put(values.get(i).toString(), i);
+                }
+            }
+
+            String text = value.toString();
+            Integer code = codes.get(text);
+            if (code == null) {
+                code = values.size();
+                codes.put(text, code);
+                values.add(copy(value));
+            }
+            return code;
+        }
+
+        /**
+         * @return the value kept by the dictionary for a new code.
+         */
+        protected T copy(T value) {
+            return value;
+        }
+
+        private T decode(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+
+        private List<T> getValues() {
+            return Collections.unmodifiableList(values);
+        }
+
+        private void trimToSize() {
+            codes = null;
+            values.trimToSize();
+        }
+    }
+
+    /**
+     * Dictionary of lists, which keeps its own copy of each distinct list, so the record the list comes from can
+     * still be changed.
+     */
+    private static class ListDictionary<E> extends Dictionary<SplitList<E>> {
+        @Override
+        protected SplitList<E> copy(SplitList<E> value) {
+            return copyList(value);
+        }
+    }
+
+    private static <E> SplitList<E> copyList(SplitList<E> list) {
+        if (list == null) {
+            return null;
+        }
+
+        SplitList<E> copy = new SplitList<E>(list.getSplitChar());
+        copy.addAll(list);
+        return copy;
+    }
+
+    /**
+     * Bit set of the null cells of a column.
+     */
+    private static class NullMask {
+        private long[] words = new long[0];
+
+        private void set(int row, boolean isNull) {
+            int index = row >>> 6;
+            if (index >= words.length) {
+                words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+            }
+            if (isNull) {
+                words[index] |= 1L << row;
+            } else {
+                words[index] &= ~(1L << row);
+            }
+        }
+
+        private boolean get(int row) {
+            int index = row >>> 6;
+            return index < words.length && (words[index] & (1L << row)) != 0;
+        }
+    }
+
+    private static class IntColumn {
+        private int[] values = new int[0];
+        private NullMask nulls = new NullMask();
+
+        private void set(int row, Integer value) {
+            values[row] = value == null ? 0 : value;
+            nulls.set(row, value == null);
+        }
+
+        private Integer get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+    }
+
+    private static class DoubleColumn {
+        private double[] values = new double[0];
+        private NullMask nulls = new NullMask();
+
+        private void set(int row, Double value) {
+            values[row] = value == null ? Double.NaN : value;
+            nulls.set(row, value == null);
+        }
+
+        private Double get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+
+        resize(Math.max(minCapacity, Math.max(INITIAL_CAPACITY, capacity * 2)));
+    }
+
+    /**
+     * Trim the column arrays to the number of rows, and drop the maps used to encode the texts, which is called after
+     * the last row is added.
+     */
+    public void trimToSize() {
+        if (size < capacity) {
+            resize(size);
+        }
+        for (Dictionary<?> dictionary : new Dictionary<?>[] {sequences, accessions, modifications, searchEngines, terms,
+            spectraRefPrefixes}) {
+            dictionary.trimToSize();
+        }
+    }
+
+    private void resize(int newCapacity) {
+        sequenceCodes = Arrays.copyOf(sequenceCodes, newCapacity);
+        accessionCodes = Arrays.copyOf(accessionCodes, newCapacity);
+        databaseCodes = Arrays.copyOf(databaseCodes, newCapacity);
+        databaseVersionCodes = Arrays.copyOf(databaseVersionCodes, newCapacity);
+        searchEngineCodes = Arrays.copyOf(searchEngineCodes, newCapacity);
+        modificationsCodes = Arrays.copyOf(modificationsCodes, newCapacity);
+        uriCodes = Arrays.copyOf(uriCodes, newCapacity);
+        preCodes = Arrays.copyOf(preCodes, newCapacity);
+        postCodes = Arrays.copyOf(postCodes, newCapacity);
+        spectraRefMsRunIds = Arrays.copyOf(spectraRefMsRunIds, newCapacity);
+        spectraRefPrefixCodes = Arrays.copyOf(spectraRefPrefixCodes, newCapacity);
+        spectraRefNumbers = Arrays.copyOf(spectraRefNumbers, newCapacity);
+
+        for (IntColumn column : new IntColumn[] {psmIds, charges, starts, ends}) {
+            column.values = Arrays.copyOf(column.values, newCapacity);
+        }
+        for (DoubleColumn column : new DoubleColumn[] {expMassToCharges, calcMassToCharges, retentionTimes}) {
+            column.values = Arrays.copyOf(column.values, newCapacity);
+        }
+        for (DoubleColumn column : scores) {
+            column.values = Arrays.copyOf(column.values, newCapacity);
+        }
+
+        reliabilities = Arrays.copyOf(reliabilities, newCapacity);
+        uniques = Arrays.copyOf(uniques, newCapacity);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Append the cells of the psm record as a new row. The record is not kept by the table.
+     *
+     * @param psm SHOULD NOT set null.
+     * @return the row index.
+     */
+    public int add(PSM psm) {
+        ensureCapacity(size + 1);
+        int row = size;
+
+        sequenceCodes[row] = sequences.encode(psm.getSequence());
+        accessionCodes[row] = accessions.encode(psm.getAccession());
+        databaseCodes[row] = terms.encode(psm.getDatabase());
+        databaseVersionCodes[row] = terms.encode(psm.getDatabaseVersion());
+        searchEngineCodes[row] = searchEngines.encode(psm.getSearchEngine());
+        modificationsCodes[row] = modifications.encode(psm.getModifications());
+        URI uri = psm.getURI();
+        uriCodes[row] = terms.encode(uri == null ? null : uri.toString());
+        preCodes[row] = terms.encode(psm.getPre());
+        postCodes[row] = terms.encode(psm.getPost());
+        addSpectraRef(row, psm.getSpectraRef());
+
+        psmIds.set(row, psm.getInteger(PSMColumn.PSM_ID.getLogicPosition()));
+        charges.set(row, psm.getCharge());
+        starts.set(row, psm.getStart());
+        ends.set(row, psm.getEnd());
+
+        expMassToCharges.set(row, psm.getExpMassToCharge());
+        calcMassToCharges.set(row, psm.getCalcMassToCharge());
+        SplitList<Double> retentionTime = psm.getRetentionTime();
+        if (retentionTime == null || retentionTime.size() == 1 && retentionTime.get(0) != null) {
+            retentionTimes.set(row, retentionTime == null ? null : retentionTime.get(0));
+        } else {
+            Double[] times = retentionTime.toArray(new Double[retentionTime.size()]);
+            retentionTimeLists.put(row, times);
+            retentionTimes.set(row, times.length == 0 || times[0] == null ? Double.NaN : times[0]);
+        }
+
+        for (int i = 0; i < scores.length; i++) {
+            scores[i].set(row, psm.getSearchEngineScore(scoreIds[i]));
+        }
+
+        Reliability reliability = psm.getReliability();
+        reliabilities[row] = (byte) (reliability == null ? 0 : reliability.getLevel());
+        MZBoolean unique = psm.getUnique();
+        uniques[row] = (byte) (unique == null ? -1 : unique == MZBoolean.True ? 1 : 0);
+
+        size++;
+        return row;
+    }
+
+    private void addSpectraRef(int row, SplitList<SpectraRef> spectraRef) {
+        spectraRefMsRunIds[row] = 0;
+        spectraRefPrefixCodes[row] = -1;
+        spectraRefNumbers[row] = -1;
+        if (spectraRef == null) {
+            return;
+        }
+
+        if (spectraRef.size() == 1) {
+            MsRun msRun = spectraRef.get(0).getMsRun();
+            Integer id = msRun.getId();
+            String reference = spectraRef.get(0).getReference();
+            if (id != null && id > 0 && metadata.getMsRunMap().get(id) == msRun && reference != null) {
+                int numberStart = getNumberStart(reference);
+                spectraRefMsRunIds[row] = id;
+                if (numberStart < 0) {
+                    spectraRefPrefixCodes[row] = spectraRefPrefixes.encode(reference);
+                } else {
+                    spectraRefPrefixCodes[row] = spectraRefPrefixes.encode(reference.substring(0, numberStart));
+                    spectraRefNumbers[row] = Integer.parseInt(reference.substring(numberStart));
+                }
+                return;
+            }
+        }
+        spectraRefLists.put(row, spectraRef.toString());
+    }
+
+    /**
+     * @return the start of the number which ends the reference, or -1 if the reference does not end with a number
+     * which is kept exactly by an int, without leading zeros.
+     */
+    private static int getNumberStart(String reference) {
+        int start = reference.length();
+        while (start > 0 && reference.charAt(start - 1) >= '0' && reference.charAt(start - 1) <= '9') {
+            start--;
+        }
+
+        int length = reference.length() - start;
+        if (length == 0 || length > 9 || length > 1 && reference.charAt(start) == '0') {
+            return -1;
+        }
+        return start;
+    }
+
+    private String getSpectraRefReference(int row) {
+        String prefix = spectraRefPrefixes.decode(spectraRefPrefixCodes[row]);
+        return spectraRefNumbers[row] < 0 ? prefix : prefix + spectraRefNumbers[row];
+    }
+
+    /**
+     * @return the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    public MZTabColumnFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * @param row from 0 to size - 1.
+     * @return the view of the row, which read the cells from the table.
+     */
+    public Row getRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+        }
+        return new Row(row);
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+            private int row = 0;
+
+            @Override
+            public boolean hasNext() {
+                return row < size;
+            }
+
+            @Override
+            public Row next() {
+                if (row >= size) {
+                    throw new NoSuchElementException();
+                }
+                return new Row(row++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Rows can not be removed from the table.");
+            }
+        };
+    }
+
+    /*
+     * The column arrays below are shared with the table, only the first size() values are valid and they SHOULD
+     * NOT be modified. The arrays are replaced when rows are added, so query them again after adding rows.
+     */
+
+    public int[] getSequenceCodes() {
+        return sequenceCodes;
+    }
+
+    public int[] getAccessionCodes() {
+        return accessionCodes;
+    }
+
+    public int[] getModificationsCodes() {
+        return modificationsCodes;
+    }
+
+    /**
+     * @return the ms_run id of the spectra_ref of each row, 0 if the spectra_ref is null or is not one spectrum.
+     */
+    public int[] getSpectraRefMsRunColumn() {
+        return spectraRefMsRunIds;
+    }
+
+    /**
+     * @return the code of the spectrum reference prefix of the spectra_ref of each row, -1 if the ms_run id is 0,
+     * see {@link #getSpectraRefPrefixDictionary()}.
+     */
+    public int[] getSpectraRefPrefixCodes() {
+        return spectraRefPrefixCodes;
+    }
+
+    /**
+     * @return the number which ends the spectrum reference of the spectra_ref of each row, for example 391 of
+     * "spectrum=391", -1 if the reference does not end with a number or the ms_run id is 0.
+     */
+    public int[] getSpectraRefNumberColumn() {
+        return spectraRefNumbers;
+    }
+
+    public int[] getPSMIdColumn() {
+        return psmIds.values;
+    }
+
+    public int[] getChargeColumn() {
+        return charges.values;
+    }
+
+    public int[] getStartColumn() {
+        return starts.values;
+    }
+
+    public int[] getEndColumn() {
+        return ends.values;
+    }
+
+    public double[] getExpMassToChargeColumn() {
+        return expMassToCharges.values;
+    }
+
+    public double[] getCalcMassToChargeColumn() {
+        return calcMassToCharges.values;
+    }
+
+    /**
+     * @return the first retention time of each row.
+     */
+    public double[] getRetentionTimeColumn() {
+        return retentionTimes.values;
+    }
+
+    /**
+     * @param id search_engine_score[id] which MUST be defined in the metadata section.
+     * @return the scores, or null if the score is not defined in metadata.
+     */
+    public double[] getSearchEngineScoreColumn(Integer id) {
+        for (int i = 0; i < scoreIds.length; i++) {
+            if (scoreIds[i].equals(id)) {
+                return scores[i].values;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return reliability level 1-3 of each row, 0 for null.
+     */
+    public byte[] getReliabilityColumn() {
+        return reliabilities;
+    }
+
+    /**
+     * @return 1 for true, 0 for false, and -1 for null.
+     */
+    public byte[] getUniqueColumn() {
+        return uniques;
+    }
+
+    /**
+     * @return the distinct sequences, indexed by the codes of {@link #getSequenceCodes()}.
+     */
+    public List<String> getSequenceDictionary() {
+        return sequences.getValues();
+    }
+
+    /**
+     * @return the distinct accessions, indexed by the codes of {@link #getAccessionCodes()}.
+     */
+    public List<String> getAccessionDictionary() {
+        return accessions.getValues();
+    }
+
+    /**
+     * @return the distinct modifications lists, indexed by the codes of {@link #getModificationsCodes()}. The lists
+     * are shared by the rows, and SHOULD NOT be modified.
+     */
+    public List<SplitList<Modification>> getModificationsDictionary() {
+        return modifications.getValues();
+    }
+
+    /**
+     * @return the distinct spectrum reference prefixes, or the whole references which do not end with a number,
+     * indexed by the codes of {@link #getSpectraRefPrefixCodes()}.
+     */
+    public List<String> getSpectraRefPrefixDictionary() {
+        return spectraRefPrefixes.getValues();
+    }
+
+    /**
+     * Read only view of one row of the table, which getters return the same values with the {@link PSM} getters.
+     * The list values are created from the table for each call, while the {@link Param} and {@link Modification}
+     * elements are shared by the rows, and SHOULD NOT be modified.
+     */
+    public final class Row {
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        /**
+         * @return the row index in the table.
+         */
+        public int getRow() {
+            return row;
+        }
+
+        public String getSequence() {
+            return sequences.decode(sequenceCodes[row]);
+        }
+
+        public String getPSM_ID() {
+            return "" + psmIds.get(row);
+        }
+
+        public String getAccession() {
+            return accessions.decode(accessionCodes[row]);
+        }
+
+        public MZBoolean getUnique() {
+            return uniques[row] < 0 ? null : uniques[row] == 1 ? MZBoolean.True : MZBoolean.False;
+        }
+
+        public String getDatabase() {
+            return terms.decode(databaseCodes[row]);
+        }
+
+        public String getDatabaseVersion() {
+            return terms.decode(databaseVersionCodes[row]);
+        }
+
+        public SplitList<Param> getSearchEngine() {
+            return copyList(searchEngines.decode(searchEngineCodes[row]));
+        }
+
+        public Double getSearchEngineScore(Integer id) {
+            for (int i = 0; i < scoreIds.length; i++) {
+                if (scoreIds[i].equals(id)) {
+                    return scores[i].get(row);
+                }
+            }
+            return null;
+        }
+
+        public Reliability getReliability() {
+            switch (reliabilities[row]) {
+                case 1:
+                    return Reliability.High;
+                case 2:
+                    return Reliability.Medium;
+                case 3:
+                    return Reliability.Poor;
+                default:
+                    return null;
+            }
+        }
+
+        public SplitList<Modification> getModifications() {
+            return copyList(modifications.decode(modificationsCodes[row]));
+        }
+
+        public SplitList<Double> getRetentionTime() {
+            Double[] times = retentionTimeLists.get(row);
+            Double time = retentionTimes.get(row);
+            if (times == null && time == null) {
+                return null;
+            }
+
+            SplitList<Double> rtList = new SplitList<Double>(BAR);
+            if (times == null) {
+                rtList.add(time);
+            } else {
+                Collections.addAll(rtList, times);
+            }
+            return rtList;
+        }
+
+        public Integer getCharge() {
+            return charges.get(row);
+        }
+
+        public Double getExpMassToCharge() {
+            return expMassToCharges.get(row);
+        }
+
+        public Double getCalcMassToCharge() {
+            return calcMassToCharges.get(row);
+        }
+
+        public URI getURI() {
+            String text = terms.decode(uriCodes[row]);
+            return text == null ? null : parseURI(text);
+        }
+
+        public SplitList<SpectraRef> getSpectraRef() {
+            int msRunId = spectraRefMsRunIds[row];
+            if (msRunId > 0) {
+                SplitList<SpectraRef> refList = new SplitList<SpectraRef>(BAR);
+                refList.add(new SpectraRef(metadata.getMsRunMap().get(msRunId), getSpectraRefReference(row)));
+                return refList;
+            }
+
+            String text = spectraRefLists.get(row);
+            return text == null ? null : text.isEmpty() ? new SplitList<SpectraRef>(BAR) : parseSpectraRefList(metadata, text);
+        }
+
+        public String getPre() {
+            return terms.decode(preCodes[row]);
+        }
+
+        public String getPost() {
+            return terms.decode(postCodes[row]);
+        }
+
+        public Integer getStart() {
+            return starts.get(row);
+        }
+
+        public Integer getEnd() {
+            return ends.get(row);
+        }
+
+        /**
+         * @return a new {@link PSM} record which contains the cells of the row.
+         */
+        public PSM toPSM() {
+            PSM psm = new PSM(factory, metadata);
+            psm.setSequence(getSequence());
+            psm.setPSM_ID(psmIds.get(row));
+            psm.setAccession(getAccession());
+            psm.setUnique(getUnique());
+            psm.setDatabase(getDatabase());
+            psm.setDatabaseVersion(getDatabaseVersion());
+            psm.setSearchEngine(getSearchEngine());
+            for (int i = 0; i < scoreIds.length; i++) {
+                psm.setSearchEngineScore(scoreIds[i], scores[i].get(row));
+            }
+            psm.setReliability(getReliability());
+            psm.setModifications(getModifications());
+            psm.setRetentionTime(getRetentionTime());
+            psm.setCharge(getCharge());
+            psm.setExpMassToCharge(getExpMassToCharge());
+            psm.setCalcMassToCharge(getCalcMassToCharge());
+            psm.setURI(getURI());
+            psm.setSpectraRef(getSpectraRef());
+            psm.setPre(getPre());
+            psm.setPost(getPost());
+            psm.setStart(getStart());
+            psm.setEnd(getEnd());
+            return psm;
+        }
+
+        @Override
+        public String toString() {
+            return toPSM().toString();
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import uk.ac.ebi.pride.jmztab.model.MZTabFile;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.ac.ebi.pride.jmztab.utils.MZTabProperties.*;
+
+/**
+ * MZTabAsyncParser parses or validates many mzTab files at the same time, and returns a {@link CompletableFuture}
+ * for each file, which is completed when the file has been parsed by {@link MZTabFileParser}.
+ *
+ * Each file is parsed on its own virtual thread if the java runtime provides them, otherwise on a fixed pool of
+ * platform threads, see mztab.async.max_concurrency and mztab.async.virtual_threads in mztab.properties file. In
+ * both cases, at most max concurrency files are parsed at the same time, which limits the number of open files
+ * and the memory used by the parsed records.
+ *
+ * <pre>
+ * MZTabAsyncParser parser = new MZTabAsyncParser();
+ * List&lt;CompletableFuture&lt;MZTabErrorList&gt;&gt; results = parser.validateAll(tabFiles);
+ * for (CompletableFuture&lt;MZTabErrorList&gt; result : results) {
+ *     MZTabErrorList errorList = result.join();
+ *     ...
+ * }
+ * parser.close();
+ * </pre>
+ *
+ * The parsing messages are not written to any output stream, the errors are returned by
+ * {@link #validate(File)}.
+ */
+public class MZTabAsyncParser implements Closeable {
+    /**
+     * Default maximum number of files parsed at the same time.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ExecutorService executor;
+    private boolean shutdownOnClose;
+    private boolean virtual;
+    private Semaphore permits;
+    // tasks waiting for a permit, in submit order.
+    private Queue<Task<?>> waiting = new ConcurrentLinkedQueue<Task<?>>();
+    private volatile boolean closed = false;
+    private int maxConcurrency;
+
+    private MZTabErrorType.Level level = LEVEL;
+    private int maxErrorCount = MAX_ERROR_COUNT;
+
+    /**
+     * Create a new {@code MZTabAsyncParser} which max concurrency and thread type are defined in the
+     * mztab.properties file.
+     */
+    public MZTabAsyncParser() {
+        this(ASYNC_MAX_CONCURRENCY, ASYNC_VIRTUAL_THREADS);
+    }
+
+    /**
+     * @param maxConcurrency the maximum number of files parsed at the same time, if not positive,
+     *                       {@link #DEFAULT_MAX_CONCURRENCY} is used.
+     * @param virtualThreads if true and the java runtime provides virtual threads, each file is parsed on its own
+     *                       virtual thread. Otherwise, files are parsed on a fixed pool of platform threads.
+     */
+    public MZTabAsyncParser(int maxConcurrency, boolean virtualThreads) {
+        this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : DEFAULT_MAX_CONCURRENCY;
+        this.executor = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtual = executor != null;
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(this.maxConcurrency, new ParserThreadFactory());
+        }
+        this.shutdownOnClose = true;
+        this.permits = new Semaphore(this.maxConcurrency);
+    }
+
+    /**
+     * Parse the files on the given executor, which is not shutdown by {@link #close()}.
+     *
+     * @param maxConcurrency the maximum number of files parsed at the same time, if not positive,
+     *                       {@link #DEFAULT_MAX_CONCURRENCY} is used.
+     */
+    public MZTabAsyncParser(ExecutorService executor, int maxConcurrency) {
+        if (executor == null) {
+            throw new NullPointerException("Executor should not be null.");
+        }
+
+        this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : DEFAULT_MAX_CONCURRENCY;
+        this.executor = executor;
+        this.virtual = false;
+        this.shutdownOnClose = false;
+        this.permits = new Semaphore(this.maxConcurrency);
+    }
+
+    /**
+     * @return true if the java runtime provides virtual threads (java 21 or later).
+     */
+    public static boolean isVirtualThreadSupported() {
+        return findVirtualThreadFactory() != null;
+    }
+
+    private static Method findVirtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The library is compiled for older java versions, so the virtual thread executor is created by reflection.
+     *
+     * @return null if the java runtime not provides virtual threads.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        Method method = findVirtualThreadFactory();
+        if (method == null) {
+            return null;
+        }
+
+        try {
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Daemon platform threads, which not prevent the JVM from exiting if {@link #close()} is not called.
+     */
+    private static class ParserThreadFactory implements ThreadFactory {
+        private static final AtomicInteger poolNumber = new AtomicInteger(1);
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String prefix = "mztab-parser-" + poolNumber.getAndIncrement() + "-";
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Parse the file into {@link MZTabFile}.
+     *
+     * @return the future which is completed with the parsed file. If errors were found in the file, the future is
+     * completed exceptionally with a {@link MZTabException} which carries all errors kept for the file, see
+     * {@link MZTabException#getErrorList()}. If the file not exists or can not be read, it is completed exceptionally
+     * with the {@link IllegalArgumentException} or {@link IOException}.
+     */
+    public CompletableFuture<MZTabFile> parse(final File tabFile) {
+        return submit(new Callable<MZTabFile>() {
+            @Override
+            public MZTabFile call() throws Exception {
+                MZTabFileParser parser = new MZTabFileParser(tabFile, NULL_OUTPUT, level, maxErrorCount);
+                MZTabFile mzTabFile = parser.getMZTabFile();
+                if (mzTabFile == null) {
+                    MZTabErrorList errorList = parser.getErrorList();
+                    // the error list is empty if, for example, the max error count is 0.
+                    throw new MZTabException(errorList.isEmpty() ? "Can not parse " + tabFile + "." :
+                        errorList.size() + " errors in " + tabFile + ", the first one: " + errorList.getError(0),
+                        errorList);
+                }
+                return mzTabFile;
+            }
+        });
+    }
+
+    public CompletableFuture<MZTabFile> parse(Path tabFile) {
+        return parse(tabFile.toFile());
+    }
+
+    /**
+     * Validate the file without creating {@link MZTabFile}, see
+     * {@link MZTabFileParser#validate(File, OutputStream, MZTabErrorType.Level, int)}.
+     *
+     * @return the future which is completed with the errors found in the file. If the file not exists or can not be
+     * read, it is
+     * completed exceptionally with the {@link IllegalArgumentException} or {@link IOException}.
+     */
+    public CompletableFuture<MZTabErrorList> validate(final File tabFile) {
+        return submit(new Callable<MZTabErrorList>() {
+            @Override
+            public MZTabErrorList call() throws Exception {
+                return MZTabFileParser.validate(tabFile, NULL_OUTPUT, level, maxErrorCount);
+            }
+        });
+    }
+
+    public CompletableFuture<MZTabErrorList> validate(Path tabFile) {
+        return validate(tabFile.toFile());
+    }
+
+    /**
+     * Parse all files, see {@link #parse(File)}.
+     *
+     * @return the futures in the same order as the files.
+     */
+    public List<CompletableFuture<MZTabFile>> parseAll(Collection<File> tabFiles) {
+        List<CompletableFuture<MZTabFile>> results = new ArrayList<CompletableFuture<MZTabFile>>(tabFiles.size());
+        for (File tabFile : tabFiles) {
+            results.add(parse(tabFile));
+        }
+        return results;
+    }
+
+    /**
+     * Validate all files, see {@link #validate(File)}.
+     *
+     * @return the futures in the same order as the files.
+     */
+    public List<CompletableFuture<MZTabErrorList>> validateAll(Collection<File> tabFiles) {
+        List<CompletableFuture<MZTabErrorList>> results = new ArrayList<CompletableFuture<MZTabErrorList>>(tabFiles.size());
+        for (File tabFile : tabFiles) {
+            results.add(validate(tabFile));
+        }
+        return results;
+    }
+
+    /**
+     * A submitted file, which holds a permit while it is running on the executor.
+     */
+    private class Task<T> implements Runnable {
+        private final Callable<T> callable;
+        private final CompletableFuture<T> result = new CompletableFuture<T>();
+
+        private Task(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (! result.isDone()) {
+                    result.complete(callable.call());
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                permits.release();
+                dispatch();
+                if (closed) {
+                    shutdownIfIdle();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue the task, and run it on the executor when a permit is available. The permit is acquired before the task
+     * is given to the executor, so neither the caller nor the threads of the executor are blocked waiting for it.
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> callable) {
+        Task<T> task = new Task<T>(callable);
+        if (closed) {
+            task.result.completeExceptionally(new RejectedExecutionException("Parser has been closed."));
+            return task.result;
+        }
+        waiting.add(task);
+        dispatch();
+        return task.result;
+    }
+
+    /**
+     * Give the waiting tasks to the executor, as long as permits are available. Called when a task is queued and
+     * when a task releases its permit, so a task is never left in the queue while a permit is free.
+     */
+    private void dispatch() {
+        while (! waiting.isEmpty() && permits.tryAcquire()) {
+            Task<?> task = waiting.poll();
+            if (task == null) {
+                permits.release();
+                continue;
+            }
+
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                task.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    public void setLevel(MZTabErrorType.Level level) {
+        this.level = level;
+    }
+
+    public MZTabErrorType.Level getLevel() {
+        return level;
+    }
+
+    public void setMaxErrorCount(int maxErrorCount) {
+        this.maxErrorCount = maxErrorCount;
+    }
+
+    public int getMaxErrorCount() {
+        return maxErrorCount;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return true if the files are parsed on virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Stop accepting new files. The files which have been submitted are still parsed. The executor given by the
+     * caller is not shutdown.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        shutdownIfIdle();
+    }
+
+    /**
+     * Shutdown the executor created by the parser once all waiting tasks have been given to it.
+     */
+    private void shutdownIfIdle() {
+        if (shutdownOnClose && waiting.isEmpty()) {
+            executor.shutdown();
+        }
+    }
+}
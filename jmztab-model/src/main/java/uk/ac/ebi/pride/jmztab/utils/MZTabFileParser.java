@@ -2,15 +2,15 @@ package uk.ac.ebi.pride.jmztab.utils;
 
 import uk.ac.ebi.pride.jmztab.model.*;
 import uk.ac.ebi.pride.jmztab.utils.errors.*;
-import uk.ac.ebi.pride.jmztab.utils.parser.*;
+import uk.ac.ebi.pride.jmztab.utils.parser.MZTabValuePool;
 
 import java.io.*;
+import java.util.Collection;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ExecutorService;
 
 import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.NEW_LINE;
-import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.TAB;
 import static uk.ac.ebi.pride.jmztab.utils.MZTabProperties.*;
 
 /**
@@ -26,6 +26,9 @@ public class MZTabFileParser {
     private File tabFile;
 
     private MZTabErrorList errorList;
+    private MZTabErrorList decodeErrorList;
+    // errors which have not been sent to the handler yet, null if the file is not parsed with a handler.
+    private MZTabErrorList pendingErrors;
 
     private void init(File tabFile) {
         if (tabFile == null || ! tabFile.exists()) {
@@ -69,329 +72,281 @@ public class MZTabFileParser {
      * @throws IOException
      */
     public MZTabFileParser(File tabFile, OutputStream out, MZTabErrorType.Level level, int maxErrorCount) throws IOException {
+        this(tabFile, out, new Options(level, maxErrorCount));
+    }
+
+    /**
+     * Create a new {@code MZTabFileParser} for the given file, which is parsed with the given options, see
+     * {@link Options}. Parsing output and errors are written to the provided {@link OutputStream}.
+     * @param tabFile the MZTab file. The file SHOULD not be null and MUST exist
+     * @param out the output stream for parsing messages
+     * @param options the parsing options, if null, the default options are used.
+     * @throws IOException
+     */
+    public MZTabFileParser(File tabFile, OutputStream out, Options options) throws IOException {
+        if (options == null) {
+            options = new Options();
+        }
+        MZTabErrorType.Level level = options.getLevel();
+        MZTabHandler handler = options.getHandler();
+        MZTabErrorListener listener = options.getListener();
+
         init(tabFile);
 
+        errorList = new MZTabErrorList(level, options.getMaxErrorCount(), listener);
+        MZTabErrorList readerErrorList = errorList;
+        if (handler != null) {
+            // the reader adds errors into this list, which pass them to the error list, so the handler receives all
+            // errors, also the ones not kept because the error list is full.
+            pendingErrors = new MZTabErrorList(level, Integer.MAX_VALUE, errorList);
+            readerErrorList = pendingErrors;
+        }
+        MZTabStreamReader reader = null;
         try {
-            errorList = new MZTabErrorList(level, maxErrorCount);
-            check();
-            refine();
+            reader = new MZTabStreamReader(tabFile, readerErrorList, false);
+            decodeErrorList = reader.getDecodeErrorList();
+            reader.setExecutor(options.getExecutor());
+            reader.setLazy(options.isLazy());
+            reader.setSections(options.getSections());
+            reader.setValuePool(options.getValuePool());
+            if (handler == null) {
+                check(reader);
+                refine(reader);
+            } else {
+                handle(reader, handler);
+            }
         } catch (MZTabException e) {
             out.write(MZTabExceptionMessage.getBytes());
             errorList.add(e.getError());
+            if (handler != null) {
+                handler.onError(e.getError());
+            }
         } catch (MZTabErrorOverflowException e) {
             out.write(MZTabErrorOverflowExceptionMessage.getBytes());
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
         }
 
-        errorList.print(out);
-        if (errorList.isEmpty()) {
+        if (listener == null) {
+            errorList.print(out);
+        }
+        if (errorList.isEmpty() && options.isLazy()) {
+            out.write(("No errors in " + tabFile + " file, the cells of data lines are not checked in lazy mode!" + NEW_LINE).getBytes());
+        } else if (errorList.isEmpty()) {
             out.write(("No errors in " + tabFile + " file!" + NEW_LINE).getBytes());
         }
     }
 
-    public MZTabErrorList getErrorList() {
-        return errorList;
+    /**
+     * Validate the mzTab file without creating {@link MZTabFile}. All data lines are checked and discarded
+     * immediately, and the consistency checks are done at the end of file, so the memory used does not depend
+     * on the number of rows in the file. Parsing output and errors are written to the provided {@link OutputStream}.
+     * @param tabFile the MZTab file. The file SHOULD not be null and MUST exist
+     * @param out the output stream for parsing messages
+     * @param level the minimum error level to report errors for
+     * @param maxErrorCount the maximum number of errors to report in the returned {@link MZTabErrorList}
+     * @return the errors found in the file.
+     * @throws IOException
+     */
+    public static MZTabErrorList validate(File tabFile, OutputStream out, MZTabErrorType.Level level, int maxErrorCount) throws IOException {
+        Options options = new Options(level, maxErrorCount);
+        options.setHandler(VALIDATE_HANDLER);
+        return new MZTabFileParser(tabFile, out, options).getErrorList();
     }
 
-    private Section getSection(String line) {
-        String[] items = line.split("\\s*" + TAB + "\\s*");
-        String section = items[0].trim();
-        return Section.findSection(section);
+    /**
+     * Validate the mzTab file without creating {@link MZTabFile}, and send all errors to the listener as they
+     * occur, for example {@link MZTabErrorWriter}. The validation is not stopped after max error count errors, so
+     * the complete report of a big file is produced with bounded memory.
+     * @param tabFile the MZTab file. The file SHOULD not be null and MUST exist
+     * @param out the output stream for parsing messages
+     * @param level the minimum error level to report errors for
+     * @param maxErrorCount the maximum number of errors kept in the returned {@link MZTabErrorList}
+     * @param listener receive all errors found in the file.
+     * @return the first errors found in the file, see {@link MZTabErrorList#getErrorCount()} for the total number.
+     * @throws IOException
+     */
+    public static MZTabErrorList validate(File tabFile, OutputStream out, MZTabErrorType.Level level, int maxErrorCount,
+                                          MZTabErrorListener listener) throws IOException {
+        Options options = new Options(level, maxErrorCount);
+        options.setHandler(VALIDATE_HANDLER);
+        options.setListener(listener);
+        return new MZTabFileParser(tabFile, out, options).getErrorList();
     }
 
-    private BufferedReader readFile(File tabFile) throws IOException {
-        BufferedReader reader;
+    /**
+     * Validate the mzTab file without creating {@link MZTabFile}, see {@link #validate(File, OutputStream, MZTabErrorType.Level, int)}.
+     */
+    public static MZTabErrorList validate(File tabFile, OutputStream out, MZTabErrorType.Level level) throws IOException {
+        return validate(tabFile, out, level, MAX_ERROR_COUNT);
+    }
 
-        if (tabFile.getName().endsWith(".gz")) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(tabFile)), ENCODE));
-        } else {
-            reader = new BufferedReader(new InputStreamReader(new FileInputStream(tabFile), ENCODE));
+    /**
+     * Handler used in validate-only mode, which discard all parsed content.
+     */
+    private static final MZTabHandler VALIDATE_HANDLER = new MZTabHandler() {
+        @Override
+        public void onMetadata(Metadata metadata) {
         }
 
-        return reader;
-    }
+        @Override
+        public void onHeader(Section section, MZTabColumnFactory factory) {
+        }
+
+        @Override
+        public void onRecord(Section section, int lineNumber, MZTabRecord record) {
+        }
 
-    private String subString(String source) {
-        int length = 20;
+        @Override
+        public void onComment(int lineNumber, Comment comment) {
+        }
 
-        if (length >= source.length()) {
-            return source;
-        } else {
-            return source.substring(0, length - 1) + "...";
+        @Override
+        public void onError(MZTabError error) {
         }
+
+        @Override
+        public void onEndOfSection(Section section) {
+        }
+    };
+
+    public MZTabErrorList getErrorList() {
+        return errorList;
+    }
+
+    /**
+     * @return the errors found in the cells requested after a lazy parse, see {@link MZTabStreamReader#getDecodeErrorList()}.
+     * Null if the reader is not created.
+     */
+    public MZTabErrorList getDecodeErrorList() {
+        return decodeErrorList;
     }
 
     /**
      * refine all MZTabFile consistency correct.
      */
-    private void refine() throws MZTabException, MZTabErrorOverflowException {
+    private void refine(MZTabStreamReader reader) throws MZTabException, MZTabErrorOverflowException {
         if (mzTabFile == null) {
             return;
         }
 
-        Metadata metadata = mzTabFile.getMetadata();
-        MZTabColumnFactory proteinFactory = mzTabFile.getProteinColumnFactory();
-        MZTabColumnFactory peptideFactory = mzTabFile.getPeptideColumnFactory();
-//        MZTabColumnFactory psmFactory = mzTabFile.getPsmColumnFactory();
-        MZTabColumnFactory smlFactory = mzTabFile.getSmallMoleculeColumnFactory();
+        reader.refine();
+    }
 
-        //If ms_run[1-n]-hash is present,  ms_run[1-n]-hash_method SHOULD also be present
-        for (MsRun msRun : metadata.getMsRunMap().values()) {
-            if (msRun.getHash() != null && msRun.getHashMethod() == null)  {
-                throw new MZTabException(new MZTabError(LogicalErrorType.MsRunHashMethodNotDefined, -1, msRun.getId().toString()));
+    /**
+     * Send the content of the file to the handler in a single pass. Errors added into {@link MZTabErrorList}
+     * are sent to the handler after the line which raised them.
+     */
+    private void handle(MZTabStreamReader reader, MZTabHandler handler) throws IOException, MZTabException, MZTabErrorOverflowException {
+        handler.onMetadata(reader.getMetadata());
+        fireErrors(handler);
+
+        Section dataSection = null;
+        Section section;
+        try {
+            while (reader.hasNext()) {
+                section = reader.next();
+                if (section.isComment()) {
+                    handler.onComment(reader.getLineNumber(), reader.getComment());
+                } else if (section.isHeader()) {
+                    if (dataSection != null) {
+                        handler.onEndOfSection(dataSection);
+                    }
+                    dataSection = Section.toDataSection(section);
+                    handler.onHeader(section, reader.getColumnFactory());
+                } else {
+                    handler.onRecord(section, reader.getLineNumber(), reader.getRecord());
+                }
+                fireErrors(handler);
             }
+        } finally {
+            // errors added before a MZTabException is thrown.
+            fireErrors(handler);
         }
 
-        // If mzTab-type is "Quantification", then at least one section with {protein|peptide|small_molecule}_abundance* columns MUST be present
-        boolean hasAbundance = false;
-        if (metadata.getMZTabType() == MZTabDescription.Type.Quantification) {
-            if (proteinFactory != null && ! proteinFactory.getAbundanceColumnMapping().isEmpty()) {
-                hasAbundance = true;
-            }
-            if (peptideFactory != null && ! peptideFactory.getAbundanceColumnMapping().isEmpty()) {
-                hasAbundance = true;
-            }
-            if (smlFactory != null && ! smlFactory.getAbundanceColumnMapping().isEmpty()) {
-                hasAbundance = true;
-            }
-            if (! hasAbundance) {
-                throw new MZTabException(new MZTabError(LogicalErrorType.QuantificationAbundance, -1));
-            }
+        if (dataSection != null) {
+            handler.onEndOfSection(dataSection);
+        }
+
+        if (errorList.isEmpty()) {
+            reader.refine();
         }
     }
 
+    private void fireErrors(MZTabHandler handler) {
+        for (int i = 0; i < pendingErrors.size(); i++) {
+            handler.onError(pendingErrors.getError(i));
+        }
+        pendingErrors.clear();
+    }
+
     /**
      * Query {@link MZTabErrorList} to check exist errors or not.
      * @throws IOException
      * @throws MZTabException during parse metadata, protein/peptide/small_molecule header line, exists error.
      * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
      */
-    private void check() throws IOException, MZTabException, MZTabErrorOverflowException {
-        BufferedReader reader = readFile(tabFile);
-
-        COMLineParser comParser = new COMLineParser();
-        MTDLineParser mtdParser = new MTDLineParser();
-        PRHLineParser prhParser = null;
-        PRTLineParser prtParser = null;
-        PEHLineParser pehParser = null;
-        PEPLineParser pepParser = null;
-        PSHLineParser pshParser = null;
-        PSMLineParser psmParser = null;
-        SMHLineParser smhParser = null;
-        SMLLineParser smlParser = null;
-
-
+    private void check(MZTabStreamReader reader) throws IOException, MZTabException, MZTabErrorOverflowException {
         SortedMap<Integer, Comment> commentMap = new TreeMap<Integer, Comment>();
         SortedMap<Integer, Protein> proteinMap = new TreeMap<Integer, Protein>();
         SortedMap<Integer, Peptide> peptideMap = new TreeMap<Integer, Peptide>();
         SortedMap<Integer, PSM> psmMap = new TreeMap<Integer, PSM>();
         SortedMap<Integer, SmallMolecule> smallMoleculeMap = new TreeMap<Integer, SmallMolecule>();
 
-        PositionMapping prtPositionMapping = null;
-        PositionMapping pepPositionMapping = null;
-        PositionMapping psmPositionMapping = null;
-        PositionMapping smlPositionMapping = null;
-
-        MZTabError error;
-        String line;
-        int highWaterMark = 1;
-        int lineNumber = 0;
-        Section section;
-        while ((line = reader.readLine()) != null) {
-            lineNumber++;
-
-            if (MZTabUtils.isEmpty(line)) {
-                continue;
-            }
-
-            if (line.startsWith(Section.Comment.getPrefix())) {
-                comParser.parse(lineNumber, line, errorList);
-                commentMap.put(lineNumber, comParser.getComment());
-                continue;
-            }
-
-            section = getSection(line);
-            if (section == null) {
-                error = new MZTabError(FormatErrorType.LinePrefix, lineNumber, subString(line));
-                throw new MZTabException(error);
-            }
-            if (section.getLevel() < highWaterMark) {
-                Section currentSection = Section.findSection(highWaterMark);
-                error = new MZTabError(LogicalErrorType.LineOrder, lineNumber, currentSection.getName(), section.getName());
-                throw new MZTabException(error);
-            }
-
-            highWaterMark = section.getLevel();
-            // There exists errors during checking metadata section.
-            // However it stop with warnings too, so we should try to continue parsing as much as
-            // possible to provide several errors/warnings not only the first one in metadata
-//            if (highWaterMark == 1 && ! errorList.isEmpty()) {
-//                break;
-//            }
-
-            switch (highWaterMark) {
-                case 1:
-                    // metadata section.
-                    mtdParser.parse(lineNumber, line, errorList);
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case Comment:
+                    commentMap.put(reader.getLineNumber(), reader.getComment());
                     break;
-                case 2:
-                    if (prhParser != null) {
-                        // header line only display once!
-                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    // protein header section
-                    prhParser = new PRHLineParser(mtdParser.getMetadata());
-                    prhParser.parse(lineNumber, line, errorList);
-                    prtPositionMapping = new PositionMapping(prhParser.getFactory(), line);
-
-                    // tell system to continue check protein data line.
-                    highWaterMark = 3;
+                case Protein:
+                    proteinMap.put(reader.getLineNumber(), (Protein) reader.getRecord());
                     break;
-                case 3:
-                    if (prhParser == null) {
-                        // header line should be check first.
-                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    if (prtParser == null) {
-                        prtParser = new PRTLineParser(prhParser.getFactory(), prtPositionMapping, mtdParser.getMetadata(), errorList);
-                    }
-                    prtParser.parse(lineNumber, line, errorList);
-                    proteinMap.put(lineNumber, prtParser.getRecord());
-
+                case Peptide:
+                    peptideMap.put(reader.getLineNumber(), (Peptide) reader.getRecord());
                     break;
-                case 4:
-                    if (pehParser != null) {
-                        // header line only display once!
-                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    if (mtdParser.getMetadata().getMZTabType() == MZTabDescription.Type.Identification) {
-                        errorList.add(new MZTabError(LogicalErrorType.PeptideSection, lineNumber, subString(line)));
-                    }
-
-                    // peptide header section
-                    pehParser = new PEHLineParser(mtdParser.getMetadata());
-                    pehParser.parse(lineNumber, line, errorList);
-                    pepPositionMapping = new PositionMapping(pehParser.getFactory(), line);
-
-                    // tell system to continue check peptide data line.
-                    highWaterMark = 5;
+                case PSM:
+                    psmMap.put(reader.getLineNumber(), (PSM) reader.getRecord());
                     break;
-                case 5:
-                    if (pehParser == null) {
-                        // header line should be check first.
-                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    if (pepParser == null) {
-                        pepParser = new PEPLineParser(pehParser.getFactory(), pepPositionMapping, mtdParser.getMetadata(), errorList);
-                    }
-                    pepParser.parse(lineNumber, line, errorList);
-                    peptideMap.put(lineNumber, pepParser.getRecord());
-
-                    break;
-                case 6:
-                    if (pshParser != null) {
-                        // header line only display once!
-                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    // psm header section
-                    pshParser = new PSHLineParser(mtdParser.getMetadata());
-                    pshParser.parse(lineNumber, line, errorList);
-                    psmPositionMapping = new PositionMapping(pshParser.getFactory(), line);
-
-                    // tell system to continue check peptide data line.
-                    highWaterMark = 7;
-                    break;
-                case 7:
-                    if (pshParser == null) {
-                        // header line should be check first.
-                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    if (psmParser == null) {
-                        psmParser = new PSMLineParser(pshParser.getFactory(), psmPositionMapping, mtdParser.getMetadata(), errorList);
-                    }
-                    psmParser.parse(lineNumber, line, errorList);
-                    psmMap.put(lineNumber, psmParser.getRecord());
-
-                    break;
-                case 8:
-                    if (smhParser != null) {
-                        // header line only display once!
-                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    // small molecule header section
-                    smhParser = new SMHLineParser(mtdParser.getMetadata());
-                    smhParser.parse(lineNumber, line, errorList);
-                    smlPositionMapping = new PositionMapping(smhParser.getFactory(), line);
-
-                    // tell system to continue check small molecule data line.
-                    highWaterMark = 9;
-                    break;
-                case 9:
-                    if (smhParser == null) {
-                        // header line should be check first.
-                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
-                        throw new MZTabException(error);
-                    }
-
-                    if (smlParser == null) {
-                        smlParser = new SMLLineParser(smhParser.getFactory(), smlPositionMapping, mtdParser.getMetadata(), errorList);
-                    }
-                    smlParser.parse(lineNumber, line, errorList);
-                    smallMoleculeMap.put(lineNumber, smlParser.getRecord());
-
+                case Small_Molecule:
+                    smallMoleculeMap.put(reader.getLineNumber(), (SmallMolecule) reader.getRecord());
                     break;
             }
         }
 
-        if (reader != null) {
-            reader.close();
-        }
-
         if (errorList.isEmpty()) {
-            mzTabFile = new MZTabFile(mtdParser.getMetadata());
+            mzTabFile = new MZTabFile(reader.getMetadata());
             for (Integer id : commentMap.keySet()) {
                 mzTabFile.addComment(id, commentMap.get(id));
             }
 
-            if (prhParser != null) {
-                MZTabColumnFactory proteinColumnFactory = prhParser.getFactory();
+            MZTabColumnFactory proteinColumnFactory = reader.getColumnFactory(Section.Protein_Header);
+            if (proteinColumnFactory != null && reader.isSelected(Section.Protein)) {
                 mzTabFile.setProteinColumnFactory(proteinColumnFactory);
                 for (Integer id : proteinMap.keySet()) {
                     mzTabFile.addProtein(id, proteinMap.get(id));
                 }
             }
 
-            if (pehParser != null) {
-                MZTabColumnFactory peptideColumnFactory = pehParser.getFactory();
+            MZTabColumnFactory peptideColumnFactory = reader.getColumnFactory(Section.Peptide_Header);
+            if (peptideColumnFactory != null && reader.isSelected(Section.Peptide)) {
                 mzTabFile.setPeptideColumnFactory(peptideColumnFactory);
                 for (Integer id : peptideMap.keySet()) {
                     mzTabFile.addPeptide(id, peptideMap.get(id));
                 }
             }
 
-            if (pshParser != null) {
-                MZTabColumnFactory psmColumnFactory = pshParser.getFactory();
+            MZTabColumnFactory psmColumnFactory = reader.getColumnFactory(Section.PSM_Header);
+            if (psmColumnFactory != null && reader.isSelected(Section.PSM)) {
                 mzTabFile.setPSMColumnFactory(psmColumnFactory);
                 for (Integer id : psmMap.keySet()) {
                     mzTabFile.addPSM(id, psmMap.get(id));
                 }
             }
 
-            if (smhParser != null) {
-                MZTabColumnFactory smallMoleculeColumnFactory = smhParser.getFactory();
+            MZTabColumnFactory smallMoleculeColumnFactory = reader.getColumnFactory(Section.Small_Molecule_Header);
+            if (smallMoleculeColumnFactory != null && reader.isSelected(Section.Small_Molecule)) {
                 mzTabFile.setSmallMoleculeColumnFactory(smallMoleculeColumnFactory);
                 for (Integer id : smallMoleculeMap.keySet()) {
                     mzTabFile.addSmallMolecule(id, smallMoleculeMap.get(id));
@@ -404,4 +359,141 @@ public class MZTabFileParser {
     public MZTabFile getMZTabFile() {
         return mzTabFile;
     }
+
+    /**
+     * The options used by {@link MZTabFileParser#MZTabFileParser(File, OutputStream, Options)}. By default, the
+     * errors of {@link MZTabProperties#LEVEL} or greater level are reported, at most
+     * {@link MZTabProperties#MAX_ERROR_COUNT} errors are kept, and the whole file is parsed sequentially into
+     * {@link MZTabFile}.
+     */
+    public static class Options {
+        private MZTabErrorType.Level level;
+        private int maxErrorCount;
+        private MZTabHandler handler = null;
+        private ExecutorService executor = null;
+        private boolean lazy = false;
+        private Collection<Section> sections = null;
+        private MZTabErrorListener listener = null;
+        private MZTabValuePool valuePool = null;
+
+        public Options() {
+            this(LEVEL, MAX_ERROR_COUNT);
+        }
+
+        /**
+         * @param level the minimum error level to report errors for
+         * @param maxErrorCount the maximum number of errors to report in the {@link MZTabErrorList} return by
+         * {@link MZTabFileParser#getErrorList()}
+         */
+        public Options(MZTabErrorType.Level level, int maxErrorCount) {
+            this.level = level;
+            this.maxErrorCount = maxErrorCount;
+        }
+
+        public MZTabErrorType.Level getLevel() {
+            return level;
+        }
+
+        /**
+         * @param level the minimum error level to report errors for
+         */
+        public void setLevel(MZTabErrorType.Level level) {
+            this.level = level;
+        }
+
+        public int getMaxErrorCount() {
+            return maxErrorCount;
+        }
+
+        /**
+         * @param maxErrorCount the maximum number of errors to report in the {@link MZTabErrorList} return by
+         * {@link MZTabFileParser#getErrorList()}
+         */
+        public void setMaxErrorCount(int maxErrorCount) {
+            this.maxErrorCount = maxErrorCount;
+        }
+
+        public MZTabHandler getHandler() {
+            return handler;
+        }
+
+        /**
+         * @param handler if not null, the parsed content is send to the handler in a single pass, and
+         *                {@link MZTabFile} is not created, so {@link MZTabFileParser#getMZTabFile()} will return
+         *                null, see {@link MZTabHandler}.
+         */
+        public void setHandler(MZTabHandler handler) {
+            this.handler = handler;
+        }
+
+        public ExecutorService getExecutor() {
+            return executor;
+        }
+
+        /**
+         * @param executor the executor used to parse the protein/peptide/psm/small_molecule data lines in parallel,
+         *                 for example {@link java.util.concurrent.ForkJoinPool#commonPool()}. The data lines are
+         *                 split into batches, and records and errors are collected in line order, so the result is
+         *                 the same as the sequential parsing. If null, data lines are parsed sequentially.
+         */
+        public void setExecutor(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        public boolean isLazy() {
+            return lazy;
+        }
+
+        /**
+         * @param lazy if true, the cells of data lines are checked and translated the first time they are requested,
+         *             see {@link MZTabStreamReader#setLazy(boolean)}. A lazy parse does not validate the cells of
+         *             data lines, so no errors of them are reported in {@link MZTabFileParser#getErrorList()} and
+         *             the output stream. The errors found in the requested cells are added into
+         *             {@link MZTabFileParser#getDecodeErrorList()}.
+         */
+        public void setLazy(boolean lazy) {
+            this.lazy = lazy;
+        }
+
+        public Collection<Section> getSections() {
+            return sections;
+        }
+
+        /**
+         * @param sections only the protein, peptide, psm or small molecule sections in the collection are loaded,
+         *                 the data lines of other sections are skipped without checking, see
+         *                 {@link MZTabStreamReader#setSections(Collection)}. If null, all sections are loaded.
+         */
+        public void setSections(Collection<Section> sections) {
+            this.sections = sections;
+        }
+
+        public MZTabErrorListener getListener() {
+            return listener;
+        }
+
+        /**
+         * @param listener if not null, all errors are sent to the listener as they occur, and the parsing continues
+         *                 after max error count errors, see
+         *                 {@link MZTabErrorList#MZTabErrorList(MZTabErrorType.Level, int, MZTabErrorListener)}.
+         *                 Only the first max error count errors are kept in {@link MZTabFileParser#getErrorList()},
+         *                 and the errors are not printed to the output stream.
+         */
+        public void setListener(MZTabErrorListener listener) {
+            this.listener = listener;
+        }
+
+        public MZTabValuePool getValuePool() {
+            return valuePool;
+        }
+
+        /**
+         * @param valuePool if not null, the cells which repeat the same few values across the rows share one
+         *                  instance, which reduces the memory used by {@link MZTabFile}, see
+         *                  {@link MZTabStreamReader#setValuePool(MZTabValuePool)}. If null, each cell keeps its own value.
+         */
+        public void setValuePool(MZTabValuePool valuePool) {
+            this.valuePool = valuePool;
+        }
+    }
 }
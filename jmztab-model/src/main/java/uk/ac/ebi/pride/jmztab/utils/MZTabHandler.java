@@ -0,0 +1,61 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabError;
+
+/**
+ * Receive notification of the content of a mzTab file, in the order in which it appears in the file.
+ * A handler is passed to {@link MZTabFileParser}, which parses the file in a single pass and does not
+ * buffer the records into a {@link MZTabFile}. This can be used when each row only need to be seen once,
+ * for example when calculate statistics over the protein or psm section.
+ *
+ * For each protein/peptide/psm/small_molecule section, the calling order is: {@link #onHeader(Section, MZTabColumnFactory)},
+ * {@link #onRecord(Section, int, MZTabRecord)} for every data line, and {@link #onEndOfSection(Section)}.
+ * {@link #onComment(int, Comment)} and {@link #onError(MZTabError)} can be called at any point after
+ * {@link #onMetadata(Metadata)}.
+ */
+public interface MZTabHandler {
+    /**
+     * Called once, after the metadata section has been parsed.
+     */
+    void onMetadata(Metadata metadata);
+
+    /**
+     * Called when the header line of the protein/peptide/psm/small_molecule section has been parsed.
+     *
+     * @param section header section, {@link Section#Protein_Header}, {@link Section#Peptide_Header},
+     *                {@link Section#PSM_Header} or {@link Section#Small_Molecule_Header}
+     * @param factory the columns defined in the header line.
+     */
+    void onHeader(Section section, MZTabColumnFactory factory);
+
+    /**
+     * Called for every data line.
+     *
+     * @param section data section, {@link Section#Protein}, {@link Section#Peptide},
+     *                {@link Section#PSM} or {@link Section#Small_Molecule}
+     * @param lineNumber the line number of the record in the file.
+     * @param record the parsed record. If errors were found in the line, the record maybe incomplete.
+     */
+    void onRecord(Section section, int lineNumber, MZTabRecord record);
+
+    /**
+     * Called for every comment line.
+     */
+    void onComment(int lineNumber, Comment comment);
+
+    /**
+     * Called when an error has been reported during parsing, in the order it was added into the
+     * {@link uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList}.
+     */
+    void onError(MZTabError error);
+
+    /**
+     * Called when all data lines of a section have been parsed, that is, when the next section header is
+     * found or the end of file is reached.
+     *
+     * @param section data section, {@link Section#Protein}, {@link Section#Peptide},
+     *                {@link Section#PSM} or {@link Section#Small_Molecule}
+     */
+    void onEndOfSection(Section section);
+}
@@ -48,5 +48,9 @@ public class MZTabProperties {
     public final static int MAX_ERROR_COUNT = Integer.parseInt(getProperty("mztab.max_error_count"));
     public final static LogicalErrorType.Level LEVEL = LogicalErrorType.findLevel(getProperty("mztab.level"));
     public final static boolean CVPARAM_CHECK = Boolean.parseBoolean(getProperty("mztab.cvparam_webservice"));
+    public final static int GZIP_BUFFER_COUNT = Integer.parseInt(getProperty("mztab.gzip.buffer_count"));
+    public final static int GZIP_BUFFER_SIZE = Integer.parseInt(getProperty("mztab.gzip.buffer_size"));
+    public final static int ASYNC_MAX_CONCURRENCY = Integer.parseInt(getProperty("mztab.async.max_concurrency"));
+    public final static boolean ASYNC_VIRTUAL_THREADS = Boolean.parseBoolean(getProperty("mztab.async.virtual_threads"));
 
 }
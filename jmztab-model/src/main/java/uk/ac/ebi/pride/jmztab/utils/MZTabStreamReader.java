@@ -0,0 +1,1213 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.*;
+import uk.ac.ebi.pride.jmztab.utils.io.*;
+import uk.ac.ebi.pride.jmztab.utils.parser.*;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.TAB;
+import static uk.ac.ebi.pride.jmztab.utils.MZTabProperties.*;
+
+/**
+ * MZTabStreamReader provides a pull-style, streaming reading functionality of the mzTab file. The metadata section
+ * is parsed when the reader is created, and after that the comment, header and data lines are returned one at a
+ * time by calling {@link #next()}. Differently from {@link MZTabFileParser}, records are not buffered into a
+ * {@link MZTabFile}, so the memory used by the reader does not depend on the number of rows in the file.
+ *
+ * The same validation done by {@link MZTabFileParser} is done here: format and logical errors are added into
+ * {@link MZTabErrorList}, and errors in the metadata section, header lines or line order stop the reading by
+ * throwing a {@link MZTabException}. When the end of file is reached, the consistency checks between sections
+ * are done as well.
+ *
+ * <pre>
+ * MZTabStreamReader reader = new MZTabStreamReader(tabFile);
+ * Metadata metadata = reader.getMetadata();
+ * MZTabRecord record;
+ * while ((record = reader.nextRecord()) != null) {
+ *     if (record instanceof PSM) {
+ *         ...
+ *     }
+ * }
+ * reader.close();
+ * </pre>
+ *
+ * @see MZTabFileParser
+ */
+public class MZTabStreamReader implements Closeable {
+    /**
+     * Default number of data lines parsed together by one task in parallel parse mode.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Default number of batches which are read ahead and parsed at the same time in parallel parse mode.
+     */
+    public static final int DEFAULT_MAX_PENDING_BATCHES = Runtime.getRuntime().availableProcessors() * 2;
+
+    private MZTabLineReader reader;
+    // the reader which is used after the current reader reach its end, and the line number of its first line.
+    private MZTabLineReader chainedReader = null;
+    private int chainedLineNumber;
+    private MZTabErrorList errorList;
+    // the errors found during decoding the cells in lazy mode, not limited by the max error count.
+    private MZTabErrorList decodeErrorList;
+    private boolean refineOnEnd;
+
+    private COMLineParser comParser = new COMLineParser();
+    private MTDLineParser mtdParser = new MTDLineParser();
+    private PRHLineParser prhParser = null;
+    private PRTLineParser prtParser = null;
+    private PEHLineParser pehParser = null;
+    private PEPLineParser pepParser = null;
+    private PSHLineParser pshParser = null;
+    private PSMLineParser psmParser = null;
+    private SMHLineParser smhParser = null;
+    private SMLLineParser smlParser = null;
+
+    private PositionMapping prtPositionMapping = null;
+    private PositionMapping pepPositionMapping = null;
+    private PositionMapping psmPositionMapping = null;
+    private PositionMapping smlPositionMapping = null;
+
+    private int highWaterMark = 1;
+    private int lineNumber = 0;
+
+    // comment lines found during metadata parsing, which have not been returned yet.
+    private SortedMap<Integer, Comment> pendingComments = new TreeMap<Integer, Comment>();
+    // first line after the metadata section, which has been read but not parsed yet.
+    private String pendingLine = null;
+    private boolean finished = false;
+
+    // parallel parse mode, data lines are parsed in batches by the executor.
+    private ExecutorService executor = null;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int maxPendingBatches = DEFAULT_MAX_PENDING_BATCHES;
+    private boolean lazy = false;
+    private MZTabValuePool valuePool = null;
+    private Map<Section, Collection<String>> projections = new HashMap<Section, Collection<String>>();
+    // the data sections which are loaded, if null, all sections are loaded.
+    private Set<Section> sections = null;
+    private String skippedPrefix = null;
+    // batches submitted to the executor, in line order.
+    private Deque<Future<Batch>> pendingBatches = new ArrayDeque<Future<Batch>>();
+    // the batch which records are being returned.
+    private Batch batch = null;
+    // the data section which is being read in batches, null if the batch reading stopped.
+    private Section batchSection = null;
+
+    // the element loaded by hasNext(), not returned by next() yet.
+    private Section nextSection;
+    private int nextLineNumber;
+    private MZTabRecord nextRecord;
+    private Comment nextComment;
+
+    // the element returned by the last next() call.
+    private Section currentSection;
+    private int currentLineNumber;
+    private MZTabRecord currentRecord;
+    private Comment currentComment;
+
+    /**
+     * Create a new {@code MZTabStreamReader} for the given file, and parse the metadata section. Errors are
+     * recorded into a {@link MZTabErrorList} which level and maximum size are defined in the mztab.properties file.
+     *
+     * @param tabFile the MZTab file. The file SHOULD not be null and MUST exist
+     * @throws IOException
+     * @throws MZTabException during parse metadata, exists error.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public MZTabStreamReader(File tabFile) throws IOException, MZTabException, MZTabErrorOverflowException {
+        this(tabFile, new MZTabErrorList(LEVEL, MAX_ERROR_COUNT));
+    }
+
+    /**
+     * Create a new {@code MZTabStreamReader} for the given file, and parse the metadata section.
+     *
+     * @param tabFile the MZTab file. The file SHOULD not be null and MUST exist
+     * @param errorList the list where format and logical errors are recorded. If null, a default one is created.
+     * @throws IOException
+     * @throws MZTabException during parse metadata, exists error.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public MZTabStreamReader(File tabFile, MZTabErrorList errorList) throws IOException, MZTabException, MZTabErrorOverflowException {
+        this(tabFile, errorList, true);
+    }
+
+    /**
+     * @param refineOnEnd if false, the consistency checks are not done at the end of file, and the caller
+     *                    is responsible to call {@link #refine()} itself.
+     */
+    MZTabStreamReader(File tabFile, MZTabErrorList errorList, boolean refineOnEnd) throws IOException, MZTabException, MZTabErrorOverflowException {
+        this(readFile(tabFile), errorList, refineOnEnd);
+    }
+
+    /**
+     * Create a new {@code MZTabStreamReader} which read the lines from the given line reader, and parse the
+     * metadata section. This can be used to read the mzTab content from other sources, or with a customized
+     * {@link PipedLineReader}.
+     *
+     * @param lineReader the reader of mzTab lines, which is closed by {@link #close()}.
+     * @param errorList the list where format and logical errors are recorded. If null, a default one is created.
+     * @throws IOException
+     * @throws MZTabException during parse metadata, exists error.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public MZTabStreamReader(MZTabLineReader lineReader, MZTabErrorList errorList) throws IOException, MZTabException, MZTabErrorOverflowException {
+        this(lineReader, errorList, true);
+    }
+
+    MZTabStreamReader(MZTabLineReader lineReader, MZTabErrorList errorList, boolean refineOnEnd) throws IOException, MZTabException, MZTabErrorOverflowException {
+        this(lineReader, errorList, refineOnEnd, 1);
+    }
+
+    /**
+     * @param firstLineNumber the line number of the first line read by the line reader.
+     */
+    private MZTabStreamReader(MZTabLineReader lineReader, MZTabErrorList errorList, boolean refineOnEnd, int firstLineNumber) throws IOException, MZTabException, MZTabErrorOverflowException {
+        if (lineReader == null) {
+            throw new NullPointerException("Line reader should not be null.");
+        }
+
+        this.errorList = errorList == null ? new MZTabErrorList() : errorList;
+        this.decodeErrorList = new MZTabErrorList(this.errorList.getLevel(), Integer.MAX_VALUE);
+        this.refineOnEnd = refineOnEnd;
+        this.reader = lineReader;
+        this.lineNumber = firstLineNumber - 1;
+
+        try {
+            readMetadata();
+        } catch (MZTabException e) {
+            close();
+            throw e;
+        } catch (MZTabErrorOverflowException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new {@code MZTabStreamReader} which jump to a data line of the section directly by the sidecar index
+     * of the file. Only the metadata block, the header line of the section, and the lines from the data line to
+     * the end of file are read, the line numbers are the same with reading the whole file. For example, page
+     * through the psm section:
+     *
+     * <pre>
+     * MZTabIndex index = MZTabIndex.open(tabFile, MZTabIndex.DEFAULT_CHECKPOINT_INTERVAL);
+     * MZTabStreamReader reader = MZTabStreamReader.open(index, Section.PSM, page * pageSize, errorList);
+     * while (reader.hasNext() &amp;&amp; count &lt; pageSize) {
+     *     if (reader.next() == Section.PSM) {
+     *         ...
+     *     }
+     * }
+     * </pre>
+     *
+     * The consistency checks between sections are not done at the end of file, because not all header lines are
+     * read, see {@link #refine()}.
+     *
+     * @param index SHOULD be up to date, see {@link MZTabIndex#isValid()}.
+     * @param section the header or data section to jump to.
+     * @param row the index of the first data line to read in the section, start from 0. If not less than the number
+     *            of data lines, only the header line of the section is read.
+     * @param errorList the list where format and logical errors are recorded. If null, a default one is created.
+     * @throws IOException if the index is out of date.
+     * @throws MZTabException during parse metadata, exists error.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public static MZTabStreamReader open(MZTabIndex index, Section section, long row, MZTabErrorList errorList) throws IOException, MZTabException, MZTabErrorOverflowException {
+        MZTabIndex.Entry checkpoint = row < 0 ? null : index.findCheckpoint(section, row);
+        return open(index, section, checkpoint, checkpoint == null ? 0 : row - checkpoint.getRow(), errorList);
+    }
+
+    /**
+     * Create a new {@code MZTabStreamReader} which jump to the data line directly, for example the line found by
+     * {@link MZTabKeyIndex#lookup(String)}, see {@link #open(MZTabIndex, Section, long, MZTabErrorList)}.
+     *
+     * @param index SHOULD be up to date, see {@link MZTabIndex#isValid()}.
+     * @param section the header or data section of the data line.
+     * @param entry the location of the data line in the file.
+     * @param errorList the list where format and logical errors are recorded. If null, a default one is created.
+     * @throws IOException if the index is out of date.
+     * @throws MZTabException during parse metadata, exists error.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public static MZTabStreamReader open(MZTabIndex index, Section section, MZTabIndex.Entry entry, MZTabErrorList errorList) throws IOException, MZTabException, MZTabErrorOverflowException {
+        return open(index, section, entry, 0, errorList);
+    }
+
+    /**
+     * @param start the data line to start with, if null, only the header line of the section is read.
+     * @param skip the number of data lines after the start line to skip.
+     */
+    private static MZTabStreamReader open(MZTabIndex index, Section section, MZTabIndex.Entry start, long skip, MZTabErrorList errorList) throws IOException, MZTabException, MZTabErrorOverflowException {
+        File tabFile = index.getTabFile();
+        if (! index.isValid()) {
+            throw new IOException("Index of " + tabFile + " is out of date.");
+        }
+
+        Section dataSection = Section.toDataSection(section);
+        MZTabIndex.Entry metadata = index.getMetadata();
+        MZTabIndex.Entry header = dataSection == null ? null : index.getHeader(dataSection);
+        if (metadata == null || header == null) {
+            throw new IllegalArgumentException("Section " + section + " not exists in " + tabFile);
+        }
+
+        Charset charset = Charset.forName(ENCODE);
+        MZTabStreamReader reader = new MZTabStreamReader(new MappedLineReader(tabFile, charset, metadata.getOffset(), metadata.getEnd()),
+            errorList, false, metadata.getLineNumber());
+        try {
+            reader.reader.close();
+            reader.reader = new MappedLineReader(tabFile, charset, header.getOffset(), header.getEnd());
+            reader.lineNumber = header.getLineNumber() - 1;
+
+            if (start != null) {
+                MZTabLineReader dataReader = new MappedLineReader(tabFile, charset, start.getOffset(), -1);
+                int dataLineNumber = start.getLineNumber();
+
+                // skip the data lines between the start line and the row.
+                String line;
+                long skipped = skip;
+                while (skipped > 0 && (line = dataReader.readLine()) != null) {
+                    dataLineNumber++;
+                    if (! MZTabUtils.isEmpty(line) && ! line.startsWith(Section.Comment.getPrefix())) {
+                        skipped--;
+                    }
+                }
+
+                reader.chainedReader = dataReader;
+                reader.chainedLineNumber = dataLineNumber;
+            }
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+
+        return reader;
+    }
+
+    /**
+     * Gzip compressed file is inflated on a dedicated thread by {@link PipedLineReader}, see mztab.gzip.buffer_count
+     * and mztab.gzip.buffer_size in mztab.properties file. Uncompressed file is read by {@link MappedLineReader}
+     * if the file encoding is supported, otherwise by {@link BufferedLineReader}.
+     */
+    private static MZTabLineReader readFile(File tabFile) throws IOException {
+        if (tabFile == null || ! tabFile.exists()) {
+            throw new IllegalArgumentException("MZTab File not exists!");
+        }
+
+        MZTabLineReader reader;
+
+        if (tabFile.getName().endsWith(".gz")) {
+            reader = new BufferedLineReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(tabFile)), ENCODE));
+            if (GZIP_BUFFER_COUNT > 0) {
+                reader = new PipedLineReader(reader, GZIP_BUFFER_COUNT, GZIP_BUFFER_SIZE);
+            }
+        } else if (MappedLineReader.isSupported(Charset.forName(ENCODE))) {
+            reader = new MappedLineReader(tabFile, Charset.forName(ENCODE));
+        } else {
+            reader = new BufferedLineReader(new InputStreamReader(new FileInputStream(tabFile), ENCODE));
+        }
+
+        return reader;
+    }
+
+    private Section getSection(String line) {
+        return MZTabLineTokenizer.findSection(line);
+    }
+
+    private String subString(String source) {
+        int length = 20;
+
+        if (length >= source.length()) {
+            return source;
+        } else {
+            return source.substring(0, length - 1) + "...";
+        }
+    }
+
+    /**
+     * Parse the metadata section, stop at the first line which not belongs to metadata or comment.
+     */
+    private void readMetadata() throws IOException, MZTabException, MZTabErrorOverflowException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+
+            if (MZTabUtils.isEmpty(line)) {
+                continue;
+            }
+
+            if (line.startsWith(Section.Comment.getPrefix())) {
+                comParser.parse(lineNumber, line, errorList);
+                pendingComments.put(lineNumber, comParser.getComment());
+                continue;
+            }
+
+            if (getSection(line) != Section.Metadata) {
+                pendingLine = line;
+                break;
+            }
+
+            mtdParser.parse(lineNumber, line, errorList);
+        }
+    }
+
+    private String readLine() throws IOException {
+        if (pendingLine != null) {
+            String line = pendingLine;
+            pendingLine = null;
+            return line;
+        }
+
+        String line = reader.readLine();
+        while (line == null && chainedReader != null) {
+            // continue with the next range of the file, see open(MZTabIndex, ...).
+            reader.close();
+            reader = chainedReader;
+            chainedReader = null;
+            lineNumber = chainedLineNumber - 1;
+            line = reader.readLine();
+        }
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    /**
+     * Read lines until a comment, header or data line is found, and load it as the next element.
+     *
+     * @return the section of the loaded line, or null if the end of file is reached.
+     */
+    private Section readElement() throws IOException, MZTabException, MZTabErrorOverflowException {
+        nextRecord = null;
+        nextComment = null;
+
+        if (batch != null || ! pendingBatches.isEmpty()) {
+            Section section = batch != null ? batch.section : waitFor(pendingBatches.peek()).section;
+            nextRecord = readBatchRecord();
+            return section;
+        }
+
+        if (! pendingComments.isEmpty()) {
+            nextLineNumber = pendingComments.firstKey();
+            nextComment = pendingComments.remove(nextLineNumber);
+            return Section.Comment;
+        }
+
+        MZTabError error;
+        String line;
+        Section section;
+        while ((line = readLine()) != null) {
+            if (skippedPrefix != null && line.startsWith(skippedPrefix)) {
+                // data line of the current section, which is not selected.
+                continue;
+            }
+            if (MZTabUtils.isEmpty(line)) {
+                continue;
+            }
+
+            nextLineNumber = lineNumber;
+
+            if (line.startsWith(Section.Comment.getPrefix())) {
+                comParser.parse(lineNumber, line, errorList);
+                nextComment = comParser.getComment();
+                return Section.Comment;
+            }
+
+            skippedPrefix = null;
+            section = getSection(line);
+            if (section == null) {
+                error = new MZTabError(FormatErrorType.LinePrefix, lineNumber, subString(line));
+                throw new MZTabException(error);
+            }
+            if (section.getLevel() < highWaterMark) {
+                Section currentSection = Section.findSection(highWaterMark);
+                error = new MZTabError(LogicalErrorType.LineOrder, lineNumber, currentSection.getName(), section.getName());
+                throw new MZTabException(error);
+            }
+
+            highWaterMark = section.getLevel();
+
+            switch (highWaterMark) {
+                case 1:
+                    // metadata section.
+                    mtdParser.parse(lineNumber, line, errorList);
+                    break;
+                case 2:
+                    if (prhParser != null) {
+                        // header line only display once!
+                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    // protein header section
+                    prhParser = new PRHLineParser(mtdParser.getMetadata());
+                    prhParser.parse(lineNumber, line, errorList);
+                    prtPositionMapping = new PositionMapping(prhParser.getFactory(), line);
+
+                    // tell system to continue check protein data line.
+                    highWaterMark = 3;
+                    if (isSelected(Section.Protein)) {
+                        return Section.Protein_Header;
+                    }
+                    break;
+                case 3:
+                    if (prhParser == null) {
+                        // header line should be check first.
+                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    if (! isSelected(Section.Protein)) {
+                        // skip the following data lines of the section without splitting.
+                        skippedPrefix = Section.Protein.getPrefix() + TAB;
+                        break;
+                    }
+
+                    if (prtParser == null) {
+                        prtParser = new PRTLineParser(prhParser.getFactory(), prtPositionMapping, mtdParser.getMetadata(), errorList);
+                        prtParser.setLazy(lazy, decodeErrorList);
+                        prtParser.setValuePool(valuePool);
+                        prtParser.setProjection(findProjection(Section.Protein));
+                    }
+                    nextRecord = parseData(Section.Protein, prtParser, line);
+                    return Section.Protein;
+                case 4:
+                    if (pehParser != null) {
+                        // header line only display once!
+                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    if (mtdParser.getMetadata().getMZTabType() == MZTabDescription.Type.Identification) {
+                        errorList.add(new MZTabError(LogicalErrorType.PeptideSection, lineNumber, subString(line)));
+                    }
+
+                    // peptide header section
+                    pehParser = new PEHLineParser(mtdParser.getMetadata());
+                    pehParser.parse(lineNumber, line, errorList);
+                    pepPositionMapping = new PositionMapping(pehParser.getFactory(), line);
+
+                    // tell system to continue check peptide data line.
+                    highWaterMark = 5;
+                    if (isSelected(Section.Peptide)) {
+                        return Section.Peptide_Header;
+                    }
+                    break;
+                case 5:
+                    if (pehParser == null) {
+                        // header line should be check first.
+                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    if (! isSelected(Section.Peptide)) {
+                        // skip the following data lines of the section without splitting.
+                        skippedPrefix = Section.Peptide.getPrefix() + TAB;
+                        break;
+                    }
+
+                    if (pepParser == null) {
+                        pepParser = new PEPLineParser(pehParser.getFactory(), pepPositionMapping, mtdParser.getMetadata(), errorList);
+                        pepParser.setLazy(lazy, decodeErrorList);
+                        pepParser.setValuePool(valuePool);
+                        pepParser.setProjection(findProjection(Section.Peptide));
+                    }
+                    nextRecord = parseData(Section.Peptide, pepParser, line);
+                    return Section.Peptide;
+                case 6:
+                    if (pshParser != null) {
+                        // header line only display once!
+                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    // psm header section
+                    pshParser = new PSHLineParser(mtdParser.getMetadata());
+                    pshParser.parse(lineNumber, line, errorList);
+                    psmPositionMapping = new PositionMapping(pshParser.getFactory(), line);
+
+                    // tell system to continue check peptide data line.
+                    highWaterMark = 7;
+                    if (isSelected(Section.PSM)) {
+                        return Section.PSM_Header;
+                    }
+                    break;
+                case 7:
+                    if (pshParser == null) {
+                        // header line should be check first.
+                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    if (! isSelected(Section.PSM)) {
+                        // skip the following data lines of the section without splitting.
+                        skippedPrefix = Section.PSM.getPrefix() + TAB;
+                        break;
+                    }
+
+                    if (psmParser == null) {
+                        psmParser = new PSMLineParser(pshParser.getFactory(), psmPositionMapping, mtdParser.getMetadata(), errorList);
+                        psmParser.setLazy(lazy, decodeErrorList);
+                        psmParser.setValuePool(valuePool);
+                        psmParser.setProjection(findProjection(Section.PSM));
+                    }
+                    nextRecord = parseData(Section.PSM, psmParser, line);
+                    return Section.PSM;
+                case 8:
+                    if (smhParser != null) {
+                        // header line only display once!
+                        error = new MZTabError(LogicalErrorType.HeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    // small molecule header section
+                    smhParser = new SMHLineParser(mtdParser.getMetadata());
+                    smhParser.parse(lineNumber, line, errorList);
+                    smlPositionMapping = new PositionMapping(smhParser.getFactory(), line);
+
+                    // tell system to continue check small molecule data line.
+                    highWaterMark = 9;
+                    if (isSelected(Section.Small_Molecule)) {
+                        return Section.Small_Molecule_Header;
+                    }
+                    break;
+                case 9:
+                    if (smhParser == null) {
+                        // header line should be check first.
+                        error = new MZTabError(LogicalErrorType.NoHeaderLine, lineNumber, subString(line));
+                        throw new MZTabException(error);
+                    }
+
+                    if (! isSelected(Section.Small_Molecule)) {
+                        // skip the following data lines of the section without splitting.
+                        skippedPrefix = Section.Small_Molecule.getPrefix() + TAB;
+                        break;
+                    }
+
+                    if (smlParser == null) {
+                        smlParser = new SMLLineParser(smhParser.getFactory(), smlPositionMapping, mtdParser.getMetadata(), errorList);
+                        smlParser.setLazy(lazy, decodeErrorList);
+                        smlParser.setValuePool(valuePool);
+                        smlParser.setProjection(findProjection(Section.Small_Molecule));
+                    }
+                    nextRecord = parseData(Section.Small_Molecule, smlParser, line);
+                    return Section.Small_Molecule;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parse the data line with the section line parser. In parallel parse mode, the line and the following data
+     * lines of the same section are parsed in batches by the executor, and the record of the first line is returned.
+     */
+    private MZTabRecord parseData(Section section, MZTabDataLineParser parser, String line) throws IOException, MZTabException, MZTabErrorOverflowException {
+        if (executor == null) {
+            parser.parse(lineNumber, line, errorList);
+            return parser.getRecord();
+        }
+
+        batchSection = section;
+        submitBatch(line);
+        while (batchSection != null && pendingBatches.size() < maxPendingBatches) {
+            submitBatch(null);
+        }
+
+        return readBatchRecord();
+    }
+
+    private MZTabDataLineParser createDataLineParser(Section section, MZTabErrorList errorList) {
+        Metadata metadata = mtdParser.getMetadata();
+        MZTabDataLineParser parser;
+        switch (section) {
+            case Protein:
+                PRTLineParser proteinParser = new PRTLineParser(prhParser.getFactory(), prtPositionMapping, metadata, errorList);
+                // accessions should be unique across batches, they are checked in line order by readBatchRecord().
+                proteinParser.setAccessionCheckDeferred(true);
+                parser = proteinParser;
+                break;
+            case Peptide:
+                parser = new PEPLineParser(pehParser.getFactory(), pepPositionMapping, metadata, errorList);
+                break;
+            case PSM:
+                parser = new PSMLineParser(pshParser.getFactory(), psmPositionMapping, metadata, errorList);
+                break;
+            default:
+                parser = new SMLLineParser(smhParser.getFactory(), smlPositionMapping, metadata, errorList);
+                break;
+        }
+
+        // the batch error list has been merged when the record is decoded.
+        parser.setLazy(lazy, decodeErrorList);
+        parser.setValuePool(valuePool);
+        parser.setProjection(findProjection(section));
+        return parser;
+    }
+
+    /**
+     * Read the next data lines of {@link #batchSection}, and submit them to the executor. The reading stops when
+     * the batch is full, or a line which not belongs to the section is found, which is kept as pending line.
+     *
+     * @param firstLine the line just read, which should be added into the batch first. Maybe null.
+     */
+    private void submitBatch(String firstLine) throws IOException {
+        Batch next = new Batch(batchSection, batchSize);
+        if (firstLine != null) {
+            next.add(lineNumber, firstLine);
+        }
+
+        String line;
+        while (next.size < batchSize) {
+            line = readLine();
+            if (line == null) {
+                batchSection = null;
+                break;
+            }
+            if (MZTabUtils.isEmpty(line)) {
+                continue;
+            }
+            if (line.startsWith(Section.Comment.getPrefix()) || getSection(line) != batchSection) {
+                pendingLine = line;
+                batchSection = null;
+                break;
+            }
+            next.add(lineNumber, line);
+        }
+
+        if (next.size > 0) {
+            // with a listener, the reader error list is never full, all errors of the batch should be kept.
+            int maxErrorCount = errorList.getListener() == null ? errorList.getMaxErrorCount() : Integer.MAX_VALUE;
+            MZTabErrorList batchErrorList = new MZTabErrorList(errorList.getLevel(), maxErrorCount);
+            next.parser = createDataLineParser(next.section, batchErrorList);
+            next.errorList = batchErrorList;
+            pendingBatches.add(executor.submit(next));
+        }
+    }
+
+    /**
+     * Return the next record of the parsed batches in line order, and add the errors found in the line into
+     * {@link MZTabErrorList}, in the same order as they are added in sequential parse mode.
+     */
+    private MZTabRecord readBatchRecord() throws IOException, MZTabException, MZTabErrorOverflowException {
+        if (batch == null) {
+            batch = waitFor(pendingBatches.poll());
+            if (batchSection != null) {
+                submitBatch(null);
+            }
+        }
+
+        int index = batch.index++;
+        nextLineNumber = batch.lineNumbers[index];
+
+        int accessionErrorIndex = batch.accessionErrorIndexes == null ? -1 : batch.accessionErrorIndexes[index];
+        MZTabError accessionError = null;
+        if (accessionErrorIndex >= 0) {
+            Protein protein = (Protein) batch.records[index];
+            accessionError = prtParser.checkAccessionUnique(nextLineNumber, protein.getAccession());
+            if (accessionError != null) {
+                protein.setAccession(null);
+            }
+        }
+
+        for (int i = index == 0 ? 0 : batch.errorEnds[index - 1]; i < batch.errorEnds[index]; i++) {
+            if (i == accessionErrorIndex && accessionError != null) {
+                errorList.add(accessionError);
+                accessionError = null;
+            }
+            errorList.add(batch.errorList.getError(i));
+        }
+        if (accessionError != null) {
+            errorList.add(accessionError);
+        }
+        if (index == batch.overflowIndex) {
+            throw new MZTabErrorOverflowException();
+        }
+
+        MZTabRecord record = batch.records[index];
+        if (batch.index == batch.size) {
+            batch = null;
+        }
+        return record;
+    }
+
+    private Batch waitFor(Future<Batch> future) throws IOException, MZTabException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during waiting for data lines parsing.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MZTabException) {
+                throw (MZTabException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * A couple of continuous data lines of the same section, which are parsed by one task. Each task use its own
+     * line parser and error list, and the results are merged in line order by {@link #readBatchRecord()}.
+     */
+    private static class Batch implements Callable<Batch> {
+        private Section section;
+        private int size = 0;
+        private int index = 0;
+        private int[] lineNumbers;
+        private String[] lines;
+
+        private MZTabDataLineParser parser;
+        private MZTabErrorList errorList;
+        private MZTabRecord[] records;
+        // errorEnds[i] is the number of errors in error list after parsing the i-th line.
+        private int[] errorEnds;
+        // the index in error list where the duplicate accession error of the i-th protein line should be inserted,
+        // -1 if the accession is not checked. Null for the other sections.
+        private int[] accessionErrorIndexes;
+        // the line which raised MZTabErrorOverflowException, -1 if not overflow.
+        private int overflowIndex = -1;
+
+        private Batch(Section section, int capacity) {
+            this.section = section;
+            lineNumbers = new int[capacity];
+            lines = new String[capacity];
+        }
+
+        private void add(int lineNumber, String line) {
+            lineNumbers[size] = lineNumber;
+            lines[size] = line;
+            size++;
+        }
+
+        @Override
+        public Batch call() throws Exception {
+            records = new MZTabRecord[size];
+            errorEnds = new int[size];
+            PRTLineParser proteinParser = parser instanceof PRTLineParser ? (PRTLineParser) parser : null;
+            if (proteinParser != null) {
+                accessionErrorIndexes = new int[size];
+                Arrays.fill(accessionErrorIndexes, -1);
+            }
+
+            for (int i = 0; i < size; i++) {
+                try {
+                    parser.parse(lineNumbers[i], lines[i], errorList);
+                    records[i] = parser.getRecord();
+                    errorEnds[i] = errorList.size();
+                    if (proteinParser != null) {
+                        accessionErrorIndexes[i] = proteinParser.getAccessionErrorIndex();
+                    }
+                } catch (MZTabErrorOverflowException e) {
+                    errorEnds[i] = errorList.size();
+                    overflowIndex = i;
+                    size = i + 1;
+                    break;
+                }
+            }
+
+            lines = null;
+            parser = null;
+            return this;
+        }
+    }
+
+    /**
+     * Parse the data lines in parallel by the given executor. Continuous data lines of the same section are split
+     * into batches, each one is parsed by a task with its own line parser, and the records and errors are returned
+     * in line order. So the result is the same as the sequential parse mode.
+     *
+     * @param executor the executor to parse batches, for example {@link ForkJoinPool#commonPool()}.
+     *                 If null, data lines are parsed sequentially in the calling thread.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param batchSize the number of data lines parsed by one task in parallel parse mode. SHOULD be positive.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param maxPendingBatches the maximum number of batches which are read ahead and parsed at the same time in
+     *                          parallel parse mode. SHOULD be positive.
+     */
+    public void setMaxPendingBatches(int maxPendingBatches) {
+        if (maxPendingBatches <= 0) {
+            throw new IllegalArgumentException("Max pending batches should be positive.");
+        }
+        this.maxPendingBatches = maxPendingBatches;
+    }
+
+    /**
+     * In lazy mode, the cells of protein/peptide/psm/small_molecule data lines are not checked and translated
+     * during reading. Each record keeps the raw cells of its line, and a cell is checked and translated the first
+     * time it is requested by the getter methods of the record. Only the number of columns is checked during
+     * reading, and the protein accession is still checked immediately, because its uniqueness depends on the
+     * previous lines.
+     *
+     * So the cells which are never requested are not validated. The errors found during decoding are added into
+     * {@link #getDecodeErrorList()}, which is not limited by the max error count, so the getter methods of the
+     * record never throw {@link MZTabErrorOverflowException}. Should be set before reading the first data line.
+     */
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Share the cells which repeat the same few values across the rows, for example database, search_engine and the
+     * String opt_ columns, between the records of the reader, see {@link MZTabValuePool}. No pool is used by default. Should be set before
+     * reading the first data line.
+     *
+     * @param valuePool if null, each cell keeps its own value.
+     */
+    public void setValuePool(MZTabValuePool valuePool) {
+        this.valuePool = valuePool;
+    }
+
+    /**
+     * @return the value pool, which reports the hit rates. Null if no pool has been set.
+     */
+    public MZTabValuePool getValuePool() {
+        return valuePool;
+    }
+
+    /**
+     * Only check and load the given columns of the section, the cells of other columns are skipped when splitting
+     * the data lines, and the values of them are null in the records. The count of cells is still checked.
+     * Should be set before reading the data lines of the section.
+     *
+     * <pre>
+     * reader.setProjection(Section.Protein, Arrays.asList("accession", "protein_abundance_study_variable[1]"));
+     * </pre>
+     *
+     * @param section the header or data section.
+     * @param headers the column headers to load, case insensitive. Headers which are not defined in the header
+     *                line are ignored. If null, all columns of the section are loaded.
+     */
+    public void setProjection(Section section, Collection<String> headers) {
+        section = Section.toDataSection(section);
+        if (section == null) {
+            throw new IllegalArgumentException("Only protein, peptide, psm and small molecule sections support projection.");
+        }
+
+        if (headers == null) {
+            projections.remove(section);
+        } else {
+            projections.put(section, new ArrayList<String>(headers));
+        }
+    }
+
+    /**
+     * Only load the given sections, the data lines of other sections are recognized by their prefix and skipped
+     * without splitting and checking. The metadata section and comments are always loaded, and the header lines
+     * of all sections are still checked, so the line numbers and the section order checks are the same with
+     * loading the whole file. The skipped header lines are not returned by {@link #next()}, but their column
+     * factories can be queried by {@link #getColumnFactory(Section)}. Should be set before reading.
+     *
+     * <pre>
+     * reader.setSections(Arrays.asList(Section.Protein));
+     * </pre>
+     *
+     * @param sections the protein, peptide, psm or small molecule sections to load, header and data section are
+     *                 equivalent. If null, all sections are loaded.
+     */
+    public void setSections(Collection<Section> sections) {
+        if (sections == null) {
+            this.sections = null;
+            return;
+        }
+
+        this.sections = new HashSet<Section>();
+        Section dataSection;
+        for (Section section : sections) {
+            dataSection = Section.toDataSection(section);
+            if (dataSection != null) {
+                this.sections.add(dataSection);
+            }
+        }
+    }
+
+    /**
+     * @return true if the header and data lines of the section are loaded, see {@link #setSections(Collection)}.
+     */
+    public boolean isSelected(Section section) {
+        if (sections == null || section.isMetadata() || section.isComment()) {
+            return true;
+        }
+
+        return sections.contains(Section.toDataSection(section));
+    }
+
+    /**
+     * Find the projected columns of the data section in the column factory of its header line.
+     */
+    private Collection<MZTabColumn> findProjection(Section section) {
+        Collection<String> headers = projections.get(section);
+        if (headers == null) {
+            return null;
+        }
+
+        MZTabColumnFactory factory = getColumnFactory(section);
+        List<MZTabColumn> columns = new ArrayList<MZTabColumn>();
+        MZTabColumn column;
+        for (String header : headers) {
+            column = factory.findColumnByHeader(header);
+            if (column != null) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Check whether there exists more comment, header or data lines in the file. When the end of file
+     * is reached, the consistency checks between sections are done, see {@link #refine()}.
+     *
+     * @throws IOException
+     * @throws MZTabException during parse protein/peptide/small_molecule header line, exists error.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public boolean hasNext() throws IOException, MZTabException, MZTabErrorOverflowException {
+        if (nextSection == null && ! finished) {
+            nextSection = readElement();
+            if (nextSection == null) {
+                finished = true;
+                if (refineOnEnd && errorList.isEmpty()) {
+                    refine();
+                }
+            }
+        }
+
+        return nextSection != null;
+    }
+
+    /**
+     * Move to the next comment, header or data line. After calling this method, the parsed line can be
+     * retrieved by {@link #getRecord()}, {@link #getComment()} or {@link #getColumnFactory()}.
+     *
+     * @return the section of the line, {@link Section#Comment}, a header section or a data section.
+     * @throws NoSuchElementException if the end of file is reached.
+     */
+    public Section next() throws IOException, MZTabException, MZTabErrorOverflowException {
+        if (! hasNext()) {
+            throw new NoSuchElementException("There are no more lines in the mzTab file.");
+        }
+
+        currentSection = nextSection;
+        currentLineNumber = nextLineNumber;
+        currentRecord = nextRecord;
+        currentComment = nextComment;
+
+        nextSection = null;
+        return currentSection;
+    }
+
+    /**
+     * Move to the next protein, peptide, psm or small molecule record, and skip the comment and header lines.
+     *
+     * @return the next record, or null if the end of file is reached.
+     */
+    public MZTabRecord nextRecord() throws IOException, MZTabException, MZTabErrorOverflowException {
+        while (hasNext()) {
+            if (next().isData()) {
+                return currentRecord;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Read the remaining lines, and keep the psm records into a column oriented {@link PSMTable}, each psm record
+     * is added into the table and then discarded. The other records and the comments are skipped.
+     *
+     * @return the psm table, which is empty if the psm section is not present, or not selected by
+     * {@link #setSections(Collection)}.
+     */
+    public PSMTable readPSMTable() throws IOException, MZTabException, MZTabErrorOverflowException {
+        PSMTable table = null;
+        MZTabRecord record;
+        while ((record = nextRecord()) != null) {
+            if (record instanceof PSM) {
+                if (table == null) {
+                    table = new PSMTable(getMetadata(), getColumnFactory(Section.PSM_Header));
+                }
+                table.add((PSM) record);
+            }
+        }
+
+        if (table == null) {
+            return new PSMTable(getMetadata(), getColumnFactory(Section.PSM_Header));
+        }
+        table.trimToSize();
+        return table;
+    }
+
+    /**
+     * @return the section of the line returned by the last {@link #next()} call.
+     */
+    public Section getSection() {
+        return currentSection;
+    }
+
+    /**
+     * @return the line number of the line returned by the last {@link #next()} call.
+     */
+    public int getLineNumber() {
+        return currentLineNumber;
+    }
+
+    /**
+     * @return the record parsed from the last data line, or null if the last line is not a data line.
+     */
+    public MZTabRecord getRecord() {
+        return currentRecord;
+    }
+
+    /**
+     * @return the comment parsed from the last comment line, or null if the last line is not a comment line.
+     */
+    public Comment getComment() {
+        return currentComment;
+    }
+
+    /**
+     * @return the column factory of the section of the last header or data line, or null if the last line
+     * is a comment line.
+     */
+    public MZTabColumnFactory getColumnFactory() {
+        return currentSection == null || currentSection.isComment() ? null : getColumnFactory(currentSection);
+    }
+
+    /**
+     * Get the column factory created from the header line of the given section.
+     *
+     * @param section the header or data section.
+     * @return the column factory, or null if the header line has not been read yet.
+     */
+    public MZTabColumnFactory getColumnFactory(Section section) {
+        Section header = Section.toHeaderSection(section);
+        if (header == null) {
+            return null;
+        }
+
+        MZTabHeaderLineParser parser;
+        switch (header) {
+            case Protein_Header:
+                parser = prhParser;
+                break;
+            case Peptide_Header:
+                parser = pehParser;
+                break;
+            case PSM_Header:
+                parser = pshParser;
+                break;
+            default:
+                parser = smhParser;
+        }
+
+        return parser == null ? null : parser.getFactory();
+    }
+
+    /**
+     * @return the metadata parsed from the metadata section.
+     */
+    public Metadata getMetadata() {
+        return mtdParser.getMetadata();
+    }
+
+    public MZTabErrorList getErrorList() {
+        return errorList;
+    }
+
+    /**
+     * @return the errors found during decoding the cells of the records in lazy mode, see {@link #setLazy(boolean)}.
+     * The records read by different threads add the errors into the same list, which is synchronized on itself.
+     */
+    public MZTabErrorList getDecodeErrorList() {
+        return decodeErrorList;
+    }
+
+    /**
+     * refine all MZTabFile consistency correct.
+     */
+    void refine() throws MZTabException, MZTabErrorOverflowException {
+        Metadata metadata = getMetadata();
+        MZTabColumnFactory proteinFactory = getColumnFactory(Section.Protein_Header);
+        MZTabColumnFactory peptideFactory = getColumnFactory(Section.Peptide_Header);
+        MZTabColumnFactory smlFactory = getColumnFactory(Section.Small_Molecule_Header);
+
+        //If ms_run[1-n]-hash is present,  ms_run[1-n]-hash_method SHOULD also be present
+        for (MsRun msRun : metadata.getMsRunMap().values()) {
+            if (msRun.getHash() != null && msRun.getHashMethod() == null)  {
+                throw new MZTabException(new MZTabError(LogicalErrorType.MsRunHashMethodNotDefined, -1, msRun.getId().toString()));
+            }
+        }
+
+        // If mzTab-type is "Quantification", then at least one section with {protein|peptide|small_molecule}_abundance* columns MUST be present
+        boolean hasAbundance = false;
+        if (metadata.getMZTabType() == MZTabDescription.Type.Quantification) {
+            if (proteinFactory != null && ! proteinFactory.getAbundanceColumnMapping().isEmpty()) {
+                hasAbundance = true;
+            }
+            if (peptideFactory != null && ! peptideFactory.getAbundanceColumnMapping().isEmpty()) {
+                hasAbundance = true;
+            }
+            if (smlFactory != null && ! smlFactory.getAbundanceColumnMapping().isEmpty()) {
+                hasAbundance = true;
+            }
+            if (! hasAbundance) {
+                throw new MZTabException(new MZTabError(LogicalErrorType.QuantificationAbundance, -1));
+            }
+        }
+    }
+
+    /**
+     * Continue reading after the end of file has been reached, used when the line reader can return more lines
+     * later, see {@link TailLineReader}. The parser state (line number, current section and header lines) is kept.
+     */
+    void resume() {
+        finished = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<Batch> future : pendingBatches) {
+            future.cancel(true);
+        }
+        pendingBatches.clear();
+        batch = null;
+
+        if (chainedReader != null) {
+            chainedReader.close();
+            chainedReader = null;
+        }
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+}
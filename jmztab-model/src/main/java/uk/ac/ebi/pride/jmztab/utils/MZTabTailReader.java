@@ -0,0 +1,256 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.*;
+import uk.ac.ebi.pride.jmztab.utils.io.TailLineReader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static uk.ac.ebi.pride.jmztab.utils.MZTabProperties.*;
+
+/**
+ * MZTabTailReader follows a mzTab file which is still being written, for example the psm rows appended by a search
+ * pipeline while it runs. Instead of parsing the whole file again, each {@link #poll(MZTabHandler)} call resumes
+ * from the byte offset, line number and parser state (current section, header lines) of the last call, and only
+ * sends the complete lines appended since then to the handler. An incomplete last line is kept until the rest of
+ * the line has been written.
+ *
+ * <pre>
+ * MZTabTailReader reader = new MZTabTailReader(tabFile, errorList);
+ * while (running) {
+ *     if (reader.poll(handler) == 0) {
+ *         Thread.sleep(interval);
+ *     }
+ * }
+ * reader.close();
+ * </pre>
+ *
+ * The content is sent to the handler in the same order as {@link MZTabFileParser} does, see {@link MZTabHandler}.
+ * Because the metadata section can be written over several polls, {@link MZTabHandler#onMetadata(Metadata)} is
+ * called when the first header line has been read, and the comments before it are sent after that.
+ * {@link MZTabHandler#onEndOfSection(Section)} is not called for the last section, which can still grow, until the
+ * file is replaced.
+ *
+ * If the file has been truncated or replaced (rotated) since the last poll, the reading restarts from the beginning
+ * of the new file: {@link MZTabHandler#onEndOfSection(Section)} is called for the open section of the old file,
+ * the error list is cleared, and the new file is sent to the handler from {@link MZTabHandler#onMetadata(Metadata)}
+ * again. The consistency checks between sections are not done, see {@link MZTabStreamReader#refine()}.
+ *
+ * @see TailLineReader
+ */
+public class MZTabTailReader implements Closeable {
+    private File tabFile;
+    private MZTabErrorList errorList;
+    private Charset charset = Charset.forName(ENCODE);
+
+    private TailLineReader lineReader = null;
+    private MZTabStreamReader reader = null;
+    private boolean closed = false;
+
+    private boolean metadataSent = false;
+    // comments read before the first header line, which are sent after the metadata.
+    private SortedMap<Integer, Comment> pendingComments = new TreeMap<Integer, Comment>();
+    private Section dataSection = null;
+    // errors which have not been sent to the handler yet. The reader adds errors into this list, which pass them to
+    // the error list, so the handler receives all errors, also the ones not kept because the error list is full.
+    private MZTabErrorList pendingErrors = null;
+    private int restartCount = 0;
+
+    /**
+     * Create a new {@code MZTabTailReader} for the given file. Errors are recorded into a {@link MZTabErrorList}
+     * which level and maximum size are defined in the mztab.properties file.
+     *
+     * @param tabFile the MZTab file, which maybe not exist yet.
+     */
+    public MZTabTailReader(File tabFile) {
+        this(tabFile, new MZTabErrorList(LEVEL, MAX_ERROR_COUNT));
+    }
+
+    /**
+     * Create a new {@code MZTabTailReader} for the given file. Nothing is read before the first
+     * {@link #poll(MZTabHandler)} call.
+     *
+     * @param tabFile the MZTab file, which maybe not exist yet.
+     * @param errorList the list where format and logical errors are recorded. If null, a default one is created.
+     */
+    public MZTabTailReader(File tabFile, MZTabErrorList errorList) {
+        if (tabFile == null) {
+            throw new NullPointerException("MZTab file should not be null.");
+        }
+
+        this.tabFile = tabFile;
+        this.errorList = errorList == null ? new MZTabErrorList() : errorList;
+    }
+
+    /**
+     * Read the complete lines appended since the last call, and send them to the handler. Errors added into
+     * {@link MZTabErrorList} are sent to the handler after the line which raised them.
+     *
+     * @return the number of records sent to the handler.
+     * @throws IOException
+     * @throws MZTabException during parse metadata, header lines or line order, exists error. The reader is closed,
+     *                        because the following lines can not be parsed.
+     * @throws MZTabErrorOverflowException reference mztab.properties file mztab.max_error_count parameter.
+     */
+    public int poll(MZTabHandler handler) throws IOException, MZTabException, MZTabErrorOverflowException {
+        if (closed) {
+            throw new IOException("Reader has been closed.");
+        }
+
+        if (lineReader != null && ! lineReader.refresh()) {
+            restart(handler);
+        }
+        if (lineReader == null) {
+            lineReader = new TailLineReader(tabFile, charset);
+            lineReader.refresh();
+        }
+
+        int count = 0;
+        try {
+            if (reader == null) {
+                pendingErrors = new MZTabErrorList(errorList.getLevel(), Integer.MAX_VALUE, errorList);
+                reader = new MZTabStreamReader(lineReader, pendingErrors, false);
+            } else {
+                reader.resume();
+            }
+
+            Section section;
+            while (reader.hasNext()) {
+                section = reader.next();
+                if (section.isComment()) {
+                    if (metadataSent) {
+                        handler.onComment(reader.getLineNumber(), reader.getComment());
+                    } else {
+                        pendingComments.put(reader.getLineNumber(), reader.getComment());
+                    }
+                } else {
+                    if (! metadataSent) {
+                        sendMetadata(handler);
+                    }
+                    if (section.isHeader()) {
+                        if (dataSection != null) {
+                            handler.onEndOfSection(dataSection);
+                        }
+                        dataSection = Section.toDataSection(section);
+                        handler.onHeader(section, reader.getColumnFactory());
+                    } else {
+                        handler.onRecord(section, reader.getLineNumber(), reader.getRecord());
+                        count++;
+                    }
+                }
+                fireErrors(handler);
+            }
+        } catch (MZTabException e) {
+            close();
+            throw e;
+        } finally {
+            // errors added before a MZTabException is thrown.
+            fireErrors(handler);
+        }
+
+        return count;
+    }
+
+    private void sendMetadata(MZTabHandler handler) {
+        metadataSent = true;
+        handler.onMetadata(reader.getMetadata());
+        for (Integer lineNumber : pendingComments.keySet()) {
+            handler.onComment(lineNumber, pendingComments.get(lineNumber));
+        }
+        pendingComments.clear();
+    }
+
+    /**
+     * The file has been truncated or replaced, close the open section and read the file from the beginning.
+     */
+    private void restart(MZTabHandler handler) throws IOException {
+        if (dataSection != null) {
+            handler.onEndOfSection(dataSection);
+        }
+
+        closeReader();
+        metadataSent = false;
+        pendingComments.clear();
+        dataSection = null;
+        errorList.clear();
+        pendingErrors = null;
+        restartCount++;
+    }
+
+    private void fireErrors(MZTabHandler handler) {
+        if (pendingErrors == null) {
+            return;
+        }
+
+        for (int i = 0; i < pendingErrors.size(); i++) {
+            handler.onError(pendingErrors.getError(i));
+        }
+        pendingErrors.clear();
+    }
+
+    /**
+     * @return the metadata parsed from the metadata section of the current file, or null if nothing has been read.
+     */
+    public Metadata getMetadata() {
+        return reader == null ? null : reader.getMetadata();
+    }
+
+    /**
+     * @return the column factory created from the header line of the given section, or null if the header line has
+     * not been read yet.
+     */
+    public MZTabColumnFactory getColumnFactory(Section section) {
+        return reader == null ? null : reader.getColumnFactory(section);
+    }
+
+    /**
+     * @return the line number of the last line sent to the handler.
+     */
+    public int getLineNumber() {
+        return reader == null ? 0 : reader.getLineNumber();
+    }
+
+    /**
+     * @return the file offset of the next line to read in the current file.
+     */
+    public long getPosition() {
+        return lineReader == null ? 0 : lineReader.getPosition();
+    }
+
+    /**
+     * @return the number of times the reading restarted, because the file has been truncated or replaced.
+     */
+    public int getRestartCount() {
+        return restartCount;
+    }
+
+    public MZTabErrorList getErrorList() {
+        return errorList;
+    }
+
+    public File getTabFile() {
+        return tabFile;
+    }
+
+    private void closeReader() throws IOException {
+        if (reader != null) {
+            // the line reader is closed by the stream reader.
+            reader.close();
+            reader = null;
+        } else if (lineReader != null) {
+            lineReader.close();
+        }
+        lineReader = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        closeReader();
+    }
+}
@@ -10,7 +10,7 @@ package uk.ac.ebi.pride.jmztab.utils.errors;
  * @since 29/01/13
  */
 public class CrossCheckErrorType extends MZTabErrorType {
-    public static MZTabErrorType Species = createWarn(Category.CrossCheck, "Species");
+    public static MZTabErrorType Species = createColumnWarn(Category.CrossCheck, "Species");
 
 
 }
@@ -14,10 +14,10 @@ public class FormatErrorType extends MZTabErrorType {
     public static MZTabErrorType CountMatch = createError(Format, "CountMatch");
 
     public static MZTabErrorType IndexedElement = createError(Format, "IndexedElement");
-    public static MZTabErrorType AbundanceColumn = createError(Format, "AbundanceColumn");
-    public static MZTabErrorType MsRunOptionalColumn = createError(Format, "MsRunOptionalColumn");
-    public static MZTabErrorType OptionalCVParamColumn = createError(Format, "OptionalCVParamColumn");
-    public static MZTabErrorType StableColumn = createError(Format, "StableColumn");
+    public static MZTabErrorType AbundanceColumn = createColumnError(Format, "AbundanceColumn");
+    public static MZTabErrorType MsRunOptionalColumn = createColumnError(Format, "MsRunOptionalColumn");
+    public static MZTabErrorType OptionalCVParamColumn = createColumnError(Format, "OptionalCVParamColumn");
+    public static MZTabErrorType StableColumn = createColumnError(Format, "StableColumn");
 
     public static MZTabErrorType MTDLine = createError(Format, "MTDLine");
     public static MZTabErrorType MTDDefineLabel = createError(Format, "MTDDefineLabel");
@@ -30,18 +30,18 @@ public class FormatErrorType extends MZTabErrorType {
     public static MZTabErrorType URL = createError(Format, "URL");
     public static MZTabErrorType Email = createError(Format, "Email");
 
-    public static MZTabErrorType Integer = createError(Format, "Integer");
-    public static MZTabErrorType Double = createError(Format, "Double");
-    public static MZTabErrorType Reliability = createError(Format, "Reliability");
-    public static MZTabErrorType StringList = createError(Format, "StringList");
-    public static MZTabErrorType DoubleList = createError(Format, "DoubleList");
-    public static MZTabErrorType ModificationList = createError(Format, "ModificationList");
-    public static MZTabErrorType GOTermList = createError(Format, "GOTermList");
-    public static MZTabErrorType MZBoolean = createError(Format, "MZBoolean");
-    public static MZTabErrorType SpectraRef = createError(Format, "SpectraRef");
-    public static MZTabErrorType CHEMMODSAccession = createError(Format, "CHEMMODSAccession");
-    public static MZTabErrorType SearchEngineScore = createWarn(Format, "SearchEngineScore");
-    public static MZTabErrorType Sequence = createWarn(Format, "SearchEngineScore");
+    public static MZTabErrorType Integer = createColumnError(Format, "Integer");
+    public static MZTabErrorType Double = createColumnError(Format, "Double");
+    public static MZTabErrorType Reliability = createColumnError(Format, "Reliability");
+    public static MZTabErrorType StringList = createColumnError(Format, "StringList");
+    public static MZTabErrorType DoubleList = createColumnError(Format, "DoubleList");
+    public static MZTabErrorType ModificationList = createColumnError(Format, "ModificationList");
+    public static MZTabErrorType GOTermList = createColumnError(Format, "GOTermList");
+    public static MZTabErrorType MZBoolean = createColumnError(Format, "MZBoolean");
+    public static MZTabErrorType SpectraRef = createColumnError(Format, "SpectraRef");
+    public static MZTabErrorType CHEMMODSAccession = createColumnError(Format, "CHEMMODSAccession");
+    public static MZTabErrorType SearchEngineScore = createColumnWarn(Format, "SearchEngineScore");
+    public static MZTabErrorType Sequence = createColumnWarn(Format, "SearchEngineScore");
 
     public static MZTabErrorType ColUnit = createError(Format, "ColUnit");
 }
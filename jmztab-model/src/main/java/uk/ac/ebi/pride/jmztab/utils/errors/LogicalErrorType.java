@@ -8,42 +8,42 @@ package uk.ac.ebi.pride.jmztab.utils.errors;
  * @since 29/01/13
  */
 public class LogicalErrorType extends MZTabErrorType {
-    public static MZTabErrorType NULL = createError(Category.Logical, "NULL");
-    public static MZTabErrorType NotNULL = createWarn(Category.Logical, "NotNULL");
+    public static MZTabErrorType NULL = createColumnError(Category.Logical, "NULL");
+    public static MZTabErrorType NotNULL = createColumnWarn(Category.Logical, "NotNULL");
 
     public static MZTabErrorType LineOrder = createError(Category.Logical, "LineOrder");
     public static MZTabErrorType HeaderLine = createError(Category.Logical, "HeaderLine");
     public static MZTabErrorType NoHeaderLine = createError(Category.Logical, "NoHeaderLine");
 
     // not defined in metadata.
-    public static MZTabErrorType MsRunNotDefined = createError(Category.Logical, "MsRunNotDefined");
-    public static MZTabErrorType AssayNotDefined = createError(Category.Logical, "AssayNotDefined");
-    public static MZTabErrorType StudyVariableNotDefined = createError(Category.Logical, "StudyVariableNotDefined");
-    public static MZTabErrorType ProteinSearchEngineScoreNotDefined = createWarn(Category.Logical, "ProteinSearchEngineScoreNotDefined");
-    public static MZTabErrorType PeptideSearchEngineScoreNotDefined = createWarn(Category.Logical, "PeptideSearchEngineScoreNotDefined");
-    public static MZTabErrorType PSMSearchEngineScoreNotDefined = createWarn(Category.Logical, "PSMSearchEngineScoreNotDefined");
-    public static MZTabErrorType SmallMoleculeSearchEngineScoreNotDefined = createWarn(Category.Logical, "SmallMoleculeSearchEngineScoreNotDefined");
+    public static MZTabErrorType MsRunNotDefined = createColumnError(Category.Logical, "MsRunNotDefined");
+    public static MZTabErrorType AssayNotDefined = createColumnError(Category.Logical, "AssayNotDefined");
+    public static MZTabErrorType StudyVariableNotDefined = createColumnError(Category.Logical, "StudyVariableNotDefined");
+    public static MZTabErrorType ProteinSearchEngineScoreNotDefined = createColumnWarn(Category.Logical, "ProteinSearchEngineScoreNotDefined");
+    public static MZTabErrorType PeptideSearchEngineScoreNotDefined = createColumnWarn(Category.Logical, "PeptideSearchEngineScoreNotDefined");
+    public static MZTabErrorType PSMSearchEngineScoreNotDefined = createColumnWarn(Category.Logical, "PSMSearchEngineScoreNotDefined");
+    public static MZTabErrorType SmallMoleculeSearchEngineScoreNotDefined = createColumnWarn(Category.Logical, "SmallMoleculeSearchEngineScoreNotDefined");
 
     public static MZTabErrorType MsRunHashMethodNotDefined = createError(Category.Logical, "MsRunHashMethodNotDefined");
 
     public static MZTabErrorType NotDefineInMetadata = createError(Category.Logical, "NotDefineInMetadata");
     public static MZTabErrorType NotDefineInHeader = createError(Category.Logical, "NotDefineInHeader");
     public static MZTabErrorType DuplicationDefine = createError(Category.Logical, "DuplicationDefine");
-    public static MZTabErrorType DuplicationAccession = createError(Category.Logical, "DuplicationAccession");
+    public static MZTabErrorType DuplicationAccession = createColumnError(Category.Logical, "DuplicationAccession");
     public static MZTabErrorType AssayRefs = createError(Category.Logical, "AssayRefs");
 
-    public static MZTabErrorType ProteinCoverage = createError(Category.Logical, "ProteinCoverage");
+    public static MZTabErrorType ProteinCoverage = createColumnError(Category.Logical, "ProteinCoverage");
     public static MZTabErrorType IdNumber = createError(Category.Logical, "IdNumber");
-    public static MZTabErrorType ModificationPosition = createError(Category.Logical, "ModificationPosition");
-    public static MZTabErrorType CHEMMODS = createWarn(Category.Logical, "CHEMMODS");
-    public static MZTabErrorType SubstituteIdentifier = createError(Category.Logical, "SubstituteIdentifier");
+    public static MZTabErrorType ModificationPosition = createColumnError(Category.Logical, "ModificationPosition");
+    public static MZTabErrorType CHEMMODS = createColumnWarn(Category.Logical, "CHEMMODS");
+    public static MZTabErrorType SubstituteIdentifier = createColumnError(Category.Logical, "SubstituteIdentifier");
     public static MZTabErrorType SoftwareVersion = createWarn(Category.Logical, "SoftwareVersion");
 
-    public static MZTabErrorType AbundanceColumnTogether = createError(Category.Logical, "AbundanceColumnTogether");
+    public static MZTabErrorType AbundanceColumnTogether = createColumnError(Category.Logical, "AbundanceColumnTogether");
     public static MZTabErrorType AbundanceColumnSameId = createError(Category.Logical, "AbundanceColumnSameId");
 
-    public static MZTabErrorType SpectraRef = createWarn(Category.Logical, "SpectraRef");
-    public static MZTabErrorType AmbiguityMod = createWarn(Category.Logical, "AmbiguityMod");
+    public static MZTabErrorType SpectraRef = createColumnWarn(Category.Logical, "SpectraRef");
+    public static MZTabErrorType AmbiguityMod = createColumnWarn(Category.Logical, "AmbiguityMod");
     public static MZTabErrorType MsRunLocation = createWarn(Category.Logical, "MsRunLocation");
 
     public static MZTabErrorType FixedMod = createError(Category.Logical, "FixedMod");
@@ -54,7 +54,7 @@ public class LogicalErrorType extends MZTabErrorType {
     public static MZTabErrorType QuantificationAbundance = createError(Category.Logical, "QuantificationAbundance");
     public static MZTabErrorType DuplicationID = createError(Category.Logical, "DuplicationID");
 
-    public static MZTabErrorType ColumnNotValid = createError(Category.Logical, "ColumnNotValid");
+    public static MZTabErrorType ColumnNotValid = createColumnError(Category.Logical, "ColumnNotValid");
     public static MZTabErrorType HeaderNotValid = createError(Category.Logical, "HeaderNotValid");
 
 }
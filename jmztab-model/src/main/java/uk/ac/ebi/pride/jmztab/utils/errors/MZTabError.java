@@ -1,10 +1,5 @@
 package uk.ac.ebi.pride.jmztab.utils.errors;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.NEW_LINE;
 
 /**
@@ -27,11 +22,14 @@ import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.NEW_LINE;
 public class MZTabError {
     private int lineNumber;
     private MZTabErrorType type;
-    private String message;
+    private String[] values;
+    // generated the first time it is requested, most errors of big files are only counted, see MZTabErrorSummary.
+    private String message = null;
 
     /**
      * System will fill a couple of values one by one, and generate a concrete error message
-     * during parse {@link #lineNumber} line in mzTab file.
+     * during parse {@link #lineNumber} line in mzTab file. The message is generated the first
+     * time it is requested.
      *
      * @param type SHOULD NOT null.
      * @param lineNumber SHOULD be positive integer. Except "-1", which means the line number unknown.
@@ -45,30 +43,28 @@ public class MZTabError {
 
         this.lineNumber = lineNumber;
 
-        List<String> valueList = new ArrayList<String>();
-        for (String value : values) {
-            valueList.add(value == null ? "" : value);
+        if (values.length < type.getParameterCount()) {
+            throw new IndexOutOfBoundsException("Index: " + values.length + ", Size: " + type.getParameterCount());
         }
-
-        this.message = fill(0, valueList, type.getOriginal());
+        this.values = values;
     }
 
     /**
-     * fill "{id}" parameter list one by one.
+     * fill "{id}" parameter list one by one, the n-th parameter in the original pattern is
+     * filled by the n-th value.
      */
-    private String fill(int count, List<String> values, String message) {
-        String regexp = "\\{\\w\\}";
-        Pattern pattern = Pattern.compile(regexp);
-        Matcher matcher = pattern.matcher(message);
-
-        String value;
-        if (matcher.find()) {
-            value = values.get(count);
-            message = matcher.replaceFirst(value);
-            return fill(count + 1, values, message);
-        } else {
-            return message;
+    private String fill(String original) {
+        StringBuilder sb = new StringBuilder(original.length() + 32);
+        int count = 0;
+        int start = 0;
+        int i = MZTabErrorType.findParameter(original, 0);
+        while (i >= 0) {
+            String value = values[count++];
+            sb.append(original, start, i).append(value == null ? "" : value);
+            start = i + 3;
+            i = MZTabErrorType.findParameter(original, start);
         }
+        return sb.append(original, start, original.length()).toString();
     }
 
     /**
@@ -85,9 +81,19 @@ public class MZTabError {
      * @return a concrete error/warn message.
      */
     public String getMessage() {
+        if (message == null) {
+            message = fill(type.getOriginal());
+        }
         return message;
     }
 
+    /**
+     * @return the value filled into the index-th parameter of the original pattern, or null if not exists.
+     */
+    String getValue(int index) {
+        return index < values.length ? values[index] : null;
+    }
+
     /**
      *
      * @return the line number.
@@ -108,7 +114,7 @@ public class MZTabError {
 
         sb.append("[").append(type.getLevel()).append("-").append(type.getCode()).append("] ");
         sb.append("line ").append(lineNumber).append(": ");
-        sb.append(message).append(NEW_LINE);
+        sb.append(getMessage()).append(NEW_LINE);
 
         return sb.toString();
     }
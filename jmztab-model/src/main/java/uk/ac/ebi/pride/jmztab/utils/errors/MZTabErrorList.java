@@ -17,13 +17,23 @@ import static uk.ac.ebi.pride.jmztab.utils.MZTabProperties.MAX_ERROR_COUNT;
  * add a new {@link MZTabError} object, it's {@link MZTabErrorType#level} SHOULD equal or
  * great than its level setting.
  *
+ * If a {@link MZTabErrorListener} is given, all errors are sent to the listener as they are added, only the first
+ * max error count errors are kept in the list, and {@link MZTabErrorOverflowException} is not raised, so that the
+ * validation can continue until the end of file with bounded memory. The list itself is a listener, which can be
+ * used to keep the errors reported to another list.
+ *
  * @author qingwei
  * @since 29/01/13
  */
-public class MZTabErrorList {
+public class MZTabErrorList implements MZTabErrorListener {
+    private static final int INITIAL_CAPACITY = 256;
+
     private int maxErrorCount;
     private List<MZTabError> errorList;
     private MZTabErrorType.Level level;
+    private MZTabErrorListener listener;
+    // number of errors added, including the errors which are only sent to the listener.
+    private int errorCount = 0;
 
     /**
      * Generate a error list, which max size is {@link MZTabProperties#MAX_ERROR_COUNT},
@@ -51,9 +61,22 @@ public class MZTabErrorList {
      *        {@link MZTabErrorOverflowException} is thrown
      */
     public MZTabErrorList(MZTabErrorType.Level level, int maxErrorCount) {
+        this(level, maxErrorCount, null);
+    }
+
+    /**
+     * Generate a error list, which send all errors to the listener as they are added, and only keep the first
+     * max error count errors in memory.
+     *
+     * @param level if null, default level is {@link MZTabErrorType.Level#Error}
+     * @param maxErrorCount the maximum number of errors kept by this list.
+     * @param listener if null, {@link MZTabErrorOverflowException} is thrown when the list is full.
+     */
+    public MZTabErrorList(MZTabErrorType.Level level, int maxErrorCount, MZTabErrorListener listener) {
         this.level = level == null ? MZTabErrorType.Level.Error : level;
         this.maxErrorCount = maxErrorCount>=0?maxErrorCount:0;
-        this.errorList = new ArrayList<MZTabError>(this.maxErrorCount);
+        this.errorList = new ArrayList<MZTabError>(Math.min(this.maxErrorCount, INITIAL_CAPACITY));
+        this.listener = listener;
     }
 
     /**
@@ -70,6 +93,9 @@ public class MZTabErrorList {
      * add a new {@link MZTabError} object, it's {@link MZTabErrorType#level} SHOULD equal or
      * greater than its level setting.
      *
+     * If the list has a listener, the error is sent to the listener, and the error is only kept in the list if
+     * the list is not full.
+     *
      * @param error SHOULD NOT set null
      */
     public boolean add(MZTabError error) throws MZTabErrorOverflowException {
@@ -81,13 +107,46 @@ public class MZTabErrorList {
             return false;
         }
 
+        if (listener != null) {
+            listener.onError(error);
+            errorCount++;
+            if (errorList.size() < maxErrorCount) {
+                errorList.add(error);
+            }
+            return true;
+        }
+
         if (errorList.size() >= maxErrorCount) {
             throw new MZTabErrorOverflowException();
         }
 
+        errorCount++;
         return errorList.add(error);
     }
 
+    /**
+     * Same as {@link #add(MZTabError)}, used when the list is the listener of another list.
+     */
+    @Override
+    public void onError(MZTabError error) {
+        add(error);
+    }
+
+    /**
+     * @return the listener which receive all errors, or null if the errors are only kept in the list.
+     */
+    public MZTabErrorListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return the number of errors added, including the errors which are only sent to the listener, because the list
+     * is full.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
     /**
      * @return The maximum number of errors that are going to be reported before the parser stops with an {@link MZTabErrorOverflowException}
      */
@@ -123,10 +182,12 @@ public class MZTabErrorList {
      */
     public void clear() {
         errorList.clear();
+        errorCount = 0;
     }
 
     /**
-     * Returns the number of elements in this list.
+     * Returns the number of elements in this list, which is not bigger than the max error count, see
+     * {@link #getErrorCount()}.
      */
     public int size() {
         return errorList.size();
@@ -142,10 +203,10 @@ public class MZTabErrorList {
     }
 
     /**
-     * Returns <tt>true</tt> if this list contains no elements.
+     * Returns <tt>true</tt> if no error has been added, including the errors which are only sent to the listener.
      */
     public boolean isEmpty() {
-        return errorList.isEmpty();
+        return errorCount == 0;
     }
 
     /**
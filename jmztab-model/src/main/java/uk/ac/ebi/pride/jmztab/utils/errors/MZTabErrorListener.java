@@ -0,0 +1,19 @@
+package uk.ac.ebi.pride.jmztab.utils.errors;
+
+/**
+ * Receive the errors found during parsing, in the order they are reported by the line parsers. A listener is given
+ * to {@link MZTabErrorList#MZTabErrorList(MZTabErrorType.Level, int, MZTabErrorListener)}, which only keeps the
+ * first errors in memory, and send all errors to the listener as they occur, for example to write the complete
+ * report of a big file by {@link MZTabErrorWriter}.
+ *
+ * @see MZTabErrorWriter
+ * @see MZTabErrorList
+ */
+public interface MZTabErrorListener {
+    /**
+     * Called for every error which level is equal or greater than the level of the error list.
+     *
+     * @param error never null.
+     */
+    void onError(MZTabError error);
+}
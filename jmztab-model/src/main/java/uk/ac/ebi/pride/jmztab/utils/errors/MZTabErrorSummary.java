@@ -0,0 +1,219 @@
+package uk.ac.ebi.pride.jmztab.utils.errors;
+
+import uk.ac.ebi.pride.jmztab.model.MZTabConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * {@link MZTabErrorListener} which aggregate the errors by error type and column header, instead of keeping every
+ * error. For each group, the number of errors and the first examples are kept, and the messages are only generated
+ * when the summary is printed. Broken files usually repeat the same error millions of times, for example
+ * {@link FormatErrorType#Double} in one optional column, which are reported as one line by the summary.
+ *
+ * <pre>
+ * MZTabErrorSummary summary = new MZTabErrorSummary();
+ * MZTabFileParser.validate(tabFile, out, MZTabErrorType.Level.Warn, 0, summary);
+ * summary.print(out);
+ * </pre>
+ *
+ * The column header is the first parameter of the error types which are column errors, see
+ * {@link MZTabErrorType#isColumnError()}, for example {@link FormatErrorType#Integer} and
+ * {@link LogicalErrorType#NULL}. Other errors are grouped by error type only. At most max group count groups are created, the following errors of new columns are
+ * added into the group of the error type, so the memory used does not depend on the number of errors.
+ */
+public class MZTabErrorSummary implements MZTabErrorListener {
+    /**
+     * Default number of examples kept for each group.
+     */
+    public static final int DEFAULT_EXAMPLE_COUNT = 5;
+
+    /**
+     * Default maximum number of groups.
+     */
+    public static final int DEFAULT_MAX_GROUP_COUNT = 1000;
+
+    private int exampleCount;
+    private int maxGroupCount;
+
+    // error type -> column header -> group, the group of the error type itself is keyed by null.
+    private Map<MZTabErrorType, Map<String, Group>> groupMap = new HashMap<MZTabErrorType, Map<String, Group>>();
+    // groups in the order they are created.
+    private List<Group> groups = new ArrayList<Group>();
+    private int errorCount = 0;
+
+    public MZTabErrorSummary() {
+        this(DEFAULT_EXAMPLE_COUNT, DEFAULT_MAX_GROUP_COUNT);
+    }
+
+    /**
+     * @param exampleCount the number of examples kept for each group, not less than 0.
+     * @param maxGroupCount the maximum number of groups, not less than 1.
+     */
+    public MZTabErrorSummary(int exampleCount, int maxGroupCount) {
+        if (exampleCount < 0) {
+            throw new IllegalArgumentException("Example count should not be negative.");
+        }
+        if (maxGroupCount < 1) {
+            throw new IllegalArgumentException("Max group count should be positive.");
+        }
+
+        this.exampleCount = exampleCount;
+        this.maxGroupCount = maxGroupCount;
+    }
+
+    /**
+     * Errors which are reported with the same error type and column header.
+     */
+    public static class Group {
+        private MZTabErrorType type;
+        private String column;
+        private int count = 0;
+        private MZTabError[] examples;
+        private int exampleSize = 0;
+
+        private Group(MZTabErrorType type, String column, int exampleCount) {
+            this.type = type;
+            this.column = column;
+            this.examples = new MZTabError[exampleCount];
+        }
+
+        private void add(MZTabError error) {
+            count++;
+            if (exampleSize < examples.length) {
+                examples[exampleSize++] = error;
+            }
+        }
+
+        public MZTabErrorType getType() {
+            return type;
+        }
+
+        /**
+         * @return the column header, or null if the errors are only grouped by error type.
+         */
+        public String getColumn() {
+            return column;
+        }
+
+        /**
+         * @return the number of errors in the group.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return the first errors of the group, in the order they are reported.
+         */
+        public List<MZTabError> getExamples() {
+            return Collections.unmodifiableList(Arrays.asList(examples).subList(0, exampleSize));
+        }
+
+        /**
+         * @return the line numbers of the first errors of the group.
+         */
+        public int[] getLineNumbers() {
+            int[] lineNumbers = new int[exampleSize];
+            for (int i = 0; i < exampleSize; i++) {
+                lineNumbers[i] = examples[i].getLineNumber();
+            }
+            return lineNumbers;
+        }
+    }
+
+    @Override
+    public void onError(MZTabError error) {
+        MZTabErrorType type = error.getType();
+        Map<String, Group> columnMap = groupMap.get(type);
+        if (columnMap == null) {
+            columnMap = new HashMap<String, Group>();
+            groupMap.put(type, columnMap);
+        }
+
+        String column = type.isColumnError() ? error.getValue(0) : null;
+        Group group = columnMap.get(column);
+        if (group == null) {
+            if (column != null && groups.size() >= maxGroupCount) {
+                // too many columns, count in the group of the error type.
+                column = null;
+                group = columnMap.get(null);
+            }
+            if (group == null) {
+                group = new Group(type, column, exampleCount);
+                columnMap.put(column, group);
+                groups.add(group);
+            }
+        }
+
+        group.add(error);
+        errorCount++;
+    }
+
+    /**
+     * @return the groups in the order their first error is reported.
+     */
+    public List<Group> getGroups() {
+        return Collections.unmodifiableList(groups);
+    }
+
+    /**
+     * @return the number of errors reported.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean isEmpty() {
+        return errorCount == 0;
+    }
+
+    /**
+     * Clear all groups.
+     */
+    public void clear() {
+        groupMap.clear();
+        groups.clear();
+        errorCount = 0;
+    }
+
+    /**
+     * Print the summary to output stream.
+     * @param out SHOULD NOT set null.
+     */
+    public void print(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException("Output stream should be set first.");
+        }
+
+        out.write(toString().getBytes());
+    }
+
+    /**
+     * Print one line for each group, with the number of errors and the line numbers of the examples, followed by
+     * the message of the first example.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        for (Group group : groups) {
+            MZTabErrorType type = group.getType();
+            sb.append("[").append(type.getLevel()).append("-").append(type.getCode()).append("] ");
+            sb.append(group.getCount()).append(group.getCount() == 1 ? " time" : " times");
+            if (group.getColumn() != null) {
+                sb.append(" in column \"").append(group.getColumn()).append("\"");
+            }
+            if (group.exampleSize > 0) {
+                sb.append(", first lines:");
+                for (int i = 0; i < group.exampleSize; i++) {
+                    sb.append(i == 0 ? " " : ", ").append(group.examples[i].getLineNumber());
+                }
+                sb.append(": ").append(group.examples[0].getMessage());
+            }
+            sb.append(MZTabConstants.NEW_LINE);
+        }
+
+        return sb.toString();
+    }
+}
@@ -32,6 +32,10 @@ public class MZTabErrorType {
     private Level level;
     private String original;
     private String cause;
+    // number of "{?}" parameters in the original pattern.
+    private int parameterCount = -1;
+    // the first parameter is the header of the column which raised the error.
+    private boolean columnError = false;
 
     protected MZTabErrorType() {}
 
@@ -79,6 +83,24 @@ public class MZTabErrorType {
         return MZTabErrorType.createMZTabError(category, Level.Info, keyword);
     }
 
+    /**
+     * Generate a {@link Level#Error} which first parameter is the column header, see {@link #isColumnError()}.
+     */
+    protected static MZTabErrorType createColumnError(Category category, String keyword) {
+        MZTabErrorType type = createError(category, keyword);
+        type.columnError = true;
+        return type;
+    }
+
+    /**
+     * Generate a {@link Level#Warn} which first parameter is the column header, see {@link #isColumnError()}.
+     */
+    protected static MZTabErrorType createColumnWarn(Category category, String keyword) {
+        MZTabErrorType type = createWarn(category, keyword);
+        type.columnError = true;
+        return type;
+    }
+
     /**
      *  In *_error.properties file, code_{keyword}, original_{keyword}, cause+{keyword} have
      *  stable format. Thus, this method used to load these properties and create a error.
@@ -128,6 +150,45 @@ public class MZTabErrorType {
         return cause;
     }
 
+    /**
+     * @return true if the first parameter of the original pattern is the header of the column which raised the
+     * error, for example {@link FormatErrorType#Double}. These errors can be grouped by column, see
+     * {@link MZTabErrorSummary}.
+     */
+    public boolean isColumnError() {
+        return columnError;
+    }
+
+    /**
+     * @return the number of "{?}" parameters in the original pattern, which should be filled by
+     * {@link MZTabError}.
+     */
+    public int getParameterCount() {
+        if (parameterCount < 0) {
+            int count = 0;
+            for (int i = findParameter(original, 0); i >= 0; i = findParameter(original, i + 3)) {
+                count++;
+            }
+            parameterCount = count;
+        }
+        return parameterCount;
+    }
+
+    /**
+     * Find the next "{?}" parameter, where ? is a letter, digit or underscore.
+     *
+     * @return the index of '{', or -1 if not found.
+     */
+    static int findParameter(String original, int from) {
+        for (int i = original.indexOf('{', from); i >= 0 && i + 2 < original.length(); i = original.indexOf('{', i + 1)) {
+            char c = original.charAt(i + 1);
+            if (original.charAt(i + 2) == '}' && (Character.isLetterOrDigit(c) || c == '_') && c < 128) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Code: Unique number for error/warn
      * Category: Currently, there are three types of messages: Format, Logical
@@ -0,0 +1,75 @@
+package uk.ac.ebi.pride.jmztab.utils.errors;
+
+import java.io.*;
+
+/**
+ * {@link MZTabErrorListener} which write the errors to an output stream or a file as they occur, in the same format
+ * as {@link MZTabErrorList#print(OutputStream)}. The errors are not kept in memory, so the complete report of a
+ * multi-million-row file can be written with bounded memory.
+ *
+ * <pre>
+ * MZTabErrorWriter writer = new MZTabErrorWriter(reportFile);
+ * MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Warn, 200, writer);
+ * ...
+ * writer.close();
+ * </pre>
+ *
+ * Because {@link MZTabErrorListener#onError(MZTabError)} can not throw checked exception, the {@link IOException}
+ * raised during writing is thrown as {@link UncheckedIOException}, which stop the parsing.
+ */
+public class MZTabErrorWriter implements MZTabErrorListener, Flushable, Closeable {
+    private Writer writer;
+    private boolean closeStream;
+    private int count = 0;
+
+    /**
+     * Write the errors to the output stream, which is flushed but not closed by {@link #close()}.
+     */
+    public MZTabErrorWriter(OutputStream out) {
+        if (out == null) {
+            throw new NullPointerException("Output stream should be set first.");
+        }
+
+        this.writer = new BufferedWriter(new OutputStreamWriter(out));
+        this.closeStream = false;
+    }
+
+    /**
+     * Write the errors to the file, which is overwritten if exists.
+     */
+    public MZTabErrorWriter(File reportFile) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile)));
+        this.closeStream = true;
+    }
+
+    @Override
+    public void onError(MZTabError error) {
+        try {
+            writer.write(error.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count++;
+    }
+
+    /**
+     * @return the number of errors written.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closeStream) {
+            writer.close();
+        } else {
+            writer.flush();
+        }
+    }
+}
@@ -15,6 +15,7 @@ package uk.ac.ebi.pride.jmztab.utils.errors;
  */
 public class MZTabException extends Exception {
     private MZTabError error;
+    private MZTabErrorList errorList;
 
     public MZTabException(String message) {
         super(message);
@@ -30,7 +31,23 @@ public class MZTabException extends Exception {
         this.error = error;
     }
 
+    /**
+     * Wrap all errors found in a file, {@link #getError()} returns the first one if any.
+     */
+    public MZTabException(String message, MZTabErrorList errorList) {
+        super(message);
+        this.errorList = errorList;
+        this.error = errorList.isEmpty() ? null : errorList.getError(0);
+    }
+
     public MZTabError getError() {
         return error;
     }
+
+    /**
+     * @return all errors found in the file, or null if the exception only wraps one error.
+     */
+    public MZTabErrorList getErrorList() {
+        return errorList;
+    }
 }
@@ -0,0 +1,31 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * {@link MZTabLineReader} based on {@link BufferedReader}, which is used for compressed input, or when the
+ * file encoding is not supported by {@link MappedLineReader}.
+ */
+public class BufferedLineReader implements MZTabLineReader {
+    private BufferedReader reader;
+
+    public BufferedLineReader(Reader reader) {
+        if (reader == null) {
+            throw new NullPointerException("Reader should not be null.");
+        }
+
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        return reader.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,426 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import uk.ac.ebi.pride.jmztab.model.Section;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Sidecar index of an uncompressed mzTab file, which record the byte offsets and line numbers of the metadata
+ * block, each header line and each data section, and a checkpoint every N data lines of each section. The index
+ * is stored in the file which name is the mzTab file name with ".idx" suffix, for example "x.mztab.idx", and
+ * reused later to jump to a section or to a row directly, see
+ * {@link uk.ac.ebi.pride.jmztab.utils.MZTabStreamReader#open(MZTabIndex, Section, long, uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList)}.
+ *
+ * The index records the size and last modified time of the mzTab file, if any of them changed, the index is out
+ * of date and not loaded anymore.
+ *
+ * <pre>
+ * MZTabIndex index = MZTabIndex.open(tabFile, 1000);
+ * MZTabStreamReader reader = MZTabStreamReader.open(index, Section.PSM, 5000, errorList);
+ * </pre>
+ *
+ * The index is built by scanning the file at byte level, the lines are not decoded and split. Only the first cell
+ * of each line is read to locate the section. The line numbers are the same with {@link MZTabLineReader}, that is,
+ * the line is terminated by '\n', '\r' or "\r\n".
+ */
+public class MZTabIndex {
+    public static final String INDEX_SUFFIX = ".idx";
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    private static final String VERSION = "1";
+    private static final char TAB = '\t';
+
+    /**
+     * The location of a line in the mzTab file.
+     */
+    public static class Entry {
+        private long row;
+        private long offset;
+        private int lineNumber;
+        private long end;
+
+        Entry(long row, long offset, int lineNumber, long end) {
+            this.row = row;
+            this.offset = offset;
+            this.lineNumber = lineNumber;
+            this.end = end;
+        }
+
+        /**
+         * @return the index of the data line in the section, start from 0. For metadata block and header line, is 0.
+         */
+        public long getRow() {
+            return row;
+        }
+
+        /**
+         * @return the byte offset of the beginning of the line.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return the line number in the file, start from 1.
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @return the byte offset after the line terminator. For metadata block, is the end of the last metadata
+         * line. For data line, is -1.
+         */
+        public long getEnd() {
+            return end;
+        }
+    }
+
+    private File tabFile;
+    private long fileSize;
+    private long lastModified;
+    private int checkpointInterval;
+
+    private Entry metadata;
+    private Map<Section, Entry> headers = new EnumMap<Section, Entry>(Section.class);
+    private Map<Section, List<Entry>> checkpoints = new EnumMap<Section, List<Entry>>(Section.class);
+    private Map<Section, Long> rowCounts = new EnumMap<Section, Long>(Section.class);
+
+    private MZTabIndex(File tabFile, long fileSize, long lastModified, int checkpointInterval) {
+        this.tabFile = tabFile;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * @return the sidecar index file of the mzTab file.
+     */
+    public static File getIndexFile(File tabFile) {
+        return new File(tabFile.getPath() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Load the index of the mzTab file if it exists and is up to date, otherwise build the index and write it into
+     * the sidecar index file. If the index file can not be written, for example the directory is read only, the
+     * built index is returned without writing.
+     *
+     * @param checkpointInterval the number of data lines between two checkpoints, used when build the index.
+     */
+    public static MZTabIndex open(File tabFile, int checkpointInterval) throws IOException {
+        MZTabIndex index = load(tabFile);
+        if (index == null) {
+            index = build(tabFile, checkpointInterval);
+            try {
+                index.write();
+            } catch (IOException e) {
+                // the index can still be used in memory.
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Load the index from the sidecar index file.
+     *
+     * @return null if the index file not exists, can not be parsed, or is out of date.
+     */
+    public static MZTabIndex load(File tabFile) throws IOException {
+        File indexFile = getIndexFile(tabFile);
+        if (! indexFile.exists()) {
+            return null;
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), "US-ASCII"));
+        try {
+            MZTabIndex index = null;
+            String line;
+            String[] items;
+            Section section;
+            while ((line = reader.readLine()) != null) {
+                items = line.split("" + TAB);
+                if (index == null) {
+                    if (items.length != 5 || ! items[0].equals("mzTab-index") || ! items[1].equals(VERSION)) {
+                        return null;
+                    }
+                    index = new MZTabIndex(tabFile, Long.parseLong(items[2]), Long.parseLong(items[3]), Integer.parseInt(items[4]));
+                    if (! index.isValid()) {
+                        return null;
+                    }
+                    continue;
+                }
+
+                section = items.length < 2 ? null : Section.findSection(items[1]);
+                if (section == null) {
+                    return null;
+                }
+                if (items[0].equals("block") && items.length == 5) {
+                    index.setBlock(section, new Entry(0, Long.parseLong(items[2]), Integer.parseInt(items[3]), Long.parseLong(items[4])));
+                } else if (items[0].equals("rows") && items.length == 3) {
+                    index.rowCounts.put(section, Long.parseLong(items[2]));
+                } else if (items[0].equals("checkpoint") && items.length == 5) {
+                    index.addCheckpoint(section, new Entry(Long.parseLong(items[2]), Long.parseLong(items[3]), Integer.parseInt(items[4]), -1));
+                } else {
+                    return null;
+                }
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Write the index into the sidecar index file.
+     */
+    public void write() throws IOException {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(getIndexFile(tabFile)), "US-ASCII"));
+        try {
+            writer.print("mzTab-index" + TAB + VERSION + TAB + fileSize + TAB + lastModified + TAB + checkpointInterval + "\n");
+            if (metadata != null) {
+                writeBlock(writer, Section.Metadata, metadata);
+            }
+            for (Section section : headers.keySet()) {
+                writeBlock(writer, section, headers.get(section));
+            }
+            for (Section section : rowCounts.keySet()) {
+                writer.print("rows" + TAB + section.getPrefix() + TAB + rowCounts.get(section) + "\n");
+                for (Entry entry : checkpoints.get(section)) {
+                    writer.print("checkpoint" + TAB + section.getPrefix() + TAB + entry.row + TAB + entry.offset + TAB + entry.lineNumber + "\n");
+                }
+            }
+        } finally {
+            writer.close();
+        }
+
+        if (writer.checkError()) {
+            throw new IOException("Can not write index file " + getIndexFile(tabFile));
+        }
+    }
+
+    private void writeBlock(PrintWriter writer, Section section, Entry entry) {
+        writer.print("block" + TAB + section.getPrefix() + TAB + entry.offset + TAB + entry.lineNumber + TAB + entry.end + "\n");
+    }
+
+    private void setBlock(Section section, Entry entry) {
+        if (section == Section.Metadata) {
+            metadata = entry;
+        } else {
+            headers.put(section, entry);
+        }
+    }
+
+    private void addCheckpoint(Section section, Entry entry) {
+        List<Entry> list = checkpoints.get(section);
+        if (list == null) {
+            list = new ArrayList<Entry>();
+            checkpoints.put(section, list);
+        }
+        list.add(entry);
+    }
+
+    /**
+     * Build the index by scanning the uncompressed mzTab file.
+     *
+     * @param checkpointInterval the number of data lines between two checkpoints, SHOULD be positive.
+     */
+    public static MZTabIndex build(File tabFile, int checkpointInterval) throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval should be positive.");
+        }
+
+        RandomAccessFile file = new RandomAccessFile(tabFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            MZTabIndex index = new MZTabIndex(tabFile, channel.size(), tabFile.lastModified(), checkpointInterval);
+            new Scanner(index).scan(channel);
+            return index;
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Scan the file at byte level, and locate the section of each line by its first cell.
+     */
+    private static class Scanner {
+        private static final int MAX_PREFIX_LENGTH = 32;
+
+        private MZTabIndex index;
+
+        private long lineStart = 0;
+        private int lineNumber = 1;
+        private StringBuilder prefix = new StringBuilder();
+        private boolean prefixEnd = false;
+        private boolean empty = true;
+        private boolean afterCR = false;
+
+        private Scanner(MZTabIndex index) {
+            this.index = index;
+        }
+
+        private void scan(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long position = 0;
+            int read;
+            byte b;
+            while ((read = channel.read(buffer, position)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    b = buffer.get(i);
+                    if (afterCR) {
+                        // the line end with '\r' or "\r\n".
+                        afterCR = false;
+                        if (b == '\n') {
+                            endLine(position + i + 1);
+                            continue;
+                        }
+                        endLine(position + i);
+                    }
+
+                    if (b == '\n') {
+                        endLine(position + i + 1);
+                    } else if (b == '\r') {
+                        afterCR = true;
+                    } else {
+                        append(b);
+                    }
+                }
+                position += read;
+                buffer.clear();
+            }
+
+            if (position > lineStart) {
+                endLine(position);
+            }
+        }
+
+        private void append(byte b) {
+            boolean whitespace = b == ' ' || b == TAB || b == '\u000B' || b == '\f';
+            if (! whitespace) {
+                empty = false;
+            }
+            if (prefixEnd) {
+                return;
+            }
+
+            if (b == TAB || prefix.length() >= MAX_PREFIX_LENGTH) {
+                prefixEnd = true;
+            } else {
+                prefix.append((char) (b & 0xFF));
+            }
+        }
+
+        /**
+         * @param end the offset after the line terminator.
+         */
+        private void endLine(long end) {
+            if (! empty) {
+                Section section = Section.findSection(prefix.toString().trim());
+                if (section != null) {
+                    addLine(section, end);
+                }
+            }
+
+            lineStart = end;
+            lineNumber++;
+            prefix.setLength(0);
+            prefixEnd = false;
+            empty = true;
+        }
+
+        private void addLine(Section section, long end) {
+            if (section.isMetadata()) {
+                if (index.metadata == null) {
+                    index.metadata = new Entry(0, lineStart, lineNumber, end);
+                } else {
+                    index.metadata.end = end;
+                }
+            } else if (section.isHeader()) {
+                if (! index.headers.containsKey(section)) {
+                    index.headers.put(section, new Entry(0, lineStart, lineNumber, end));
+                }
+            } else if (section.isData()) {
+                Long count = index.rowCounts.get(section);
+                long row = count == null ? 0 : count;
+                if (row % index.checkpointInterval == 0) {
+                    index.addCheckpoint(section, new Entry(row, lineStart, lineNumber, -1));
+                }
+                index.rowCounts.put(section, row + 1);
+            }
+        }
+    }
+
+    /**
+     * @return true if the size and last modified time of the mzTab file are the same with the indexed ones.
+     */
+    public boolean isValid() {
+        return tabFile.exists() && tabFile.length() == fileSize && tabFile.lastModified() == lastModified;
+    }
+
+    public File getTabFile() {
+        return tabFile;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @return the metadata block, from the first metadata line to the end of the last metadata line. Null if
+     * there is no metadata line in the file.
+     */
+    public Entry getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @param section the header or data section.
+     * @return the header line of the section, or null if not exists.
+     */
+    public Entry getHeader(Section section) {
+        Section header = Section.toHeaderSection(section);
+        return header == null ? null : headers.get(header);
+    }
+
+    /**
+     * @param section the header or data section.
+     * @return the number of data lines of the section.
+     */
+    public long getRowCount(Section section) {
+        Section data = Section.toDataSection(section);
+        Long count = data == null ? null : rowCounts.get(data);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Find the nearest checkpoint before the data line.
+     *
+     * @param section the header or data section.
+     * @param row the index of the data line in the section, start from 0.
+     * @return the checkpoint which row is not greater than the given row, or null if the row not exists.
+     */
+    public Entry findCheckpoint(Section section, long row) {
+        if (row < 0 || row >= getRowCount(section)) {
+            return null;
+        }
+
+        List<Entry> list = checkpoints.get(Section.toDataSection(section));
+        int low = 0;
+        int high = list.size() - 1;
+        int middle;
+        while (low < high) {
+            middle = (low + high + 1) >>> 1;
+            if (list.get(middle).row <= row) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return list.get(low);
+    }
+}
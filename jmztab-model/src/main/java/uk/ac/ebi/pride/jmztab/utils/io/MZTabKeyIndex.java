@@ -0,0 +1,421 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import uk.ac.ebi.pride.jmztab.model.Section;
+import uk.ac.ebi.pride.jmztab.utils.parser.MZTabLineTokenizer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sidecar key index of an uncompressed mzTab file, which map the cell value of a column to the locations of the
+ * data lines, for example the protein accession, or the accession, sequence and PSM_ID of psm. The index is
+ * stored in the file "x.mztab.{prefix}.{header}.kdx", for example "x.mztab.PSM.psm_id.kdx", and memory mapped
+ * when loaded, so the lookup does not load the index or the mzTab file into memory.
+ *
+ * The index file is a table of fixed size entries sorted by the 64-bit hash of the key: [hash, offset, row,
+ * lineNumber]. The lookup find the entries by binary search, and then read the lines at the offsets to compare
+ * the cell value with the key, so hash collisions are resolved without storing the keys. The "null" and empty
+ * cells are not indexed.
+ *
+ * <pre>
+ * MZTabKeyIndex keyIndex = MZTabKeyIndex.open(tabFile, Section.PSM, "PSM_ID", Charset.forName("UTF-8"));
+ * for (MZTabIndex.Entry entry : keyIndex.lookup("1")) {
+ *     MZTabStreamReader reader = MZTabStreamReader.open(index, Section.PSM, entry, errorList);
+ *     ...
+ * }
+ * keyIndex.close();
+ * </pre>
+ *
+ * Like {@link MZTabIndex}, the index records the size and last modified time of the mzTab file, and is out of
+ * date if any of them changed. The index file is mapped as a whole, so it SHOULD be less than 2 GB, that is about
+ * 76 million indexed lines.
+ */
+public class MZTabKeyIndex implements Closeable {
+    public static final String INDEX_SUFFIX = ".kdx";
+
+    private static final int MAGIC = 0x4D5A4B58;
+    private static final int VERSION = 1;
+    // magic, version, file size, last modified, physical position of the column, count
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 8;
+    // hash, offset, row, line number
+    private static final int ENTRY_SIZE = 8 + 8 + 8 + 4;
+
+    private File tabFile;
+    private Charset charset;
+    private int physicalPosition;
+    private long size;
+
+    private RandomAccessFile index;
+    private MappedByteBuffer buffer;
+    private RandomAccessFile file;
+    private MZTabLineTokenizer tokenizer = new MZTabLineTokenizer();
+
+    private MZTabKeyIndex(File tabFile, Charset charset, RandomAccessFile index, MappedByteBuffer buffer) throws IOException {
+        this.tabFile = tabFile;
+        this.charset = charset;
+        this.physicalPosition = buffer.getInt(24);
+        this.index = index;
+        this.buffer = buffer;
+        this.size = buffer.getLong(HEADER_SIZE - 8);
+        this.file = new RandomAccessFile(tabFile, "r");
+    }
+
+    /**
+     * @param header the column header, case insensitive. The file name use the lower case form of the header, so
+     *               the same index file is used for "Sequence" and "sequence".
+     * @return the sidecar key index file of the column.
+     */
+    public static File getIndexFile(File tabFile, Section section, String header) {
+        Section dataSection = Section.toDataSection(section);
+        if (dataSection == null) {
+            throw new IllegalArgumentException("Only protein, peptide, psm and small molecule sections support key index.");
+        }
+        return new File(tabFile.getPath() + "." + dataSection.getPrefix() + "." + header.trim().toLowerCase(Locale.ENGLISH) + INDEX_SUFFIX);
+    }
+
+    /**
+     * Load the key index of the column if it exists and is up to date, otherwise build the index first.
+     *
+     * @param section the header or data section.
+     * @param header the column header, case insensitive.
+     * @throws IllegalArgumentException if the section or column not exists in the file.
+     */
+    public static MZTabKeyIndex open(File tabFile, Section section, String header, Charset charset) throws IOException {
+        MZTabKeyIndex keyIndex = load(tabFile, section, header, charset);
+        if (keyIndex == null) {
+            build(tabFile, section, header, charset);
+            keyIndex = load(tabFile, section, header, charset);
+        }
+        return keyIndex;
+    }
+
+    /**
+     * Load and memory map the key index of the column.
+     *
+     * @return null if the index file not exists, or is out of date.
+     */
+    public static MZTabKeyIndex load(File tabFile, Section section, String header, Charset charset) throws IOException {
+        File indexFile = getIndexFile(tabFile, section, header);
+        if (! indexFile.exists()) {
+            return null;
+        }
+
+        RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+        try {
+            FileChannel channel = index.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                index.close();
+                return null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION ||
+                buffer.getLong(8) != tabFile.length() || buffer.getLong(16) != tabFile.lastModified() ||
+                channel.size() != HEADER_SIZE + buffer.getLong(HEADER_SIZE - 8) * ENTRY_SIZE) {
+                index.close();
+                return null;
+            }
+
+            return new MZTabKeyIndex(tabFile, charset, index, buffer);
+        } catch (IOException e) {
+            index.close();
+            throw e;
+        } catch (RuntimeException e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Find the physical position of the column in the header line of the section.
+     */
+    private static int findPhysicalPosition(File tabFile, Section section, String header, Charset charset) throws IOException {
+        Section headerSection = Section.toHeaderSection(section);
+        MappedLineReader reader = new MappedLineReader(tabFile, charset);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (MZTabLineTokenizer.findSection(line) == headerSection) {
+                    String[] items = MZTabLineTokenizer.split(line);
+                    for (int i = 1; i < items.length; i++) {
+                        if (items[i].equalsIgnoreCase(header.trim())) {
+                            return i;
+                        }
+                    }
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        throw new IllegalArgumentException("Column " + header + " not exists in " + section + " section of " + tabFile);
+    }
+
+    /**
+     * Build the key index of the column by scanning the mzTab file, and write it into the sidecar file.
+     *
+     * @param section the header or data section.
+     * @param header the column header, case insensitive.
+     * @throws IllegalArgumentException if the section or column not exists in the file.
+     */
+    public static void build(File tabFile, Section section, String header, Charset charset) throws IOException {
+        int physicalPosition = findPhysicalPosition(tabFile, section, header, charset);
+        Section dataSection = Section.toDataSection(section);
+        long fileSize = tabFile.length();
+        long lastModified = tabFile.lastModified();
+
+        Entries entries = new Entries();
+        MZTabLineTokenizer tokenizer = new MZTabLineTokenizer();
+        MappedLineReader reader = new MappedLineReader(tabFile, charset);
+        try {
+            String line;
+            String key;
+            int lineNumber = 0;
+            long row = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (! line.startsWith(dataSection.getPrefix()) || MZTabLineTokenizer.findSection(line) != dataSection) {
+                    continue;
+                }
+
+                tokenizer.tokenize(line);
+                if (physicalPosition < tokenizer.size()) {
+                    key = tokenizer.get(physicalPosition);
+                    if (isKey(key)) {
+                        entries.add(hash(key), reader.getLineStart(), row, lineNumber);
+                    }
+                }
+                row++;
+            }
+        } finally {
+            reader.close();
+        }
+        entries.sort();
+
+        File indexFile = getIndexFile(tabFile, section, header);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), 64 * 1024));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileSize);
+            out.writeLong(lastModified);
+            out.writeInt(physicalPosition);
+            out.writeLong(entries.size);
+            for (int i = 0; i < entries.size; i++) {
+                out.writeLong(entries.hashes[i]);
+                out.writeLong(entries.offsets[i]);
+                out.writeLong(entries.rows[i]);
+                out.writeInt(entries.lineNumbers[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static boolean isKey(String key) {
+        return key.length() != 0 && ! key.equalsIgnoreCase("null");
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Index entries which are sorted by hash, and then by offset.
+     */
+    private static class Entries {
+        private int size = 0;
+        private long[] hashes = new long[1024];
+        private long[] offsets = new long[1024];
+        private long[] rows = new long[1024];
+        private int[] lineNumbers = new int[1024];
+
+        private void add(long hash, long offset, long row, int lineNumber) {
+            if (size == hashes.length) {
+                int capacity = size * 2;
+                long[] newHashes = new long[capacity];
+                long[] newOffsets = new long[capacity];
+                long[] newRows = new long[capacity];
+                int[] newLineNumbers = new int[capacity];
+                System.arraycopy(hashes, 0, newHashes, 0, size);
+                System.arraycopy(offsets, 0, newOffsets, 0, size);
+                System.arraycopy(rows, 0, newRows, 0, size);
+                System.arraycopy(lineNumbers, 0, newLineNumbers, 0, size);
+                hashes = newHashes;
+                offsets = newOffsets;
+                rows = newRows;
+                lineNumbers = newLineNumbers;
+            }
+
+            hashes[size] = hash;
+            offsets[size] = offset;
+            rows[size] = row;
+            lineNumbers[size] = lineNumber;
+            size++;
+        }
+
+        private boolean less(int i, int j) {
+            return hashes[i] < hashes[j] || (hashes[i] == hashes[j] && offsets[i] < offsets[j]);
+        }
+
+        private void swap(int i, int j) {
+            long hash = hashes[i];
+            hashes[i] = hashes[j];
+            hashes[j] = hash;
+            long offset = offsets[i];
+            offsets[i] = offsets[j];
+            offsets[j] = offset;
+            long row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+            int lineNumber = lineNumbers[i];
+            lineNumbers[i] = lineNumbers[j];
+            lineNumbers[j] = lineNumber;
+        }
+
+        private void sort() {
+            // heap sort, in place on the parallel arrays.
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i, size);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            int child;
+            while ((child = 2 * i + 1) < end) {
+                if (child + 1 < end && less(child, child + 1)) {
+                    child++;
+                }
+                if (! less(i, child)) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+    }
+
+    /**
+     * @return true if the size and last modified time of the mzTab file are the same with the indexed ones.
+     */
+    public boolean isValid() {
+        return tabFile.exists() && tabFile.length() == buffer.getLong(8) && tabFile.lastModified() == buffer.getLong(16);
+    }
+
+    /**
+     * @return the number of indexed data lines.
+     */
+    public long size() {
+        return size;
+    }
+
+    private long getHash(long i) {
+        return buffer.getLong((int) (HEADER_SIZE + i * ENTRY_SIZE));
+    }
+
+    /**
+     * Find the data lines which cell value of the column equals the key, case sensitive.
+     *
+     * @return the locations of the data lines in line order, the row of entry is the index of the data line
+     * in the section. Empty if no data line matched.
+     * @throws IOException if the index is out of date, or the mzTab file can not be read.
+     */
+    public synchronized List<MZTabIndex.Entry> lookup(String key) throws IOException {
+        if (buffer == null) {
+            throw new IOException("Key index has been closed.");
+        }
+        if (! isValid()) {
+            throw new IOException("Key index of " + tabFile + " is out of date.");
+        }
+
+        List<MZTabIndex.Entry> entries = new ArrayList<MZTabIndex.Entry>();
+        if (! isKey(key)) {
+            return entries;
+        }
+
+        // find the first entry which hash is not less than the key hash.
+        long hash = hash(key);
+        long low = 0;
+        long high = size;
+        long middle;
+        while (low < high) {
+            middle = (low + high) >>> 1;
+            if (getHash(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int position;
+        long offset;
+        for (long i = low; i < size && getHash(i) == hash; i++) {
+            position = (int) (HEADER_SIZE + i * ENTRY_SIZE);
+            offset = buffer.getLong(position + 8);
+            if (matches(offset, key)) {
+                entries.add(new MZTabIndex.Entry(buffer.getLong(position + 16), offset, buffer.getInt(position + 24), -1));
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Read the line at the offset, and compare the cell value of the column with the key.
+     */
+    private boolean matches(long offset, String key) throws IOException {
+        FileChannel channel = file.getChannel();
+        ByteBuffer lineBuffer = ByteBuffer.allocate(1024);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long position = offset;
+        int read;
+        boolean found = false;
+        while (! found && (read = channel.read(lineBuffer, position)) > 0) {
+            int length = read;
+            for (int i = 0; i < read; i++) {
+                if (lineBuffer.get(i) == '\n' || lineBuffer.get(i) == '\r') {
+                    length = i;
+                    found = true;
+                    break;
+                }
+            }
+            line.write(lineBuffer.array(), 0, length);
+            position += read;
+            lineBuffer.clear();
+        }
+
+        tokenizer.tokenize(new String(line.toByteArray(), charset));
+        return physicalPosition < tokenizer.size() && tokenizer.get(physicalPosition).equals(key);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            buffer = null;
+            try {
+                file.close();
+            } finally {
+                index.close();
+            }
+        }
+    }
+}
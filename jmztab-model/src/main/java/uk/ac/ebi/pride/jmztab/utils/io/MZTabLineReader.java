@@ -0,0 +1,20 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Read the mzTab file line by line. A line is considered to be terminated by any one of a line feed ('\n'),
+ * a carriage return ('\r'), or a carriage return followed immediately by a line feed, the same as
+ * {@link java.io.BufferedReader#readLine()}.
+ *
+ * @see BufferedLineReader
+ * @see MappedLineReader
+ */
+public interface MZTabLineReader extends Closeable {
+    /**
+     * @return the content of the line, not including any line-termination characters, or null if the end of
+     * file has been reached.
+     */
+    String readLine() throws IOException;
+}
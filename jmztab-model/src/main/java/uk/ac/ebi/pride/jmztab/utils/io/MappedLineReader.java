@@ -0,0 +1,216 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * {@link MZTabLineReader} for uncompressed file, which map the file into memory by {@link FileChannel#map} window
+ * by window, and find the line boundaries at byte level. Lines which only contain ASCII chars (most of mzTab lines)
+ * are converted to string directly, without passing through the charset decoder. Other lines are decoded by the
+ * given charset.
+ *
+ * Because the line boundaries are found at byte level, only the charset in which '\n' and '\r' are single bytes
+ * and never part of a multi-byte char are supported, see {@link #isSupported(Charset)}.
+ *
+ * The reader can read the whole file, or a byte range [start, end) of the file which start at a line recorded by
+ * {@link #getLineStart()}, for example a checkpoint of {@link MZTabIndex}. The parallel parsing of
+ * {@link uk.ac.ebi.pride.jmztab.utils.MZTabStreamReader} does not read ranges of the file by different workers,
+ * because the line number of each line, which is reported with the errors, is only known after reading the lines
+ * before it. The lines are read sequentially, and the parsing of the batches of lines is parallel.
+ */
+public class MappedLineReader implements MZTabLineReader {
+    /**
+     * Default size of the file window mapped into memory at the same time.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private Charset charset;
+    private int windowSize;
+
+    // file offset of the first byte of the current window.
+    private long windowStart;
+    private long end;
+    private MappedByteBuffer buffer;
+
+    private byte[] lineBuffer = new byte[1024];
+    // the last line end with '\r', skip the next '\n'.
+    private boolean skipLF = false;
+    // file offset of the first byte of the last line.
+    private long lineStart = -1;
+
+    /**
+     * @return true if the line boundaries of the file in this charset can be found at byte level.
+     */
+    public static boolean isSupported(Charset charset) {
+        return charset.equals(UTF8) || charset.equals(ASCII) || charset.equals(LATIN1);
+    }
+
+    /**
+     * Read the whole file.
+     */
+    public MappedLineReader(File tabFile, Charset charset) throws IOException {
+        this(tabFile, charset, 0, -1);
+    }
+
+    /**
+     * Read the lines in the byte range [start, end) of the file. The start offset SHOULD be the beginning of a line,
+     * see {@link #getLineStart()}.
+     *
+     * @param end if negative, read to the end of file.
+     */
+    public MappedLineReader(File tabFile, Charset charset, long start, long end) throws IOException {
+        this(tabFile, charset, start, end, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineReader(File tabFile, Charset charset, long start, long end, int windowSize) throws IOException {
+        if (! isSupported(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported by memory-mapped reading.");
+        }
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size should be positive.");
+        }
+
+        this.file = new RandomAccessFile(tabFile, "r");
+        this.channel = file.getChannel();
+        this.charset = charset;
+        this.windowSize = windowSize;
+
+        long size = channel.size();
+        this.end = end < 0 || end > size ? size : end;
+        this.windowStart = start < 0 ? 0 : Math.min(start, this.end);
+    }
+
+    /**
+     * Map the next window of the file, return false if the end of range has been reached.
+     */
+    private boolean nextWindow() throws IOException {
+        if (buffer != null) {
+            windowStart += buffer.limit();
+        }
+        if (windowStart >= end) {
+            buffer = null;
+            return false;
+        }
+
+        long length = Math.min(windowSize, end - windowStart);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+        return true;
+    }
+
+    private void append(ByteBuffer buffer, int from, int to, int lineLength) {
+        int length = to - from;
+        if (lineLength + length > lineBuffer.length) {
+            byte[] newBuffer = new byte[Math.max(lineBuffer.length * 2, lineLength + length)];
+            System.arraycopy(lineBuffer, 0, newBuffer, 0, lineLength);
+            lineBuffer = newBuffer;
+        }
+
+        buffer.position(from);
+        buffer.get(lineBuffer, lineLength, length);
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (channel == null) {
+            throw new IOException("Reader has been closed.");
+        }
+
+        int lineLength = 0;
+        boolean ascii = true;
+        boolean found = false;
+        boolean started = false;
+        int from;
+        int limit;
+        int i;
+        byte b;
+        while (true) {
+            if (buffer == null || ! buffer.hasRemaining()) {
+                if (! nextWindow()) {
+                    break;
+                }
+            }
+
+            from = buffer.position();
+            limit = buffer.limit();
+
+            if (skipLF) {
+                skipLF = false;
+                if (buffer.get(from) == '\n') {
+                    buffer.position(++from);
+                    continue;
+                }
+            }
+
+            if (! started) {
+                started = true;
+                lineStart = windowStart + from;
+            }
+
+            for (i = from; i < limit; i++) {
+                b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    found = true;
+                    break;
+                }
+                if (b < 0) {
+                    ascii = false;
+                }
+            }
+
+            append(buffer, from, i, lineLength);
+            lineLength += i - from;
+
+            if (found) {
+                // skip line terminator.
+                if (buffer.get(i) == '\r') {
+                    skipLF = true;
+                }
+                buffer.position(i + 1);
+                break;
+            }
+        }
+
+        if (! found && lineLength == 0) {
+            return null;
+        }
+
+        return new String(lineBuffer, 0, lineLength, ascii ? LATIN1 : charset);
+    }
+
+    /**
+     * @return the file offset of the first byte of the line returned by the last {@link #readLine()} call, or -1 if
+     * no line has been read.
+     */
+    public long getLineStart() {
+        return lineStart;
+    }
+
+    /**
+     * @return the file offset of the next byte to read. If the last line end with "\r\n", the offset maybe point
+     * to the '\n' char.
+     */
+    public long getPosition() {
+        return buffer == null ? windowStart : windowStart + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            buffer = null;
+            channel = null;
+            file.close();
+            file = null;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link MZTabLineReader} which read the lines from the source reader on a dedicated thread. The lines are passed
+ * to the consumer through a bounded ring of reusable buffers, so the source reading (for example, gzip inflating)
+ * and the line parsing are done at the same time.
+ *
+ * The backpressure is controlled by the number of buffers and the number of lines in each buffer: when all buffers
+ * are filled and not consumed yet, the reader thread waits until the consumer release one.
+ *
+ * <pre>
+ * MZTabLineReader source = new BufferedLineReader(new InputStreamReader(new GZIPInputStream(in), "UTF-8"));
+ * MZTabLineReader reader = new PipedLineReader(source, 8, 1024);
+ * </pre>
+ */
+public class PipedLineReader implements MZTabLineReader {
+    public static final int DEFAULT_BUFFER_COUNT = 8;
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * A couple of lines read by the reader thread. A buffer which size less than its capacity means the end of file
+     * has been reached, or the source reader raised an exception.
+     */
+    private static class Buffer {
+        private String[] lines;
+        private int size;
+        private IOException exception;
+
+        private Buffer(int capacity) {
+            lines = new String[capacity];
+        }
+    }
+
+    private MZTabLineReader source;
+    private BlockingQueue<Buffer> free;
+    private BlockingQueue<Buffer> filled;
+    private Thread thread;
+    private volatile boolean closed = false;
+
+    private Buffer current;
+    private int index;
+    private boolean finished = false;
+
+    public PipedLineReader(MZTabLineReader source) {
+        this(source, DEFAULT_BUFFER_COUNT, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param source the reader which read lines on the reader thread. It is closed by {@link #close()}.
+     * @param bufferCount the number of buffers in the ring, SHOULD be positive.
+     * @param bufferSize the number of lines in each buffer, SHOULD be positive.
+     */
+    public PipedLineReader(MZTabLineReader source, int bufferCount, int bufferSize) {
+        if (source == null) {
+            throw new NullPointerException("Source reader should not be null.");
+        }
+        if (bufferCount <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer count and buffer size should be positive.");
+        }
+
+        this.source = source;
+        this.free = new ArrayBlockingQueue<Buffer>(bufferCount);
+        this.filled = new ArrayBlockingQueue<Buffer>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(new Buffer(bufferSize));
+        }
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                fill();
+            }
+        }, "mzTab-line-reader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Executed by the reader thread, fill the free buffers until the end of source. If the source raise an
+     * exception or an error, a last buffer which carries the cause is posted, so the consumer is never left waiting,
+     * and an {@link Error} is raised again on the reader thread after that.
+     */
+    private void fill() {
+        Buffer buffer;
+        String line;
+        boolean end = false;
+        Error error = null;
+        try {
+            while (! end && ! closed) {
+                buffer = free.take();
+                buffer.size = 0;
+                buffer.exception = null;
+
+                try {
+                    while (buffer.size < buffer.lines.length) {
+                        line = source.readLine();
+                        if (line == null) {
+                            end = true;
+                            break;
+                        }
+                        buffer.lines[buffer.size++] = line;
+                    }
+                } catch (IOException e) {
+                    buffer.exception = e;
+                    end = true;
+                } catch (Throwable e) {
+                    buffer.exception = new IOException(e);
+                    end = true;
+                    if (e instanceof Error) {
+                        error = (Error) e;
+                    }
+                }
+
+                filled.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            // closed by consumer.
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (closed) {
+            throw new IOException("Reader has been closed.");
+        }
+
+        while (true) {
+            if (current != null && index < current.size) {
+                String line = current.lines[index];
+                current.lines[index++] = null;
+                return line;
+            }
+
+            if (current != null) {
+                Buffer last = current;
+                current = null;
+
+                if (last.exception != null) {
+                    finished = true;
+                    throw last.exception;
+                }
+                if (last.size < last.lines.length) {
+                    finished = true;
+                }
+                free.add(last);
+            }
+
+            if (finished) {
+                return null;
+            }
+
+            try {
+                current = filled.take();
+                index = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted during waiting for lines.");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        source.close();
+    }
+}
@@ -0,0 +1,210 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * {@link MZTabLineReader} for a file which is still being written, for example by a search pipeline which append
+ * the psm rows while it runs. Only complete lines are returned: the bytes after the last line terminator are kept
+ * until the rest of the line has been appended. When there is no complete line left, {@link #readLine()} returns
+ * null, and the lines appended after that are seen after calling {@link #refresh()}.
+ *
+ * The reader remembers the file offset of the next line, and reopens the file on each {@link #refresh()}, so that
+ * a file which has been truncated or replaced (rotated) under the same name is detected: the file is shorter than
+ * the offset, the file key is different, or the heading bytes of the file have changed.
+ *
+ * Same as {@link MappedLineReader}, only the charset in which '\n' and '\r' are single bytes are supported.
+ */
+public class TailLineReader implements MZTabLineReader {
+    /**
+     * Number of heading bytes of the file which are compared on each {@link #refresh()}.
+     */
+    public static final int FINGERPRINT_SIZE = 4096;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private File tabFile;
+    private Charset charset;
+    private RandomAccessFile file = null;
+    private boolean closed = false;
+
+    private Object fileKey = null;
+    private byte[] fingerprint = new byte[0];
+
+    // file length at the last refresh, bytes after it are not read.
+    private long end = 0;
+    // file offset of the next byte to read into the buffer.
+    private long readOffset = 0;
+
+    // bytes [bufferStart, bufferEnd) have been read from the file, but not returned as line yet.
+    private byte[] buffer = new byte[CHUNK_SIZE];
+    private int bufferStart = 0;
+    private int bufferEnd = 0;
+    // bytes [bufferStart, scanned) contain no line terminator.
+    private int scanned = 0;
+    // the last line end with '\r', skip the next '\n'.
+    private boolean skipLF = false;
+
+    /**
+     * Create a reader which start at the beginning of the file. The file maybe not exist yet. No line is read
+     * before the first {@link #refresh()} call.
+     */
+    public TailLineReader(File tabFile, Charset charset) {
+        if (tabFile == null) {
+            throw new NullPointerException("MZTab file should not be null.");
+        }
+        if (! MappedLineReader.isSupported(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported by tail reading.");
+        }
+
+        this.tabFile = tabFile;
+        this.charset = charset;
+    }
+
+    /**
+     * Check the file, and make the bytes appended since the last call available to {@link #readLine()}.
+     *
+     * @return false if the file has been truncated or replaced since the last call, in this case no more line is
+     * read, and a new reader should be created to read the file from the beginning. If the file not exists, true
+     * is returned only if nothing has been read before.
+     */
+    public boolean refresh() throws IOException {
+        if (closed) {
+            throw new IOException("Reader has been closed.");
+        }
+        closeFile();
+
+        if (! tabFile.exists()) {
+            return readOffset == 0;
+        }
+
+        Object key = Files.readAttributes(tabFile.toPath(), BasicFileAttributes.class).fileKey();
+        file = new RandomAccessFile(tabFile, "r");
+        long length = file.length();
+        if (length < readOffset || (fileKey != null && key != null && ! fileKey.equals(key)) || ! checkFingerprint(length)) {
+            closeFile();
+            return false;
+        }
+
+        fileKey = key;
+        end = length;
+        return true;
+    }
+
+    /**
+     * Compare the heading bytes of the file with the bytes seen before, and remember the longer heading.
+     */
+    private boolean checkFingerprint(long length) throws IOException {
+        int size = (int) Math.min(length, FINGERPRINT_SIZE);
+        if (size < fingerprint.length) {
+            return false;
+        }
+
+        byte[] heading = new byte[size];
+        file.readFully(heading);
+        for (int i = 0; i < fingerprint.length; i++) {
+            if (heading[i] != fingerprint[i]) {
+                return false;
+            }
+        }
+        fingerprint = heading;
+        return true;
+    }
+
+    /**
+     * Read the next chunk of the file into the buffer, return false if all bytes before the end have been read.
+     */
+    private boolean fill() throws IOException {
+        if (file == null || readOffset >= end) {
+            // nothing to read until the next refresh, release the file.
+            closeFile();
+            return false;
+        }
+
+        if (bufferStart > 0) {
+            System.arraycopy(buffer, bufferStart, buffer, 0, bufferEnd - bufferStart);
+            scanned -= bufferStart;
+            bufferEnd -= bufferStart;
+            bufferStart = 0;
+        }
+        if (bufferEnd == buffer.length) {
+            // line is longer than the buffer.
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int length = (int) Math.min(buffer.length - bufferEnd, end - readOffset);
+        file.seek(readOffset);
+        file.readFully(buffer, bufferEnd, length);
+        bufferEnd += length;
+        readOffset += length;
+        return true;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        if (closed) {
+            throw new IOException("Reader has been closed.");
+        }
+
+        if (skipLF) {
+            if (bufferStart == bufferEnd && ! fill()) {
+                return null;
+            }
+            skipLF = false;
+            if (buffer[bufferStart] == '\n') {
+                bufferStart++;
+            }
+        }
+
+        int i = Math.max(scanned, bufferStart);
+        while (true) {
+            for (; i < bufferEnd; i++) {
+                if (buffer[i] == '\n' || buffer[i] == '\r') {
+                    String line = new String(buffer, bufferStart, i - bufferStart, charset);
+                    skipLF = buffer[i] == '\r';
+                    bufferStart = i + 1;
+                    scanned = bufferStart;
+                    return line;
+                }
+            }
+
+            // keep the incomplete line until the rest has been appended.
+            int start = bufferStart;
+            if (! fill()) {
+                scanned = bufferEnd;
+                return null;
+            }
+            i -= start - bufferStart;
+        }
+    }
+
+    /**
+     * @return the file offset of the next line to read, not including the bytes of incomplete line. If the last
+     * line end with "\r\n", the offset maybe point to the '\n' char.
+     */
+    public long getPosition() {
+        return readOffset - (bufferEnd - bufferStart);
+    }
+
+    public File getTabFile() {
+        return tabFile;
+    }
+
+    private void closeFile() throws IOException {
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        closeFile();
+    }
+}
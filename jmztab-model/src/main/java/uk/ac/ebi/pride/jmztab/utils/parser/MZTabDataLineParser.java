@@ -3,7 +3,7 @@ package uk.ac.ebi.pride.jmztab.utils.parser;
 import uk.ac.ebi.pride.jmztab.model.*;
 import uk.ac.ebi.pride.jmztab.utils.errors.*;
 
-import java.util.SortedMap;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,6 +28,9 @@ import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.*;
  * @since 14/02/13
  */
 public abstract class MZTabDataLineParser extends MZTabLineParser {
+    private static final Pattern BEST_SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("search_engine_score\\[(\\d+)\\](\\w+)?");
+    private static final Pattern SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("search_engine_score\\[(\\d+)\\]\\w*");
+
     protected MZTabColumnFactory factory;
     protected PositionMapping positionMapping;
     protected SortedMap<String, Integer> exchangeMapping; // reverse the key and value of positionMapping.
@@ -36,6 +39,20 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
     protected Metadata metadata;
     protected MZTabRecord record;
 
+    private boolean lazy = false;
+    private MZTabErrorList decodeErrorList = null;
+
+    // the columns which are checked and loaded, if null, all columns are loaded.
+    private PositionMapping projection = null;
+    private int[] projectedPositions = null;
+
+    // compiled from the header line, indexed by physical position, null if the column is not checked.
+    private ColumnPlan[] plans = null;
+    private boolean[] lazyColumns = null;
+
+    // canonical values of the repetitive cells, if null, each cell keeps its own value.
+    private MZTabValuePool valuePool = null;
+
     /**
      * Generate a mzTab data line parser.
      *
@@ -70,7 +87,7 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
     /**
      * Validate and parse the data line, if there exist errors, add them into {@link MZTabErrorList}.
      */
-    public void parse(int lineNumber, String line, MZTabErrorList errorList) throws MZTabException {
+    public synchronized void parse(int lineNumber, String line, MZTabErrorList errorList) throws MZTabException {
         super.parse(lineNumber, line, errorList);
         checkCount();
 
@@ -107,12 +124,311 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
      */
     protected abstract int checkData();
 
+    /**
+     * Resolve how to check and translate the cells of a column, it is called once for each column of the header
+     * line, before the first data line is checked. The long chain of column name comparisons is not repeated for
+     * every cell then.
+     *
+     * @param logicalPosition the logical position of the column.
+     * @param column SHOULD NOT be null.
+     * @return the plan used by {@link #checkColumn(MZTabRecord, ColumnPlan, String)}, or null if the cells of the
+     * column are not checked and loaded.
+     */
+    protected abstract ColumnPlan compileColumn(String logicalPosition, MZTabColumn column);
+
+    /**
+     * Check and translate one cell into the record.
+     *
+     * @param record the record of the current line.
+     * @param plan the plan of the column, compiled by {@link #compileColumn(String, MZTabColumn)}.
+     * @param target the cell value.
+     */
+    protected abstract void checkColumn(MZTabRecord record, ColumnPlan plan, String target);
+
+    /**
+     * The pre-resolved check of a column: which cell kind the column holds, and the search engine score id
+     * parsed from the header if the column is a search engine score column.
+     */
+    protected static class ColumnPlan {
+        private final Enum<?> kind;
+        private final String logicalPosition;
+        private final MZTabColumn column;
+        private final Integer id;
+
+        protected ColumnPlan(Enum<?> kind, String logicalPosition, MZTabColumn column) {
+            this(kind, logicalPosition, column, null);
+        }
+
+        protected ColumnPlan(Enum<?> kind, String logicalPosition, MZTabColumn column, Integer id) {
+            this.kind = kind;
+            this.logicalPosition = logicalPosition;
+            this.column = column;
+            this.id = id;
+        }
+
+        public Enum<?> getKind() {
+            return kind;
+        }
+
+        public String getLogicalPosition() {
+            return logicalPosition;
+        }
+
+        public MZTabColumn getColumn() {
+            return column;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Whether the column can be decoded lazily. Columns which checking depends on the other lines, should be
+     * checked during parsing, for example the protein accession uniqueness.
+     */
+    protected boolean isLazyColumn(MZTabColumn column) {
+        return true;
+    }
+
+    /**
+     * The logical positions of the other columns which cell values are used during checking the column, for
+     * example the modifications check depend on the sequence. These cells are kept in projection mode, see
+     * {@link #setProjection(Collection)}.
+     */
+    protected Collection<String> getDependentPositions(MZTabColumn column) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Check and translate all columns of the current line into the record, by calling
+     * {@link #checkColumn(MZTabRecord, ColumnPlan, String)}. In lazy mode, the cells are kept in the record
+     * as raw strings, and checked when they are requested first time, see {@link #setLazy(boolean)}.
+     *
+     * @return the physical position after the last column.
+     */
+    protected int checkColumns(MZTabRecord record) {
+        ColumnPlan[] plans = getPlans();
+        List<String> lazyPositions = lazy ? new ArrayList<String>() : null;
+        int count = Math.min(items.length, plans.length);
+
+        if (projectedPositions == null) {
+            for (int physicalPosition = 1; physicalPosition < count; physicalPosition++) {
+                checkColumn(record, physicalPosition, lazyPositions);
+            }
+        } else {
+            // only the projected columns are checked, the count of cells is still checked.
+            for (int physicalPosition : projectedPositions) {
+                if (physicalPosition >= count) {
+                    break;
+                }
+                checkColumn(record, physicalPosition, lazyPositions);
+            }
+        }
+
+        if (lazy && ! lazyPositions.isEmpty()) {
+            record.setLazyCells(lazyPositions, new LazyCells(items, lineNumber, decodeErrorList == null ? errorList : decodeErrorList));
+        }
+
+        return items.length;
+    }
+
+    private void checkColumn(MZTabRecord record, int physicalPosition, List<String> lazyPositions) {
+        ColumnPlan plan = plans[physicalPosition];
+        if (plan != null) {
+            if (lazy && lazyColumns[physicalPosition]) {
+                lazyPositions.add(plan.getLogicalPosition());
+            } else {
+                checkColumn(record, plan, items[physicalPosition]);
+            }
+        }
+    }
+
+    /**
+     * Compile the plans of all columns defined in the header line, only once.
+     */
+    private ColumnPlan[] getPlans() {
+        if (plans == null) {
+            int length = 1;
+            for (Integer physicalPosition : positionMapping.keySet()) {
+                length = Math.max(length, physicalPosition + 1);
+            }
+
+            ColumnPlan[] plans = new ColumnPlan[length];
+            boolean[] lazyColumns = new boolean[length];
+            for (Integer physicalPosition : positionMapping.keySet()) {
+                String logicalPosition = positionMapping.get(physicalPosition);
+                MZTabColumn column = factory.getColumnMapping().get(logicalPosition);
+                if (column != null) {
+                    plans[physicalPosition] = compileColumn(logicalPosition, column);
+                    lazyColumns[physicalPosition] = isLazyColumn(column);
+                }
+            }
+            this.lazyColumns = lazyColumns;
+            this.plans = plans;
+        }
+        return plans;
+    }
+
+    /**
+     * Decode a cell kept in lazy mode, the parser state is switched to the line of the record during decoding.
+     */
+    private synchronized void decode(MZTabRecord record, String logicalPosition, LazyCells cells) {
+        String[] currentItems = items;
+        int currentLineNumber = lineNumber;
+        MZTabErrorList currentErrorList = errorList;
+
+        items = cells.items;
+        lineNumber = cells.lineNumber;
+        errorList = cells.errorList;
+        try {
+            ColumnPlan[] plans = getPlans();
+            Integer physicalPosition = exchangeMapping.get(logicalPosition);
+            if (physicalPosition != null && physicalPosition < items.length && plans[physicalPosition] != null) {
+                // the error list maybe shared by the parsers of the batches.
+                synchronized (errorList) {
+                    checkColumn(record, plans[physicalPosition], items[physicalPosition]);
+                }
+            }
+        } finally {
+            items = currentItems;
+            lineNumber = currentLineNumber;
+            errorList = currentErrorList;
+        }
+    }
+
+    /**
+     * The raw cells of a line parsed in lazy mode.
+     */
+    private class LazyCells implements MZTabCellDecoder {
+        private String[] items;
+        private int lineNumber;
+        private MZTabErrorList errorList;
+
+        private LazyCells(String[] items, int lineNumber, MZTabErrorList errorList) {
+            this.items = items;
+            this.lineNumber = lineNumber;
+            this.errorList = errorList;
+        }
+
+        @Override
+        public void decode(MZTabRecord record, String logicalPosition) {
+            MZTabDataLineParser.this.decode(record, logicalPosition, this);
+        }
+    }
+
+    /**
+     * In lazy mode, the cells are not checked and translated during parsing. The record keeps the raw cells,
+     * and each cell is checked and translated the first time it is requested, for example by
+     * {@link PSM#getModifications()}, and then cached in the record. The errors found during decoding are
+     * added into the {@link MZTabErrorList} which is used to parse the line.
+     *
+     * The number of columns in the line is still checked during parsing.
+     */
+    public void setLazy(boolean lazy) {
+        setLazy(lazy, null);
+    }
+
+    /**
+     * Set lazy mode, see {@link #setLazy(boolean)}.
+     *
+     * @param decodeErrorList the errors found during decoding are added into this list. If null, the
+     *                        {@link MZTabErrorList} which is used to parse the line is used.
+     */
+    public void setLazy(boolean lazy, MZTabErrorList decodeErrorList) {
+        this.lazy = lazy;
+        this.decodeErrorList = decodeErrorList;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Only check and load the given columns, the cells of other columns are skipped during splitting the line,
+     * and the values of them are null in the record. The count of cells is still checked. For example, only load
+     * the accession and protein_abundance_study_variable[1-n] columns of the protein section.
+     *
+     * @param columns the columns to load, the columns which are not defined in the header line are ignored.
+     *                If null, all columns are loaded.
+     */
+    public void setProjection(Collection<MZTabColumn> columns) {
+        if (columns == null) {
+            projection = null;
+            projectedPositions = null;
+            cellFilter = null;
+            return;
+        }
+
+        Set<String> logicalPositions = new HashSet<String>();
+        for (MZTabColumn column : columns) {
+            logicalPositions.add(column.getLogicPosition());
+        }
+        projection = positionMapping.project(logicalPositions);
+        projectedPositions = new int[projection.size()];
+        int index = 0;
+        for (Integer physicalPosition : projection.keySet()) {
+            projectedPositions[index++] = physicalPosition;
+        }
+
+        // keep the cells of projected columns, and the cells which they depend on.
+        Set<Integer> physicalPositions = new HashSet<Integer>(projection.keySet());
+        for (String logicalPosition : projection.values()) {
+            for (String dependentPosition : getDependentPositions(factory.findColumnByPosition(logicalPosition))) {
+                Integer physicalPosition = exchangeMapping.get(dependentPosition);
+                if (physicalPosition != null) {
+                    physicalPositions.add(physicalPosition);
+                }
+            }
+        }
+
+        int length = 1;
+        for (Integer physicalPosition : positionMapping.keySet()) {
+            length = Math.max(length, physicalPosition + 1);
+        }
+        cellFilter = new boolean[length];
+        cellFilter[0] = true;
+        for (Integer physicalPosition : physicalPositions) {
+            cellFilter[physicalPosition] = true;
+        }
+    }
+
+    /**
+     * @return the projected columns, or null if all columns are loaded.
+     */
+    public PositionMapping getProjection() {
+        return projection;
+    }
+
+    /**
+     * Share the values of the cells which repeat the same few values across the rows, for example database,
+     * database_version, species, search_engine and the String opt_ columns, see {@link MZTabValuePool}. The pool is usually shared by the data line
+     * parsers of one parse.
+     *
+     * @param valuePool if null, each cell keeps its own value.
+     */
+    public void setValuePool(MZTabValuePool valuePool) {
+        this.valuePool = valuePool;
+    }
+
+    public MZTabValuePool getValuePool() {
+        return valuePool;
+    }
+
+    /**
+     * Check the cell by {@link #checkData(MZTabColumn, String, boolean)}, and return the shared instance of the
+     * value if a {@link MZTabValuePool} has been set.
+     */
+    protected String checkPooledData(MZTabColumn column, String target, boolean allowNull) {
+        String result = checkData(column, target, allowNull);
+        return valuePool == null ? result : valuePool.getString(result);
+    }
+
     /**
      * load best_search_engine_score[id], read id value.
      */
     protected Integer loadBestSearchEngineScoreId(String bestSearchEngineScoreLabel) {
-        Pattern pattern = Pattern.compile("search_engine_score\\[(\\d+)\\](\\w+)?");
-        Matcher matcher = pattern.matcher(bestSearchEngineScoreLabel);
+        Matcher matcher = BEST_SEARCH_ENGINE_SCORE_PATTERN.matcher(bestSearchEngineScoreLabel);
 
         if (matcher.find()) {
             return new Integer(matcher.group(1));
@@ -125,8 +441,7 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
      * load search_engine_score[id]_ms_run[..], read id value.
      */
     protected Integer loadSearchEngineScoreId(String searchEngineLabel) {
-        Pattern pattern = Pattern.compile("search_engine_score\\[(\\d+)\\]\\w*");
-        Matcher matcher = pattern.matcher(searchEngineLabel);
+        Matcher matcher = SEARCH_ENGINE_SCORE_PATTERN.matcher(searchEngineLabel);
 
         if (matcher.find()) {
             return new Integer(matcher.group(1));
@@ -239,7 +554,7 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
             return new SplitList<Param>(BAR);
         }
 
-        SplitList<Param> paramList = parseParamList(result);
+        SplitList<Param> paramList = valuePool == null ? parseParamList(result) : valuePool.getParamList(result);
         if (paramList.size() == 0) {
             this.errorList.add(new MZTabError(FormatErrorType.ParamList, lineNumber, "Column " + column.getHeader(), target));
         }
@@ -325,7 +640,7 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
      * @param species SHOULD NOT be empty.
      */
     protected String checkSpecies(MZTabColumn column, String species) {
-        return checkData(column, species, true);
+        return checkPooledData(column, species, true);
     }
 
     /**
@@ -338,7 +653,7 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
      * @param database SHOULD NOT be empty.
      */
     protected String checkDatabase(MZTabColumn column, String database) {
-        return checkData(column, database, true);
+        return checkPooledData(column, database, true);
     }
 
     /**
@@ -351,7 +666,7 @@ public abstract class MZTabDataLineParser extends MZTabLineParser {
      * @param databaseVersion SHOULD NOT be empty.
      */
     protected String checkDatabaseVersion(MZTabColumn column, String databaseVersion) {
-        return checkData(column, databaseVersion, true);
+        return checkPooledData(column, databaseVersion, true);
     }
 
     /**
@@ -25,6 +25,13 @@ import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.parseParam;
  * @since 11/02/13
  */
 public abstract class MZTabHeaderLineParser extends MZTabLineParser {
+    private static final Pattern OPT_COLUMN_PATTERN =
+        Pattern.compile("opt_((assay|study_variable|ms_run)\\[(\\w+)\\]|global)_([A-Za-z0-9_\\-\\[\\]:\\.]+)");
+    private static final Pattern CV_PARAM_OPT_COLUMN_PATTERN =
+        Pattern.compile("cv(_([A-Za-z0-9\\-\\[\\]:\\.]+))?(_([A-Za-z0-9_\\-\\[\\]:\\.]+)*)");
+    private static final Pattern ABUNDANCE_SECTION_PATTERN = Pattern.compile("(protein|peptide|smallmolecule)_abundance_(.+)");
+    private static final Pattern ASSAY_PATTERN = Pattern.compile("assay\\[(\\d+)\\]");
+    private static final Pattern STUDY_VARIABLE_PATTERN = Pattern.compile("study_variable\\[(\\d+)\\]");
 
     protected MZTabColumnFactory factory;
     protected Metadata metadata;
@@ -94,7 +101,7 @@ public abstract class MZTabHeaderLineParser extends MZTabLineParser {
     }
 
     protected String fromIndexToOrder(Integer index) {
-        return String.format("%02d", index);
+        return index >= 0 && index < 10 ? "0" + index : index.toString();
     }
 
     /**
@@ -106,9 +113,7 @@ public abstract class MZTabHeaderLineParser extends MZTabLineParser {
     protected boolean checkOptColumnName(String nameLabel) throws MZTabException {
         nameLabel = nameLabel.trim();
 
-        String regexp = "opt_((assay|study_variable|ms_run)\\[(\\w+)\\]|global)_([A-Za-z0-9_\\-\\[\\]:\\.]+)";
-        Pattern pattern = Pattern.compile(regexp);
-        Matcher matcher = pattern.matcher(nameLabel);
+        Matcher matcher = OPT_COLUMN_PATTERN.matcher(nameLabel);
 
         Integer id;
         String object_id;
@@ -184,9 +189,7 @@ public abstract class MZTabHeaderLineParser extends MZTabLineParser {
         nameLabel = nameLabel.trim();
         valueLabel = valueLabel.trim();
 
-        String regexp = "cv(_([A-Za-z0-9\\-\\[\\]:\\.]+))?(_([A-Za-z0-9_\\-\\[\\]:\\.]+)*)";
-        Pattern pattern = Pattern.compile(regexp);
-        Matcher matcher = pattern.matcher(valueLabel);
+        Matcher matcher = CV_PARAM_OPT_COLUMN_PATTERN.matcher(valueLabel);
 
         CVParam param;
         if (!matcher.find() || matcher.end() != valueLabel.length()) {
@@ -261,8 +264,7 @@ public abstract class MZTabHeaderLineParser extends MZTabLineParser {
     private String checkAbundanceSection(String abundanceHeader) throws MZTabException {
         abundanceHeader = abundanceHeader.trim().toLowerCase();
 
-        Pattern pattern = Pattern.compile("(protein|peptide|smallmolecule)_abundance_(.+)");
-        Matcher matcher = pattern.matcher(abundanceHeader);
+        Matcher matcher = ABUNDANCE_SECTION_PATTERN.matcher(abundanceHeader);
 
         if (matcher.find()) {
             String sectionName = translate(matcher.group(1));
@@ -284,8 +286,7 @@ public abstract class MZTabHeaderLineParser extends MZTabLineParser {
     private void checkAbundanceAssayColumn(String abundanceHeader, String order) throws MZTabException {
         String valueLabel = checkAbundanceSection(abundanceHeader);
 
-        Pattern pattern = Pattern.compile("assay\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(valueLabel);
+        Matcher matcher = ASSAY_PATTERN.matcher(valueLabel);
         if (!matcher.find()) {
             MZTabError error = new MZTabError(FormatErrorType.AbundanceColumn, lineNumber, abundanceHeader);
             throw new MZTabException(error);
@@ -351,8 +352,7 @@ public abstract class MZTabHeaderLineParser extends MZTabLineParser {
     private StudyVariable checkAbundanceStudyVariableColumn(String abundanceHeader) throws MZTabException {
         String valueLabel = checkAbundanceSection(abundanceHeader);
 
-        Pattern pattern = Pattern.compile("study_variable\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(valueLabel);
+        Matcher matcher = STUDY_VARIABLE_PATTERN.matcher(valueLabel);
         if (!matcher.find()) {
             MZTabError error = new MZTabError(FormatErrorType.AbundanceColumn, lineNumber, abundanceHeader);
             throw new MZTabException(error);
@@ -6,10 +6,8 @@ import uk.ac.ebi.pride.jmztab.utils.errors.MZTabError;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabException;
 
-import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.TAB;
-
 /**
- * Common tab split line parser. If there exists format or logical errors during the parse process,
+ * Common tab split line parser, the line is split by {@link MZTabLineTokenizer}. If there exists format or logical errors during the parse process,
  * system will add them into {@link MZTabErrorList}, or break validate and throw {@link MZTabException}
  * directly.
  *
@@ -31,6 +29,14 @@ public class MZTabLineParser {
      */
     protected String[] items;
 
+    private MZTabLineTokenizer tokenizer = new MZTabLineTokenizer();
+
+    /**
+     * If not null, only the cells which filter value is true are created, others are left null in {@link #items}.
+     * The first cell is always created.
+     */
+    protected boolean[] cellFilter = null;
+
     protected MZTabErrorList errorList;
 
     /**
@@ -42,9 +48,12 @@ public class MZTabLineParser {
         this.line = line;
         this.errorList = errorList == null ? new MZTabErrorList() : errorList;
 
-        this.items = line.split("\\s*" + TAB + "\\s*");
+        tokenizer.tokenize(line);
+        this.items = tokenizer.toArray(cellFilter);
         items[0] = items[0].trim();
-        items[items.length - 1] = items[items.length - 1].trim();
+        if (items[items.length - 1] != null) {
+            items[items.length - 1] = items[items.length - 1].trim();
+        }
 
         section = Section.findSection(items[0]);
 
@@ -0,0 +1,198 @@
+package uk.ac.ebi.pride.jmztab.utils.parser;
+
+import uk.ac.ebi.pride.jmztab.model.Section;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.TAB;
+
+/**
+ * Split the mzTab line into cells based on TAB char, without regular expression. The result is the same as
+ * {@code line.split("\\s*" + TAB + "\\s*")}: a continuous whitespace sequence which contains at least one TAB
+ * char is a delimiter, a leading delimiter generate an empty first cell, and trailing empty cells are removed.
+ *
+ * The tokenizer only record the start and end offset of each cell during the scan, and the offset arrays are
+ * reused between lines. The cell string is created when it is requested by {@link #get(int)} or {@link #toArray()}.
+ * The tokenizer is not thread-safe, each parser should use its own instance.
+ */
+public class MZTabLineTokenizer {
+    private String line;
+    private int count;
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+
+    /**
+     * Same with regular expression \s, that is [ \t\n\x0B\f\r].
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == TAB || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            int[] newStarts = new int[count * 2];
+            int[] newEnds = new int[count * 2];
+            System.arraycopy(starts, 0, newStarts, 0, count);
+            System.arraycopy(ends, 0, newEnds, 0, count);
+            starts = newStarts;
+            ends = newEnds;
+        }
+
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * Scan the line, and record the offsets of cells.
+     *
+     * @param line SHOULD NOT be null.
+     * @return the number of cells.
+     */
+    public int tokenize(String line) {
+        this.line = line;
+        this.count = 0;
+
+        int length = line.length();
+        int cellStart = 0;
+        int runStart;
+        boolean hasTab;
+        boolean matched = false;
+        char c;
+        int i = 0;
+        while (i < length) {
+            c = line.charAt(i);
+            if (! isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            runStart = i;
+            hasTab = false;
+            while (i < length && isWhitespace(c = line.charAt(i))) {
+                if (c == TAB) {
+                    hasTab = true;
+                }
+                i++;
+            }
+
+            if (hasTab) {
+                add(cellStart, runStart);
+                cellStart = i;
+                matched = true;
+            }
+        }
+        add(cellStart, length);
+
+        if (matched) {
+            // remove trailing empty cells, same with String.split(regex).
+            while (count > 0 && starts[count - 1] == ends[count - 1]) {
+                count--;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the number of cells in the last tokenized line.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the start offset (inclusive) of the cell in the line.
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * @return the end offset (exclusive) of the cell in the line.
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * @return the cell value.
+     */
+    public String get(int index) {
+        checkIndex(index);
+        return line.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * @return all cells of the last tokenized line.
+     */
+    public String[] toArray() {
+        String[] items = new String[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = line.substring(starts[i], ends[i]);
+        }
+        return items;
+    }
+
+    /**
+     * @param filter the cells which index less than filter length and filter value is false are not created,
+     *               and left null in the result. If null, all cells are created.
+     * @return the cells of the last tokenized line.
+     */
+    public String[] toArray(boolean[] filter) {
+        if (filter == null) {
+            return toArray();
+        }
+
+        String[] items = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (i >= filter.length || filter[i]) {
+                items[i] = line.substring(starts[i], ends[i]);
+            }
+        }
+        return items;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Cell index " + index + " out of range [0, " + count + ")");
+        }
+    }
+
+    /**
+     * Split the line into cells, same with {@code line.split("\\s*" + TAB + "\\s*")}.
+     */
+    public static String[] split(String line) {
+        MZTabLineTokenizer tokenizer = new MZTabLineTokenizer();
+        tokenizer.tokenize(line);
+        return tokenizer.toArray();
+    }
+
+    /**
+     * Locate the section based on the first cell of the line, only the first cell is scanned.
+     *
+     * @return null if the first cell is not a section name or prefix.
+     */
+    public static Section findSection(String line) {
+        int length = line.length();
+        int end = 0;
+        int i;
+        char c;
+        while (end < length) {
+            c = line.charAt(end);
+            if (isWhitespace(c)) {
+                // the first cell end with a whitespace sequence which contains TAB, or the end of line.
+                for (i = end; i < length && isWhitespace(c = line.charAt(i)); i++) {
+                    if (c == TAB) {
+                        return Section.findSection(line.substring(0, end));
+                    }
+                }
+                end = i;
+            } else {
+                end++;
+            }
+        }
+
+        return Section.findSection(line);
+    }
+}
@@ -0,0 +1,282 @@
+package uk.ac.ebi.pride.jmztab.utils.parser;
+
+import uk.ac.ebi.pride.jmztab.model.Param;
+import uk.ac.ebi.pride.jmztab.model.SplitList;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.BAR;
+import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.parseParamList;
+
+/**
+ * Canonical values of the data line cells which repeat the same few values across many rows: database,
+ * database_version, species, search_engine, the accession of peptides and psms, and the opt_ columns of String type,
+ * which usually keep a few flags or labels, for example opt_global_cv_MS:1002217_decoy_peptide. Identical cell texts
+ * are mapped to one shared String instance, and the parameters of the search_engine cells are parsed once, so each
+ * row does not keep its own copy. The opt_ columns of Double and Boolean type are not pooled, because their values
+ * are kept without a boxed object, or as a shared constant.
+ *
+ * The {@link Param} objects are shared between the rows, while each row still get its own {@link SplitList}, so
+ * adding a search engine into one record, for example {@link uk.ac.ebi.pride.jmztab.model.PSM#addSearchEngineParam(Param)},
+ * does not change the other records.
+ *
+ * At most max size strings and max size parameter lists are kept, so the memory used is bounded for the columns which
+ * values rarely repeat. The values are spread over up to {@link #MAX_SEGMENTS} segments by their hash, each segment
+ * has its own lock and evicts its least recently used value when it is full, so the parallel batch parsers do not
+ * wait for one lock. The pool is created for one parse, and shared by the data line parsers of all sections, see
+ * {@link MZTabDataLineParser#setValuePool(MZTabValuePool)}. It is thread safe.
+ */
+public class MZTabValuePool {
+    /**
+     * Default maximum number of strings, and of parameter lists, kept in the pool.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * Maximum number of segments, a pool which max size is less than {@link #MIN_SEGMENT_SIZE} times the number of
+     * segments uses less segments, down to one segment which is a plain least recently used pool.
+     */
+    public static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final int maxSize;
+    private final Segment[] segments;
+
+    public MZTabValuePool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the maximum number of strings, and of parameter lists, kept in the pool. SHOULD be positive.
+     */
+    public MZTabValuePool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size of value pool should be positive.");
+        }
+        this.maxSize = maxSize;
+
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // the first segments get the remainder, so the sizes add up to max size.
+            segments[i] = new Segment(maxSize / count + (i < maxSize % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Least recently used strings and parameter lists of one segment, guarded by the segment lock.
+     */
+    private static class Segment {
+        private final int maxSize;
+        private final LinkedHashMap<String, String> strings = new LinkedHashMap<String, String>(16, 0.75f, true);
+        private final LinkedHashMap<String, Param[]> paramLists = new LinkedHashMap<String, Param[]>(16, 0.75f, true);
+
+        private long stringHits = 0;
+        private long stringMisses = 0;
+        private long paramListHits = 0;
+        private long paramListMisses = 0;
+        private long evictions = 0;
+
+        private Segment(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Remove the eldest entry of the map, if it is full.
+         */
+        private void evict(LinkedHashMap<String, ?> map) {
+            if (map.size() > maxSize) {
+                Iterator<String> it = map.keySet().iterator();
+                it.next();
+                it.remove();
+                evictions++;
+            }
+        }
+
+        private void clear() {
+            strings.clear();
+            paramLists.clear();
+            stringHits = 0;
+            stringMisses = 0;
+            paramListHits = 0;
+            paramListMisses = 0;
+            evictions = 0;
+        }
+    }
+
+    private Segment segmentFor(String value) {
+        int h = value.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * @return the shared instance which is equal to the value, or null if the value is null.
+     */
+    public String getString(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        Segment segment = segmentFor(value);
+        synchronized (segment) {
+            String pooled = segment.strings.get(value);
+            if (pooled == null) {
+                segment.stringMisses++;
+                segment.strings.put(value, value);
+                segment.evict(segment.strings);
+                return value;
+            }
+
+            segment.stringHits++;
+            return pooled;
+        }
+    }
+
+    /**
+     * Parse a '|' delimited parameter list by {@link uk.ac.ebi.pride.jmztab.model.MZTabUtils#parseParamList(String)},
+     * the parameters are parsed once for the same text.
+     *
+     * @param target SHOULD NOT be null.
+     * @return a new list which contains the shared parameters, empty if the text is not a parameter list.
+     */
+    public SplitList<Param> getParamList(String target) {
+        Segment segment = segmentFor(target);
+        Param[] params;
+        synchronized (segment) {
+            params = segment.paramLists.get(target);
+            if (params == null) {
+                segment.paramListMisses++;
+            } else {
+                segment.paramListHits++;
+            }
+        }
+
+        if (params == null) {
+            // parsed outside of the lock, the same text maybe parsed by two threads, the last one is kept.
+            SplitList<Param> paramList = parseParamList(target);
+            params = paramList.toArray(new Param[paramList.size()]);
+            synchronized (segment) {
+                segment.paramLists.put(target, params);
+                segment.evict(segment.paramLists);
+            }
+        }
+
+        SplitList<Param> paramList = new SplitList<Param>(BAR);
+        Collections.addAll(paramList, params);
+        return paramList;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of segments, each one has its own lock.
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * @return the number of strings and parameter lists kept in the pool.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.strings.size() + segment.paramLists.size();
+            }
+        }
+        return size;
+    }
+
+    public long getStringHits() {
+        long count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.stringHits;
+            }
+        }
+        return count;
+    }
+
+    public long getStringMisses() {
+        long count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.stringMisses;
+            }
+        }
+        return count;
+    }
+
+    public long getParamListHits() {
+        long count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.paramListHits;
+            }
+        }
+        return count;
+    }
+
+    public long getParamListMisses() {
+        long count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.paramListMisses;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of values removed from the pool because their segment was full.
+     */
+    public long getEvictions() {
+        long count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                count += segment.evictions;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the ratio of the requested values which were found in the pool, from 0 to 1. If no value has been
+     * requested, return 0.
+     */
+    public double getHitRate() {
+        long hits = getStringHits() + getParamListHits();
+        long total = hits + getStringMisses() + getParamListMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Clear the values and the statistics.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Print the hit rates, for example: Value pool: 98.5% hit, strings 3940/4000, param lists 1000/1000, 12 values,
+     * 0 evictions.
+     */
+    @Override
+    public String toString() {
+        long stringHits = getStringHits();
+        long paramListHits = getParamListHits();
+        return String.format("Value pool: %.1f%% hit, strings %d/%d, param lists %d/%d, %d values, %d evictions",
+            getHitRate() * 100, stringHits, stringHits + getStringMisses(), paramListHits,
+            paramListHits + getParamListMisses(), size(), getEvictions());
+    }
+}
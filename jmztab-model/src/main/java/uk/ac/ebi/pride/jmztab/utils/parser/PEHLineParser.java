@@ -20,6 +20,9 @@ import static uk.ac.ebi.pride.jmztab.model.PeptideColumn.*;
  */
 public class PEHLineParser extends MZTabHeaderLineParser {
 
+    private static final Pattern BEST_SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("best_search_engine_score\\[(\\d+)\\]");
+    private static final Pattern SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("search_engine_score\\[(\\d+)\\]_ms_run\\[(\\d+)\\]");
+
     private static Logger logger = LoggerFactory.getLogger(PEHLineParser.class);
     private Map<Integer, String> physPositionToOrder;
 
@@ -147,8 +150,7 @@ public class PEHLineParser extends MZTabHeaderLineParser {
 
 
     private void addBestSearchEngineScoreColumn(String header, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("best_search_engine_score\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = BEST_SEARCH_ENGINE_SCORE_PATTERN.matcher(header);
         PeptideColumn column;
         int id;
 
@@ -165,8 +167,7 @@ public class PEHLineParser extends MZTabHeaderLineParser {
     }
 
     private void addSearchEngineScoreColumn(String header, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("search_engine_score\\[(\\d+)\\]_ms_run\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = SEARCH_ENGINE_SCORE_PATTERN.matcher(header);
         PeptideColumn column;
 
         if (matcher.find()) {
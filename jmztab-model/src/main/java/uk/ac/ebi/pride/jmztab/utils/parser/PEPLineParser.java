@@ -5,6 +5,9 @@ import uk.ac.ebi.pride.jmztab.utils.errors.LogicalErrorType;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabError;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import static uk.ac.ebi.pride.jmztab.model.PeptideColumn.*;
 
 /**
@@ -22,86 +25,165 @@ public class PEPLineParser extends MZTabDataLineParser {
 
     @Override
     protected int checkData() {
-        MZTabColumn column;
-        String columnName;
-        String target;
-        int physicalPosition;
-        String logicalPosition;
         peptide = new Peptide(factory, metadata);
+        return checkColumns(peptide);
+    }
+
+    @Override
+    protected Collection<String> getDependentPositions(MZTabColumn column) {
+        if (column instanceof PeptideColumn && column.getName().equals(MODIFICATIONS.getName())) {
+            return Collections.singletonList(SEQUENCE.getLogicPosition());
+        }
+        return super.getDependentPositions(column);
+    }
+
+    /**
+     * The kinds of cells in the peptide section.
+     */
+    private enum Cell {
+        SEQUENCE, ACCESSION, UNIQUE, DATABASE, DATABASE_VERSION, SEARCH_ENGINE, BEST_SEARCH_ENGINE_SCORE,
+        SEARCH_ENGINE_SCORE, RELIABILITY, MODIFICATIONS, RETENTION_TIME, RETENTION_TIME_WINDOW, CHARGE,
+        MASS_TO_CHARGE, URI, SPECTRA_REF, ABUNDANCE, OPTION_STRING, OPTION_DOUBLE, OPTION_BOOLEAN
+    }
 
-        for (physicalPosition = 1; physicalPosition < items.length; physicalPosition++) {
-            logicalPosition = positionMapping.get(physicalPosition);
-            column = factory.getColumnMapping().get(logicalPosition);
-
-            if (column != null) {
-                columnName = column.getName();
-                target = items[physicalPosition];
-
-                if (column instanceof PeptideColumn) {
-
-                    if (columnName.equals(SEQUENCE.getName())) {
-                        peptide.setSequence(checkSequence(column, target));
-                    } else if (columnName.equals(ACCESSION.getName())) {
-                        peptide.setAccession(checkAccession(column, target));
-                    } else if (columnName.equals(UNIQUE.getName())) {
-                        peptide.setUnique(checkUnique(column, target));
-                    } else if (columnName.equals(DATABASE.getName())) {
-                        peptide.setDatabase(checkDatabase(column, target));
-                    } else if (columnName.equals(DATABASE_VERSION.getName())) {
-                        peptide.setDatabaseVersion(checkDatabaseVersion(column, target));
-                    } else if (columnName.equals(SEARCH_ENGINE.getName())) {
-                        peptide.setSearchEngine(checkSearchEngine(column, target));
-                    } else if (columnName.startsWith(BEST_SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadBestSearchEngineScoreId(column.getHeader());
-                        peptide.setBestSearchEngineScore(id, checkBestSearchEngineScore(column, target));
-                    } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadSearchEngineScoreId(column.getHeader());
-                        MsRun msRun = (MsRun) column.getElement();
-                        peptide.setSearchEngineScore(id, msRun, checkSearchEngineScore(column, target));
-                    } else if (columnName.equals(RELIABILITY.getName())) {
-                        peptide.setReliability(checkReliability(column, target));
-                    } else if (columnName.equals(MODIFICATIONS.getName())) {
-                        String sequence = items[exchangeMapping.get(SEQUENCE.getLogicPosition())];
-                        peptide.setModifications(checkModifications(column, sequence, target));
-                    } else if (columnName.equals(RETENTION_TIME.getName())) {
-                        peptide.setRetentionTime(checkRetentionTime(column, target));
-                    } else if (columnName.equals(RETENTION_TIME_WINDOW.getName())) {
-                        peptide.setRetentionTimeWindow(checkRetentionTimeWindow(column, target));
-                    } else if (columnName.equals(CHARGE.getName())) {
-                        peptide.setCharge(checkCharge(column, target));
-                    } else if (columnName.equals(MASS_TO_CHARGE.getName())) {
-                        peptide.setMassToCharge(checkMassToCharge(column, target));
-                    } else if (columnName.equals(URI.getName())) {
-                        peptide.setURI(checkURI(column, target));
-                    } else if (columnName.equals(SPECTRA_REF.getName())) {
-                        peptide.setSpectraRef(checkSpectraRef(column, target));
-                    }
-                } else if (column instanceof AbundanceColumn) {
-                    //Double check, the column name should contain
-                    if (columnName.contains("abundance")) {
-                        peptide.setValue(logicalPosition, checkDouble(column, target));
-                    }
-                } else if (column instanceof OptionColumn) {
-                    //Double check, the column name should opt
-                    if (columnName.startsWith("opt_")) {
-                        Class dataType = column.getDataType();
-                        if (dataType.equals(String.class)) {
-                            peptide.setValue(column.getLogicPosition(), checkString(column, target));
-                        } else if (dataType.equals(Double.class)) {
-                            peptide.setValue(column.getLogicPosition(), checkDouble(column, target));
-                        } else if (dataType.equals(MZBoolean.class)) {
-                            peptide.setValue(column.getLogicPosition(), checkMZBoolean(column, target));
-                        }
-                    }
+    @Override
+    protected ColumnPlan compileColumn(String logicalPosition, MZTabColumn column) {
+        String columnName = column.getName();
+        Cell cell = null;
+        Integer id = null;
+
+        if (column instanceof PeptideColumn) {
+            if (columnName.equals(SEQUENCE.getName())) {
+                cell = Cell.SEQUENCE;
+            } else if (columnName.equals(ACCESSION.getName())) {
+                cell = Cell.ACCESSION;
+            } else if (columnName.equals(UNIQUE.getName())) {
+                cell = Cell.UNIQUE;
+            } else if (columnName.equals(DATABASE.getName())) {
+                cell = Cell.DATABASE;
+            } else if (columnName.equals(DATABASE_VERSION.getName())) {
+                cell = Cell.DATABASE_VERSION;
+            } else if (columnName.equals(SEARCH_ENGINE.getName())) {
+                cell = Cell.SEARCH_ENGINE;
+            } else if (columnName.startsWith(BEST_SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.BEST_SEARCH_ENGINE_SCORE;
+                id = loadBestSearchEngineScoreId(column.getHeader());
+            } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.SEARCH_ENGINE_SCORE;
+                id = loadSearchEngineScoreId(column.getHeader());
+            } else if (columnName.equals(RELIABILITY.getName())) {
+                cell = Cell.RELIABILITY;
+            } else if (columnName.equals(MODIFICATIONS.getName())) {
+                cell = Cell.MODIFICATIONS;
+            } else if (columnName.equals(RETENTION_TIME.getName())) {
+                cell = Cell.RETENTION_TIME;
+            } else if (columnName.equals(RETENTION_TIME_WINDOW.getName())) {
+                cell = Cell.RETENTION_TIME_WINDOW;
+            } else if (columnName.equals(CHARGE.getName())) {
+                cell = Cell.CHARGE;
+            } else if (columnName.equals(MASS_TO_CHARGE.getName())) {
+                cell = Cell.MASS_TO_CHARGE;
+            } else if (columnName.equals(URI.getName())) {
+                cell = Cell.URI;
+            } else if (columnName.equals(SPECTRA_REF.getName())) {
+                cell = Cell.SPECTRA_REF;
+            }
+        } else if (column instanceof AbundanceColumn) {
+            //Double check, the column name should contain abundance
+            if (columnName.contains("abundance")) {
+                cell = Cell.ABUNDANCE;
+            }
+        } else if (column instanceof OptionColumn) {
+            //Double check, the column name should opt
+            if (columnName.startsWith("opt_")) {
+                Class dataType = column.getDataType();
+                if (dataType.equals(String.class)) {
+                    cell = Cell.OPTION_STRING;
+                } else if (dataType.equals(Double.class)) {
+                    cell = Cell.OPTION_DOUBLE;
+                } else if (dataType.equals(MZBoolean.class)) {
+                    cell = Cell.OPTION_BOOLEAN;
                 }
             }
         }
 
-        return physicalPosition;
+        return cell == null ? null : new ColumnPlan(cell, logicalPosition, column, id);
     }
 
+    @Override
+    protected void checkColumn(MZTabRecord record, ColumnPlan plan, String target) {
+        Peptide peptide = (Peptide) record;
+        MZTabColumn column = plan.getColumn();
+
+        switch ((Cell) plan.getKind()) {
+            case SEQUENCE:
+                peptide.setSequence(checkSequence(column, target));
+                break;
+            case ACCESSION:
+                peptide.setAccession(checkAccession(column, target));
+                break;
+            case UNIQUE:
+                peptide.setUnique(checkUnique(column, target));
+                break;
+            case DATABASE:
+                peptide.setDatabase(checkDatabase(column, target));
+                break;
+            case DATABASE_VERSION:
+                peptide.setDatabaseVersion(checkDatabaseVersion(column, target));
+                break;
+            case SEARCH_ENGINE:
+                peptide.setSearchEngine(checkSearchEngine(column, target));
+                break;
+            case BEST_SEARCH_ENGINE_SCORE:
+                peptide.setBestSearchEngineScore(plan.getId(), checkBestSearchEngineScore(column, target));
+                break;
+            case SEARCH_ENGINE_SCORE:
+                MsRun msRun = (MsRun) column.getElement();
+                peptide.setSearchEngineScore(plan.getId(), msRun, checkSearchEngineScore(column, target));
+                break;
+            case RELIABILITY:
+                peptide.setReliability(checkReliability(column, target));
+                break;
+            case MODIFICATIONS:
+                String sequence = items[exchangeMapping.get(SEQUENCE.getLogicPosition())];
+                peptide.setModifications(checkModifications(column, sequence, target));
+                break;
+            case RETENTION_TIME:
+                peptide.setRetentionTime(checkRetentionTime(column, target));
+                break;
+            case RETENTION_TIME_WINDOW:
+                peptide.setRetentionTimeWindow(checkRetentionTimeWindow(column, target));
+                break;
+            case CHARGE:
+                peptide.setCharge(checkCharge(column, target));
+                break;
+            case MASS_TO_CHARGE:
+                peptide.setMassToCharge(checkMassToCharge(column, target));
+                break;
+            case URI:
+                peptide.setURI(checkURI(column, target));
+                break;
+            case SPECTRA_REF:
+                peptide.setSpectraRef(checkSpectraRef(column, target));
+                break;
+            case ABUNDANCE:
+                peptide.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_STRING:
+                peptide.setValue(plan.getLogicalPosition(), checkPooledData(column, target, true));
+                break;
+            case OPTION_DOUBLE:
+                peptide.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_BOOLEAN:
+                peptide.setValue(plan.getLogicalPosition(), checkMZBoolean(column, target));
+                break;
+        }
+    }
+
+
     private String checkAccession(MZTabColumn column, String target) {
-        return checkData(column, target, true);
+        return checkPooledData(column, target, true);
     }
 
     public Peptide getRecord() {
@@ -20,6 +20,10 @@ import static uk.ac.ebi.pride.jmztab.model.ProteinColumn.*;
  */
 public class PRHLineParser extends MZTabHeaderLineParser {
 
+    private static final Pattern BEST_SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("best_search_engine_score\\[(\\d+)\\]");
+    private static final Pattern SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("search_engine_score\\[(\\d+)\\]_ms_run\\[(\\d+)\\]");
+    private static final Pattern MS_RUN_PATTERN = Pattern.compile("(.+)_ms_run\\[(\\d+)\\]");
+
     private static Logger logger = LoggerFactory.getLogger(PRHLineParser.class);
     private Map<Integer, String> physPositionToOrder;
 
@@ -118,8 +122,7 @@ public class PRHLineParser extends MZTabHeaderLineParser {
 
 
     private void addBestSearchEngineScoreColumn(String header, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("best_search_engine_score\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = BEST_SEARCH_ENGINE_SCORE_PATTERN.matcher(header);
         ProteinColumn column;
         int id;
 
@@ -144,8 +147,7 @@ public class PRHLineParser extends MZTabHeaderLineParser {
 
         MsRun msRun = null;
 
-        Pattern pattern = Pattern.compile("(.+)_ms_run\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = MS_RUN_PATTERN.matcher(header);
 
         if (matcher.find()) {
             int id = parseIndex(header, matcher.group(2));
@@ -159,8 +161,7 @@ public class PRHLineParser extends MZTabHeaderLineParser {
     }
 
     private void addSearchEngineScoreColumn(String header, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("search_engine_score\\[(\\d+)\\]_ms_run\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = SEARCH_ENGINE_SCORE_PATTERN.matcher(header);
         ProteinColumn column;
 
         if (matcher.find()) {
@@ -22,6 +22,10 @@ public class PRTLineParser extends MZTabDataLineParser {
     private Set<String> accessionSet = new HashSet<String>();
     private Protein protein = null;
 
+    // the accession uniqueness is checked by the caller in line order, see setAccessionCheckDeferred(boolean).
+    private boolean accessionCheckDeferred = false;
+    private int accessionErrorIndex = -1;
+
     public PRTLineParser(MZTabColumnFactory factory, PositionMapping positionMapping,
                          Metadata metadata, MZTabErrorList errorList) {
         super(factory, positionMapping, metadata, errorList);
@@ -29,84 +33,171 @@ public class PRTLineParser extends MZTabDataLineParser {
 
     @Override
     protected int checkData() {
-
-        MZTabColumn column;
-        String columnName;
-        String target;
-        int physicalPosition;
-        String logicalPosition;
         protein = new Protein(factory);
+        accessionErrorIndex = -1;
+        return checkColumns(protein);
+    }
+
+    /**
+     * The kinds of cells in the protein section.
+     */
+    private enum Cell {
+        ACCESSION, DESCRIPTION, TAXID, SPECIES, DATABASE, DATABASE_VERSION, SEARCH_ENGINE, BEST_SEARCH_ENGINE_SCORE,
+        SEARCH_ENGINE_SCORE, RELIABILITY, NUM_PSMS, NUM_PEPTIDES_DISTINCT, NUM_PEPTIDES_UNIQUE, AMBIGUITY_MEMBERS,
+        MODIFICATIONS, URI, GO_TERMS, PROTEIN_COVERAGE, ABUNDANCE, OPTION_STRING, OPTION_DOUBLE, OPTION_BOOLEAN
+    }
 
-        for (physicalPosition = 1; physicalPosition < items.length; physicalPosition++) {
-            logicalPosition = positionMapping.get(physicalPosition);
-            column = factory.getColumnMapping().get(logicalPosition);
-
-            if (column != null) {
-                columnName = column.getName();
-                target = items[physicalPosition];
-                if (column instanceof ProteinColumn) {
-                    if (columnName.equals(ACCESSION.getName())) {
-                        protein.setAccession(checkAccession(column, target));
-                    } else if (columnName.equals(DESCRIPTION.getName())) {
-                        protein.setDescription(checkDescription(column, target));
-                    } else if (columnName.equals(TAXID.getName())) {
-                        protein.setTaxid(checkTaxid(column, target));
-                    } else if (columnName.equals(SPECIES.getName())) {
-                        protein.setSpecies(checkSpecies(column, target));
-                    } else if (columnName.equals(DATABASE.getName())) {
-                        protein.setDatabase(checkDatabase(column, target));
-                    } else if (columnName.equals(DATABASE_VERSION.getName())) {
-                        protein.setDatabaseVersion(checkDatabaseVersion(column, target));
-                    } else if (columnName.equals(SEARCH_ENGINE.getName())) {
-                        protein.setSearchEngine(checkSearchEngine(column, target));
-                    } else if (columnName.startsWith(BEST_SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadBestSearchEngineScoreId(column.getHeader());
-                        protein.setBestSearchEngineScore(id, checkBestSearchEngineScore(column, target));
-                    } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadSearchEngineScoreId(column.getHeader());
-                        MsRun msRun = (MsRun) column.getElement();
-                        protein.setSearchEngineScore(id, msRun, checkSearchEngineScore(column, target));
-                    } else if (columnName.equals(RELIABILITY.getName())) {
-                        protein.setReliability(checkReliability(column, target));
-                    } else if (columnName.equals(NUM_PSMS.getName())) {
-                        protein.setNumPSMs(logicalPosition, checkNumPSMs(column, target));
-                    } else if (columnName.equals(NUM_PEPTIDES_DISTINCT.getName())) {
-                        protein.setNumPeptidesDistinct(logicalPosition, checkNumPeptidesDistinct(column, target));
-                    } else if (columnName.equals(NUM_PEPTIDES_UNIQUE.getName())) {
-                        protein.setNumPeptidesUnique(logicalPosition, checkNumPeptidesUnique(column, target));
-                    } else if (columnName.equals(AMBIGUITY_MEMBERS.getName())) {
-                        protein.setAmbiguityMembers(checkAmbiguityMembers(column, target));
-                    } else if (columnName.equals(MODIFICATIONS.getName())) {
-                        protein.setModifications(checkModifications(column, target));
-                    } else if (columnName.equals(URI.getName())) {
-                        protein.setURI(checkURI(column, target));
-                    } else if (columnName.equals(GO_TERMS.getName())) {
-                        protein.setGOTerms(checkGOTerms(column, target));
-                    } else if (columnName.equals(PROTEIN_COVERAGE.getName())) {
-                        protein.setProteinConverage(checkProteinCoverage(column, target));
-                    }
-                } else if (column instanceof AbundanceColumn) {
-                    //Double check, the column name should contain abundance
-                    if (columnName.contains("abundance")) {
-                        protein.setValue(logicalPosition, checkDouble(column, target));
-                    }
-                } else if(column instanceof OptionColumn){
-                    //Double check, the column name should opt
-                    if (columnName.startsWith("opt_")) {
-                        Class dataType = column.getDataType();
-                        if (dataType.equals(String.class)) {
-                            protein.setValue(column.getLogicPosition(), checkString(column, target));
-                        } else if (dataType.equals(Double.class)) {
-                            protein.setValue(column.getLogicPosition(), checkDouble(column, target));
-                        } else if (dataType.equals(MZBoolean.class)) {
-                            protein.setValue(column.getLogicPosition(), checkMZBoolean(column, target));
-                        }
-                    }
+    @Override
+    protected ColumnPlan compileColumn(String logicalPosition, MZTabColumn column) {
+        String columnName = column.getName();
+        Cell cell = null;
+        Integer id = null;
+
+        if (column instanceof ProteinColumn) {
+            if (columnName.equals(ACCESSION.getName())) {
+                cell = Cell.ACCESSION;
+            } else if (columnName.equals(DESCRIPTION.getName())) {
+                cell = Cell.DESCRIPTION;
+            } else if (columnName.equals(TAXID.getName())) {
+                cell = Cell.TAXID;
+            } else if (columnName.equals(SPECIES.getName())) {
+                cell = Cell.SPECIES;
+            } else if (columnName.equals(DATABASE.getName())) {
+                cell = Cell.DATABASE;
+            } else if (columnName.equals(DATABASE_VERSION.getName())) {
+                cell = Cell.DATABASE_VERSION;
+            } else if (columnName.equals(SEARCH_ENGINE.getName())) {
+                cell = Cell.SEARCH_ENGINE;
+            } else if (columnName.startsWith(BEST_SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.BEST_SEARCH_ENGINE_SCORE;
+                id = loadBestSearchEngineScoreId(column.getHeader());
+            } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.SEARCH_ENGINE_SCORE;
+                id = loadSearchEngineScoreId(column.getHeader());
+            } else if (columnName.equals(RELIABILITY.getName())) {
+                cell = Cell.RELIABILITY;
+            } else if (columnName.equals(NUM_PSMS.getName())) {
+                cell = Cell.NUM_PSMS;
+            } else if (columnName.equals(NUM_PEPTIDES_DISTINCT.getName())) {
+                cell = Cell.NUM_PEPTIDES_DISTINCT;
+            } else if (columnName.equals(NUM_PEPTIDES_UNIQUE.getName())) {
+                cell = Cell.NUM_PEPTIDES_UNIQUE;
+            } else if (columnName.equals(AMBIGUITY_MEMBERS.getName())) {
+                cell = Cell.AMBIGUITY_MEMBERS;
+            } else if (columnName.equals(MODIFICATIONS.getName())) {
+                cell = Cell.MODIFICATIONS;
+            } else if (columnName.equals(URI.getName())) {
+                cell = Cell.URI;
+            } else if (columnName.equals(GO_TERMS.getName())) {
+                cell = Cell.GO_TERMS;
+            } else if (columnName.equals(PROTEIN_COVERAGE.getName())) {
+                cell = Cell.PROTEIN_COVERAGE;
+            }
+        } else if (column instanceof AbundanceColumn) {
+            //Double check, the column name should contain abundance
+            if (columnName.contains("abundance")) {
+                cell = Cell.ABUNDANCE;
+            }
+        } else if (column instanceof OptionColumn) {
+            //Double check, the column name should opt
+            if (columnName.startsWith("opt_")) {
+                Class dataType = column.getDataType();
+                if (dataType.equals(String.class)) {
+                    cell = Cell.OPTION_STRING;
+                } else if (dataType.equals(Double.class)) {
+                    cell = Cell.OPTION_DOUBLE;
+                } else if (dataType.equals(MZBoolean.class)) {
+                    cell = Cell.OPTION_BOOLEAN;
                 }
             }
         }
 
-        return physicalPosition;
+        return cell == null ? null : new ColumnPlan(cell, logicalPosition, column, id);
+    }
+
+    @Override
+    protected void checkColumn(MZTabRecord record, ColumnPlan plan, String target) {
+        Protein protein = (Protein) record;
+        MZTabColumn column = plan.getColumn();
+
+        switch ((Cell) plan.getKind()) {
+            case ACCESSION:
+                protein.setAccession(checkAccession(column, target));
+                break;
+            case DESCRIPTION:
+                protein.setDescription(checkDescription(column, target));
+                break;
+            case TAXID:
+                protein.setTaxid(checkTaxid(column, target));
+                break;
+            case SPECIES:
+                protein.setSpecies(checkSpecies(column, target));
+                break;
+            case DATABASE:
+                protein.setDatabase(checkDatabase(column, target));
+                break;
+            case DATABASE_VERSION:
+                protein.setDatabaseVersion(checkDatabaseVersion(column, target));
+                break;
+            case SEARCH_ENGINE:
+                protein.setSearchEngine(checkSearchEngine(column, target));
+                break;
+            case BEST_SEARCH_ENGINE_SCORE:
+                protein.setBestSearchEngineScore(plan.getId(), checkBestSearchEngineScore(column, target));
+                break;
+            case SEARCH_ENGINE_SCORE:
+                MsRun msRun = (MsRun) column.getElement();
+                protein.setSearchEngineScore(plan.getId(), msRun, checkSearchEngineScore(column, target));
+                break;
+            case RELIABILITY:
+                protein.setReliability(checkReliability(column, target));
+                break;
+            case NUM_PSMS:
+                protein.setNumPSMs(plan.getLogicalPosition(), checkNumPSMs(column, target));
+                break;
+            case NUM_PEPTIDES_DISTINCT:
+                protein.setNumPeptidesDistinct(plan.getLogicalPosition(), checkNumPeptidesDistinct(column, target));
+                break;
+            case NUM_PEPTIDES_UNIQUE:
+                protein.setNumPeptidesUnique(plan.getLogicalPosition(), checkNumPeptidesUnique(column, target));
+                break;
+            case AMBIGUITY_MEMBERS:
+                protein.setAmbiguityMembers(checkAmbiguityMembers(column, target));
+                break;
+            case MODIFICATIONS:
+                protein.setModifications(checkModifications(column, target));
+                break;
+            case URI:
+                protein.setURI(checkURI(column, target));
+                break;
+            case GO_TERMS:
+                protein.setGOTerms(checkGOTerms(column, target));
+                break;
+            case PROTEIN_COVERAGE:
+                protein.setProteinConverage(checkProteinCoverage(column, target));
+                break;
+            case ABUNDANCE:
+                protein.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_STRING:
+                protein.setValue(plan.getLogicalPosition(), checkPooledData(column, target, true));
+                break;
+            case OPTION_DOUBLE:
+                protein.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_BOOLEAN:
+                protein.setValue(plan.getLogicalPosition(), checkMZBoolean(column, target));
+                break;
+        }
+    }
+
+
+    /**
+     * Protein accession uniqueness is checked during parsing.
+     */
+    @Override
+    protected boolean isLazyColumn(MZTabColumn column) {
+        return ! column.getName().equals(ACCESSION.getName());
     }
 
     public Protein getRecord() {
@@ -126,6 +217,10 @@ public class PRTLineParser extends MZTabDataLineParser {
         String result_accession = checkData(column, accession, false);
 
         if (result_accession != null) {
+            if (accessionCheckDeferred) {
+                accessionErrorIndex = errorList.size();
+                return result_accession;
+            }
 
             if (!accessionSet.add(result_accession)) {
                 errorList.add(new MZTabError(LogicalErrorType.DuplicationAccession, lineNumber, column.getHeader(), result_accession));
@@ -136,6 +231,40 @@ public class PRTLineParser extends MZTabDataLineParser {
         return result_accession;
     }
 
+    /**
+     * If deferred, the parser does not check whether the accession is unique, the caller SHOULD check the accession
+     * of each line in line order by {@link #checkAccessionUnique(int, String)}. This is used when the lines are
+     * parsed by many parsers in parallel, and the accessions should be unique across all of them.
+     */
+    public void setAccessionCheckDeferred(boolean deferred) {
+        this.accessionCheckDeferred = deferred;
+    }
+
+    public boolean isAccessionCheckDeferred() {
+        return accessionCheckDeferred;
+    }
+
+    /**
+     * @return the index in the error list where the {@link LogicalErrorType#DuplicationAccession} error of the last
+     * parsed line should be inserted, or -1 if the accession is not checked in deferred mode.
+     */
+    public int getAccessionErrorIndex() {
+        return accessionErrorIndex;
+    }
+
+    /**
+     * Check the accession of a protein which has been parsed in deferred mode.
+     *
+     * @return the {@link LogicalErrorType#DuplicationAccession} error if the accession has been found before, or
+     * null if the accession is unique.
+     */
+    public MZTabError checkAccessionUnique(int lineNumber, String accession) {
+        if (accession == null || accessionSet.add(accession)) {
+            return null;
+        }
+        return new MZTabError(LogicalErrorType.DuplicationAccession, lineNumber, ACCESSION.getHeader(), accession);
+    }
+
     /**
      * For proteins and peptides modifications SHOULD be reported using either UNIMOD or PSI-MOD accessions.
      * As these two ontologies are not applicable to small molecules, so-called CHEMMODs can also be defined.
@@ -20,6 +20,8 @@ import static uk.ac.ebi.pride.jmztab.model.PSMColumn.*;
  */
 public class PSHLineParser extends MZTabHeaderLineParser {
 
+    private static final Pattern SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("search_engine_score\\[(\\d+)\\]");
+
     private static Logger logger = LoggerFactory.getLogger(PSHLineParser.class);
     private Map<Integer, String> physPositionToOrder;
 
@@ -110,8 +112,7 @@ public class PSHLineParser extends MZTabHeaderLineParser {
 
 
     private void addSearchEngineScoreColumn(String searchEngineHeader, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("search_engine_score\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(searchEngineHeader);
+        Matcher matcher = SEARCH_ENGINE_SCORE_PATTERN.matcher(searchEngineHeader);
         PSMColumn column;
 
         if (matcher.find()) {
@@ -5,6 +5,9 @@ import uk.ac.ebi.pride.jmztab.utils.errors.LogicalErrorType;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabError;
 import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import static uk.ac.ebi.pride.jmztab.model.PSMColumn.*;
 
 /**
@@ -22,86 +25,175 @@ public class PSMLineParser extends MZTabDataLineParser {
 
     @Override
     protected int checkData() {
-        MZTabColumn column;
-        String columnName;
-        String target;
-        int physicalPosition;
-        String logicalPosition;
         psm = new PSM(factory, metadata);
+        return checkColumns(psm);
+    }
+
+    @Override
+    protected Collection<String> getDependentPositions(MZTabColumn column) {
+        if (column instanceof PSMColumn && column.getName().equals(MODIFICATIONS.getName())) {
+            return Collections.singletonList(SEQUENCE.getLogicPosition());
+        }
+        return super.getDependentPositions(column);
+    }
+
+    /**
+     * The kinds of cells in the psm section.
+     */
+    private enum Cell {
+        SEQUENCE, PSM_ID, ACCESSION, UNIQUE, DATABASE, DATABASE_VERSION, SEARCH_ENGINE, SEARCH_ENGINE_SCORE,
+        RELIABILITY, MODIFICATIONS, RETENTION_TIME, CHARGE, EXP_MASS_TO_CHARGE, CALC_MASS_TO_CHARGE, URI,
+        SPECTRA_REF, PRE, POST, START, END, OPTION_STRING, OPTION_DOUBLE, OPTION_BOOLEAN
+    }
 
-        for (physicalPosition = 1; physicalPosition < items.length; physicalPosition++) {
-            logicalPosition = positionMapping.get(physicalPosition);
-            column = factory.getColumnMapping().get(logicalPosition);
-
-            if (column != null) {
-                columnName = column.getName();
-                target = items[physicalPosition];
-                if (column instanceof PSMColumn) {
-                    if (columnName.equals(SEQUENCE.getName())) {
-                        psm.setSequence(checkSequence(column, target));
-                    } else if (columnName.equals(PSM_ID.getName())) {
-                        psm.setPSM_ID(checkPSMID(column, target));
-                    } else if (columnName.equals(ACCESSION.getName())) {
-                        psm.setAccession(checkAccession(column, target));
-                    } else if (columnName.equals(UNIQUE.getName())) {
-                        psm.setUnique(checkUnique(column, target));
-                    } else if (columnName.equals(DATABASE.getName())) {
-                        psm.setDatabase(checkDatabase(column, target));
-                    } else if (columnName.equals(DATABASE_VERSION.getName())) {
-                        psm.setDatabaseVersion(checkDatabaseVersion(column, target));
-                    } else if (columnName.equals(SEARCH_ENGINE.getName())) {
-                        psm.setSearchEngine(checkSearchEngine(column, target));
-                    } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadSearchEngineScoreId(column.getHeader());
-                        psm.setSearchEngineScore(id, checkSearchEngineScore(column, target));
-                    } else if (columnName.equals(RELIABILITY.getName())) {
-                        psm.setReliability(checkReliability(column, target));
-                    } else if (columnName.equals(MODIFICATIONS.getName())) {
-                        String sequence = items[exchangeMapping.get(SEQUENCE.getLogicPosition())];
-                        psm.setModifications(checkModifications(column, sequence, target));
-                    } else if (columnName.equals(RETENTION_TIME.getName())) {
-                        psm.setRetentionTime(checkRetentionTime(column, target));
-                    } else if (columnName.equals(CHARGE.getName())) {
-                        psm.setCharge(checkCharge(column, target));
-                    } else if (columnName.equals(EXP_MASS_TO_CHARGE.getName())) {
-                        psm.setExpMassToCharge(checkExpMassToCharge(column, target));
-                    } else if (columnName.equals(CALC_MASS_TO_CHARGE.getName())) {
-                        psm.setCalcMassToCharge(checkCalcMassToCharge(column, target));
-                    } else if (columnName.equals(URI.getName())) {
-                        psm.setURI(checkURI(column, target));
-                    } else if (columnName.equals(SPECTRA_REF.getName())) {
-                        psm.setSpectraRef(checkSpectraRef(column, target));
-                    } else if (columnName.equals(PRE.getName())) {
-                        psm.setPre(checkPre(column, target));
-                    } else if (columnName.equals(POST.getName())) {
-                        psm.setPost(checkPost(column, target));
-                    } else if (columnName.equals(START.getName())) {
-                        psm.setStart(checkStart(column, target));
-                    } else if (columnName.equals(END.getName())) {
-                        psm.setEnd(checkEnd(column, target));
-                    }
-                    //Abundance can't be reported at psm level
-                }  else if (column instanceof OptionColumn) {
-                    //Double check, the column name should opt
-                    if (columnName.startsWith("opt_")) {
-                        Class dataType = column.getDataType();
-                        if (dataType.equals(String.class)) {
-                            psm.setValue(column.getLogicPosition(), checkString(column, target));
-                        } else if (dataType.equals(Double.class)) {
-                            psm.setValue(column.getLogicPosition(), checkDouble(column, target));
-                        } else if (dataType.equals(MZBoolean.class)) {
-                            psm.setValue(column.getLogicPosition(), checkMZBoolean(column, target));
-                        }
-                    }
+    @Override
+    protected ColumnPlan compileColumn(String logicalPosition, MZTabColumn column) {
+        String columnName = column.getName();
+        Cell cell = null;
+        Integer id = null;
+
+        if (column instanceof PSMColumn) {
+            if (columnName.equals(SEQUENCE.getName())) {
+                cell = Cell.SEQUENCE;
+            } else if (columnName.equals(PSM_ID.getName())) {
+                cell = Cell.PSM_ID;
+            } else if (columnName.equals(ACCESSION.getName())) {
+                cell = Cell.ACCESSION;
+            } else if (columnName.equals(UNIQUE.getName())) {
+                cell = Cell.UNIQUE;
+            } else if (columnName.equals(DATABASE.getName())) {
+                cell = Cell.DATABASE;
+            } else if (columnName.equals(DATABASE_VERSION.getName())) {
+                cell = Cell.DATABASE_VERSION;
+            } else if (columnName.equals(SEARCH_ENGINE.getName())) {
+                cell = Cell.SEARCH_ENGINE;
+            } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.SEARCH_ENGINE_SCORE;
+                id = loadSearchEngineScoreId(column.getHeader());
+            } else if (columnName.equals(RELIABILITY.getName())) {
+                cell = Cell.RELIABILITY;
+            } else if (columnName.equals(MODIFICATIONS.getName())) {
+                cell = Cell.MODIFICATIONS;
+            } else if (columnName.equals(RETENTION_TIME.getName())) {
+                cell = Cell.RETENTION_TIME;
+            } else if (columnName.equals(CHARGE.getName())) {
+                cell = Cell.CHARGE;
+            } else if (columnName.equals(EXP_MASS_TO_CHARGE.getName())) {
+                cell = Cell.EXP_MASS_TO_CHARGE;
+            } else if (columnName.equals(CALC_MASS_TO_CHARGE.getName())) {
+                cell = Cell.CALC_MASS_TO_CHARGE;
+            } else if (columnName.equals(URI.getName())) {
+                cell = Cell.URI;
+            } else if (columnName.equals(SPECTRA_REF.getName())) {
+                cell = Cell.SPECTRA_REF;
+            } else if (columnName.equals(PRE.getName())) {
+                cell = Cell.PRE;
+            } else if (columnName.equals(POST.getName())) {
+                cell = Cell.POST;
+            } else if (columnName.equals(START.getName())) {
+                cell = Cell.START;
+            } else if (columnName.equals(END.getName())) {
+                cell = Cell.END;
+            }
+            //Abundance can't be reported at psm level
+        }  else if (column instanceof OptionColumn) {
+            //Double check, the column name should opt
+            if (columnName.startsWith("opt_")) {
+                Class dataType = column.getDataType();
+                if (dataType.equals(String.class)) {
+                    cell = Cell.OPTION_STRING;
+                } else if (dataType.equals(Double.class)) {
+                    cell = Cell.OPTION_DOUBLE;
+                } else if (dataType.equals(MZBoolean.class)) {
+                    cell = Cell.OPTION_BOOLEAN;
                 }
             }
         }
 
-        return physicalPosition;
+        return cell == null ? null : new ColumnPlan(cell, logicalPosition, column, id);
+    }
+
+    @Override
+    protected void checkColumn(MZTabRecord record, ColumnPlan plan, String target) {
+        PSM psm = (PSM) record;
+        MZTabColumn column = plan.getColumn();
+
+        switch ((Cell) plan.getKind()) {
+            case SEQUENCE:
+                psm.setSequence(checkSequence(column, target));
+                break;
+            case PSM_ID:
+                psm.setPSM_ID(checkPSMID(column, target));
+                break;
+            case ACCESSION:
+                psm.setAccession(checkAccession(column, target));
+                break;
+            case UNIQUE:
+                psm.setUnique(checkUnique(column, target));
+                break;
+            case DATABASE:
+                psm.setDatabase(checkDatabase(column, target));
+                break;
+            case DATABASE_VERSION:
+                psm.setDatabaseVersion(checkDatabaseVersion(column, target));
+                break;
+            case SEARCH_ENGINE:
+                psm.setSearchEngine(checkSearchEngine(column, target));
+                break;
+            case SEARCH_ENGINE_SCORE:
+                psm.setSearchEngineScore(plan.getId(), checkSearchEngineScore(column, target));
+                break;
+            case RELIABILITY:
+                psm.setReliability(checkReliability(column, target));
+                break;
+            case MODIFICATIONS:
+                String sequence = items[exchangeMapping.get(SEQUENCE.getLogicPosition())];
+                psm.setModifications(checkModifications(column, sequence, target));
+                break;
+            case RETENTION_TIME:
+                psm.setRetentionTime(checkRetentionTime(column, target));
+                break;
+            case CHARGE:
+                psm.setCharge(checkCharge(column, target));
+                break;
+            case EXP_MASS_TO_CHARGE:
+                psm.setExpMassToCharge(checkExpMassToCharge(column, target));
+                break;
+            case CALC_MASS_TO_CHARGE:
+                psm.setCalcMassToCharge(checkCalcMassToCharge(column, target));
+                break;
+            case URI:
+                psm.setURI(checkURI(column, target));
+                break;
+            case SPECTRA_REF:
+                psm.setSpectraRef(checkSpectraRef(column, target));
+                break;
+            case PRE:
+                psm.setPre(checkPre(column, target));
+                break;
+            case POST:
+                psm.setPost(checkPost(column, target));
+                break;
+            case START:
+                psm.setStart(checkStart(column, target));
+                break;
+            case END:
+                psm.setEnd(checkEnd(column, target));
+                break;
+            case OPTION_STRING:
+                psm.setValue(plan.getLogicalPosition(), checkPooledData(column, target, true));
+                break;
+            case OPTION_DOUBLE:
+                psm.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_BOOLEAN:
+                psm.setValue(plan.getLogicalPosition(), checkMZBoolean(column, target));
+                break;
+        }
     }
 
     private String checkAccession(MZTabColumn column, String target) {
-        return checkData(column, target, true);
+        return checkPooledData(column, target, true);
     }
 
     public PSM getRecord() {
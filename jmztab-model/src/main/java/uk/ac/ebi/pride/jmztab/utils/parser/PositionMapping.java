@@ -4,6 +4,7 @@ import uk.ac.ebi.pride.jmztab.model.MZTabColumn;
 import uk.ac.ebi.pride.jmztab.model.MZTabColumnFactory;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -20,6 +21,9 @@ public class PositionMapping {
     // physicalPosition <--> logicalPosition
     private SortedMap<Integer, String> mappings = new TreeMap<Integer, String>();
 
+    private PositionMapping() {
+    }
+
     public PositionMapping(MZTabColumnFactory factory, String headerLine) {
         this(factory, headerLine.split("\t"));
     }
@@ -63,6 +67,22 @@ public class PositionMapping {
         return mappings.get(key);
     }
 
+    /**
+     * Create a sub mapping which only contains the given logical positions, used for column projection.
+     */
+    public PositionMapping project(Collection<String> logicalPositions) {
+        Set<String> positions = new HashSet<String>(logicalPositions);
+        PositionMapping projection = new PositionMapping();
+
+        for (Integer physicalPosition : mappings.keySet()) {
+            if (positions.contains(mappings.get(physicalPosition))) {
+                projection.put(physicalPosition, mappings.get(physicalPosition));
+            }
+        }
+
+        return projection;
+    }
+
     /**
      * Exchange key and value to "LogicalPosition, PhysicalPosition". This method used to simply the locate
      * operation by logical position to physical position.
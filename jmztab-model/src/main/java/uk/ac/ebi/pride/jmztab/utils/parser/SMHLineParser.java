@@ -20,6 +20,9 @@ import static uk.ac.ebi.pride.jmztab.model.SmallMoleculeColumn.*;
  */
 public class SMHLineParser extends MZTabHeaderLineParser {
 
+    private static final Pattern BEST_SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("best_search_engine_score\\[(\\d+)\\]");
+    private static final Pattern SEARCH_ENGINE_SCORE_PATTERN = Pattern.compile("search_engine_score\\[(\\d+)\\]_ms_run\\[(\\d+)\\]");
+
     private static Logger logger = LoggerFactory.getLogger(SMHLineParser.class);
     private Map<Integer, String> physPositionToOrder;
 
@@ -151,8 +154,7 @@ public class SMHLineParser extends MZTabHeaderLineParser {
     }
 
     private void addBestSearchEngineScoreColumn(String header, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("best_search_engine_score\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = BEST_SEARCH_ENGINE_SCORE_PATTERN.matcher(header);
         SmallMoleculeColumn column;
         int id;
 
@@ -169,8 +171,7 @@ public class SMHLineParser extends MZTabHeaderLineParser {
     }
 
     private void addSearchEngineScoreColumn(String header, Integer physicalPosition) throws MZTabException {
-        Pattern pattern = Pattern.compile("search_engine_score\\[(\\d+)\\]_ms_run\\[(\\d+)\\]");
-        Matcher matcher = pattern.matcher(header);
+        Matcher matcher = SEARCH_ENGINE_SCORE_PATTERN.matcher(header);
         SmallMoleculeColumn column;
 
         if (matcher.find()) {
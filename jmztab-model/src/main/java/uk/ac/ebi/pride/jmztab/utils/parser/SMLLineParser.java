@@ -27,92 +27,175 @@ public class SMLLineParser extends MZTabDataLineParser {
 
     @Override
     protected int checkData() {
-
-        MZTabColumn column;
-        String columnName;
-        String target;
-        int physicalPosition;
-        String logicalPosition;
         smallMolecule = new SmallMolecule(factory, metadata);
+        return checkColumns(smallMolecule);
+    }
 
-        for (physicalPosition = 1; physicalPosition < items.length; physicalPosition++) {
-            logicalPosition = positionMapping.get(physicalPosition);
-            column = factory.getColumnMapping().get(logicalPosition);
-
-            if (column != null) {
-                columnName = column.getName();
-                target = items[physicalPosition];
-                if (column instanceof SmallMoleculeColumn) {
-
-                    if (columnName.equals(IDENTIFIER.getName())) {
-                        smallMolecule.setIdentifier(checkIdentifier(column, target));
-                    } else if (columnName.equals(CHEMICAL_FORMULA.getName())) {
-                        smallMolecule.setChemicalFormula(checkChemicalFormula(column, target));
-                    } else if (columnName.equals(SMILES.getName())) {
-                        smallMolecule.setSmiles(checkSmiles(column, target));
-                    } else if (columnName.equals(INCHI_KEY.getName())) {
-                        smallMolecule.setInchiKey(checkInchiKey(column, target));
-                    } else if (columnName.equals(DESCRIPTION.getName())) {
-                        smallMolecule.setDescription(checkDescription(column, target));
-                    } else if (columnName.equals(EXP_MASS_TO_CHARGE.getName())) {
-                        smallMolecule.setExpMassToCharge(checkExpMassToCharge(column, target));
-                    } else if (columnName.equals(CALC_MASS_TO_CHARGE.getName())) {
-                        smallMolecule.setCalcMassToCharge(checkCalcMassToCharge(column, target));
-                    } else if (columnName.equals(CHARGE.getName())) {
-                        smallMolecule.setCharge(checkCharge(column, target));
-                    } else if (columnName.equals(RETENTION_TIME.getName())) {
-                        smallMolecule.setRetentionTime(checkRetentionTime(column, target));
-                    } else if (columnName.equals(TAXID.getName())) {
-                        smallMolecule.setTaxid(checkTaxid(column, target));
-                    } else if (columnName.equals(SPECIES.getName())) {
-                        smallMolecule.setSpecies(checkSpecies(column, target));
-                    } else if (columnName.equals(DATABASE.getName())) {
-                        smallMolecule.setDatabase(checkDatabase(column, target));
-                    } else if (columnName.equals(DATABASE_VERSION.getName())) {
-                        smallMolecule.setDatabaseVersion(checkDatabaseVersion(column, target));
-                    } else if (columnName.equals(RELIABILITY.getName())) {
-                        smallMolecule.setReliability(checkReliability(column, target));
-                    } else if (columnName.equals(URI.getName())) {
-                        smallMolecule.setURI(checkURI(column, target));
-                    } else if (columnName.equals(SPECTRA_REF.getName())) {
-                        smallMolecule.setSpectraRef(checkSpectraRef(column, target));
-                    } else if (columnName.equals(SEARCH_ENGINE.getName())) {
-                        smallMolecule.setSearchEngine(checkSearchEngine(column, target));
-                    } else if (columnName.startsWith(BEST_SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadBestSearchEngineScoreId(column.getHeader());
-                        smallMolecule.setBestSearchEngineScore(id, checkBestSearchEngineScore(column, target));
-                    } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
-                        int id = loadSearchEngineScoreId(column.getHeader());
-                        MsRun msRun = (MsRun) column.getElement();
-                        smallMolecule.setSearchEngineScore(id, msRun, checkSearchEngineScore(column, target));
-                    } else if (columnName.equals(MODIFICATIONS.getName())) {
-                        smallMolecule.setModifications(checkModifications(column, target));
-                    }
-
-                } else if (column instanceof AbundanceColumn) {
-                    //Double check, the column name should contain
-                    if (columnName.contains("abundance")) {
-                        smallMolecule.setValue(logicalPosition, checkDouble(column, target));
-                    }
-                } else if (column instanceof OptionColumn) {
-                    //Double check, the column name should opt
-                    if (columnName.startsWith("opt_")) {
-                        Class dataType = column.getDataType();
-                        if (dataType.equals(String.class)) {
-                            smallMolecule.setValue(column.getLogicPosition(), checkString(column, target));
-                        } else if (dataType.equals(Double.class)) {
-                            smallMolecule.setValue(column.getLogicPosition(), checkDouble(column, target));
-                        } else if (dataType.equals(MZBoolean.class)) {
-                            smallMolecule.setValue(column.getLogicPosition(), checkMZBoolean(column, target));
-                        }
-                    }
+    /**
+     * The kinds of cells in the small molecule section.
+     */
+    private enum Cell {
+        IDENTIFIER, CHEMICAL_FORMULA, SMILES, INCHI_KEY, DESCRIPTION, EXP_MASS_TO_CHARGE, CALC_MASS_TO_CHARGE,
+        CHARGE, RETENTION_TIME, TAXID, SPECIES, DATABASE, DATABASE_VERSION, RELIABILITY, URI, SPECTRA_REF,
+        SEARCH_ENGINE, BEST_SEARCH_ENGINE_SCORE, SEARCH_ENGINE_SCORE, MODIFICATIONS, ABUNDANCE, OPTION_STRING,
+        OPTION_DOUBLE, OPTION_BOOLEAN
+    }
+
+    @Override
+    protected ColumnPlan compileColumn(String logicalPosition, MZTabColumn column) {
+        String columnName = column.getName();
+        Cell cell = null;
+        Integer id = null;
+
+        if (column instanceof SmallMoleculeColumn) {
+            if (columnName.equals(IDENTIFIER.getName())) {
+                cell = Cell.IDENTIFIER;
+            } else if (columnName.equals(CHEMICAL_FORMULA.getName())) {
+                cell = Cell.CHEMICAL_FORMULA;
+            } else if (columnName.equals(SMILES.getName())) {
+                cell = Cell.SMILES;
+            } else if (columnName.equals(INCHI_KEY.getName())) {
+                cell = Cell.INCHI_KEY;
+            } else if (columnName.equals(DESCRIPTION.getName())) {
+                cell = Cell.DESCRIPTION;
+            } else if (columnName.equals(EXP_MASS_TO_CHARGE.getName())) {
+                cell = Cell.EXP_MASS_TO_CHARGE;
+            } else if (columnName.equals(CALC_MASS_TO_CHARGE.getName())) {
+                cell = Cell.CALC_MASS_TO_CHARGE;
+            } else if (columnName.equals(CHARGE.getName())) {
+                cell = Cell.CHARGE;
+            } else if (columnName.equals(RETENTION_TIME.getName())) {
+                cell = Cell.RETENTION_TIME;
+            } else if (columnName.equals(TAXID.getName())) {
+                cell = Cell.TAXID;
+            } else if (columnName.equals(SPECIES.getName())) {
+                cell = Cell.SPECIES;
+            } else if (columnName.equals(DATABASE.getName())) {
+                cell = Cell.DATABASE;
+            } else if (columnName.equals(DATABASE_VERSION.getName())) {
+                cell = Cell.DATABASE_VERSION;
+            } else if (columnName.equals(RELIABILITY.getName())) {
+                cell = Cell.RELIABILITY;
+            } else if (columnName.equals(URI.getName())) {
+                cell = Cell.URI;
+            } else if (columnName.equals(SPECTRA_REF.getName())) {
+                cell = Cell.SPECTRA_REF;
+            } else if (columnName.equals(SEARCH_ENGINE.getName())) {
+                cell = Cell.SEARCH_ENGINE;
+            } else if (columnName.startsWith(BEST_SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.BEST_SEARCH_ENGINE_SCORE;
+                id = loadBestSearchEngineScoreId(column.getHeader());
+            } else if (columnName.startsWith(SEARCH_ENGINE_SCORE.getName())) {
+                cell = Cell.SEARCH_ENGINE_SCORE;
+                id = loadSearchEngineScoreId(column.getHeader());
+            } else if (columnName.equals(MODIFICATIONS.getName())) {
+                cell = Cell.MODIFICATIONS;
+            }
+        } else if (column instanceof AbundanceColumn) {
+            //Double check, the column name should contain abundance
+            if (columnName.contains("abundance")) {
+                cell = Cell.ABUNDANCE;
+            }
+        } else if (column instanceof OptionColumn) {
+            //Double check, the column name should opt
+            if (columnName.startsWith("opt_")) {
+                Class dataType = column.getDataType();
+                if (dataType.equals(String.class)) {
+                    cell = Cell.OPTION_STRING;
+                } else if (dataType.equals(Double.class)) {
+                    cell = Cell.OPTION_DOUBLE;
+                } else if (dataType.equals(MZBoolean.class)) {
+                    cell = Cell.OPTION_BOOLEAN;
                 }
             }
         }
 
-        return physicalPosition;
+        return cell == null ? null : new ColumnPlan(cell, logicalPosition, column, id);
     }
 
+    @Override
+    protected void checkColumn(MZTabRecord record, ColumnPlan plan, String target) {
+        SmallMolecule smallMolecule = (SmallMolecule) record;
+        MZTabColumn column = plan.getColumn();
+
+        switch ((Cell) plan.getKind()) {
+            case IDENTIFIER:
+                smallMolecule.setIdentifier(checkIdentifier(column, target));
+                break;
+            case CHEMICAL_FORMULA:
+                smallMolecule.setChemicalFormula(checkChemicalFormula(column, target));
+                break;
+            case SMILES:
+                smallMolecule.setSmiles(checkSmiles(column, target));
+                break;
+            case INCHI_KEY:
+                smallMolecule.setInchiKey(checkInchiKey(column, target));
+                break;
+            case DESCRIPTION:
+                smallMolecule.setDescription(checkDescription(column, target));
+                break;
+            case EXP_MASS_TO_CHARGE:
+                smallMolecule.setExpMassToCharge(checkExpMassToCharge(column, target));
+                break;
+            case CALC_MASS_TO_CHARGE:
+                smallMolecule.setCalcMassToCharge(checkCalcMassToCharge(column, target));
+                break;
+            case CHARGE:
+                smallMolecule.setCharge(checkCharge(column, target));
+                break;
+            case RETENTION_TIME:
+                smallMolecule.setRetentionTime(checkRetentionTime(column, target));
+                break;
+            case TAXID:
+                smallMolecule.setTaxid(checkTaxid(column, target));
+                break;
+            case SPECIES:
+                smallMolecule.setSpecies(checkSpecies(column, target));
+                break;
+            case DATABASE:
+                smallMolecule.setDatabase(checkDatabase(column, target));
+                break;
+            case DATABASE_VERSION:
+                smallMolecule.setDatabaseVersion(checkDatabaseVersion(column, target));
+                break;
+            case RELIABILITY:
+                smallMolecule.setReliability(checkReliability(column, target));
+                break;
+            case URI:
+                smallMolecule.setURI(checkURI(column, target));
+                break;
+            case SPECTRA_REF:
+                smallMolecule.setSpectraRef(checkSpectraRef(column, target));
+                break;
+            case SEARCH_ENGINE:
+                smallMolecule.setSearchEngine(checkSearchEngine(column, target));
+                break;
+            case BEST_SEARCH_ENGINE_SCORE:
+                smallMolecule.setBestSearchEngineScore(plan.getId(), checkBestSearchEngineScore(column, target));
+                break;
+            case SEARCH_ENGINE_SCORE:
+                MsRun msRun = (MsRun) column.getElement();
+                smallMolecule.setSearchEngineScore(plan.getId(), msRun, checkSearchEngineScore(column, target));
+                break;
+            case MODIFICATIONS:
+                smallMolecule.setModifications(checkModifications(column, target));
+                break;
+            case ABUNDANCE:
+                smallMolecule.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_STRING:
+                smallMolecule.setValue(plan.getLogicalPosition(), checkPooledData(column, target, true));
+                break;
+            case OPTION_DOUBLE:
+                smallMolecule.setValue(plan.getLogicalPosition(), checkDouble(column, target));
+                break;
+            case OPTION_BOOLEAN:
+                smallMolecule.setValue(plan.getLogicalPosition(), checkMZBoolean(column, target));
+                break;
+        }
+    }
+
+
     public SmallMolecule getRecord() {
 
         if(smallMolecule == null){
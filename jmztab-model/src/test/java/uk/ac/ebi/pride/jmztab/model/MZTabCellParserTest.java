@@ -0,0 +1,274 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Differential test: {@link MZTabCellParser} must return the same objects as the regular expression rules in
+ * {@link RegexCellParser}, for hand-picked cells, every cell of the test files and random cells.
+ *
+ * Where the regular expression rules throw {@link ArrayIndexOutOfBoundsException} (a modification which is only
+ * made of '-'), the cell is reported as not parsable instead.
+ */
+public class MZTabCellParserTest {
+    private static final String[] CELLS = {
+        null, "", " ", "null", "0", "-", "--", "---", "3-", "-3", "[", "]", "][", "[]", "[,,,]", "[,,name,]",
+        "[MS, MS:1001524, fragment neutral loss, 63.998285]",
+        "[,,\"Sou,rce\", \"Sigma-Aldrich, catalog #H4522, lot #043K0502\"]",
+        "[PRIDE,PRIDE:0000114,\"N,O-diacetylated L-serine\",]",
+        "[PRIDE,PRIDE:0000114,\"N[12],O-diacetylated L-serine\",]",
+        "[,,Some parameter,\"[..,.]\"]", "abc]", "[a,b,c,d", "[a,\"b,c,d]", "[a,b,c,d,e]",
+        "MOD:00412", "UNIMOD:18", "CHEMMOD:-18.0913", "CHEMMOD:+NH4", "SUBST:R", "MOD:", "MOD:|", "XMOD:1", "UNIMOD:|x",
+        "3-UNIMOD:21", "13-CHEMMOD:-159", "3|4-UNIMOD:21", "3[MS,MS:1001876, modification probability, 0.8]|4[MS,MS:1001876, modification probability, 0.2]-MOD:00412",
+        "3-UNIMOD:21, 3-[MS, MS:1001524, fragment neutral loss, 63.998285]",
+        "[MS, MS:1001524, fragment neutral loss, 63.998285], 7-UNIMOD:4",
+        "5-[MS, MS:1001524, fragment neutral loss, 63.998285], 7-UNIMOD:4",
+        "UNIMOD:4|[MS, MS:1001524, fragment neutral loss, 63.998285]", "UNIMOD:4|[,,, 1]", "UNIMOD:4|[a,b,c,d]x]",
+        "1-CHEMMOD:-17-x", "1-[,,N-term loss,-18]", "1-[,,-,-]", "2-CHEMMOD:-18&minus;", "&minus;-MOD:1",
+        "CHEMMOD:1 -MOD:2", "1-MOD:1 CHEMMOD:-1", "1\u0085-CHEMMOD:-2", "ms_run[1]:scan=1", "ms_run[2]:index=5|ms_run[1]:spectrum=3",
+        "ms_run[x]:1|ms_run[1]:a b", "xms_run[1]:a", "ms_run[]:a", "ms_run[3]:a", "ms_run[99999999999]:a",
+        "assay[1]", "assay[12],assay[2]", "study_variable[1]", "sample[1]x", "99999999999-MOD:1", "1-CHEMMOD:[a-b]",
+        "[MS,MS:1,a\tb,c]", "1[a\tb,c,d,e]-MOD:1", "1-[a,b,c,d]-", "-MOD:1", "MOD:1-", "1-MOD:1--", "1--MOD:1",
+    };
+
+    private static final String[] TOKENS = {
+        "MOD", "UNIMOD", "CHEMMOD", "SUBST", ":", ":", "-", "-", "[", "]", ",", ",", "|", "\t", "\"", " ",
+        "0", "1", "12", "3", "&minus;", "ms_run[", "assay[", "MS", "MS:1001524", "loss", "-18.01", "x",
+        " ", "\r", "null", "[MS, MS:1001524, fragment neutral loss, 63.998285]", "[,,name,value]",
+    };
+
+    private final Metadata metadata = new Metadata();
+
+    public MZTabCellParserTest() {
+        metadata.addMsRun(new MsRun(1));
+        metadata.addMsRun(new MsRun(2));
+    }
+
+    @Test
+    public void testCells() throws Exception {
+        for (String cell : CELLS) {
+            check(cell);
+        }
+    }
+
+    @Test
+    public void testFiles() throws Exception {
+        for (String name : new String[] {"testset/PRIDE_Example.mztab", "testset/Score_MzTab.mztab"}) {
+            File file = new File(MZTabCellParserTest.class.getClassLoader().getResource(name).toURI());
+            BufferedReader reader = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                for (String cell : line.split("\t")) {
+                    check(cell);
+                }
+            }
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testRandomCells() throws Exception {
+        Random random = new Random(20140314);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.setLength(0);
+            int count = 1 + random.nextInt(12);
+            for (int j = 0; j < count; j++) {
+                sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            check(sb.toString());
+        }
+    }
+
+    @Test
+    public void testRandomModifications() throws Exception {
+        Random random = new Random(20140315);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.setLength(0);
+            int count = 1 + random.nextInt(3);
+            for (int j = 0; j < count; j++) {
+                if (j > 0) {
+                    sb.append(random.nextBoolean() ? "," : ", ");
+                }
+                appendModification(random, sb);
+            }
+
+            // break the well formed cell at a random place.
+            if (random.nextInt(4) == 0) {
+                sb.insert(random.nextInt(sb.length() + 1), TOKENS[random.nextInt(TOKENS.length)]);
+            }
+            check(sb.toString());
+        }
+    }
+
+    private void appendModification(Random random, StringBuilder sb) {
+        int positions = random.nextInt(3);
+        for (int i = 0; i < positions; i++) {
+            if (i > 0) {
+                sb.append('|');
+            }
+            sb.append(random.nextInt(30));
+            if (random.nextBoolean()) {
+                sb.append("[MS, MS:1001876, modification probability, 0.").append(random.nextInt(10)).append(']');
+            }
+        }
+        if (positions > 0) {
+            sb.append('-');
+        }
+
+        switch (random.nextInt(6)) {
+            case 0:
+                sb.append("[MS, MS:1001524, fragment neutral loss, -").append(random.nextInt(100)).append(']');
+                return;
+            case 1:
+                sb.append("CHEMMOD:").append(random.nextBoolean() ? "-" : "+").append(random.nextInt(200)).append(".01");
+                break;
+            case 2:
+                sb.append("SUBST:").append((char) ('A' + random.nextInt(26)));
+                break;
+            case 3:
+                sb.append("MOD:00").append(random.nextInt(1000));
+                break;
+            default:
+                sb.append("UNIMOD:").append(random.nextInt(1000));
+                break;
+        }
+        if (random.nextInt(3) == 0) {
+            sb.append("|[MS, MS:1001524, fragment neutral loss, ").append(random.nextInt(100)).append(']');
+        }
+    }
+
+    private void check(final String cell) {
+        final Section section = Section.Peptide;
+        compare(cell, new Parse() {
+            public String regex() {
+                return describe(RegexCellParser.parseParam(cell));
+            }
+
+            public String parse() {
+                return describe(MZTabCellParser.parseParam(cell));
+            }
+        });
+        compare(cell, new Parse() {
+            public String regex() {
+                return describe(RegexCellParser.parseModificationList(section, cell));
+            }
+
+            public String parse() {
+                return describe(MZTabCellParser.parseModificationList(section, cell));
+            }
+        });
+        compare(cell, new Parse() {
+            public String regex() {
+                return describe(RegexCellParser.parseModification(section, cell));
+            }
+
+            public String parse() {
+                return describe(MZTabCellParser.parseModification(section, cell));
+            }
+        });
+        compare(cell, new Parse() {
+            public String regex() {
+                Modification modification = new Modification(section, Modification.Type.MOD, "1");
+                RegexCellParser.parseModificationPosition(cell, modification);
+                return describe(modification);
+            }
+
+            public String parse() {
+                Modification modification = new Modification(section, Modification.Type.MOD, "1");
+                MZTabCellParser.parseModificationPosition(cell, modification);
+                return describe(modification);
+            }
+        });
+        compare(cell, new Parse() {
+            public String regex() {
+                return describeRefs(RegexCellParser.parseSpectraRefList(metadata, cell));
+            }
+
+            public String parse() {
+                return describeRefs(MZTabCellParser.parseSpectraRefList(metadata, cell));
+            }
+        });
+        for (final MetadataElement element : new MetadataElement[] {MetadataElement.ASSAY, MetadataElement.MS_RUN}) {
+            compare(cell, new Parse() {
+                public String regex() {
+                    return describe(RegexCellParser.parseIndexedElement(cell, element));
+                }
+
+                public String parse() {
+                    return describe(MZTabCellParser.parseIndexedElement(cell, element));
+                }
+            });
+        }
+    }
+
+    private interface Parse {
+        String regex();
+
+        String parse();
+    }
+
+    private void compare(String cell, Parse parse) {
+        String expected;
+        try {
+            expected = parse.regex();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return;
+        } catch (RuntimeException e) {
+            expected = e.getClass().getName();
+        }
+
+        String actual;
+        try {
+            actual = parse.parse();
+        } catch (RuntimeException e) {
+            actual = e.getClass().getName();
+        }
+
+        assertEquals("cell: " + cell, expected, actual);
+    }
+
+    private String describe(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof Param) {
+            Param param = (Param) value;
+            return value.getClass().getSimpleName() + "{" + param.getCvLabel() + "|" + param.getAccession() + "|"
+                + param.getName() + "|" + param.getValue() + "}";
+        } else if (value instanceof Modification) {
+            Modification modification = (Modification) value;
+            StringBuilder sb = new StringBuilder("Modification{").append(modification.getSection()).append('|')
+                .append(modification.getType()).append('|').append(modification.getAccession()).append('|');
+            for (Map.Entry<Integer, CVParam> entry : modification.getPositionMap().entrySet()) {
+                sb.append(entry.getKey()).append(describe(entry.getValue())).append(';');
+            }
+            return sb.append('|').append(describe(modification.getNeutralLoss())).append('}').toString();
+        } else if (value instanceof IndexedElement) {
+            IndexedElement element = (IndexedElement) value;
+            return element.getElement() + "[" + element.getId() + "]";
+        } else if (value instanceof SplitList) {
+            StringBuilder sb = new StringBuilder("[");
+            for (Object item : (SplitList) value) {
+                sb.append(describe(item)).append(';');
+            }
+            return sb.append(']').toString();
+        }
+        return value.toString();
+    }
+
+    private String describeRefs(SplitList<SpectraRef> refs) {
+        StringBuilder sb = new StringBuilder("[");
+        for (SpectraRef ref : refs) {
+            sb.append(ref.getMsRun().getId()).append(':').append(ref.getReference()).append(';');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -7,6 +7,8 @@ import java.util.SortedMap;
 import org.junit.Assert;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author qingwei
@@ -110,4 +112,73 @@ public class MZTabColumnFactoryTest {
             assertEquals(nonAssayColumns+(fileCounter*3), factory.getColumnMapping().size());
         }
     }
+
+    @Test
+    public void testFindColumnByHeader() {
+        MZTabColumnFactory factory = MZTabColumnFactory.getInstance(Section.Protein_Header);
+        factory.addDefaultStableColumns();
+        MsRun msRun1 = new MsRun(1);
+        factory.addOptionalColumn(ProteinColumn.NUM_PSMS, msRun1);
+        factory.addAbundanceOptionalColumn(new Assay(1));
+
+        for (MZTabColumn column : factory.getColumnMapping().values()) {
+            assertSame(column, factory.findColumnByHeader(column.getHeader()));
+            assertSame(column, factory.findColumnByHeader(" " + column.getHeader().toUpperCase() + "\t"));
+        }
+        assertEquals(ProteinColumn.ACCESSION.getLogicPosition(), factory.findColumnByHeader("Accession").getLogicPosition());
+        assertNull(factory.findColumnByHeader("num_psms"));
+        assertNull(factory.findColumnByHeader("protein_abundance_assay[2]"));
+
+        // columns added after the first query.
+        String position = factory.addOptionalColumn("my_value", String.class);
+        assertEquals(position, factory.findColumnByHeader("opt_global_my_value").getLogicPosition());
+
+        // column replaced in the mapping, the number of columns is the same.
+        MZTabColumn column = new OptionColumn(null, "other_value", String.class, 100);
+        factory.getColumnMapping().put(position, column);
+        assertSame(column, factory.findColumnByHeader("opt_global_other_value"));
+        assertNull(factory.findColumnByHeader("opt_global_my_value"));
+    }
+
+    @Test
+    public void testFindColumnByPosition() {
+        MZTabColumnFactory factory = MZTabColumnFactory.getInstance(Section.Protein_Header);
+        factory.addDefaultStableColumns();
+        MsRun msRun2 = new MsRun(2);
+        factory.addSearchEngineScoreOptionalColumn(ProteinColumn.SEARCH_ENGINE_SCORE, 3, msRun2);
+        factory.addOptionalColumn(ProteinColumn.NUM_PSMS, msRun2);
+
+        for (MZTabColumn column : factory.getColumnMapping().values()) {
+            String position = column.getLogicPosition();
+            int order = Integer.parseInt(position.substring(0, 6));
+            int id = Integer.parseInt(position.substring(6, 12));
+            int elementId = Integer.parseInt(position.substring(12));
+            assertSame(column, factory.findColumnByPosition(order, id, elementId));
+        }
+        assertNull(factory.findColumnByPosition(Integer.parseInt(ProteinColumn.NUM_PSMS.getOrder()), 0, 1));
+        assertNull(factory.findColumnByPosition(-1, 0, 0));
+        assertNull(factory.findColumnByPosition(1, 1000000, 0));
+    }
+
+    @Test
+    public void testOffsetColumnsMap() {
+        MZTabColumnFactory factory = MZTabColumnFactory.getInstance(Section.Protein_Header);
+        factory.addDefaultStableColumns();
+        for (int i = 1; i <= 200; i++) {
+            factory.addAbundanceOptionalColumn(new Assay(i));
+        }
+
+        SortedMap<Integer, MZTabColumn> offsetMap = factory.getOffsetColumnsMap();
+        assertSame(offsetMap, factory.getOffsetColumnsMap());
+        assertEquals(factory.getColumnMapping().size(), offsetMap.size());
+        int offset = 1;
+        for (MZTabColumn column : factory.getColumnMapping().values()) {
+            assertSame(column, offsetMap.get(offset++));
+        }
+
+        factory.addOptionalColumn("my_value", String.class);
+        offsetMap = factory.getOffsetColumnsMap();
+        assertEquals(factory.getColumnMapping().size(), offsetMap.size());
+        assertEquals("opt_global_my_value", offsetMap.get(offsetMap.lastKey()).getHeader());
+    }
 }
@@ -0,0 +1,79 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare reading and writing the abundance columns of many proteins by {@link Assay}, which search the column for
+ * each cell, with the {@link MZTabColumnHandle} which are resolved once.
+ *
+ * Usage: MZTabColumnHandleRun [assay count] [protein count]
+ */
+public class MZTabColumnHandleRun {
+    private static final int ROUNDS = 5;
+
+    private List<Assay> assays = new ArrayList<Assay>();
+    private List<Protein> proteins = new ArrayList<Protein>();
+    private MZTabColumnHandle[] handles;
+    private double sink = 0;
+
+    public MZTabColumnHandleRun(int assayCount, int proteinCount) {
+        MZTabColumnFactory factory = MZTabColumnFactory.getInstance(Section.Protein_Header);
+        factory.addDefaultStableColumns();
+        for (int i = 1; i <= assayCount; i++) {
+            Assay assay = new Assay(i);
+            assays.add(assay);
+            factory.addAbundanceOptionalColumn(assay);
+        }
+
+        handles = new MZTabColumnHandle[assayCount];
+        for (int i = 0; i < assayCount; i++) {
+            handles[i] = factory.handleForAbundance(assays.get(i));
+        }
+
+        for (int i = 0; i < proteinCount; i++) {
+            proteins.add(new Protein(factory));
+        }
+    }
+
+    private long byAssay() {
+        long start = System.nanoTime();
+        for (Protein protein : proteins) {
+            for (int i = 0; i < assays.size(); i++) {
+                protein.setAbundanceColumnValue(assays.get(i), (double) i);
+            }
+            for (Assay assay : assays) {
+                sink += protein.getAbundanceColumnValue(assay);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long byHandle() {
+        long start = System.nanoTime();
+        for (Protein protein : proteins) {
+            for (int i = 0; i < handles.length; i++) {
+                protein.setDoubleValue(handles[i], i);
+            }
+            for (MZTabColumnHandle handle : handles) {
+                sink += protein.getDoubleValue(handle, 0);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int assayCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int proteinCount = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        MZTabColumnHandleRun run = new MZTabColumnHandleRun(assayCount, proteinCount);
+        long operations = 2L * assayCount * proteinCount;
+        for (int round = 1; round <= ROUNDS; round++) {
+            long assayTime = run.byAssay();
+            long handleTime = run.byHandle();
+            System.out.println(String.format("Round %d: by assay %.1f ns/cell, by handle %.1f ns/cell.", round,
+                (double) assayTime / operations, (double) handleTime / operations));
+        }
+        System.out.println(run.sink == 0 ? "" : "Finish!");
+    }
+}
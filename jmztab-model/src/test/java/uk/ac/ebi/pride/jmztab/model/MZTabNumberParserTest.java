@@ -0,0 +1,114 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link MZTabNumberParser} must decode the same values as {@link Double#parseDouble(String)} and
+ * {@link Integer#parseInt(String)}, and the special values defined in {@link MZTabConstants}.
+ */
+public class MZTabNumberParserTest {
+    private static final String[] NUMBERS = {
+        "0", "-0", "+0", "0.0", "-0.0", "00012", "1.", ".5", "-.5", "1e5", "1E-5", "1e+5", "1.5e308", "4.9e-324",
+        "1e400", "1e-400", "123456789012345", "1234567890123456", "12345678901234567890", "0.1", "0.3",
+        "3.141592653589793", "2.718281828459045e-3", "1e22", "1e23", "9007199254740993", "1.0000000000000000000",
+        "0.000000000000000000000001", "1f", "1d", "0x1p3", "NaN", "-NaN", "Infinity", "-Infinity", "INF", "+INF",
+        "-INF", "inf", "nan", "", " ", ".", "-", "e5", "1e", "1e+", "1.2.3", "1,5", "abc", " 12 ", "\t-3.5\t",
+        "2147483647", "2147483648", "-2147483648", "-2147483649", "999999999", "1000000000", "+12", "--1", "1-",
+        "\u0661\u0662",
+    };
+
+    @Test
+    public void testNumbers() throws Exception {
+        for (String number : NUMBERS) {
+            check(number);
+        }
+    }
+
+    @Test
+    public void testRandomNumbers() throws Exception {
+        Random random = new Random(20140314);
+        for (int i = 0; i < 100000; i++) {
+            double value;
+            switch (i % 4) {
+                case 0:
+                    value = Double.longBitsToDouble(random.nextLong());
+                    break;
+                case 1:
+                    value = random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+                    break;
+                case 2:
+                    value = Math.round(random.nextDouble() * 1e6) / 1e4;
+                    break;
+                default:
+                    value = random.nextInt();
+                    break;
+            }
+            check(Double.toString(value));
+            check(String.format(Locale.US, "%." + random.nextInt(17) + "f", value));
+            check(String.format(Locale.US, "%." + random.nextInt(17) + "e", value));
+            check(Integer.toString(random.nextInt()));
+            check(Integer.toString(random.nextInt(2000) - 1000));
+        }
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        String line = "PSM\t12\t3.5\tINF\tNaN\tnull";
+        assertEquals(12, MZTabNumberParser.parseInt(line, 4, 6));
+        assertEquals(3.5, MZTabNumberParser.parseDouble(line, 7, 10), 0);
+        assertEquals(Double.POSITIVE_INFINITY, MZTabNumberParser.parseDouble(line, 11, 14), 0);
+        assertTrue(Double.isNaN(MZTabNumberParser.parseDouble(line, 15, 18)));
+        assertTrue(MZTabNumberParser.isNull(line, 19, 23));
+        assertFalse(MZTabNumberParser.isNull(line, 4, 6));
+    }
+
+    @Test
+    public void testUtils() throws Exception {
+        assertNull(MZTabUtils.parseDouble("null"));
+        assertNull(MZTabUtils.parseDouble("abc"));
+        assertTrue(MZTabUtils.parseDouble(MZTabConstants.CALCULATE_ERROR).isNaN());
+        assertEquals(Double.POSITIVE_INFINITY, MZTabUtils.parseDouble(MZTabConstants.INFINITY), 0);
+        assertEquals(Double.valueOf(-12.5), MZTabUtils.parseDouble(" -12.5 "));
+        assertNull(MZTabUtils.parseInteger("1.5"));
+        assertEquals(Integer.valueOf(-3), MZTabUtils.parseInteger("-3"));
+    }
+
+    private void check(String number) {
+        String expected;
+        try {
+            String target = number.trim();
+            if (target.equals(MZTabConstants.INFINITY)) {
+                expected = Long.toString(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+            } else {
+                expected = Long.toString(Double.doubleToLongBits(Double.parseDouble(target)));
+            }
+        } catch (NumberFormatException e) {
+            expected = "error";
+        }
+
+        String actual;
+        try {
+            actual = Long.toString(Double.doubleToLongBits(MZTabNumberParser.parseDouble(number, 0, number.length())));
+        } catch (NumberFormatException e) {
+            actual = "error";
+        }
+        assertEquals("double: " + number, expected, actual);
+
+        try {
+            expected = Integer.toString(Integer.parseInt(number.trim()));
+        } catch (NumberFormatException e) {
+            expected = "error";
+        }
+        try {
+            actual = Integer.toString(MZTabNumberParser.parseInt(number, 0, number.length()));
+        } catch (NumberFormatException e) {
+            actual = "error";
+        }
+        assertEquals("int: " + number, expected, actual);
+    }
+}
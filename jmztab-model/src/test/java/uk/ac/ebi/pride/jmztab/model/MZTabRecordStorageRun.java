@@ -0,0 +1,155 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Compare the heap used by each {@link PSM} record and the get/set latency of the cells, with the
+ * TreeMap&lt;String, Object&gt; keyed by logical position which was used to store the cells before.
+ *
+ * Usage: MZTabRecordStorageRun [record count]
+ */
+public class MZTabRecordStorageRun {
+    private static final int ROUNDS = 5;
+
+    private MZTabColumnFactory factory;
+    private List<String> positions = new ArrayList<String>();
+    private String chargePosition = PSMColumn.CHARGE.getLogicPosition();
+    private String mzPosition = PSMColumn.EXP_MASS_TO_CHARGE.getLogicPosition();
+    private long sink = 0;
+
+    public MZTabRecordStorageRun() {
+        factory = MZTabColumnFactory.getInstance(Section.PSM_Header);
+        factory.addDefaultStableColumns();
+        factory.addSearchEngineScoreOptionalColumn(PSMColumn.SEARCH_ENGINE_SCORE, 1, null);
+        factory.addSearchEngineScoreOptionalColumn(PSMColumn.SEARCH_ENGINE_SCORE, 2, null);
+        for (int i = 1; i <= 10; i++) {
+            factory.addOptionalColumn(new Assay(i), "intensity", Double.class);
+        }
+        positions.addAll(factory.getColumnMapping().keySet());
+    }
+
+    private PSM createRecord(int i) {
+        PSM psm = new PSM(factory, null);
+        psm.setSequence("PEPTIDE");
+        psm.setPSM_ID(i);
+        psm.setCharge(2 + i % 3);
+        psm.setExpMassToCharge(400.0 + i);
+        psm.setCalcMassToCharge(400.5 + i);
+        psm.setStart(i % 500);
+        psm.setEnd(i % 500 + 7);
+        psm.setSearchEngineScore(1, i * 0.001);
+        psm.setSearchEngineScore(2, i * 0.002);
+        return psm;
+    }
+
+    /**
+     * The storage used before: one TreeMap per record, filled with null for every column.
+     */
+    private TreeMap<String, Object> createMap(int i) {
+        TreeMap<String, Object> map = new TreeMap<String, Object>();
+        for (String position : positions) {
+            map.put(position, null);
+        }
+        map.put(PSMColumn.SEQUENCE.getLogicPosition(), "PEPTIDE");
+        map.put(PSMColumn.PSM_ID.getLogicPosition(), i);
+        map.put(chargePosition, 2 + i % 3);
+        map.put(mzPosition, 400.0 + i);
+        map.put(PSMColumn.CALC_MASS_TO_CHARGE.getLogicPosition(), 400.5 + i);
+        map.put(PSMColumn.START.getLogicPosition(), i % 500);
+        map.put(PSMColumn.END.getLogicPosition(), i % 500 + 7);
+        map.put(positions.get(7), i * 0.001);
+        map.put(positions.get(8), i * 0.002);
+        return map;
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private void measureHeap(int count) throws InterruptedException {
+        long before = usedMemory();
+        List<Object> records = new ArrayList<Object>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(createRecord(i));
+        }
+        long recordBytes = (usedMemory() - before) / count;
+        sink += records.size();
+        records.clear();
+
+        before = usedMemory();
+        for (int i = 0; i < count; i++) {
+            records.add(createMap(i));
+        }
+        long mapBytes = (usedMemory() - before) / count;
+        sink += records.size();
+        records.clear();
+
+        System.out.println("Heap per record (" + positions.size() + " columns): array slots " + recordBytes +
+            " bytes, tree map " + mapBytes + " bytes.");
+    }
+
+    private void measureLatency(int count) {
+        List<PSM> records = new ArrayList<PSM>(count);
+        List<TreeMap<String, Object>> maps = new ArrayList<TreeMap<String, Object>>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(createRecord(i));
+            maps.add(createMap(i));
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (PSM psm : records) {
+                psm.setValue(chargePosition, 3);
+                psm.setValue(mzPosition, 500.5);
+            }
+            long recordSet = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (PSM psm : records) {
+                sink += psm.getIntValue(chargePosition, 0);
+                sink += (long) psm.getDoubleValue(mzPosition, 0);
+                sink += psm.getCharge();
+            }
+            long recordGet = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (TreeMap<String, Object> map : maps) {
+                map.put(chargePosition, 3);
+                map.put(mzPosition, 500.5);
+            }
+            long mapSet = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (TreeMap<String, Object> map : maps) {
+                sink += (Integer) map.get(chargePosition);
+                sink += ((Double) map.get(mzPosition)).longValue();
+                sink += (Integer) map.get(chargePosition);
+            }
+            long mapGet = System.nanoTime() - start;
+
+            System.out.println("Round " + round + ": set " + format(recordSet, count * 2) + " vs " +
+                format(mapSet, count * 2) + " ns/op, get " + format(recordGet, count * 3) + " vs " +
+                format(mapGet, count * 3) + " ns/op (array slots vs tree map).");
+        }
+    }
+
+    private static String format(long nanos, int operations) {
+        return String.format("%.1f", (double) nanos / operations);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        MZTabRecordStorageRun run = new MZTabRecordStorageRun();
+        run.measureHeap(count);
+        run.measureLatency(count);
+        System.out.println(run.sink == 0 ? "" : "Finish!");
+    }
+}
@@ -0,0 +1,238 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link MZTabRecord} keep the cells in arrays indexed by the column ordinals of {@link MZTabColumnFactory}.
+ */
+public class MZTabRecordTest {
+    private MZTabColumnFactory createFactory() {
+        MZTabColumnFactory factory = MZTabColumnFactory.getInstance(Section.PSM_Header);
+        factory.addDefaultStableColumns();
+        factory.addSearchEngineScoreOptionalColumn(PSMColumn.SEARCH_ENGINE_SCORE, 1, null);
+        return factory;
+    }
+
+    @Test
+    public void testNumberCells() throws Exception {
+        MZTabColumnFactory factory = createFactory();
+        PSM psm = new PSM(factory, new Metadata());
+        assertNull(psm.getCharge());
+        assertEquals(-1, psm.getIntValue(PSMColumn.CHARGE.getLogicPosition(), -1));
+
+        psm.setCharge(2);
+        psm.setExpMassToCharge(1234.5);
+        psm.setCalcMassToCharge(Double.NaN);
+        psm.setStart(-45);
+        psm.setSearchEngineScore(1, 0.25);
+
+        assertEquals(Integer.valueOf(2), psm.getCharge());
+        assertEquals(Double.valueOf(1234.5), psm.getExpMassToCharge());
+        assertTrue(psm.getCalcMassToCharge().isNaN());
+        assertEquals(Integer.valueOf(-45), psm.getStart());
+        assertEquals(Double.valueOf(0.25), psm.getSearchEngineScore(1));
+        assertEquals(2, psm.getIntValue(PSMColumn.CHARGE.getLogicPosition(), -1));
+        assertEquals(1234.5, psm.getDoubleValue(PSMColumn.EXP_MASS_TO_CHARGE.getLogicPosition(), 0), 0);
+        assertEquals(-1, psm.getIntValue(PSMColumn.EXP_MASS_TO_CHARGE.getLogicPosition(), -1));
+        assertEquals(Integer.valueOf(2), psm.getValue(PSMColumn.CHARGE.getLogicPosition()));
+
+        // the first item is the section prefix.
+        String[] items = psm.toString().split("\t");
+        SplitList<String> headers = factory.getHeaderList();
+        assertEquals("2", items[headers.indexOf("charge") + 1]);
+        assertEquals("1234.5", items[headers.indexOf("exp_mass_to_charge") + 1]);
+        assertEquals(MZTabConstants.CALCULATE_ERROR, items[headers.indexOf("calc_mass_to_charge") + 1]);
+
+        psm.setCharge((Integer) null);
+        assertNull(psm.getCharge());
+    }
+
+    @Test
+    public void testTypeMismatch() throws Exception {
+        PSM psm = new PSM(createFactory(), new Metadata());
+        String charge = PSMColumn.CHARGE.getLogicPosition();
+
+        assertFalse(psm.setValue(charge, "2"));
+        assertFalse(psm.setValue(charge, 2.0));
+        assertTrue(psm.setValue(charge, 3));
+        assertEquals(3, psm.getValue(charge));
+
+        // not a column of the factory.
+        assertFalse(psm.setValue("999999", "value"));
+        assertNull(psm.getValue("999999"));
+    }
+
+    @Test
+    public void testColumnAddedAfterRecord() throws Exception {
+        MZTabColumnFactory factory = createFactory();
+        PSM psm = new PSM(factory, new Metadata());
+        psm.setSequence("PEPTIDE");
+        int size = psm.toString().split("\t").length;
+
+        String position = factory.addOptionalColumn("my_value", String.class);
+        String scorePosition = factory.addOptionalColumn("my_score", Double.class);
+        assertEquals(size, psm.toString().split("\t").length);
+        assertNull(psm.getValue(position));
+
+        psm.setValue(scorePosition, 0.5);
+        psm.setValue(position, "value");
+        String[] items = psm.toString().split("\t");
+        assertEquals(size + 2, items.length);
+        assertEquals("value", items[size]);
+        assertEquals("0.5", items[size + 1]);
+        assertEquals("PEPTIDE", psm.getSequence());
+
+        PSM other = new PSM(factory, new Metadata());
+        assertEquals(size + 2, other.toString().split("\t").length);
+    }
+
+    @Test
+    public void testLazyCellsNotDecoded() throws Exception {
+        MZTabColumnFactory factory = createFactory();
+        final PSM psm = new PSM(factory, new Metadata());
+        final int[] count = new int[1];
+        psm.setLazyCells(Arrays.asList(PSMColumn.CHARGE.getLogicPosition(), PSMColumn.EXP_MASS_TO_CHARGE.getLogicPosition()),
+            new MZTabCellDecoder() {
+                @Override
+                public void decode(MZTabRecord record, String logicalPosition) {
+                    if (count[0]++ == 0) {
+                        // the cell is still undecoded during decoding.
+                        throw new IllegalStateException();
+                    }
+                    if (logicalPosition.equals(PSMColumn.EXP_MASS_TO_CHARGE.getLogicPosition())) {
+                        record.setValue(logicalPosition, 100.5);
+                    }
+                }
+            });
+
+        try {
+            psm.getCharge();
+            fail("The decoder should fail.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // a value which not match the column type does not decode the cell.
+        assertFalse(psm.setValue(PSMColumn.CHARGE.getLogicPosition(), "x"));
+        // the decoder does not set a value, the cell is null.
+        assertNull(psm.getCharge());
+        assertNull(psm.getCharge());
+        assertEquals(2, count[0]);
+        assertEquals(Double.valueOf(100.5), psm.getExpMassToCharge());
+        assertEquals(3, count[0]);
+    }
+
+    @Test
+    public void testLazyCells() throws Exception {
+        MZTabColumnFactory factory = createFactory();
+        final PSM psm = new PSM(factory, new Metadata());
+        final int[] count = new int[1];
+        psm.setLazyCells(Arrays.asList(PSMColumn.CHARGE.getLogicPosition(), PSMColumn.EXP_MASS_TO_CHARGE.getLogicPosition()),
+            new MZTabCellDecoder() {
+                @Override
+                public void decode(MZTabRecord record, String logicalPosition) {
+                    count[0]++;
+                    if (logicalPosition.equals(PSMColumn.CHARGE.getLogicPosition())) {
+                        record.setValue(logicalPosition, 3);
+                    } else {
+                        record.setValue(logicalPosition, 100.5);
+                    }
+                }
+            });
+
+        assertEquals(3, psm.getIntValue(PSMColumn.CHARGE.getLogicPosition(), -1));
+        assertEquals(Integer.valueOf(3), psm.getCharge());
+        assertEquals(1, count[0]);
+
+        psm.setSequence("PEPTIDE");
+        String[] items = psm.toString().split("\t");
+        assertEquals("100.5", items[factory.getHeaderList().indexOf("exp_mass_to_charge") + 1]);
+        assertEquals(2, count[0]);
+    }
+
+    @Test
+    public void testHandles() throws Exception {
+        MsRun msRun1 = new MsRun(1);
+        Assay assay1 = new Assay(1);
+        Assay assay2 = new Assay(2);
+        StudyVariable studyVariable1 = new StudyVariable(1);
+
+        MZTabColumnFactory factory = MZTabColumnFactory.getInstance(Section.Protein_Header);
+        factory.addDefaultStableColumns();
+        factory.addBestSearchEngineScoreOptionalColumn(ProteinColumn.BEST_SEARCH_ENGINE_SCORE, 1);
+        factory.addSearchEngineScoreOptionalColumn(ProteinColumn.SEARCH_ENGINE_SCORE, 1, msRun1);
+        factory.addOptionalColumn(ProteinColumn.NUM_PSMS, msRun1);
+        factory.addAbundanceOptionalColumn(assay1);
+        factory.addAbundanceOptionalColumn(studyVariable1);
+        factory.addOptionalColumn(assay1, "my_value", String.class);
+
+        MZTabColumnHandle abundance = factory.handleForAbundance(assay1);
+        MZTabColumnHandle stdev = factory.handleForAbundanceStdev(studyVariable1);
+        MZTabColumnHandle score = factory.handleForSearchEngineScore(1, msRun1);
+        MZTabColumnHandle bestScore = factory.handleForBestSearchEngineScore(1);
+        MZTabColumnHandle numPSMs = factory.handleForHeader("NUM_PSMS_MS_RUN[1]");
+        MZTabColumnHandle myValue = factory.handleForOptionColumn(assay1, "my_value");
+        assertNull(factory.handleForAbundance(assay2));
+        assertNull(factory.handleForSearchEngineScore(2, msRun1));
+        assertNull(factory.handleForHeader("unknown"));
+        assertEquals(ProteinColumn.ACCESSION.getLogicPosition(), factory.handleFor(ProteinColumn.ACCESSION).getLogicalPosition());
+
+        Protein protein = new Protein(factory);
+        protein.setAbundanceColumnValue(assay1, 0.5);
+        protein.setAbundanceStdevColumnValue(studyVariable1, "0.1");
+        protein.setSearchEngineScore(1, msRun1, 47.0);
+        protein.setBestSearchEngineScore(1, 88.0);
+        protein.setNumPSMs(msRun1, 4);
+        protein.setOptionColumnValue(assay1, "my_value", "value");
+
+        assertEquals(new Double(0.5), protein.getDouble(abundance));
+        assertEquals(0.1, protein.getDoubleValue(stdev, 0), 0);
+        assertEquals(47.0, protein.getDoubleValue(score, 0), 0);
+        assertEquals(new Double(88.0), protein.getValue(bestScore));
+        assertEquals(4, protein.getIntValue(numPSMs, 0));
+        assertEquals(new Integer(4), protein.getInteger(numPSMs));
+        assertEquals("value", protein.getString(myValue));
+        assertNull(protein.getInteger(abundance));
+        assertEquals(-1, protein.getIntValue(abundance, -1));
+
+        assertTrue(protein.setDoubleValue(abundance, 0.75));
+        assertFalse(protein.setIntValue(abundance, 1));
+        assertTrue(protein.setIntValue(numPSMs, 5));
+        assertFalse(protein.setValue(myValue, 1.0));
+        assertTrue(protein.setValue(score, null));
+        assertEquals(new Double(0.75), protein.getAbundanceColumnValue(assay1));
+        assertEquals(new Integer(5), protein.getNumPSMs(msRun1));
+        assertNull(protein.getSearchEngineScore(1, msRun1));
+
+        // handles keep valid after columns are added.
+        String position = factory.addOptionalColumn("my_score", Double.class);
+        MZTabColumnHandle myScore = factory.handleForPosition(position);
+        assertTrue(protein.setDoubleValue(myScore, 2.5));
+        assertEquals(2.5, protein.getDoubleValue(myScore, 0), 0);
+        assertEquals(0.75, protein.getDoubleValue(abundance, 0), 0);
+
+        MZTabColumnFactory other = MZTabColumnFactory.getInstance(Section.Protein_Header);
+        other.addDefaultStableColumns();
+        try {
+            protein.getValue(other.handleFor(ProteinColumn.ACCESSION));
+            fail("Handle of other factory should not be accepted.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPSMSearchEngineScoreHandle() throws Exception {
+        MZTabColumnFactory factory = createFactory();
+        assertNull(factory.handleForBestSearchEngineScore(1));
+
+        MZTabColumnHandle score = factory.handleForSearchEngineScore(1, null);
+        PSM psm = new PSM(factory, new Metadata());
+        psm.setSearchEngineScore(1, 0.01);
+        assertEquals(0.01, psm.getDoubleValue(score, 0), 0);
+    }
+}
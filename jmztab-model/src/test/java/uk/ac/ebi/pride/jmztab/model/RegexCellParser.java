@@ -0,0 +1,357 @@
+package uk.ac.ebi.pride.jmztab.model;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static uk.ac.ebi.pride.jmztab.model.MZTabConstants.*;
+import static uk.ac.ebi.pride.jmztab.model.MZTabUtils.*;
+
+/**
+ * The regular expression rules which {@link MZTabUtils} used to parse parameters, modifications, spectra references
+ * and indexed elements, kept as the reference for {@link MZTabCellParserTest}.
+ */
+class RegexCellParser {
+
+    static Param parseParam(String target) {
+        target = parseString(target);
+        if (target == null) {
+            return null;
+        }
+
+        try {
+            target = target.substring(target.indexOf("[") + 1, target.lastIndexOf("]"));
+            String[] tokens = target.split(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+
+            if (tokens.length == 4) {
+                String cvLabel = tokens[0].trim();
+
+                String accession = tokens[1].trim();
+
+                String name = tokens[2].trim();
+                if(name.contains("\"")) {  //We remove the escaping because it will be written back in the writer
+                    name = removeDoubleQuotes(name);
+                }
+
+                if (isEmpty(name)) {
+                    return null;
+                }
+
+                String value = tokens[3].trim();
+                if(value.contains("\"")) {  //We remove the escaping because it will be written back in the writer
+                    value = removeDoubleQuotes(value);
+                }
+                if (isEmpty(value)) {
+                    value = null;
+                }
+
+                if (isEmpty(cvLabel) && isEmpty(accession)) {
+                    return new UserParam(name, value);
+                } else {
+                    return new CVParam(cvLabel, accession, name, value);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            return null;
+        }
+
+        return null;
+
+    }
+
+    static IndexedElement parseIndexedElement(String target, MetadataElement element) {
+        target = parseString(target);
+        if (target == null) {
+            return null;
+        }
+
+        Pattern pattern = Pattern.compile(element + "\\[(\\d+)\\]");
+        Matcher matcher = pattern.matcher(target);
+        if (matcher.find()) {
+            Integer id = Integer.valueOf(matcher.group(1));
+            return new IndexedElement(element, id);
+        } else {
+            return null;
+        }
+    }
+
+    static SplitList<SpectraRef> parseSpectraRefList(Metadata metadata, String target) {
+        SplitList<String> list = parseStringList(BAR, target);
+        SplitList<SpectraRef> refList = new SplitList<SpectraRef>(BAR);
+
+        Pattern pattern = Pattern.compile("ms_run\\[(\\d+)\\]:(.*)");
+        Matcher matcher;
+        Integer ms_file_id;
+        String reference;
+        SpectraRef ref;
+        for (String item : list) {
+            matcher = pattern.matcher(item.trim());
+            if (matcher.find()) {
+                ms_file_id = Integer.valueOf(matcher.group(1));
+                reference = matcher.group(2);
+
+                MsRun msRun = metadata.getMsRunMap().get(ms_file_id);
+                if (msRun == null) {
+                    ref = null;
+                } else {
+                    ref = new SpectraRef(msRun, reference);
+                }
+
+                if (ref == null) {
+                    refList.clear();
+                    break;
+                } else {
+                    refList.add(ref);
+                }
+            }
+        }
+
+        return refList;
+    }
+
+    static void parseModificationPosition(String target, Modification modification) {
+        target = translateTabToComma(target);
+        SplitList<String> list = parseStringList(BAR, target);
+
+        Pattern pattern = Pattern.compile("(\\d+)(\\[([^,]+)?,([^,]+)?,([^,]+),([^,]*)\\])?");
+        Matcher matcher;
+        Integer id;
+        CVParam param;
+        for (String item : list) {
+            matcher = pattern.matcher(item.trim());
+            if (matcher.find()) {
+                id = Integer.valueOf(matcher.group(1));
+                param = matcher.group(5) == null ? null : new CVParam(matcher.group(3), matcher.group(4), matcher.group(5), matcher.group(6));
+                modification.addPosition(id, param);
+            }
+        }
+    }
+
+    static String translateMinusToUnicode(String target) {
+        Pattern pattern = Pattern.compile("(CHEMMOD:.*)(-)(.*)");
+        Matcher matcher = pattern.matcher(target);
+        StringBuilder sb = new StringBuilder();
+        if (matcher.find()) {
+            sb.append(matcher.group(1));
+            sb.append("&minus;");
+            sb.append(matcher.group(3));
+
+        } else {
+            sb.append(target);
+        }
+        return sb.toString();
+    }
+
+    static String translateMinusInCVtoUnicode(String target){
+        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
+        Matcher matcher = pattern.matcher(target);
+
+        StringBuilder sb = new StringBuilder();
+
+        int start = 0;
+        int end;
+        while (matcher.find()) {
+            end = matcher.start(1);
+            sb.append(target.substring(start, end));
+            sb.append(matcher.group(1).replaceAll("-", "&minus;"));
+            start = matcher.end(1);
+        }
+        sb.append(target.substring(start, target.length()));
+
+        return sb.toString();
+    }
+
+    static String translateUnicodeCVTermMinus(String target){
+        return target.replaceAll("&minus;", "-");
+    }
+
+    static String translateUnicodeToMinus(String target) {
+        Pattern pattern = Pattern.compile("(.*CHEMMOD:.*)(&minus;)(.*)");
+        Matcher matcher = pattern.matcher(target);
+        if (matcher.find()) {
+            StringBuilder sb = new StringBuilder();
+
+            sb.append(matcher.group(1));
+            sb.append("-");
+            sb.append(matcher.group(3));
+
+            return sb.toString();
+        } else {
+            return target;
+        }
+    }
+
+    static Modification parseModification(Section section, String target) {
+        target = parseString(target);
+        if (target == null) {
+            return null;
+        }
+
+        // no modification
+        if (target.equals("0")) {
+            return Modification.createNoModification(section);
+        }
+
+        target = translateMinusToUnicode(target);
+        target = translateMinusInCVtoUnicode(target);
+        if (target.isEmpty()) {
+            return null;
+        }
+
+        target = translateTabToComma(target);
+        target = translateMinusToTab(target);
+        String[] items = target.split("\\-");
+        String modLabel;
+        String positionLabel;
+        if (items.length > 2) {
+            // error
+            return null;
+        } if (items.length == 2) {
+            positionLabel = items[0];
+            modLabel = items[1];
+        } else {
+            positionLabel = null;
+            modLabel = items[0];
+        }
+
+        Modification modification = null;
+        Modification.Type type;
+        String accession;
+        CVParam neutralLoss;
+
+        modLabel = translateUnicodeToMinus(modLabel);
+        modLabel = translateUnicodeCVTermMinus(modLabel);
+        modLabel = translateTabToMinus(modLabel);
+        Pattern pattern = Pattern.compile("(MOD|UNIMOD|CHEMMOD|SUBST):([^\\|]+)(\\|\\[([^,]+)?,([^,]+)?,([^,]+),([^,]*)\\])?");
+        Matcher matcher = pattern.matcher(modLabel);
+        if (matcher.find()) {
+            type = Modification.findType(matcher.group(1));
+            accession = matcher.group(2);
+            modification = new Modification(section, type, accession);
+            if (positionLabel != null) {
+                positionLabel =  translateUnicodeCVTermMinus(positionLabel);
+                parseModificationPosition(positionLabel, modification);
+            }
+
+            neutralLoss = matcher.group(6) == null ? null : new CVParam(matcher.group(4), matcher.group(5), matcher.group(6), matcher.group(7));
+            modification.setNeutralLoss(neutralLoss);
+        } else if(parseParam(modLabel) != null){
+           // Check if is a Neutral Loss
+            CVParam param = (CVParam) parseParam(modLabel);
+            modification = new Modification(section, Modification.Type.NEUTRAL_LOSS, param != null ? param.getAccession() : null);
+            modification.setNeutralLoss(param);
+            if (positionLabel != null) {
+                parseModificationPosition(positionLabel, modification);
+            }
+
+        }
+
+        return modification;
+    }
+
+    static String translateCommaToTab(String target) {
+        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
+        Matcher matcher = pattern.matcher(target);
+
+        StringBuilder sb = new StringBuilder();
+
+        int start = 0;
+        int end;
+        while (matcher.find()) {
+            end = matcher.start(1);
+            sb.append(target.substring(start, end));
+            sb.append(matcher.group(1).replaceAll(",", "\t"));
+            start = matcher.end(1);
+        }
+        sb.append(target.substring(start, target.length()));
+
+        return sb.toString();
+    }
+
+    static String translateTabToComma(String target) {
+        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
+        Matcher matcher = pattern.matcher(target);
+
+        StringBuilder sb = new StringBuilder();
+
+        int start = 0;
+        int end;
+        while (matcher.find()) {
+            end = matcher.start(1);
+            sb.append(target.substring(start, end));
+            sb.append(matcher.group(1).replaceAll("\t", ","));
+            start = matcher.end(1);
+        }
+        sb.append(target.substring(start, target.length()));
+
+        return sb.toString();
+    }
+
+    static String translateMinusToTab(String target){
+        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
+        Matcher matcher = pattern.matcher(target);
+
+        StringBuilder sb = new StringBuilder();
+
+        int start = 0;
+        int end;
+        while (matcher.find()) {
+            end = matcher.start(1);
+            sb.append(target.substring(start, end));
+            sb.append(matcher.group(1).replaceAll("-", "\t"));
+            start = matcher.end(1);
+        }
+        sb.append(target.substring(start, target.length()));
+
+        return sb.toString();
+
+    }
+
+    static String translateTabToMinus(String target) {
+        Pattern pattern = Pattern.compile("\\[([^\\[\\]]+)\\]");
+        Matcher matcher = pattern.matcher(target);
+
+        StringBuilder sb = new StringBuilder();
+
+        int start = 0;
+        int end;
+        while (matcher.find()) {
+            end = matcher.start(1);
+            sb.append(target.substring(start, end));
+            sb.append(matcher.group(1).replaceAll("\t", "-"));
+            start = matcher.end(1);
+        }
+        sb.append(target.substring(start, target.length()));
+
+        return sb.toString();
+    }
+
+    static SplitList<Modification> parseModificationList(Section section, String target) {
+        target = parseString(target);
+        SplitList<Modification> modList = new SplitList<Modification>(COMMA);
+
+        if (target == null) {
+            return modList;
+        }
+
+        if (target.equals("0")) {
+            modList.add(Modification.createNoModification(section));
+            return modList;
+        }
+
+        target = translateCommaToTab(target);
+        SplitList<String> list = parseStringList(COMMA, target);
+
+        Modification mod;
+        for (String item : list) {
+            mod = parseModification(section,  item.trim());
+            if (mod == null) {
+                modList.clear();
+                break;
+            } else {
+                modList.add(mod);
+            }
+        }
+
+        return modList;
+    }
+}
@@ -0,0 +1,216 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.MZTabFile;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabException;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MZTabAsyncParserTest {
+    private static final String[] NAMES = {"testset/PRIDE_Example.mztab", "testset/Score_MzTab.mztab"};
+
+    private List<File> getFiles(int copies) throws Exception {
+        List<File> files = new ArrayList<File>();
+        for (int i = 0; i < copies; i++) {
+            for (String name : NAMES) {
+                files.add(new File(MZTabAsyncParserTest.class.getClassLoader().getResource(name).toURI()));
+            }
+        }
+        return files;
+    }
+
+    private void checkParse(MZTabAsyncParser parser) throws Exception {
+        List<File> files = getFiles(8);
+        List<CompletableFuture<MZTabFile>> results = parser.parseAll(files);
+        assertEquals(files.size(), results.size());
+
+        for (int i = 0; i < files.size(); i++) {
+            MZTabFile expected = new MZTabFileParser(files.get(i), new ByteArrayOutputStream(), MZTabErrorType.Level.Error).getMZTabFile();
+            MZTabFile actual = results.get(i).join();
+            assertEquals(expected.getMetadata().toString(), actual.getMetadata().toString());
+            assertEquals(expected.getProteins().size(), actual.getProteins().size());
+            assertEquals(expected.getPSMs().size(), actual.getPSMs().size());
+        }
+
+        for (CompletableFuture<MZTabErrorList> result : parser.validateAll(files)) {
+            assertTrue(result.join().isEmpty());
+        }
+    }
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        MZTabAsyncParser parser = new MZTabAsyncParser(3, false);
+        assertFalse(parser.isVirtual());
+        assertEquals(3, parser.getMaxConcurrency());
+        parser.setLevel(MZTabErrorType.Level.Error);
+        checkParse(parser);
+        parser.close();
+    }
+
+    @Test
+    public void testDefault() throws Exception {
+        MZTabAsyncParser parser = new MZTabAsyncParser(0, true);
+        assertEquals(MZTabAsyncParser.isVirtualThreadSupported(), parser.isVirtual());
+        assertEquals(MZTabAsyncParser.DEFAULT_MAX_CONCURRENCY, parser.getMaxConcurrency());
+        parser.setLevel(MZTabErrorType.Level.Error);
+        checkParse(parser);
+        parser.close();
+    }
+
+    @Test
+    public void testExecutor() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        MZTabAsyncParser parser = new MZTabAsyncParser(executor, 2);
+        parser.setLevel(MZTabErrorType.Level.Error);
+        checkParse(parser);
+        parser.close();
+
+        // the executor given by the caller is not shutdown.
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        MZTabAsyncParser parser = new MZTabAsyncParser(2, false);
+        try {
+            parser.parse(new File("not_exists.mztab")).join();
+            fail("File not exists.");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        parser.close();
+
+        try {
+            parser.validate(getFiles(1).get(0)).join();
+            fail("Parser has been closed.");
+        } catch (CompletionException e) {
+            assertNotNull(e.getCause());
+        }
+    }
+
+    /**
+     * Count the tasks which have been given to the executor and are not finished yet.
+     */
+    private static class CountingExecutor extends AbstractExecutorService {
+        private final ExecutorService executor;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        private CountingExecutor(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            int count = running.incrementAndGet();
+            while (maxRunning.get() < count && ! maxRunning.compareAndSet(maxRunning.get(), count)) {
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        command.run();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return executor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return executor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+    }
+
+    @Test
+    public void testExecutorNotBlocked() throws Exception {
+        // the files waiting for a permit are not given to the executor, so its threads are not blocked.
+        CountingExecutor executor = new CountingExecutor(Executors.newFixedThreadPool(4));
+        MZTabAsyncParser parser = new MZTabAsyncParser(executor, 2);
+        parser.setLevel(MZTabErrorType.Level.Error);
+        for (CompletableFuture<MZTabErrorList> result : parser.validateAll(getFiles(8))) {
+            assertTrue(result.join().isEmpty());
+        }
+        parser.close();
+        executor.shutdown();
+
+        // a finishing task gives the next waiting file to the executor after releasing its permit, and before its
+        // runnable returns, so each permit is counted at most twice.
+        assertTrue(executor.maxRunning.get() <= 4);
+    }
+
+    @Test
+    public void testNoErrorKept() throws Exception {
+        // the file has an error, but no error is kept in the error list.
+        File tabFile = File.createTempFile("async", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFiles(1).get(0)));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("PSM\t")) {
+                String[] items = line.split("\t");
+                items[11] = "x";
+                line = String.join("\t", items);
+            }
+            out.println(line);
+        }
+        in.close();
+        out.close();
+
+        MZTabAsyncParser parser = new MZTabAsyncParser(2, false);
+        parser.setLevel(MZTabErrorType.Level.Error);
+        parser.setMaxErrorCount(0);
+        try {
+            parser.parse(tabFile).join();
+            fail("File has errors.");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof MZTabException);
+            assertTrue(((MZTabException) e.getCause()).getErrorList().isEmpty());
+        }
+
+        // all errors kept are carried by the exception.
+        parser.setMaxErrorCount(200);
+        MZTabErrorList errorList = parser.validate(tabFile).join();
+        assertTrue(errorList.size() > 1);
+        try {
+            parser.parse(tabFile).join();
+            fail("File has errors.");
+        } catch (CompletionException e) {
+            MZTabException cause = (MZTabException) e.getCause();
+            assertEquals(errorList.toString(), cause.getErrorList().toString());
+            assertSame(cause.getErrorList().getError(0), cause.getError());
+        }
+        parser.close();
+    }
+}
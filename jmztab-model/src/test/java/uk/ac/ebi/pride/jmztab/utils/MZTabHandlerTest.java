@@ -0,0 +1,167 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabError;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorListener;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MZTabHandlerTest {
+
+    private class EventHandler implements MZTabHandler {
+        private Metadata metadata;
+        private List<String> events = new ArrayList<String>();
+        private List<MZTabRecord> records = new ArrayList<MZTabRecord>();
+        private List<MZTabError> errors = new ArrayList<MZTabError>();
+        private int comments = 0;
+
+        @Override
+        public void onMetadata(Metadata metadata) {
+            assertNull(this.metadata);
+            this.metadata = metadata;
+        }
+
+        @Override
+        public void onHeader(Section section, MZTabColumnFactory factory) {
+            assertNotNull(metadata);
+            assertTrue(section.isHeader());
+            assertNotNull(factory);
+            events.add("header " + section.getPrefix());
+        }
+
+        @Override
+        public void onRecord(Section section, int lineNumber, MZTabRecord record) {
+            assertTrue(section.isData());
+            records.add(record);
+        }
+
+        @Override
+        public void onComment(int lineNumber, Comment comment) {
+            comments++;
+        }
+
+        @Override
+        public void onError(MZTabError error) {
+            errors.add(error);
+        }
+
+        @Override
+        public void onEndOfSection(Section section) {
+            events.add("end " + section.getPrefix());
+        }
+    }
+
+    private File getFile(String name) throws Exception {
+        return new File(MZTabHandlerTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    @Test
+    public void testHandler() throws Exception {
+        File tabFile = getFile("testset/PRIDE_Example.mztab");
+        MZTabFile mzTabFile = new MZTabFileParser(tabFile, new ByteArrayOutputStream(), MZTabErrorType.Level.Error).getMZTabFile();
+
+        EventHandler handler = new EventHandler();
+        MZTabFileParser.Options options = new MZTabFileParser.Options(MZTabErrorType.Level.Error, 200);
+        options.setHandler(handler);
+        MZTabFileParser parser = new MZTabFileParser(tabFile, new ByteArrayOutputStream(), options);
+        assertNull(parser.getMZTabFile());
+        assertTrue(parser.getErrorList().isEmpty());
+        assertTrue(handler.errors.isEmpty());
+
+        assertEquals(mzTabFile.getMetadata().toString(), handler.metadata.toString());
+        assertEquals(mzTabFile.getComments().size(), handler.comments);
+
+        List<MZTabRecord> records = new ArrayList<MZTabRecord>();
+        records.addAll(mzTabFile.getProteins());
+        records.addAll(mzTabFile.getPeptides());
+        records.addAll(mzTabFile.getPSMs());
+        records.addAll(mzTabFile.getSmallMolecules());
+        assertEquals(records.size(), handler.records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i).toString(), handler.records.get(i).toString());
+        }
+
+        // every header is closed by an end of section event.
+        assertFalse(handler.events.isEmpty());
+        for (int i = 0; i < handler.events.size(); i += 2) {
+            assertTrue(handler.events.get(i).startsWith("header"));
+            assertTrue(handler.events.get(i + 1).startsWith("end"));
+        }
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+        // the second PSM line has a wrong charge.
+        File tabFile = File.createTempFile("validate", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFile("testset/PRIDE_Example.mztab")));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        int count = 0;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("PSM\t") && count++ == 1) {
+                String[] items = line.split("\t");
+                items[11] = "x";
+                line = String.join("\t", items);
+            }
+            out.println(line);
+        }
+        in.close();
+        out.close();
+
+        for (File file : new File[] {getFile("testset/PRIDE_Example.mztab"), getFile("testset/Score_MzTab.mztab"), tabFile}) {
+            ByteArrayOutputStream parserOut = new ByteArrayOutputStream();
+            MZTabFileParser parser = new MZTabFileParser(file, parserOut, MZTabErrorType.Level.Warn, 200);
+            ByteArrayOutputStream validateOut = new ByteArrayOutputStream();
+            MZTabErrorList errorList = MZTabFileParser.validate(file, validateOut, MZTabErrorType.Level.Warn, 200);
+
+            assertEquals(parser.getErrorList().toString(), errorList.toString());
+            assertEquals(parserOut.toString(), validateOut.toString());
+        }
+    }
+
+    @Test
+    public void testErrorsPastCap() throws Exception {
+        // every PSM line has a wrong charge.
+        File tabFile = File.createTempFile("cap", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFile("testset/PRIDE_Example.mztab")));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("PSM\t")) {
+                String[] items = line.split("\t");
+                items[11] = "x";
+                line = String.join("\t", items);
+            }
+            out.println(line);
+        }
+        in.close();
+        out.close();
+
+        // the listener and the handler receive all errors, only the first ones are kept in the list.
+        final List<MZTabError> listened = new ArrayList<MZTabError>();
+        MZTabErrorListener listener = new MZTabErrorListener() {
+            @Override
+            public void onError(MZTabError error) {
+                listened.add(error);
+            }
+        };
+        EventHandler handler = new EventHandler();
+        MZTabFileParser.Options options = new MZTabFileParser.Options(MZTabErrorType.Level.Error, 5);
+        options.setHandler(handler);
+        options.setListener(listener);
+        MZTabFileParser parser = new MZTabFileParser(tabFile, new ByteArrayOutputStream(), options);
+
+        assertEquals(5, parser.getErrorList().size());
+        assertTrue(listened.size() > 5);
+        assertEquals(listened, handler.errors);
+    }
+}
@@ -0,0 +1,632 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.LogicalErrorType;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorOverflowException;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabException;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+import uk.ac.ebi.pride.jmztab.utils.io.MZTabIndex;
+import uk.ac.ebi.pride.jmztab.utils.io.MZTabKeyIndex;
+import uk.ac.ebi.pride.jmztab.utils.parser.MZTabValuePool;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class MZTabStreamReaderTest {
+
+    private File getFile(String name) throws Exception {
+        return new File(MZTabStreamReaderTest.class.getClassLoader().getResource(name).toURI());
+    }
+
+    private void compare(File tabFile) throws Exception {
+        MZTabFileParser parser = new MZTabFileParser(tabFile, new ByteArrayOutputStream(), MZTabErrorType.Level.Error);
+        MZTabFile mzTabFile = parser.getMZTabFile();
+        assertNotNull(mzTabFile);
+
+        List<MZTabRecord> records = new ArrayList<MZTabRecord>();
+        records.addAll(mzTabFile.getProteins());
+        records.addAll(mzTabFile.getPeptides());
+        records.addAll(mzTabFile.getPSMs());
+        records.addAll(mzTabFile.getSmallMolecules());
+
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error));
+        assertEquals(mzTabFile.getMetadata().toString(), reader.getMetadata().toString());
+
+        int count = 0;
+        int comments = 0;
+        MZTabRecord record;
+        while (reader.hasNext()) {
+            Section section = reader.next();
+            if (section.isComment()) {
+                assertNotNull(reader.getComment());
+                comments++;
+            } else if (section.isHeader()) {
+                assertNotNull(reader.getColumnFactory());
+                assertEquals(reader.getColumnFactory(), reader.getColumnFactory(section));
+            } else {
+                record = reader.getRecord();
+                assertEquals(records.get(count++).toString(), record.toString());
+            }
+        }
+        reader.close();
+
+        assertEquals(records.size(), count);
+        assertEquals(mzTabFile.getComments().size(), comments);
+        assertTrue(reader.getErrorList().isEmpty());
+    }
+
+    @Test
+    public void testReadRecords() throws Exception {
+        compare(getFile("testset/Score_MzTab.mztab"));
+        compare(getFile("testset/PRIDE_Example.mztab"));
+    }
+
+    @Test
+    public void testNextRecord() throws Exception {
+        MZTabStreamReader reader = new MZTabStreamReader(getFile("testset/PRIDE_Example.mztab"));
+        assertNotNull(reader.getMetadata());
+        assertNull(reader.getColumnFactory(Section.Protein));
+
+        int count = 0;
+        while (reader.nextRecord() != null) {
+            assertTrue(reader.getSection().isData());
+            assertNotNull(reader.getColumnFactory(reader.getSection()));
+            count++;
+        }
+        reader.close();
+
+        assertTrue(count > 0);
+        assertFalse(reader.hasNext());
+    }
+
+    private List<String> read(File tabFile, ExecutorService executor, int maxErrorCount) throws Exception {
+        List<String> result = new ArrayList<String>();
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Warn, maxErrorCount);
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, errorList);
+        reader.setExecutor(executor);
+        reader.setBatchSize(3);
+        reader.setMaxPendingBatches(2);
+
+        try {
+            while (reader.hasNext()) {
+                Section section = reader.next();
+                result.add(reader.getLineNumber() + " " + section + " " + (reader.getRecord() == null ? "" : reader.getRecord().toString()));
+                result.add(errorList.toString());
+            }
+        } catch (MZTabErrorOverflowException e) {
+            result.add("overflow " + errorList.size());
+        } finally {
+            reader.close();
+        }
+
+        return result;
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        // remove the last column of every third data line to raise errors.
+        File tabFile = File.createTempFile("parallel", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFile("testset/PRIDE_Example.mztab")));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        int count = 0;
+        while ((line = in.readLine()) != null) {
+            if ((line.startsWith("PRT") || line.startsWith("PSM")) && count++ % 3 == 0) {
+                line = line.substring(0, line.lastIndexOf('\t'));
+            }
+            out.println(line);
+        }
+        in.close();
+        out.close();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (File file : new File[] {getFile("testset/PRIDE_Example.mztab"), getFile("testset/Score_MzTab.mztab"), tabFile}) {
+                assertEquals(read(file, null, 1000), read(file, executor, 1000));
+                assertEquals(read(file, null, 5), read(file, executor, 5));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelDuplicateAccession() throws Exception {
+        // repeat the accession of the first protein in the 20th protein line, which is parsed in another batch.
+        File tabFile = File.createTempFile("duplicate", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFile("testset/PRIDE_Example.mztab")));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        String accession = null;
+        int count = 0;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("PRT")) {
+                String[] items = line.split("\t", -1);
+                if (accession == null) {
+                    accession = items[1];
+                } else if (++count == 19) {
+                    line = line.replace(items[1], accession);
+                }
+            }
+            out.println(line);
+        }
+        in.close();
+        out.close();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> sequential = read(tabFile, null, 1000);
+            assertTrue(sequential.toString().contains("-" + LogicalErrorType.DuplicationAccession.getCode() + "] line 65"));
+            assertEquals(sequential, read(tabFile, executor, 1000));
+            assertEquals(read(tabFile, null, 1), read(tabFile, executor, 1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        File tabFile = getFile("testset/PRIDE_Example.mztab");
+        File gzFile = File.createTempFile("gzip", ".mztab.gz");
+        gzFile.deleteOnExit();
+        InputStream in = new FileInputStream(tabFile);
+        OutputStream out = new GZIPOutputStream(new FileOutputStream(gzFile));
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = in.read(buffer)) > 0) {
+            out.write(buffer, 0, length);
+        }
+        in.close();
+        out.close();
+
+        assertEquals(read(tabFile, null, 1000), read(gzFile, null, 1000));
+    }
+
+    private List<String> readLazy(File tabFile, boolean lazy, ExecutorService executor) throws Exception {
+        List<String> lines = new ArrayList<String>();
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        reader.setLazy(lazy);
+        reader.setExecutor(executor);
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+                if (reader.getRecord() != null) {
+                    lines.add(reader.getRecord().toString());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        lines.add(reader.getErrorList().toString());
+        return lines;
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (File file : new File[] {getFile("testset/PRIDE_Example.mztab"), getFile("testset/Score_MzTab.mztab")}) {
+                assertEquals(readLazy(file, false, null), readLazy(file, true, null));
+                assertEquals(readLazy(file, false, null), readLazy(file, true, executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // the PSM lines after the first one have a wrong charge, which is reported when the charge is requested.
+        File tabFile = File.createTempFile("lazy", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFile("testset/PRIDE_Example.mztab")));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        int count = 0;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("PSM\t") && count++ >= 1) {
+                String[] items = line.split("\t");
+                items[11] = "x";
+                line = String.join("\t", items);
+            }
+            out.println(line);
+        }
+        in.close();
+        out.close();
+
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Error, 1);
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, errorList);
+        reader.setLazy(true);
+        MZTabErrorList decodeErrorList = reader.getDecodeErrorList();
+        List<PSM> psms = new ArrayList<PSM>();
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+                if (reader.getSection() == Section.PSM) {
+                    psms.add((PSM) reader.getRecord());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        assertTrue(decodeErrorList.isEmpty());
+        assertNotNull(psms.get(0).getCharge());
+        assertTrue(decodeErrorList.isEmpty());
+        assertNotNull(psms.get(1).getPSM_ID());
+        assertTrue(decodeErrorList.isEmpty());
+        assertNull(psms.get(1).getCharge());
+        assertEquals(1, decodeErrorList.size());
+        assertNull(psms.get(1).getCharge());
+        assertEquals(1, decodeErrorList.size());
+
+        // the decode errors are not limited by the max error count of the reader error list.
+        assertTrue(psms.size() > 2);
+        for (PSM psm : psms) {
+            psm.getCharge();
+        }
+        assertEquals(psms.size() - 1, decodeErrorList.size());
+        assertTrue(errorList.isEmpty());
+    }
+
+    private List<MZTabRecord> readProjection(File tabFile, boolean projection, ExecutorService executor) throws Exception {
+        List<MZTabRecord> records = new ArrayList<MZTabRecord>();
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        reader.setExecutor(executor);
+        if (projection) {
+            reader.setProjection(Section.Protein, Arrays.asList("accession", "Description"));
+            reader.setProjection(Section.PSM_Header, Arrays.asList("modifications", "charge", "unknown"));
+        }
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+                if (reader.getSection() == Section.Protein || reader.getSection() == Section.PSM) {
+                    records.add(reader.getRecord());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        assertTrue(reader.getErrorList().isEmpty());
+        return records;
+    }
+
+    @Test
+    public void testProjection() throws Exception {
+        File tabFile = getFile("testset/PRIDE_Example.mztab");
+        List<MZTabRecord> records = readProjection(tabFile, false, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (ExecutorService e : new ExecutorService[] {null, executor}) {
+                List<MZTabRecord> projected = readProjection(tabFile, true, e);
+                assertEquals(records.size(), projected.size());
+                for (int i = 0; i < records.size(); i++) {
+                    if (records.get(i) instanceof Protein) {
+                        Protein protein = (Protein) records.get(i);
+                        Protein projectedProtein = (Protein) projected.get(i);
+                        assertEquals(protein.getAccession(), projectedProtein.getAccession());
+                        assertEquals(protein.getDescription(), projectedProtein.getDescription());
+                        assertNull(projectedProtein.getDatabase());
+                    } else {
+                        PSM psm = (PSM) records.get(i);
+                        PSM projectedPSM = (PSM) projected.get(i);
+                        assertEquals(psm.getModifications().toString(), projectedPSM.getModifications().toString());
+                        assertEquals(psm.getCharge(), projectedPSM.getCharge());
+                        assertNull(projectedPSM.getSequence());
+                        assertNull(projectedPSM.getAccession());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<String> readSections(File tabFile, Collection<Section> sections) throws Exception {
+        List<String> result = new ArrayList<String>();
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        reader.setSections(sections);
+        try {
+            while (reader.hasNext()) {
+                Section section = reader.next();
+                if (reader.isSelected(section) && ! section.isComment()) {
+                    result.add(reader.getLineNumber() + " " + section + " " + (reader.getRecord() == null ? "" : reader.getRecord().toString()));
+                }
+            }
+        } catch (MZTabException e) {
+            result.add(e.getError().toString());
+        } finally {
+            reader.close();
+        }
+        result.add(reader.getErrorList().toString());
+        return result;
+    }
+
+    @Test
+    public void testSections() throws Exception {
+        // a protein line after the psm section.
+        File tabFile = File.createTempFile("sections", ".mztab");
+        tabFile.deleteOnExit();
+        BufferedReader in = new BufferedReader(new FileReader(getFile("testset/PRIDE_Example.mztab")));
+        PrintWriter out = new PrintWriter(new FileWriter(tabFile));
+        String line;
+        String proteinLine = null;
+        while ((line = in.readLine()) != null) {
+            if (proteinLine == null && line.startsWith("PRT\t")) {
+                proteinLine = line;
+            }
+            out.println(line);
+        }
+        out.println(proteinLine);
+        in.close();
+        out.close();
+
+        List<Section> sections = Arrays.asList(Section.Protein_Header);
+        for (File file : new File[] {getFile("testset/PRIDE_Example.mztab"), getFile("testset/Score_MzTab.mztab"), tabFile}) {
+            List<String> all = readSections(file, null);
+            List<String> proteins = readSections(file, sections);
+            assertTrue(proteins.size() < all.size());
+
+            List<String> expected = new ArrayList<String>();
+            for (String item : all) {
+                if (! item.contains(" PSM") && ! item.contains(" Peptide") && ! item.contains(" Small_Molecule")) {
+                    expected.add(item);
+                }
+            }
+            assertEquals(expected, proteins);
+        }
+
+        MZTabFileParser.Options options = new MZTabFileParser.Options(MZTabErrorType.Level.Error, 200);
+        options.setSections(sections);
+        MZTabFileParser parser = new MZTabFileParser(getFile("testset/PRIDE_Example.mztab"), new ByteArrayOutputStream(), options);
+        MZTabFile mzTabFile = parser.getMZTabFile();
+        assertFalse(mzTabFile.getProteins().isEmpty());
+        assertTrue(mzTabFile.getPSMs().isEmpty());
+        assertNull(mzTabFile.getPsmColumnFactory());
+    }
+
+    @Test
+    public void testFileParserOptions() throws Exception {
+        File tabFile = getFile("testset/PRIDE_Example.mztab");
+        MZTabFile expected = new MZTabFileParser(tabFile, new ByteArrayOutputStream(), MZTabErrorType.Level.Error).getMZTabFile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            MZTabFileParser.Options options = new MZTabFileParser.Options(MZTabErrorType.Level.Error, 200);
+            options.setExecutor(executor);
+            options.setLazy(true);
+            options.setValuePool(new MZTabValuePool());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MZTabFileParser parser = new MZTabFileParser(tabFile, out, options);
+            assertEquals(expected.toString(), parser.getMZTabFile().toString());
+            assertTrue(parser.getErrorList().isEmpty());
+            assertTrue(parser.getDecodeErrorList().isEmpty());
+            assertTrue(out.toString().contains("not checked in lazy mode"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        File tabFile = File.createTempFile("index", ".mztab");
+        tabFile.deleteOnExit();
+        MZTabIndex.getIndexFile(tabFile).deleteOnExit();
+        InputStream in = new FileInputStream(getFile("testset/PRIDE_Example.mztab"));
+        OutputStream out = new FileOutputStream(tabFile);
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = in.read(buffer)) > 0) {
+            out.write(buffer, 0, length);
+        }
+        in.close();
+        out.close();
+
+        List<String> psms = new ArrayList<String>();
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        while (reader.hasNext()) {
+            if (reader.next() == Section.PSM) {
+                psms.add(reader.getLineNumber() + " " + reader.getRecord());
+            }
+        }
+        reader.close();
+        assertTrue(psms.size() > 10);
+
+        MZTabIndex index = MZTabIndex.open(tabFile, 4);
+        assertEquals(psms.size(), index.getRowCount(Section.PSM));
+        for (int row : new int[] {0, 1, 4, 7, psms.size() - 1, psms.size()}) {
+            reader = MZTabStreamReader.open(index, Section.PSM_Header, row, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+            assertEquals(Section.PSM_Header, reader.next());
+            List<String> page = new ArrayList<String>();
+            while (reader.hasNext() && page.size() < 3) {
+                if (reader.next() == Section.PSM) {
+                    page.add(reader.getLineNumber() + " " + reader.getRecord());
+                }
+            }
+            reader.close();
+            assertTrue(reader.getErrorList().isEmpty());
+            assertEquals(psms.subList(row, Math.min(row + 3, psms.size())), page);
+        }
+
+        // fetch the psm by the key index of sequence.
+        MZTabKeyIndex.getIndexFile(tabFile, Section.PSM, "sequence").deleteOnExit();
+        MZTabKeyIndex keyIndex = MZTabKeyIndex.open(tabFile, Section.PSM, "sequence", Charset.forName("UTF-8"));
+        List<MZTabIndex.Entry> entries = keyIndex.lookup(psms.get(5).split("\t")[1]);
+        assertFalse(entries.isEmpty());
+        for (MZTabIndex.Entry entry : entries) {
+            reader = MZTabStreamReader.open(index, Section.PSM, entry, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+            assertEquals(Section.PSM_Header, reader.next());
+            assertEquals(Section.PSM, reader.next());
+            assertEquals(psms.get((int) entry.getRow()), reader.getLineNumber() + " " + reader.getRecord());
+            reader.close();
+        }
+        keyIndex.close();
+    }
+
+    @Test
+    public void testValuePool() throws Exception {
+        MZTabStreamReader reader = new MZTabStreamReader(getFile("testset/PRIDE_Example.mztab"));
+        reader.setValuePool(new MZTabValuePool());
+        List<PSM> psms = new ArrayList<PSM>();
+        MZTabRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            if (record instanceof PSM) {
+                psms.add((PSM) record);
+            }
+        }
+        reader.close();
+        assertTrue(psms.size() > 10);
+
+        PSM first = psms.get(0);
+        PSM last = psms.get(psms.size() - 1);
+        assertEquals(first.getAccession(), psms.get(1).getAccession());
+        assertSame(first.getAccession(), psms.get(1).getAccession());
+        assertNotSame(first.getSearchEngine(), last.getSearchEngine());
+        assertSame(first.getSearchEngine().get(0), last.getSearchEngine().get(0));
+        MZTabColumn decoy = reader.getColumnFactory(Section.PSM_Header).findColumnByHeader("opt_global_cv_MS:1002217_decoy_peptide");
+        assertEquals(first.getValue(decoy.getLogicPosition()), last.getValue(decoy.getLogicPosition()));
+        assertSame(first.getValue(decoy.getLogicPosition()), last.getValue(decoy.getLogicPosition()));
+
+        MZTabValuePool pool = reader.getValuePool();
+        assertTrue(pool.getHitRate() > 0.5);
+        assertTrue(pool.toString().startsWith("Value pool: "));
+
+        // without pool, each record keeps its own values.
+        reader = new MZTabStreamReader(getFile("testset/PRIDE_Example.mztab"));
+        assertNull(reader.getValuePool());
+        PSM other = null;
+        while ((record = reader.nextRecord()) != null && other == null) {
+            if (record instanceof PSM) {
+                other = (PSM) record;
+            }
+        }
+        reader.close();
+        assertEquals(first.toString(), other.toString());
+        assertNotSame(first.getSearchEngine().get(0), other.getSearchEngine().get(0));
+    }
+
+    @Test
+    public void testReadPSMTable() throws Exception {
+        File tabFile = getFile("testset/PRIDE_Example.mztab");
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile);
+        List<PSM> psms = new ArrayList<PSM>();
+        MZTabRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            if (record instanceof PSM) {
+                psms.add((PSM) record);
+            }
+        }
+        reader.close();
+
+        reader = new MZTabStreamReader(tabFile);
+        PSMTable table = reader.readPSMTable();
+        reader.close();
+        assertEquals(psms.size(), table.size());
+        assertTrue(table.getAccessionDictionary().size() < table.size());
+
+        Integer scoreId = reader.getMetadata().getPsmSearchEngineScoreMap().keySet().iterator().next();
+        double[] scores = table.getSearchEngineScoreColumn(scoreId);
+        int[] charges = table.getChargeColumn();
+        int[] sequenceCodes = table.getSequenceCodes();
+        for (PSMTable.Row row : table) {
+            PSM psm = psms.get(row.getRow());
+            assertEquals(psm.getSequence(), row.getSequence());
+            assertEquals(psm.getSequence(), table.getSequenceDictionary().get(sequenceCodes[row.getRow()]));
+            assertEquals(psm.getPSM_ID(), row.getPSM_ID());
+            assertEquals(psm.getAccession(), row.getAccession());
+            assertEquals(psm.getUnique(), row.getUnique());
+            assertEquals(psm.getDatabase(), row.getDatabase());
+            assertEquals(psm.getDatabaseVersion(), row.getDatabaseVersion());
+            assertEquals(String.valueOf(psm.getSearchEngine()), String.valueOf(row.getSearchEngine()));
+            assertEquals(psm.getSearchEngineScore(scoreId), row.getSearchEngineScore(scoreId));
+            assertEquals(psm.getReliability(), row.getReliability());
+            assertEquals(String.valueOf(psm.getModifications()), String.valueOf(row.getModifications()));
+            assertEquals(String.valueOf(psm.getRetentionTime()), String.valueOf(row.getRetentionTime()));
+            assertEquals(psm.getCharge(), row.getCharge());
+            assertEquals(psm.getExpMassToCharge(), row.getExpMassToCharge());
+            assertEquals(psm.getCalcMassToCharge(), row.getCalcMassToCharge());
+            assertEquals(psm.getURI(), row.getURI());
+            assertEquals(String.valueOf(psm.getSpectraRef()), String.valueOf(row.getSpectraRef()));
+            assertEquals(psm.getPre(), row.getPre());
+            assertEquals(psm.getPost(), row.getPost());
+            assertEquals(psm.getStart(), row.getStart());
+            assertEquals(psm.getEnd(), row.getEnd());
+            // opt_ columns are not kept by the table.
+            PSM copy = row.toPSM();
+            assertEquals(psm.getSpectraRef().toString(), copy.getSpectraRef().toString());
+            assertEquals(psm.getSearchEngineScore(scoreId), copy.getSearchEngineScore(scoreId));
+
+            if (psm.getCharge() != null) {
+                assertEquals(psm.getCharge().intValue(), charges[row.getRow()]);
+            }
+            if (psm.getSearchEngineScore(scoreId) == null) {
+                assertTrue(Double.isNaN(scores[row.getRow()]));
+            } else {
+                assertEquals(psm.getSearchEngineScore(scoreId), scores[row.getRow()], 0);
+            }
+
+            // spectra_ref is kept as ms_run id, reference prefix and number.
+            SpectraRef spectraRef = psm.getSpectraRef().get(0);
+            assertEquals(spectraRef.getMsRun().getId().intValue(), table.getSpectraRefMsRunColumn()[row.getRow()]);
+            assertEquals(spectraRef.getReference(), table.getSpectraRefPrefixDictionary().get(table.getSpectraRefPrefixCodes()[row.getRow()])
+                + table.getSpectraRefNumberColumn()[row.getRow()]);
+
+            // the lists are copied for each call, and they are not shared with the records.
+            assertNotSame(row.getModifications(), row.getModifications());
+            assertEquals(row.getSearchEngine(), table.getRow(row.getRow()).getSearchEngine());
+        }
+        assertEquals(1, table.getSpectraRefPrefixDictionary().size());
+
+        // the table keeps its own copy of the lists of the record.
+        PSM added = table.getRow(0).toPSM();
+        SplitList<Param> searchEngine = new SplitList<Param>(MZTabConstants.BAR);
+        searchEngine.add(new CVParam("MS", "MS:1001207", "Mascot", null));
+        added.setSearchEngine(searchEngine);
+        int addedRow = table.add(added);
+        added.getSearchEngine().clear();
+        assertTrue(added.getSearchEngine().isEmpty());
+        assertEquals(1, table.getRow(addedRow).getSearchEngine().size());
+        assertEquals("Mascot", table.getRow(addedRow).getSearchEngine().get(0).getName());
+
+        // the references which do not end with a number kept exactly by an int are kept whole.
+        MsRun msRun = reader.getMetadata().getMsRunMap().get(1);
+        for (String reference : new String[] {"scan=007", "scan=0", "index=12345678901", "file=a.mzML"}) {
+            PSM other = table.getRow(0).toPSM();
+            SplitList<SpectraRef> refList = new SplitList<SpectraRef>(MZTabConstants.BAR);
+            refList.add(new SpectraRef(msRun, reference));
+            other.setSpectraRef(refList);
+            int row = table.add(other);
+            assertEquals(reference, table.getRow(row).getSpectraRef().get(0).getReference());
+            assertEquals(reference.equals("scan=0") ? 0 : -1, table.getSpectraRefNumberColumn()[row]);
+        }
+
+        // rows added after the table has been trimmed, the retention time lists keep their null elements.
+        PSM psm = table.getRow(0).toPSM();
+        SplitList<Double> retentionTime = new SplitList<Double>(MZTabConstants.BAR);
+        retentionTime.add(null);
+        retentionTime.add(5.0);
+        psm.setRetentionTime(retentionTime);
+        int row = table.add(psm);
+        assertEquals(psms.get(0).getSequence(), table.getSequenceDictionary().get(table.getSequenceCodes()[row]));
+        assertEquals(table.getSequenceCodes()[0], table.getSequenceCodes()[row]);
+        assertEquals(String.valueOf(retentionTime), String.valueOf(table.getRow(row).getRetentionTime()));
+        assertNull(table.getRow(row).getRetentionTime().get(0));
+        assertTrue(Double.isNaN(table.getRetentionTimeColumn()[row]));
+
+        retentionTime.remove(1);
+        psm.setRetentionTime(retentionTime);
+        row = table.add(psm);
+        assertEquals(1, table.getRow(row).getRetentionTime().size());
+        assertNull(table.getRow(row).getRetentionTime().get(0));
+    }
+}
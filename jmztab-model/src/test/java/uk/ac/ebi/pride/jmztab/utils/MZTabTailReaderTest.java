@@ -0,0 +1,229 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabError;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorListener;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MZTabTailReaderTest {
+
+    private class EventHandler implements MZTabHandler {
+        private List<String> events = new ArrayList<String>();
+        private List<Integer> lineNumbers = new ArrayList<Integer>();
+        private List<MZTabError> errors = new ArrayList<MZTabError>();
+
+        @Override
+        public void onMetadata(Metadata metadata) {
+            events.add("metadata");
+        }
+
+        @Override
+        public void onHeader(Section section, MZTabColumnFactory factory) {
+            events.add("header " + section.getPrefix());
+        }
+
+        @Override
+        public void onRecord(Section section, int lineNumber, MZTabRecord record) {
+            assertNotNull(record);
+            lineNumbers.add(lineNumber);
+        }
+
+        @Override
+        public void onComment(int lineNumber, Comment comment) {
+            events.add("comment " + lineNumber);
+        }
+
+        @Override
+        public void onError(MZTabError error) {
+            errors.add(error);
+        }
+
+        @Override
+        public void onEndOfSection(Section section) {
+            events.add("end " + section.getPrefix());
+        }
+    }
+
+    private File tabFile;
+
+    @Before
+    public void setUp() throws Exception {
+        tabFile = File.createTempFile("tail", ".mztab");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        tabFile.delete();
+    }
+
+    private byte[] readResource(String name) throws Exception {
+        File file = new File(MZTabTailReaderTest.class.getClassLoader().getResource(name).toURI());
+        byte[] content = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        in.readFully(content);
+        in.close();
+        return content;
+    }
+
+    private void append(byte[] content, int from, int to) throws IOException {
+        FileOutputStream out = new FileOutputStream(tabFile, true);
+        out.write(content, from, to - from);
+        out.close();
+    }
+
+    /**
+     * Append the file in small pieces which break the lines at random places, the records sent by the tail reader
+     * should be the same with parsing the whole file.
+     */
+    @Test
+    public void testAppend() throws Exception {
+        String name = "testset/Score_MzTab.mztab";
+        EventHandler expected = new EventHandler();
+        MZTabFileParser.Options options = new MZTabFileParser.Options(MZTabErrorType.Level.Error, 200);
+        options.setHandler(expected);
+        new MZTabFileParser(new File(MZTabTailReaderTest.class.getClassLoader().getResource(name).toURI()),
+            new ByteArrayOutputStream(), options);
+        assertFalse(expected.lineNumbers.isEmpty());
+
+        byte[] content = readResource(name);
+        EventHandler handler = new EventHandler();
+        MZTabTailReader reader = new MZTabTailReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error));
+
+        int count = 0;
+        int step = 1;
+        for (int offset = 0; offset < content.length; offset += step, step = step * 3 % 997 + 1) {
+            append(content, offset, Math.min(content.length, offset + step));
+            count += reader.poll(handler);
+            assertTrue(reader.getPosition() <= Math.min(content.length, offset + step));
+        }
+        count += reader.poll(handler);
+        reader.close();
+
+        assertEquals(expected.lineNumbers, handler.lineNumbers);
+        assertEquals(expected.lineNumbers.size(), count);
+        assertEquals(expected.errors.size(), handler.errors.size());
+        assertEquals(0, reader.getRestartCount());
+
+        // the last section is still open.
+        List<String> events = new ArrayList<String>(expected.events);
+        events.remove(events.size() - 1);
+        assertEquals(events, handler.events);
+    }
+
+    @Test
+    public void testIncompleteLine() throws Exception {
+        byte[] content = readResource("testset/Score_MzTab.mztab");
+        String text = new String(content, "UTF-8").replace("\r\n", "\n").replace("\n", "\r\n");
+        content = text.getBytes("UTF-8");
+        int psm = text.indexOf("\r\nPSM\t") + 2;
+        int next = text.indexOf("\r\n", psm);
+
+        MZTabTailReader reader = new MZTabTailReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error));
+        EventHandler handler = new EventHandler();
+        assertEquals(0, reader.poll(handler));
+
+        // the first psm line is not complete.
+        append(content, 0, next);
+        assertTrue(reader.poll(handler) > 0);
+        assertEquals(psm, reader.getPosition());
+        assertEquals(0, reader.poll(handler));
+
+        // split between '\r' and '\n'.
+        append(content, next, next + 1);
+        assertEquals(1, reader.poll(handler));
+        append(content, next + 1, next + 2);
+        assertEquals(0, reader.poll(handler));
+        assertEquals(next + 2, reader.getPosition());
+        reader.close();
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        byte[] content = readResource("testset/Score_MzTab.mztab");
+        append(content, 0, content.length);
+
+        EventHandler handler = new EventHandler();
+        MZTabTailReader reader = new MZTabTailReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error));
+        int total = reader.poll(handler);
+        assertTrue(total > 0);
+        assertEquals(0, reader.poll(handler));
+
+        // truncate and write the file again, the new file is read from the beginning.
+        new FileOutputStream(tabFile).close();
+        assertEquals(0, reader.poll(handler));
+        assertEquals(1, reader.getRestartCount());
+        assertEquals(0, reader.getPosition());
+
+        append(content, 0, content.length);
+        assertEquals(total, reader.poll(handler));
+        assertEquals(2 * total, handler.lineNumbers.size());
+        assertEquals("end PSM", handler.events.get(handler.events.lastIndexOf("metadata") - 1));
+        reader.close();
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        byte[] content = readResource("testset/Score_MzTab.mztab");
+        append(content, 0, content.length);
+
+        EventHandler handler = new EventHandler();
+        MZTabTailReader reader = new MZTabTailReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error));
+        int total = reader.poll(handler);
+
+        // same content, but the heading bytes are changed.
+        FileOutputStream out = new FileOutputStream(tabFile);
+        out.write("COM\treplaced\n".getBytes("UTF-8"));
+        out.write(content);
+        out.close();
+
+        assertEquals(total, reader.poll(handler));
+        assertEquals(1, reader.getRestartCount());
+        reader.close();
+    }
+
+    @Test
+    public void testErrorsPastCap() throws Exception {
+        // every PSM line has a wrong charge.
+        String text = new String(readResource("testset/PRIDE_Example.mztab"), "UTF-8");
+        StringBuilder sb = new StringBuilder();
+        for (String line : text.split("\r?\n")) {
+            if (line.startsWith("PSM\t")) {
+                String[] items = line.split("\t");
+                items[11] = "x";
+                line = String.join("\t", items);
+            }
+            sb.append(line).append("\n");
+        }
+        byte[] content = sb.toString().getBytes("UTF-8");
+
+        // the listener and the handler receive all errors, only the first ones are kept in the list.
+        final List<MZTabError> listened = new ArrayList<MZTabError>();
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Error, 5, new MZTabErrorListener() {
+            @Override
+            public void onError(MZTabError error) {
+                listened.add(error);
+            }
+        });
+        EventHandler handler = new EventHandler();
+        MZTabTailReader reader = new MZTabTailReader(tabFile, errorList);
+        append(content, 0, content.length / 2);
+        reader.poll(handler);
+        append(content, content.length / 2, content.length);
+        reader.poll(handler);
+        reader.close();
+
+        assertEquals(5, errorList.size());
+        assertTrue(listened.size() > 5);
+        assertEquals(listened, handler.errors);
+    }
+}
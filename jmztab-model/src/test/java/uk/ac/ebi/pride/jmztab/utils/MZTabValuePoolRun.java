@@ -0,0 +1,101 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import uk.ac.ebi.pride.jmztab.model.MZTabRecord;
+import uk.ac.ebi.pride.jmztab.model.PSM;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+import uk.ac.ebi.pride.jmztab.utils.parser.MZTabValuePool;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the heap used by the psm records which are read with and without {@link MZTabValuePool}. The psm section
+ * of PRIDE_Example.mztab is repeated to create a big file, which repeat the same database, accession, and
+ * search_engine values across the rows.
+ *
+ * Usage: MZTabValuePoolRun [psm count]
+ */
+public class MZTabValuePoolRun {
+
+    private static File createFile(int psmCount) throws Exception {
+        File source = new File(MZTabValuePoolRun.class.getClassLoader().getResource("testset/PRIDE_Example.mztab").toURI());
+        File tabFile = File.createTempFile("value_pool", ".mztab");
+        tabFile.deleteOnExit();
+
+        List<String> psmLines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(source));
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(tabFile)));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("PSM\t")) {
+                psmLines.add(line);
+            } else if (line.trim().length() > 0) {
+                writer.println(line);
+            }
+        }
+        reader.close();
+
+        for (int i = 0; i < psmCount; i++) {
+            String[] items = psmLines.get(i % psmLines.size()).split("\t", -1);
+            items[2] = "" + (i + 1);
+            StringBuilder sb = new StringBuilder(items[0]);
+            for (int j = 1; j < items.length; j++) {
+                sb.append('\t').append(items[j]);
+            }
+            writer.println(sb);
+        }
+        writer.close();
+
+        return tabFile;
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void read(File tabFile, int psmCount, boolean pooled) throws Exception {
+        long before = usedMemory();
+        long start = System.nanoTime();
+
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        if (pooled) {
+            reader.setValuePool(new MZTabValuePool());
+        }
+        List<PSM> psms = new ArrayList<PSM>(psmCount);
+        MZTabRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            if (record instanceof PSM) {
+                psms.add((PSM) record);
+            }
+        }
+        reader.close();
+
+        long time = System.nanoTime() - start;
+        long bytes = (usedMemory() - before) / psms.size();
+        System.out.println(String.format("%s: %d bytes/psm, %.1f ms.", pooled ? "value pool   " : "without pool ",
+            bytes, time / 1e6));
+        if (pooled) {
+            System.out.println("  " + reader.getValuePool());
+        }
+        if (psms.size() != psmCount) {
+            throw new IllegalStateException("Read " + psms.size() + " psms, expected " + psmCount);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int psmCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        File tabFile = createFile(psmCount);
+
+        for (int round = 0; round < 3; round++) {
+            read(tabFile, psmCount, false);
+            read(tabFile, psmCount, true);
+        }
+    }
+}
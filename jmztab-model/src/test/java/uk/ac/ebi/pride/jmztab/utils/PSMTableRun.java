@@ -0,0 +1,133 @@
+package uk.ac.ebi.pride.jmztab.utils;
+
+import uk.ac.ebi.pride.jmztab.model.MZTabRecord;
+import uk.ac.ebi.pride.jmztab.model.PSM;
+import uk.ac.ebi.pride.jmztab.model.PSMTable;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the heap used by the psm section kept in a List&lt;PSM&gt; and in a {@link PSMTable}, and the time to scan
+ * the exp_mass_to_charge column of all rows. The psm section of PRIDE_Example.mztab is repeated to create a big file,
+ * each row gets its own PSM_ID and spectra_ref, as in a real search result.
+ *
+ * Usage: PSMTableRun [psm count]
+ */
+public class PSMTableRun {
+
+    private static File createFile(int psmCount) throws Exception {
+        File source = new File(PSMTableRun.class.getClassLoader().getResource("testset/PRIDE_Example.mztab").toURI());
+        File tabFile = File.createTempFile("psm_table", ".mztab");
+        tabFile.deleteOnExit();
+
+        List<String> psmLines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(source));
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(tabFile)));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("PSM\t")) {
+                psmLines.add(line);
+            } else if (line.trim().length() > 0) {
+                writer.println(line);
+            }
+        }
+        reader.close();
+
+        for (int i = 0; i < psmCount; i++) {
+            String[] items = psmLines.get(i % psmLines.size()).split("\t", -1);
+            items[2] = "" + (i + 1);
+            items[14] = "ms_run[1]:spectrum=" + (i + 1);
+            StringBuilder sb = new StringBuilder(items[0]);
+            for (int j = 1; j < items.length; j++) {
+                sb.append('\t').append(items[j]);
+            }
+            writer.println(sb);
+        }
+        writer.close();
+
+        return tabFile;
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void readList(File tabFile, int psmCount) throws Exception {
+        long before = usedMemory();
+        long start = System.nanoTime();
+
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        List<PSM> psms = new ArrayList<PSM>(psmCount);
+        MZTabRecord record;
+        while ((record = reader.nextRecord()) != null) {
+            if (record instanceof PSM) {
+                psms.add((PSM) record);
+            }
+        }
+        reader.close();
+        long readTime = System.nanoTime() - start;
+        long bytes = (usedMemory() - before) / psms.size();
+
+        double sum = 0;
+        start = System.nanoTime();
+        for (PSM psm : psms) {
+            Double mz = psm.getExpMassToCharge();
+            if (mz != null) {
+                sum += mz;
+            }
+        }
+        long scanTime = System.nanoTime() - start;
+
+        System.out.println(String.format("List<PSM>: %5d bytes/psm, read %7.1f ms, scan %6.2f ms (%.1f)",
+            bytes, readTime / 1e6, scanTime / 1e6, sum));
+        if (psms.size() != psmCount) {
+            throw new IllegalStateException("Read " + psms.size() + " psms, expected " + psmCount);
+        }
+    }
+
+    private static void readTable(File tabFile, int psmCount) throws Exception {
+        long before = usedMemory();
+        long start = System.nanoTime();
+
+        MZTabStreamReader reader = new MZTabStreamReader(tabFile, new MZTabErrorList(MZTabErrorType.Level.Error, 1000));
+        PSMTable table = reader.readPSMTable();
+        reader.close();
+        long readTime = System.nanoTime() - start;
+        long bytes = (usedMemory() - before) / table.size();
+
+        double sum = 0;
+        start = System.nanoTime();
+        double[] mzs = table.getExpMassToChargeColumn();
+        for (int i = 0; i < table.size(); i++) {
+            if (!Double.isNaN(mzs[i])) {
+                sum += mzs[i];
+            }
+        }
+        long scanTime = System.nanoTime() - start;
+
+        System.out.println(String.format("PSMTable:  %5d bytes/psm, read %7.1f ms, scan %6.2f ms (%.1f)",
+            bytes, readTime / 1e6, scanTime / 1e6, sum));
+        if (table.size() != psmCount) {
+            throw new IllegalStateException("Read " + table.size() + " psms, expected " + psmCount);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int psmCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        File tabFile = createFile(psmCount);
+
+        for (int round = 0; round < 3; round++) {
+            readList(tabFile, psmCount);
+            readTable(tabFile, psmCount);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package uk.ac.ebi.pride.jmztab.utils.errors;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.utils.MZTabFileParser;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MZTabErrorListTest {
+    private class CollectListener implements MZTabErrorListener {
+        private List<MZTabError> errors = new ArrayList<MZTabError>();
+
+        @Override
+        public void onError(MZTabError error) {
+            errors.add(error);
+        }
+    }
+
+    private MZTabError createError(int lineNumber) {
+        return new MZTabError(FormatErrorType.Integer, lineNumber, "charge", "abc");
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Error, 2);
+        errorList.add(createError(1));
+        errorList.add(createError(2));
+        try {
+            errorList.add(createError(3));
+            fail("List is full.");
+        } catch (MZTabErrorOverflowException e) {
+            // expected.
+        }
+        assertEquals(2, errorList.size());
+        assertEquals(2, errorList.getErrorCount());
+    }
+
+    @Test
+    public void testListener() throws Exception {
+        CollectListener listener = new CollectListener();
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Error, 2, listener);
+        assertTrue(errorList.isEmpty());
+
+        // lower level errors are not reported.
+        assertFalse(errorList.add(new MZTabError(LogicalErrorType.NotNULL, 1, "charge")));
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(errorList.add(createError(i)));
+        }
+
+        assertEquals(10, listener.errors.size());
+        assertEquals(10, errorList.getErrorCount());
+        assertEquals(2, errorList.size());
+        assertEquals(2, errorList.getErrorList().size());
+        assertEquals(1, errorList.getError(0).getLineNumber());
+        assertFalse(errorList.isEmpty());
+
+        errorList.clear();
+        assertTrue(errorList.isEmpty());
+        assertEquals(0, errorList.getErrorCount());
+    }
+
+    @Test
+    public void testChain() throws Exception {
+        MZTabErrorList kept = new MZTabErrorList(MZTabErrorType.Level.Error, 100);
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Error, 1, kept);
+        for (int i = 1; i <= 5; i++) {
+            errorList.add(createError(i));
+        }
+        assertEquals(1, errorList.size());
+        assertEquals(5, kept.size());
+    }
+
+    @Test
+    public void testWriter() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MZTabErrorWriter writer = new MZTabErrorWriter(out);
+        MZTabErrorList errorList = new MZTabErrorList(MZTabErrorType.Level.Error, 1, writer);
+        MZTabErrorList expected = new MZTabErrorList(MZTabErrorType.Level.Error, 3);
+        for (int i = 1; i <= 3; i++) {
+            errorList.add(createError(i));
+            expected.add(createError(i));
+        }
+        writer.close();
+
+        assertEquals(3, writer.getCount());
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        expected.print(printed);
+        assertEquals(printed.toString(), out.toString());
+    }
+
+    /**
+     * Validate a file which contains more errors than the max error count, all errors are sent to the listener.
+     */
+    @Test
+    public void testValidate() throws Exception {
+        File source = new File(MZTabErrorListTest.class.getClassLoader().getResource("testset/Score_MzTab.mztab").toURI());
+        File tabFile = File.createTempFile("errors", ".mztab");
+        File reportFile = File.createTempFile("errors", ".txt");
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(source));
+            PrintWriter writer = new PrintWriter(new FileWriter(tabFile));
+            String line;
+            int psmCount = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("PSM\t")) {
+                    // search_engine_score[1] is not a double.
+                    String[] items = line.split("\t", -1);
+                    items[8] = "abc";
+                    StringBuilder sb = new StringBuilder(items[0]);
+                    for (int i = 1; i < items.length; i++) {
+                        sb.append('\t').append(items[i]);
+                    }
+                    line = sb.toString();
+                    psmCount++;
+                }
+                writer.println(line);
+            }
+            writer.close();
+            reader.close();
+
+            MZTabErrorList all = MZTabFileParser.validate(tabFile, new ByteArrayOutputStream(), MZTabErrorType.Level.Error, 1000);
+            assertEquals(psmCount, all.size());
+
+            // without listener, the validation stop after max error count errors.
+            MZTabErrorList limited = MZTabFileParser.validate(tabFile, new ByteArrayOutputStream(), MZTabErrorType.Level.Error, 5);
+            assertEquals(5, limited.size());
+
+            MZTabErrorWriter errorWriter = new MZTabErrorWriter(reportFile);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MZTabErrorList errorList = MZTabFileParser.validate(tabFile, out, MZTabErrorType.Level.Error, 5, errorWriter);
+            errorWriter.close();
+
+            assertEquals(5, errorList.size());
+            assertEquals(psmCount, errorList.getErrorCount());
+            assertEquals(psmCount, errorWriter.getCount());
+            assertEquals("", out.toString());
+
+            ByteArrayOutputStream printed = new ByteArrayOutputStream();
+            all.print(printed);
+            byte[] report = new byte[(int) reportFile.length()];
+            DataInputStream in = new DataInputStream(new FileInputStream(reportFile));
+            in.readFully(report);
+            in.close();
+            assertEquals(printed.toString(), new String(report));
+        } finally {
+            tabFile.delete();
+            reportFile.delete();
+        }
+    }
+}
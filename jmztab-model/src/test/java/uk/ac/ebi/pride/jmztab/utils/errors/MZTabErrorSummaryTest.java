@@ -0,0 +1,135 @@
+package uk.ac.ebi.pride.jmztab.utils.errors;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.utils.MZTabFileParser;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class MZTabErrorSummaryTest {
+    /**
+     * The message generated by the regular expression, which was used before the message is generated lazily.
+     */
+    private String fill(int count, String[] values, String message) {
+        Matcher matcher = Pattern.compile("\\{\\w\\}").matcher(message);
+        if (matcher.find()) {
+            return fill(count + 1, values, matcher.replaceFirst(values[count] == null ? "" : values[count]));
+        } else {
+            return message;
+        }
+    }
+
+    @Test
+    public void testMessage() throws Exception {
+        String[] values = {"search_engine_score[1]", "abc", null, "1.5"};
+        for (MZTabErrorType type : new MZTabErrorTypeMap().getTypeMap().values()) {
+            MZTabError error = new MZTabError(type, 10, values);
+            assertEquals(fill(0, values, type.getOriginal()), error.getMessage());
+            assertTrue(error.toString().startsWith("[" + type.getLevel() + "-" + type.getCode() + "] line 10: "));
+        }
+
+        assertEquals(2, FormatErrorType.Double.getParameterCount());
+        assertEquals(0, LogicalErrorType.FixedMod.getParameterCount());
+        try {
+            new MZTabError(FormatErrorType.Double, 10, "charge");
+            fail("Missing parameter.");
+        } catch (IndexOutOfBoundsException e) {
+            assertEquals("Index: 1, Size: 2", e.getMessage());
+        }
+
+        // the values are filled literally.
+        assertEquals("Column \"opt_global_x\" value \"$1\\\" is not a valid Double value.",
+            new MZTabError(FormatErrorType.Double, 10, "opt_global_x", "$1\\").getMessage());
+    }
+
+    @Test
+    public void testGroups() throws Exception {
+        MZTabErrorSummary summary = new MZTabErrorSummary(2, 3);
+        for (int i = 1; i <= 10; i++) {
+            summary.onError(new MZTabError(FormatErrorType.Double, i, "opt_global_a", "abc"));
+            summary.onError(new MZTabError(FormatErrorType.Double, i, "opt_global_b", "abc"));
+        }
+        summary.onError(new MZTabError(LogicalErrorType.FixedMod, 1));
+        // no more groups for the new column.
+        summary.onError(new MZTabError(FormatErrorType.Double, 20, "opt_global_c", "abc"));
+        summary.onError(new MZTabError(FormatErrorType.Double, 21, "opt_global_d", "abc"));
+
+        assertEquals(23, summary.getErrorCount());
+        List<MZTabErrorSummary.Group> groups = summary.getGroups();
+        assertEquals(4, groups.size());
+        assertEquals("opt_global_a", groups.get(0).getColumn());
+        assertEquals(10, groups.get(0).getCount());
+        assertEquals("[1, 2]", Arrays.toString(groups.get(0).getLineNumbers()));
+        assertEquals("opt_global_b", groups.get(1).getColumn());
+        assertNull(groups.get(2).getColumn());
+        assertEquals(LogicalErrorType.FixedMod, groups.get(2).getType());
+        assertNull(groups.get(3).getColumn());
+        assertEquals(FormatErrorType.Double, groups.get(3).getType());
+        assertEquals(2, groups.get(3).getCount());
+
+        String report = summary.toString();
+        assertTrue(report, report.startsWith("[Error-1019] 10 times in column \"opt_global_a\", first lines: 1, 2: Column \"opt_global_a\""));
+
+        summary.clear();
+        assertTrue(summary.isEmpty());
+        assertEquals("", summary.toString());
+
+        // the column is found by the error type, whatever the pattern text.
+        summary.onError(new MZTabError(FormatErrorType.StringList, 1, "ambiguity_members", "a", ","));
+        summary.onError(new MZTabError(CrossCheckErrorType.Species, 2, "species", "b"));
+        summary.onError(new MZTabError(FormatErrorType.ColUnit, 3, "colunit-psm", "x"));
+        groups = summary.getGroups();
+        assertEquals("ambiguity_members", groups.get(0).getColumn());
+        assertEquals("species", groups.get(1).getColumn());
+        assertNull(groups.get(2).getColumn());
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+        File source = new File(MZTabErrorSummaryTest.class.getClassLoader().getResource("testset/Score_MzTab.mztab").toURI());
+        File tabFile = File.createTempFile("summary", ".mztab");
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(source));
+            PrintWriter writer = new PrintWriter(new FileWriter(tabFile));
+            String line;
+            int psmCount = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("PSM\t")) {
+                    // charge and search_engine_score[2] are not numbers.
+                    String[] items = line.split("\t", -1);
+                    items[9] = "abc";
+                    items[16] = "+";
+                    StringBuilder sb = new StringBuilder(items[0]);
+                    for (int i = 1; i < items.length; i++) {
+                        sb.append('\t').append(items[i]);
+                    }
+                    line = sb.toString();
+                    psmCount++;
+                }
+                writer.println(line);
+            }
+            writer.close();
+            reader.close();
+
+            MZTabErrorSummary summary = new MZTabErrorSummary();
+            MZTabErrorList errorList = MZTabFileParser.validate(tabFile, new ByteArrayOutputStream(), MZTabErrorType.Level.Error, 0, summary);
+            assertEquals(0, errorList.size());
+            assertEquals(2 * psmCount, errorList.getErrorCount());
+            assertEquals(2 * psmCount, summary.getErrorCount());
+
+            List<MZTabErrorSummary.Group> groups = summary.getGroups();
+            assertEquals(2, groups.size());
+            assertEquals("search_engine_score[2]", groups.get(0).getColumn());
+            assertEquals("charge", groups.get(1).getColumn());
+            assertEquals(psmCount, groups.get(0).getCount());
+            assertEquals(MZTabErrorSummary.DEFAULT_EXAMPLE_COUNT, groups.get(0).getExamples().size());
+        } finally {
+            tabFile.delete();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.Section;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+public class MZTabIndexTest {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private File createFile(String content) throws IOException {
+        File file = File.createTempFile("index", ".mztab");
+        file.deleteOnExit();
+        MZTabIndex.getIndexFile(file).deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        out.write(content.getBytes(UTF8));
+        out.close();
+        return file;
+    }
+
+    private String readLine(File file, MZTabIndex.Entry entry) throws IOException {
+        MappedLineReader reader = new MappedLineReader(file, UTF8, entry.getOffset(), -1);
+        try {
+            return reader.readLine();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void assertSame(MZTabIndex expected, MZTabIndex actual) {
+        assertEquals(expected.getCheckpointInterval(), actual.getCheckpointInterval());
+        assertEquals(expected.getMetadata().getOffset(), actual.getMetadata().getOffset());
+        assertEquals(expected.getMetadata().getEnd(), actual.getMetadata().getEnd());
+        for (Section section : new Section[] {Section.Protein, Section.PSM}) {
+            assertEquals(expected.getHeader(section).getOffset(), actual.getHeader(section).getOffset());
+            assertEquals(expected.getHeader(section).getLineNumber(), actual.getHeader(section).getLineNumber());
+            assertEquals(expected.getRowCount(section), actual.getRowCount(section));
+            for (int row = 0; row < expected.getRowCount(section); row++) {
+                assertEquals(expected.findCheckpoint(section, row).getOffset(), actual.findCheckpoint(section, row).getOffset());
+                assertEquals(expected.findCheckpoint(section, row).getLineNumber(), actual.findCheckpoint(section, row).getLineNumber());
+            }
+        }
+    }
+
+    @Test
+    public void testBuild() throws Exception {
+        File file = createFile("MTD\tmzTab-version\t1.0.0\r\n" +
+            "COM\tcomment\r\n" +
+            "MTD\tmzTab-mode\tSummary\r\n" +
+            "\r\n" +
+            "PRH\taccession\r" +
+            "PRT\tP1\n" +
+            "PRT\tP2\n" +
+            "COM\tcomment\n" +
+            "PRT\tP3\n" +
+            "PRT\tP4\n" +
+            "PSH\tsequence\n" +
+            "PSM\tAAA");
+        MZTabIndex index = MZTabIndex.build(file, 2);
+        assertTrue(index.isValid());
+
+        assertEquals(0, index.getMetadata().getOffset());
+        assertEquals(1, index.getMetadata().getLineNumber());
+        assertEquals("MTD\tmzTab-version\t1.0.0\r\nCOM\tcomment\r\nMTD\tmzTab-mode\tSummary\r\n".length(), index.getMetadata().getEnd());
+
+        assertEquals(5, index.getHeader(Section.Protein).getLineNumber());
+        assertEquals("PRH\taccession", readLine(file, index.getHeader(Section.Protein_Header)));
+        assertEquals(4, index.getRowCount(Section.Protein));
+        assertEquals(1, index.getRowCount(Section.PSM));
+        assertEquals(0, index.getRowCount(Section.Peptide));
+        assertNull(index.getHeader(Section.Peptide));
+
+        assertEquals(0, index.findCheckpoint(Section.Protein, 1).getRow());
+        assertEquals(6, index.findCheckpoint(Section.Protein, 1).getLineNumber());
+        assertEquals("PRT\tP1", readLine(file, index.findCheckpoint(Section.Protein, 1)));
+        assertEquals(2, index.findCheckpoint(Section.Protein, 3).getRow());
+        assertEquals(9, index.findCheckpoint(Section.Protein, 3).getLineNumber());
+        assertEquals("PRT\tP3", readLine(file, index.findCheckpoint(Section.Protein, 3)));
+        assertNull(index.findCheckpoint(Section.Protein, 4));
+        assertEquals(12, index.findCheckpoint(Section.PSM, 0).getLineNumber());
+        assertEquals("PSM\tAAA", readLine(file, index.findCheckpoint(Section.PSM, 0)));
+    }
+
+    @Test
+    public void testWriteAndLoad() throws Exception {
+        File file = createFile("MTD\tmzTab-version\t1.0.0\n" +
+            "PRH\taccession\n" +
+            "PRT\tP1\n" +
+            "PRT\tP2\n" +
+            "PRT\tP3\n" +
+            "PSH\tsequence\n" +
+            "PSM\tAAA\n");
+        assertNull(MZTabIndex.load(file));
+
+        MZTabIndex index = MZTabIndex.open(file, 2);
+        assertTrue(MZTabIndex.getIndexFile(file).exists());
+        assertSame(index, MZTabIndex.load(file));
+        assertSame(index, MZTabIndex.open(file, 100));
+
+        // the index is out of date after the file changed.
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertFalse(index.isValid());
+        assertNull(MZTabIndex.load(file));
+        assertEquals(100, MZTabIndex.open(file, 100).getCheckpointInterval());
+    }
+}
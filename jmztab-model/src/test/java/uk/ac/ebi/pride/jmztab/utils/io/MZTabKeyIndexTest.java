@@ -0,0 +1,123 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.Section;
+import uk.ac.ebi.pride.jmztab.utils.parser.MZTabLineTokenizer;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MZTabKeyIndexTest {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private File createFile(String content) throws IOException {
+        File file = File.createTempFile("key", ".mztab");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        out.write(content.getBytes(UTF8));
+        out.close();
+        return file;
+    }
+
+    private List<Integer> lookup(MZTabKeyIndex keyIndex, String key) throws IOException {
+        List<Integer> lineNumbers = new ArrayList<Integer>();
+        for (MZTabIndex.Entry entry : keyIndex.lookup(key)) {
+            lineNumbers.add(entry.getLineNumber());
+        }
+        return lineNumbers;
+    }
+
+    @Test
+    public void testLookup() throws Exception {
+        File file = createFile("MTD\tmzTab-version\t1.0.0\r\n" +
+            "PRH\taccession\tdescription\r\n" +
+            "PRT\tP1\tnull\r\n" +
+            "PSH\tsequence\tPSM_ID\taccession\r\n" +
+            "PSM\tAAA\t1\tP1\r\n" +
+            "COM\tcomment\r\n" +
+            "PSM\tCCC\t2\tnull\r\n" +
+            "PSM\tAAA\t3\tP2\r\n" +
+            "PSM\tDDD\t4\r\n");
+        MZTabKeyIndex.getIndexFile(file, Section.PSM, "sequence").deleteOnExit();
+        MZTabKeyIndex.getIndexFile(file, Section.PSM, "accession").deleteOnExit();
+        MZTabKeyIndex.getIndexFile(file, Section.Protein, "accession").deleteOnExit();
+
+        assertNull(MZTabKeyIndex.load(file, Section.PSM, "sequence", UTF8));
+        MZTabKeyIndex sequenceIndex = MZTabKeyIndex.open(file, Section.PSM_Header, "Sequence", UTF8);
+        assertEquals(4, sequenceIndex.size());
+        assertEquals(2, sequenceIndex.lookup("AAA").size());
+        assertEquals(5, sequenceIndex.lookup("AAA").get(0).getLineNumber());
+        assertEquals(0, sequenceIndex.lookup("AAA").get(0).getRow());
+        assertEquals(8, sequenceIndex.lookup("AAA").get(1).getLineNumber());
+        assertEquals(2, sequenceIndex.lookup("AAA").get(1).getRow());
+        assertTrue(sequenceIndex.lookup("aaa").isEmpty());
+        assertTrue(sequenceIndex.lookup("EEE").isEmpty());
+        sequenceIndex.close();
+
+        // the header is case insensitive, the same index file is used.
+        assertEquals(MZTabKeyIndex.getIndexFile(file, Section.PSM, "sequence"), MZTabKeyIndex.getIndexFile(file, Section.PSM, "Sequence"));
+        sequenceIndex = MZTabKeyIndex.load(file, Section.PSM, "sequence", UTF8);
+        assertNotNull(sequenceIndex);
+        sequenceIndex.close();
+
+        MZTabKeyIndex accessionIndex = MZTabKeyIndex.open(file, Section.PSM, "accession", UTF8);
+        assertEquals(2, accessionIndex.size());
+        assertEquals(5, (int) lookup(accessionIndex, "P1").get(0));
+        assertEquals(8, (int) lookup(accessionIndex, "P2").get(0));
+        assertTrue(accessionIndex.lookup("null").isEmpty());
+        accessionIndex.close();
+
+        MZTabKeyIndex proteinIndex = MZTabKeyIndex.open(file, Section.Protein, "accession", UTF8);
+        assertEquals(3, (int) lookup(proteinIndex, "P1").get(0));
+        proteinIndex.close();
+
+        try {
+            MZTabKeyIndex.open(file, Section.PSM, "unknown", UTF8);
+            fail("Column not exists.");
+        } catch (IllegalArgumentException e) {
+            // expected.
+        }
+
+        // the index is out of date after the file changed.
+        assertTrue(file.setLastModified(file.lastModified() - 10000));
+        assertNull(MZTabKeyIndex.load(file, Section.PSM, "sequence", UTF8));
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("MTD\tmzTab-version\t1.0.0\n");
+        sb.append("PSH\tsequence\tPSM_ID\n");
+        for (int i = 0; i < 5000; i++) {
+            sb.append("PSM\tSEQ").append(i % 97).append("\t").append(i).append("\n");
+        }
+        File file = createFile(sb.toString());
+        MZTabKeyIndex.getIndexFile(file, Section.PSM, "PSM_ID").deleteOnExit();
+        MZTabKeyIndex.getIndexFile(file, Section.PSM, "sequence").deleteOnExit();
+
+        MZTabKeyIndex idIndex = MZTabKeyIndex.open(file, Section.PSM, "PSM_ID", UTF8);
+        MZTabKeyIndex sequenceIndex = MZTabKeyIndex.open(file, Section.PSM, "sequence", UTF8);
+        for (int i = 0; i < 5000; i += 7) {
+            List<MZTabIndex.Entry> entries = idIndex.lookup("" + i);
+            assertEquals(1, entries.size());
+            assertEquals(i, entries.get(0).getRow());
+            assertEquals(i + 3, entries.get(0).getLineNumber());
+
+            MappedLineReader reader = new MappedLineReader(file, UTF8, entries.get(0).getOffset(), -1);
+            assertEquals("" + i, MZTabLineTokenizer.split(reader.readLine())[2]);
+            reader.close();
+        }
+
+        List<MZTabIndex.Entry> entries = sequenceIndex.lookup("SEQ5");
+        assertEquals(52, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(5 + i * 97, entries.get(i).getRow());
+        }
+        idIndex.close();
+        sequenceIndex.close();
+    }
+}
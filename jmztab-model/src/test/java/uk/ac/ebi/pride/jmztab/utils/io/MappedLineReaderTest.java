@@ -0,0 +1,124 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedLineReaderTest {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private File createFile(String content) throws IOException {
+        File file = File.createTempFile("mapped", ".mztab");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        out.write(content.getBytes(UTF8));
+        out.close();
+        return file;
+    }
+
+    private List<String> readBuffered(File file) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+
+    private List<String> readMapped(File file, long start, long end, int windowSize) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        MappedLineReader reader = new MappedLineReader(file, UTF8, start, end, windowSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+
+    private void check(String content) throws IOException {
+        File file = createFile(content);
+        List<String> expected = readBuffered(file);
+        for (int windowSize : new int[] {1, 2, 3, 7, 64, MappedLineReader.DEFAULT_WINDOW_SIZE}) {
+            assertEquals(expected, readMapped(file, 0, -1, windowSize));
+        }
+    }
+
+    @Test
+    public void testReadLine() throws Exception {
+        check("");
+        check("\n");
+        check("PRT\tP12345");
+        check("PRT\tP12345\n");
+        check("MTD\tmzTab-version\t1.0.0\nPRH\taccession\n\nPRT\tP12345\n");
+        check("MTD\ta\r\nPRH\tb\r\n\r\nPRT\tc\r\n");
+        check("MTD\ta\rPRH\tb\r\rPRT\tc");
+        check("MTD\ta\n\rPRH\tb\r\n\n");
+        check("COM\tcafé 中文\tnaïve\nPRT\tµg\n");
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("PSM\t").append(i).append("\tcafé\n");
+        }
+        sb.append("PSM\tlast");
+        File file = createFile(sb.toString());
+        List<String> expected = readBuffered(file);
+
+        List<Long> lineStarts = new ArrayList<Long>();
+        MappedLineReader reader = new MappedLineReader(file, UTF8, 0, -1, 100);
+        while (reader.readLine() != null) {
+            lineStarts.add(reader.getLineStart());
+        }
+        reader.close();
+        lineStarts.add(file.length());
+
+        for (int step : new int[] {1, 7, 64, 1000}) {
+            List<String> lines = new ArrayList<String>();
+            for (int i = 0; i < expected.size(); i += step) {
+                long end = lineStarts.get(Math.min(i + step, expected.size()));
+                lines.addAll(readMapped(file, lineStarts.get(i), end, 100));
+            }
+            assertEquals(expected, lines);
+        }
+    }
+
+    @Test
+    public void testPosition() throws Exception {
+        File file = createFile("PRT\ta\nPRT\tb\n");
+        MappedLineReader reader = new MappedLineReader(file, UTF8);
+        assertEquals(0, reader.getPosition());
+        reader.readLine();
+        assertEquals(6, reader.getPosition());
+        reader.readLine();
+        assertEquals(12, reader.getPosition());
+        assertNull(reader.readLine());
+        reader.close();
+    }
+
+    @Test
+    public void testLineStart() throws Exception {
+        String content = "PRT\ta\r\nPRT\tb\rPRT\tc\n\nPRT\td";
+        File file = createFile(content);
+        for (int windowSize : new int[] {1, 2, 3, 64}) {
+            MappedLineReader reader = new MappedLineReader(file, UTF8, 0, -1, windowSize);
+            assertEquals(-1, reader.getLineStart());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() != 0) {
+                    assertEquals(content.indexOf(line), reader.getLineStart());
+                }
+            }
+            reader.close();
+        }
+    }
+}
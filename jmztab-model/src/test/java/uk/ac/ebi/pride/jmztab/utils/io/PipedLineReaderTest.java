@@ -0,0 +1,115 @@
+package uk.ac.ebi.pride.jmztab.utils.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PipedLineReaderTest {
+
+    private String createContent(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("PSM\t").append(i).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private List<String> read(MZTabLineReader reader) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+
+    @Test
+    public void testReadLine() throws Exception {
+        for (int count : new int[] {0, 1, 5, 6, 100}) {
+            String content = createContent(count);
+            List<String> expected = read(new BufferedLineReader(new StringReader(content)));
+            assertEquals(count, expected.size());
+
+            for (int[] ring : new int[][] {{1, 1}, {1, 5}, {2, 3}, {8, 1024}}) {
+                MZTabLineReader reader = new PipedLineReader(new BufferedLineReader(new StringReader(content)), ring[0], ring[1]);
+                assertEquals(expected, read(reader));
+            }
+        }
+    }
+
+    @Test
+    public void testException() throws Exception {
+        MZTabLineReader source = new MZTabLineReader() {
+            private int count = 0;
+
+            @Override
+            public String readLine() throws IOException {
+                if (count == 10) {
+                    throw new IOException("broken");
+                }
+                return "PRT\t" + count++;
+            }
+
+            @Override
+            public void close() throws IOException {
+            }
+        };
+
+        MZTabLineReader reader = new PipedLineReader(source, 2, 3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("PRT\t" + i, reader.readLine());
+        }
+        try {
+            reader.readLine();
+            fail("IOException should be raised.");
+        } catch (IOException e) {
+            assertEquals("broken", e.getMessage());
+        }
+        reader.close();
+    }
+
+    @Test
+    public void testError() throws Exception {
+        MZTabLineReader source = new MZTabLineReader() {
+            private int count = 0;
+
+            @Override
+            public String readLine() throws IOException {
+                if (count == 4) {
+                    throw new StackOverflowError("inflate");
+                }
+                return "PRT\t" + count++;
+            }
+
+            @Override
+            public void close() throws IOException {
+            }
+        };
+
+        // the error kills the reader thread, but the consumer still gets the lines before it and the cause.
+        MZTabLineReader reader = new PipedLineReader(source, 2, 3);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("PRT\t" + i, reader.readLine());
+        }
+        try {
+            reader.readLine();
+            fail("IOException should be raised.");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof StackOverflowError);
+        }
+        reader.close();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        MZTabLineReader reader = new PipedLineReader(new BufferedLineReader(new StringReader(createContent(10000))), 2, 10);
+        assertEquals("PSM\t0", reader.readLine());
+        reader.close();
+    }
+}
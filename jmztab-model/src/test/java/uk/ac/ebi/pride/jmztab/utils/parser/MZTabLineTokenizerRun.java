@@ -0,0 +1,82 @@
+package uk.ac.ebi.pride.jmztab.utils.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the per-line cost of splitting mzTab lines by regular expression and by {@link MZTabLineTokenizer}.
+ *
+ * Usage: MZTabLineTokenizerRun [mzTab file] [rounds]
+ */
+public class MZTabLineTokenizerRun {
+    private static final String REGEX = "\\s*\t\\s*";
+
+    private static long regex(List<String> lines) {
+        long count = 0;
+        for (String line : lines) {
+            String[] items = line.split(REGEX);
+            count += items.length;
+        }
+        return count;
+    }
+
+    private static long tokenizer(List<String> lines, MZTabLineTokenizer tokenizer) {
+        long count = 0;
+        for (String line : lines) {
+            tokenizer.tokenize(line);
+            String[] items = tokenizer.toArray();
+            count += items.length;
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File tabFile = args.length > 0 ? new File(args[0]) :
+                new File(MZTabLineTokenizerRun.class.getClassLoader().getResource("testset/PRIDE_Example.mztab").toURI());
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(tabFile));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().length() > 0) {
+                lines.add(line);
+            }
+        }
+        reader.close();
+
+        MZTabLineTokenizer tokenizer = new MZTabLineTokenizer();
+
+        // warm up.
+        for (int i = 0; i < rounds; i++) {
+            regex(lines);
+            tokenizer(lines, tokenizer);
+        }
+
+        long start = System.nanoTime();
+        long regexCount = 0;
+        for (int i = 0; i < rounds; i++) {
+            regexCount += regex(lines);
+        }
+        long regexTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long tokenizerCount = 0;
+        for (int i = 0; i < rounds; i++) {
+            tokenizerCount += tokenizer(lines, tokenizer);
+        }
+        long tokenizerTime = System.nanoTime() - start;
+
+        if (regexCount != tokenizerCount) {
+            throw new IllegalStateException("Cell count not match: " + regexCount + " != " + tokenizerCount);
+        }
+
+        long total = (long) lines.size() * rounds;
+        System.out.println(tabFile.getName() + ": " + lines.size() + " lines, " + rounds + " rounds");
+        System.out.printf("regex split:        %8.1f ns/line%n", (double) regexTime / total);
+        System.out.printf("MZTabLineTokenizer: %8.1f ns/line%n", (double) tokenizerTime / total);
+    }
+}
@@ -0,0 +1,73 @@
+package uk.ac.ebi.pride.jmztab.utils.parser;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.Section;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MZTabLineTokenizerTest {
+    private static final String REGEX = "\\s*\t\\s*";
+
+    private void check(String line) {
+        String[] expected = line.split(REGEX);
+        assertEquals(Arrays.toString(expected), Arrays.toString(MZTabLineTokenizer.split(line)));
+
+        if (expected.length > 0) {
+            assertEquals(Section.findSection(expected[0].trim()), MZTabLineTokenizer.findSection(line));
+        }
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        check("PRT");
+        check("PRT\tP12345");
+        check("PRT \t P12345 \t null");
+        check("PRT\t\tP12345");
+        check("PRT\t \t P12345");
+        check("PRT\tP12345\t");
+        check("PRT\tP12345\t\t \t");
+        check("\tPRT\tP12345");
+        check(" PRT\tP12345 ");
+        check("PRT P12345");
+        check("PRT  P12345\tnull");
+        check("MTD\tmzTab-version\t1.0.0\r");
+        check("COM\tcomment with spaces");
+        check("XXX\tP12345");
+        check("");
+        check("\t");
+        check(" \t ");
+
+        MZTabLineTokenizer tokenizer = new MZTabLineTokenizer();
+        assertEquals(3, tokenizer.tokenize("PSM \t 12\tnull"));
+        assertEquals("12", tokenizer.get(1));
+        assertEquals(6, tokenizer.getStart(1));
+        assertEquals(8, tokenizer.getEnd(1));
+    }
+
+    @Test
+    public void testSplitFile() throws Exception {
+        for (String name : new String[] {"testset/PRIDE_Example.mztab", "testset/Score_MzTab.mztab"}) {
+            File file = new File(MZTabLineTokenizerTest.class.getClassLoader().getResource(name).toURI());
+            BufferedReader reader = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                check(line);
+            }
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testLongLine() throws Exception {
+        StringBuilder sb = new StringBuilder("SML");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("\t").append(i);
+        }
+        check(sb.toString());
+    }
+}
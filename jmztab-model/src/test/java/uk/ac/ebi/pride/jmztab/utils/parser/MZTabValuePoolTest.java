@@ -0,0 +1,91 @@
+package uk.ac.ebi.pride.jmztab.utils.parser;
+
+import org.junit.Test;
+import uk.ac.ebi.pride.jmztab.model.Param;
+import uk.ac.ebi.pride.jmztab.model.SplitList;
+
+import static org.junit.Assert.*;
+
+public class MZTabValuePoolTest {
+
+    @Test
+    public void testString() throws Exception {
+        MZTabValuePool pool = new MZTabValuePool();
+        String database = pool.getString(new String("UniProtKB"));
+        assertSame(database, pool.getString(new String("UniProtKB")));
+        assertSame(database, pool.getString(new String("UniProtKB")));
+        assertNotSame(database, pool.getString(new String("2014_03")));
+        assertNull(pool.getString(null));
+
+        assertEquals(2, pool.getStringHits());
+        assertEquals(2, pool.getStringMisses());
+        assertEquals(0.5, pool.getHitRate(), 0);
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testParamList() throws Exception {
+        MZTabValuePool pool = new MZTabValuePool();
+        String searchEngine = "[MS, MS:1001207, Mascot, ]|[MS, MS:1001208, Sequest, ]";
+        SplitList<Param> params = pool.getParamList(searchEngine);
+        SplitList<Param> other = pool.getParamList(new String(searchEngine));
+
+        assertEquals(2, params.size());
+        assertEquals(searchEngine, other.toString());
+        assertNotSame(params, other);
+        assertSame(params.get(0), other.get(0));
+        assertSame(params.get(1), other.get(1));
+
+        // the list of one record can be changed without affecting the others.
+        other.remove(1);
+        assertEquals(2, pool.getParamList(searchEngine).size());
+
+        assertEquals(0, pool.getParamList("not a param").size());
+        assertEquals(2, pool.getParamListHits());
+        assertEquals(2, pool.getParamListMisses());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        MZTabValuePool pool = new MZTabValuePool(2);
+        String a = pool.getString(new String("a"));
+        pool.getString("b");
+        pool.getString("a");
+        pool.getString("c");
+
+        // "b" is the least recently used value.
+        assertEquals(2, pool.size());
+        assertEquals(1, pool.getEvictions());
+        assertSame(a, pool.getString(new String("a")));
+        assertEquals(2, pool.getStringHits());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getHitRate(), 0);
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        assertEquals(1, new MZTabValuePool(2).getSegmentCount());
+        MZTabValuePool pool = new MZTabValuePool();
+        assertEquals(MZTabValuePool.MAX_SEGMENTS, pool.getSegmentCount());
+
+        for (int i = 0; i < 1000; i++) {
+            pool.getString("value" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            pool.getString(new String("value" + i));
+        }
+        assertEquals(1000, pool.size());
+        assertEquals(1000, pool.getStringHits());
+        assertEquals(0, pool.getEvictions());
+
+        // each segment keeps its share of the max size.
+        pool = new MZTabValuePool(256);
+        for (int i = 0; i < 1000; i++) {
+            pool.getString("value" + i);
+        }
+        assertTrue(pool.size() <= 256);
+        assertEquals(1000 - pool.size(), pool.getEvictions());
+    }
+}
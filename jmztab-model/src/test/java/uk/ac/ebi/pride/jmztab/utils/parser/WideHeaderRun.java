@@ -0,0 +1,110 @@
+package uk.ac.ebi.pride.jmztab.utils.parser;
+
+import uk.ac.ebi.pride.jmztab.model.*;
+import uk.ac.ebi.pride.jmztab.utils.errors.MZTabErrorList;
+
+/**
+ * Measure the cost of the protein header line with thousands of protein_abundance_assay[n] and opt_assay[n]_ columns,
+ * which are produced by TMT or DIA studies: parse the header into {@link MZTabColumnFactory}, create the
+ * {@link PositionMapping} and the {@link PRTLineParser}, and parse one data line. The time per column should keep
+ * the same when the header become wider.
+ *
+ * Usage: WideHeaderRun [max column count] [rounds]
+ */
+public class WideHeaderRun {
+    private static final String STABLE_HEADERS = "accession\tdescription\ttaxid\tspecies\tdatabase\tdatabase_version\t" +
+        "search_engine\tbest_search_engine_score[1]\tambiguity_members\tmodifications";
+    private static final String STABLE_VALUES = "P12345\tprotein\t9606\tHomo sapiens\tUniProtKB\t2014_03\t" +
+        "[MS, MS:1001207, Mascot, ]\t50.5\tnull\tnull";
+
+    private Metadata metadata = new Metadata();
+    private String headerLine;
+    private String dataLine;
+    private int columnCount;
+
+    private long headerTime;
+    private long mappingTime;
+    private long parserTime;
+    private long lineTime;
+
+    /**
+     * @param assayCount each assay has one abundance column and one opt_ column.
+     */
+    public WideHeaderRun(int assayCount) {
+        metadata.addProteinSearchEngineScoreParam(1, new CVParam("MS", "MS:1001171", "Mascot:score", null));
+
+        StringBuilder header = new StringBuilder("PRH\t").append(STABLE_HEADERS);
+        StringBuilder data = new StringBuilder("PRT\t").append(STABLE_VALUES);
+        for (int i = 1; i <= assayCount; i++) {
+            metadata.addAssay(new Assay(i));
+            header.append("\tprotein_abundance_assay[").append(i).append("]");
+            data.append("\t").append(i * 0.5);
+        }
+        for (int i = 1; i <= assayCount; i++) {
+            header.append("\topt_assay[").append(i).append("]_ratio");
+            data.append("\t").append(i);
+        }
+
+        headerLine = header.toString();
+        dataLine = data.toString();
+        columnCount = headerLine.split("\t").length - 1;
+    }
+
+    private void run() throws Exception {
+        MZTabErrorList errorList = new MZTabErrorList();
+
+        long start = System.nanoTime();
+        PRHLineParser headerParser = new PRHLineParser(metadata);
+        headerParser.parse(1, headerLine, errorList);
+        MZTabColumnFactory factory = headerParser.getFactory();
+        headerTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        PositionMapping positionMapping = new PositionMapping(factory, headerLine);
+        mappingTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        PRTLineParser dataParser = new PRTLineParser(factory, positionMapping, metadata, errorList);
+        parserTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        dataParser.parse(2, dataLine, errorList);
+        dataParser.getRecord();
+        lineTime = System.nanoTime() - start;
+
+        if (factory.getColumnMapping().size() != columnCount || positionMapping.size() != columnCount || !errorList.isEmpty()) {
+            throw new IllegalStateException("Parse " + columnCount + " columns failed: " + errorList);
+        }
+    }
+
+    private static String format(long nanos, int columnCount) {
+        return String.format("%9.1f ms %7.0f ns/col", nanos / 1e6, (double) nanos / columnCount);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxColumnCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        // warm up.
+        for (int i = 0; i < rounds; i++) {
+            new WideHeaderRun(maxColumnCount / 2).run();
+        }
+
+        for (int assayCount = maxColumnCount / 16; assayCount <= maxColumnCount / 2; assayCount *= 2) {
+            WideHeaderRun best = null;
+            for (int i = 0; i < rounds; i++) {
+                WideHeaderRun run = new WideHeaderRun(assayCount);
+                run.run();
+                if (best == null || run.headerTime + run.mappingTime + run.parserTime < best.headerTime + best.mappingTime + best.parserTime) {
+                    best = run;
+                }
+            }
+
+            System.out.println(best.columnCount + " columns:");
+            System.out.println("  header line     " + format(best.headerTime, best.columnCount));
+            System.out.println("  position mapping" + format(best.mappingTime, best.columnCount));
+            System.out.println("  data parser     " + format(best.parserTime, best.columnCount));
+            System.out.println("  first data line " + format(best.lineTime, best.columnCount));
+        }
+    }
+}